@@ -0,0 +1,181 @@
+package bench;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import model.CalendarEvent;
+import model.CalendarModelAllHelpers;
+import model.CalendarModelGUISupport;
+import model.CalendarModelImpl;
+import model.ColumnarCalendarModel;
+import model.ConcurrentCalendarModel;
+
+/**
+ * Builds synthetic calendars and command scripts for the benchmarks. Everything is derived
+ * from a seed, so two runs with the same parameters measure the same calendar.
+ */
+public final class CalendarGenerator {
+  /**
+   * The first day of every generated calendar.
+   */
+  public static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 6);
+
+  private static final String WEEKDAYS = "MTWRFSU";
+  private static final int SUBJECTS = 200;
+
+  private final int eventCount;
+  private final int spanDays;
+  private final double seriesRatio;
+  private final String[] zones;
+  private final long seed;
+
+  /**
+   * Constructs a generator.
+   *
+   * @param eventCount  the number of events a generated calendar holds
+   * @param spanDays    the number of days the events are spread over
+   * @param seriesRatio the share of events that belong to a repeating series, from 0 to 1
+   * @param zones       a comma separated list of the zones events are created in
+   * @param seed        the seed of the random choices
+   */
+  public CalendarGenerator(int eventCount, int spanDays, double seriesRatio, String zones,
+                           long seed) {
+    if (eventCount < 0 || spanDays <= 0 || seriesRatio < 0 || seriesRatio > 1) {
+      throw new IllegalArgumentException("Invalid generator parameters");
+    }
+    this.eventCount = eventCount;
+    this.spanDays = spanDays;
+    this.seriesRatio = seriesRatio;
+    this.zones = zones.split(",");
+    this.seed = seed;
+  }
+
+  /**
+   * Creates an empty calendar of the given kind.
+   *
+   * @param kind     "impl" for CalendarModelImpl, "columnar" for ColumnarCalendarModel or
+   *                 "concurrent" for ConcurrentCalendarModel
+   * @param name     the name of the calendar
+   * @param timezone the timezone of the calendar
+   * @return the calendar
+   */
+  public static CalendarModelGUISupport newCalendar(String kind, String name, String timezone) {
+    switch (kind) {
+      case "impl":
+        return new CalendarModelImpl(name, timezone);
+      case "columnar":
+        return new ColumnarCalendarModel(name, timezone);
+      case "concurrent":
+        return new ConcurrentCalendarModel(name, timezone);
+      default:
+        throw new IllegalArgumentException("Unknown calendar kind: " + kind);
+    }
+  }
+
+  /**
+   * Gets the last day events are generated on.
+   *
+   * @return the last day of the span
+   */
+  public LocalDate lastDay() {
+    return FIRST_DAY.plusDays(spanDays - 1);
+  }
+
+  /**
+   * Fills a calendar with events until it holds the requested number. Series repeat on three
+   * weekdays for four weeks, and single events are created in one of the configured zones.
+   *
+   * @param calendar the calendar to fill
+   * @return the calendar
+   */
+  public CalendarModelAllHelpers populate(CalendarModelAllHelpers calendar) {
+    Random random = new Random(seed);
+    int created = 0;
+    int attempts = 0;
+    while (created < eventCount && attempts++ < eventCount * 4) {
+      String subject = "Event " + random.nextInt(SUBJECTS);
+      LocalDateTime start = randomStart(random);
+      LocalDateTime end = start.plusMinutes(30 + 15 * random.nextInt(7));
+      int remaining = eventCount - created;
+      try {
+        if (remaining >= 13 && random.nextDouble() < seriesRatio) {
+          calendar.createAllEvents(new CalendarEvent.EventBuilder()
+                  .setSubject(subject)
+                  .setStartTime(start)
+                  .setEndTime(end)
+                  .build(), days(random), 4);
+          created += calendar.getEventsBetween(start, start.plusWeeks(5)).stream()
+                  .filter(e -> e.getSubject().equals(subject)).count();
+        } else {
+          calendar.createEvent(new CalendarEvent.EventBuilder()
+                  .setSubject(subject)
+                  .setStartTime(start)
+                  .setEndTime(end)
+                  .setTimezone(ZoneId.of(zones[random.nextInt(zones.length)].trim()))
+                  .build());
+          created++;
+        }
+      } catch (IllegalArgumentException e) {
+        // a clash with an event generated earlier, try another one
+      }
+    }
+    return calendar;
+  }
+
+  /**
+   * Generates a script of commands in the format of the headless mode, mixing creations,
+   * queries and edits over the span of the generator.
+   *
+   * @param count the number of commands
+   * @return the commands
+   */
+  public List<String> commands(int count) {
+    Random random = new Random(seed);
+    List<String> commands = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      LocalDateTime start = randomStart(random);
+      String from = start.toString();
+      String to = start.plusHours(1).toString();
+      String subject = "Event" + random.nextInt(SUBJECTS);
+      switch (random.nextInt(5)) {
+        case 0:
+          commands.add("create event " + subject + " from " + from + " to " + to);
+          break;
+        case 1:
+          commands.add("create event " + subject + " from " + from + " to " + to
+                  + " repeats " + days(random) + " for 4 times");
+          break;
+        case 2:
+          commands.add("print events on " + start.toLocalDate());
+          break;
+        case 3:
+          commands.add("print events from " + from + " to "
+                  + start.plusDays(7).toString());
+          break;
+        default:
+          commands.add("edit event subject " + subject + " from " + from + " to " + to
+                  + " with Renamed");
+          break;
+      }
+    }
+    return commands;
+  }
+
+  private LocalDateTime randomStart(Random random) {
+    return FIRST_DAY.plusDays(random.nextInt(spanDays)).atTime(7, 0)
+            .plusMinutes(15L * random.nextInt(48));
+  }
+
+  private static String days(Random random) {
+    StringBuilder days = new StringBuilder();
+    int first = random.nextInt(WEEKDAYS.length());
+    for (int i = 0; i < 3; i++) {
+      days.append(WEEKDAYS.charAt((first + 2 * i) % WEEKDAYS.length()));
+    }
+    return days.toString();
+  }
+}
@@ -0,0 +1,117 @@
+package bench;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.CalendarEvent;
+import model.CalendarModelGUISupport;
+import model.Event;
+
+/**
+ * Measures the throughput of one calendar shared by several threads. The reads benchmark
+ * only queries, so running it with -t 1, 2, 4 and so on shows how reads scale with cores;
+ * the mixed group queries from three threads while a fourth keeps creating events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentReadBenchmark {
+  @Param({"concurrent"})
+  public String kind;
+
+  @Param({"100000"})
+  public int events;
+
+  @Param({"365"})
+  public int spanDays;
+
+  private CalendarModelGUISupport calendar;
+
+  /**
+   * Builds the shared calendar.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    CalendarGenerator generator = new CalendarGenerator(events, spanDays, 0.3,
+            "America/New_York,Europe/London,Asia/Tokyo", 42);
+    calendar = CalendarGenerator.newCalendar(kind, "Bench", "America/New_York");
+    generator.populate(calendar);
+  }
+
+  /**
+   * The position of one thread in the span.
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+    private int day;
+    private long created;
+
+    private LocalDate nextDay(int spanDays) {
+      day = (day + 37) % spanDays;
+      return CalendarGenerator.FIRST_DAY.plusDays(day);
+    }
+  }
+
+  /**
+   * Gets the events of one week.
+   *
+   * @param cursor the position of the thread
+   * @return the events
+   */
+  @Benchmark
+  public List<Event> reads(Cursor cursor) {
+    LocalDateTime from = cursor.nextDay(spanDays).atStartOfDay();
+    return calendar.getEventsBetween(from, from.plusDays(7));
+  }
+
+  /**
+   * Gets the events of one week while another thread writes.
+   *
+   * @param cursor the position of the thread
+   * @return the events
+   */
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(3)
+  public List<Event> mixedReads(Cursor cursor) {
+    return reads(cursor);
+  }
+
+  /**
+   * Creates an event after the span while other threads read.
+   *
+   * @param cursor the position of the thread
+   */
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(1)
+  public void mixedWrites(Cursor cursor) {
+    LocalDateTime start = CalendarGenerator.FIRST_DAY.plusDays(spanDays + 1).atStartOfDay()
+            .plusMinutes(cursor.created++);
+    calendar.createEvent(new CalendarEvent.EventBuilder()
+            .setSubject("Written")
+            .setStartTime(start)
+            .setEndTime(start.plusMinutes(30))
+            .build());
+  }
+}
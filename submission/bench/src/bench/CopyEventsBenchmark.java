@@ -0,0 +1,75 @@
+package bench;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.MultipleCalendarModelImpl;
+
+/**
+ * Measures copying a range of days from a generated calendar into another calendar in a
+ * different zone. Copies cannot be repeated onto the same days, so every call of a batch
+ * copies onto a later stretch of the target and both calendars are rebuilt per iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = 20)
+@Measurement(iterations = 10, batchSize = 20)
+@Fork(1)
+public class CopyEventsBenchmark {
+  @Param({"10000"})
+  public int events;
+
+  @Param({"365"})
+  public int spanDays;
+
+  @Param({"0.3"})
+  public double seriesRatio;
+
+  @Param({"America/New_York,Europe/London,Asia/Tokyo"})
+  public String zones;
+
+  @Param({"7"})
+  public int copyDays;
+
+  private MultipleCalendarModelImpl calendars;
+  private int copies;
+
+  /**
+   * Builds the source calendar and an empty target.
+   */
+  @Setup(Level.Iteration)
+  public void setUp() {
+    CalendarGenerator generator = new CalendarGenerator(events, spanDays, seriesRatio, zones,
+            42);
+    calendars = new MultipleCalendarModelImpl();
+    calendars.createCalendar("Source", "America/New_York");
+    calendars.createCalendar("Target", "America/Chicago");
+    generator.populate(calendars.useCalendar("Source"));
+    copies = 0;
+  }
+
+  /**
+   * Copies a range of days onto a stretch of the target no earlier copy has touched.
+   */
+  @Benchmark
+  public void copyEvents() {
+    LocalDate from = CalendarGenerator.FIRST_DAY.plusDays((long) copies * 3 % spanDays);
+    LocalDate target = LocalDate.of(2030, 1, 1).plusDays((long) copies * (copyDays + 1));
+    copies++;
+    calendars.copyEvents(from, from.plusDays(copyDays - 1), "Target", target);
+  }
+}
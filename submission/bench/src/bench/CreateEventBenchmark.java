@@ -0,0 +1,76 @@
+package bench;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.CalendarEvent;
+import model.CalendarModelGUISupport;
+
+/**
+ * Measures adding single events to a calendar that already holds a generated workload. The
+ * calendar is rebuilt before every iteration so that it does not keep growing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreateEventBenchmark {
+  @Param({"impl", "columnar"})
+  public String kind;
+
+  @Param({"1000", "100000"})
+  public int events;
+
+  @Param({"365"})
+  public int spanDays;
+
+  @Param({"0.3"})
+  public double seriesRatio;
+
+  @Param({"America/New_York,Europe/London,Asia/Tokyo"})
+  public String zones;
+
+  private CalendarModelGUISupport calendar;
+  private int created;
+
+  /**
+   * Builds the calendar events are added to.
+   */
+  @Setup(Level.Iteration)
+  public void setUp() {
+    CalendarGenerator generator = new CalendarGenerator(events, spanDays, seriesRatio, zones,
+            42);
+    calendar = CalendarGenerator.newCalendar(kind, "Bench", "America/New_York");
+    generator.populate(calendar);
+    created = 0;
+  }
+
+  /**
+   * Adds one event with a subject no generated event has.
+   */
+  @Benchmark
+  public void createEvent() {
+    LocalDateTime start = CalendarGenerator.FIRST_DAY.atTime(9, 0)
+            .plusDays(created % spanDays);
+    calendar.createEvent(new CalendarEvent.EventBuilder()
+            .setSubject("Created " + created++)
+            .setStartTime(start)
+            .setEndTime(start.plusHours(1))
+            .build());
+  }
+}
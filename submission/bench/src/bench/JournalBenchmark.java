@@ -0,0 +1,83 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.WriteAheadLog;
+
+/**
+ * Measures appending records to a write-ahead log from several threads under each sync
+ * policy. Under ALWAYS the threads that wait at the same time share one fsync, so the rate
+ * grows with the number of threads, which can be changed with -t.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JournalBenchmark {
+  @Param({"ALWAYS", "INTERVAL", "NEVER"})
+  public WriteAheadLog.SyncPolicy policy;
+
+  @Param({"64"})
+  public int recordBytes;
+
+  private WriteAheadLog log;
+  private Path file;
+  private byte[] record;
+
+  /**
+   * Opens an empty log.
+   *
+   * @throws IOException if the log cannot be created
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    file = Files.createTempFile("calendar", ".log");
+    Files.delete(file);
+    log = WriteAheadLog.open(file, policy, 10);
+    record = new byte[recordBytes];
+    Arrays.fill(record, (byte) 'x');
+  }
+
+  /**
+   * Closes and deletes the log.
+   *
+   * @throws IOException if the log cannot be closed or deleted
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    log.close();
+    Files.deleteIfExists(file);
+  }
+
+  /**
+   * Appends one record.
+   *
+   * @throws IOException if the log cannot be written
+   */
+  @Benchmark
+  public void append() throws IOException {
+    log.append(record);
+  }
+}
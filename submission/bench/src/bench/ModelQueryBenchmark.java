@@ -0,0 +1,99 @@
+package bench;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.CalendarModelGUISupport;
+import model.Event;
+
+/**
+ * Measures the read side of a calendar: range queries, the events of a day and the events
+ * the GUI shows from a date onwards. Each call asks about a different day of the span.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelQueryBenchmark {
+  @Param({"impl", "columnar"})
+  public String kind;
+
+  @Param({"1000", "100000"})
+  public int events;
+
+  @Param({"365"})
+  public int spanDays;
+
+  @Param({"0.3"})
+  public double seriesRatio;
+
+  @Param({"America/New_York,Europe/London,Asia/Tokyo"})
+  public String zones;
+
+  private CalendarModelGUISupport calendar;
+  private int day;
+
+  /**
+   * Builds the calendar that is queried.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    CalendarGenerator generator = new CalendarGenerator(events, spanDays, seriesRatio, zones,
+            42);
+    calendar = CalendarGenerator.newCalendar(kind, "Bench", "America/New_York");
+    generator.populate(calendar);
+  }
+
+  private LocalDate nextDay() {
+    day = (day + 37) % spanDays;
+    return CalendarGenerator.FIRST_DAY.plusDays(day);
+  }
+
+  /**
+   * Gets the events of one week.
+   *
+   * @return the events
+   */
+  @Benchmark
+  public List<Event> getEventsBetween() {
+    LocalDateTime from = nextDay().atStartOfDay();
+    return calendar.getEventsBetween(from, from.plusDays(7));
+  }
+
+  /**
+   * Gets the events of one day.
+   *
+   * @return the events
+   */
+  @Benchmark
+  public List<Event> getEventsOnDate() {
+    return calendar.getEventsOnDate(nextDay());
+  }
+
+  /**
+   * Gets the events the GUI shows from a day onwards.
+   *
+   * @return the events
+   */
+  @Benchmark
+  public List<Event> eventsToBeShown() {
+    return calendar.eventsToBeShown(nextDay());
+  }
+}
@@ -0,0 +1,56 @@
+package bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controller.CalendarCommand;
+import controller.EventCommandParser;
+
+/**
+ * Measures turning one line of a headless script into a command, cycling through a generated
+ * mix of creations, series, queries and edits.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+  private EventCommandParser parser;
+  private String[] commands;
+  private int next;
+
+  /**
+   * Generates the script that is parsed.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    parser = new EventCommandParser();
+    List<String> script = new CalendarGenerator(0, 365, 0, "UTC", 42).commands(1024);
+    commands = script.toArray(new String[0]);
+  }
+
+  /**
+   * Parses the next line of the script.
+   *
+   * @return the parsed command
+   */
+  @Benchmark
+  public CalendarCommand parse() {
+    next = (next + 1) % commands.length;
+    return parser.parse(commands[next]);
+  }
+}
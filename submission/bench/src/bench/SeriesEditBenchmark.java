@@ -0,0 +1,72 @@
+package bench;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.CalendarEvent;
+import model.CalendarModelGUISupport;
+import model.Event;
+import model.PropertyChange;
+import model.PropertyType;
+
+/**
+ * Measures editing every occurrence of a daily series through editSeries. Each call renames
+ * the series and then moves its start time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeriesEditBenchmark {
+  @Param({"impl", "columnar"})
+  public String kind;
+
+  @Param({"715"})
+  public int weeks;
+
+  private CalendarModelGUISupport calendar;
+  private long seriesId;
+  private int round;
+
+  /**
+   * Creates the series that is edited.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    calendar = CalendarGenerator.newCalendar(kind, "Bench", "UTC");
+    LocalDateTime start = CalendarGenerator.FIRST_DAY.atTime(9, 0);
+    Event standup = new CalendarEvent.EventBuilder()
+            .setSubject("Standup")
+            .setStartTime(start)
+            .setEndTime(start.plusMinutes(15))
+            .build();
+    calendar.createAllEvents(standup, "MTWRFSU", weeks);
+    seriesId = calendar.getEventsOnDate(start.toLocalDate()).get(0).getSeriesId();
+  }
+
+  /**
+   * Renames the series and moves its start time.
+   */
+  @Benchmark
+  public void editSeries() {
+    calendar.editSeries(seriesId, new PropertyChange(PropertyType.SUBJECT, "Standup " + round));
+    String time = round % 2 == 0 ? "2025-01-06T08:45" : "2025-01-06T09:00";
+    calendar.editSeries(seriesId, new PropertyChange(PropertyType.START, time));
+    round++;
+  }
+}
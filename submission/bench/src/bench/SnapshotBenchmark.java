@@ -0,0 +1,95 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.CalendarSnapshot;
+import model.MultipleCalendarModelImpl;
+
+/**
+ * Measures writing and reading a snapshot of a model holding one generated calendar.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SnapshotBenchmark {
+  @Param({"100000"})
+  public int events;
+
+  @Param({"365"})
+  public int spanDays;
+
+  @Param({"0.3"})
+  public double seriesRatio;
+
+  @Param({"America/New_York,Europe/London,Asia/Tokyo"})
+  public String zones;
+
+  private MultipleCalendarModelImpl model;
+  private Path file;
+
+  /**
+   * Builds the model and writes the snapshot that is read back.
+   *
+   * @throws IOException if the snapshot cannot be written
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    model = new MultipleCalendarModelImpl();
+    model.createCalendar("Bench", "America/New_York");
+    new CalendarGenerator(events, spanDays, seriesRatio, zones, 42)
+            .populate(model.useCalendar("Bench"));
+    file = Files.createTempFile("calendar", ".snapshot");
+    CalendarSnapshot.save(model, file);
+  }
+
+  /**
+   * Deletes the snapshot.
+   *
+   * @throws IOException if the snapshot cannot be deleted
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  /**
+   * Writes the snapshot.
+   *
+   * @throws IOException if the snapshot cannot be written
+   */
+  @Benchmark
+  public void save() throws IOException {
+    CalendarSnapshot.save(model, file);
+  }
+
+  /**
+   * Reads the snapshot.
+   *
+   * @return the loaded model
+   * @throws IOException if the snapshot cannot be read
+   */
+  @Benchmark
+  public MultipleCalendarModelImpl load() throws IOException {
+    return CalendarSnapshot.load(file);
+  }
+}
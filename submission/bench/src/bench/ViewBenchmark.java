@@ -0,0 +1,71 @@
+package bench;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.CalendarModelGUISupport;
+import model.Event;
+import view.CalendarViewImpl;
+
+/**
+ * Measures rendering a list of events as text, the way print events does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ViewBenchmark {
+  @Param({"10000"})
+  public int events;
+
+  @Param({"7", "90"})
+  public int renderedDays;
+
+  @Param({"0.3"})
+  public double seriesRatio;
+
+  private List<Event> rendered;
+  private StringBuilder out;
+  private CalendarViewImpl view;
+
+  /**
+   * Builds a calendar and picks the events of the first days to render.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    CalendarModelGUISupport calendar = CalendarGenerator.newCalendar("impl", "Bench", "UTC");
+    new CalendarGenerator(events, 365, seriesRatio, "UTC,Asia/Kolkata", 42).populate(calendar);
+    LocalDateTime from = CalendarGenerator.FIRST_DAY.atStartOfDay();
+    rendered = calendar.getEventsBetween(from, from.plusDays(renderedDays));
+    out = new StringBuilder();
+    view = new CalendarViewImpl(out);
+  }
+
+  /**
+   * Renders the events into a reused buffer.
+   *
+   * @return the length of the output
+   */
+  @Benchmark
+  public int renderEvents() {
+    out.setLength(0);
+    view.renderEvents(rendered);
+    return out.length();
+  }
+}
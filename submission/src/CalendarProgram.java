@@ -1,13 +1,31 @@
 
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.UnknownHostException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import controller.CalendarController;
 import controller.CalendarControllerGUIImpl;
 import controller.CalendarControllerImpl;
+import controller.CalendarServer;
+import controller.StreamingCalendarController;
+import model.CalendarSnapshot;
+import model.JournaledCalendarModel;
 import model.MultipleCalendarModelAllNames;
 import model.MultipleCalendarModelImpl;
+import model.WriteAheadLog;
 import view.CalendarGUIView;
 import view.CalendarGUIViewImpl;
 import view.CalendarView;
@@ -16,8 +34,9 @@ import view.CalendarViewImpl;
 /**
  * This class serves as the entry point for the Calendar Program. It initializes the model,
  * view, and controller components of the application.
- * The program can be run in two modes: interactive mode, where user input is read from the
- * console, and headless mode, where events are processed from a file.
+ * The program can be run in three modes: interactive mode, where user input is read from the
+ * console, headless mode, where events are processed from a file, and server mode, where
+ * clients send commands over TCP.
  */
 public class CalendarProgram {
 
@@ -27,44 +46,171 @@ public class CalendarProgram {
    * operation.
    * The program can run in two modes:
    * - Interactive mode: Reads input from the console.
-   * - Headless mode: Processes events from a specified input file.
+   * - Headless mode: Processes events from a specified input file, streaming it through a
+   * pipeline that parses ahead of execution and batches consecutive event creations.
+   * - Server mode: Accepts clients on the specified port, each speaking the interactive
+   * command language with a calendar in use of its own, until the program is stopped. The
+   * server only listens on the loopback address unless --bind followed by another address,
+   * such as 0.0.0.0 for every interface, is given.
+   * Either mode can be given --snapshot followed by a file, in which case the calendars are
+   * loaded from that snapshot when it exists and saved to it when the program ends, however
+   * it ends, including an interactive session ended without exit and a closed GUI window.
+   * Either mode can also be given --log followed by a file, in which case every change is
+   * recorded in that write-ahead log and replayed on top of the snapshot at the next start.
+   * --fsync followed by always, interval or never chooses when the log is forced to the disk,
+   * always by default.
    *
    * @param args Command-line arguments
    */
 
   public static void main(String[] args) {
-    MultipleCalendarModelAllNames model = new MultipleCalendarModelImpl();
+    List<String> arguments = new ArrayList<>(Arrays.asList(args));
+    String snapshotFile = option(arguments, "--snapshot");
+    String logFile = option(arguments, "--log");
+    String fsync = option(arguments, "--fsync");
+    String bind = option(arguments, "--bind");
+    args = arguments.toArray(new String[0]);
+    Path snapshot = snapshotFile == null ? null : Paths.get(snapshotFile);
+    JournaledCalendarModel journal = null;
+    MultipleCalendarModelAllNames model;
+    if (logFile != null) {
+      journal = openJournal(snapshot, Paths.get(logFile), fsync);
+      model = journal;
+    } else {
+      model = loadModel(snapshot);
+    }
     CalendarController controller;
 
     if (args.length != 0) {
       if (args.length > 1) {
         if (args[1].equalsIgnoreCase("headless")) {
+          FileChannel file;
           try {
-            FileReader file = new FileReader(args[2]);
-            CalendarView view = new CalendarViewImpl(System.out);
-            controller = new CalendarControllerImpl(file, view, model);
-            controller.run();
-          } catch (FileNotFoundException e) {
+            file = FileChannel.open(Paths.get(args[2]));
+          } catch (IOException e) {
             throw new RuntimeException("Error opening file: " + args[2]);
           }
+          Writer out = new BufferedWriter(new OutputStreamWriter(System.out,
+                  StandardCharsets.UTF_8), 1 << 16);
+          CalendarView view = new CalendarViewImpl(out);
+          controller = new StreamingCalendarController(file, view, model);
+          saveOnExit(model, journal, snapshot);
+          controller.run();
         } else if (args[1].equalsIgnoreCase("interactive")) {
           Readable in = new InputStreamReader(System.in);
           CalendarView view = new CalendarViewImpl(System.out);
           controller = new CalendarControllerImpl(in, view, model);
+          saveOnExit(model, journal, snapshot);
           controller.run();
+        } else if (args[1].equalsIgnoreCase("server")) {
+          serve(args[2], bind, model, journal, snapshot);
         } else {
-          System.out.println("Invalid mode. Please specify, 'interactive', or 'headless'.");
+          System.out.println("Invalid mode. Please specify, 'interactive', 'headless' or "
+                  + "'server'.");
           System.exit(0);
         }
       } else {
-        System.out.println("Invalid mode. Please specify, 'interactive', or 'headless'.");
+        System.out.println("Invalid mode. Please specify, 'interactive', 'headless' or "
+                + "'server'.");
         System.exit(0);
       }
 
     } else {
       CalendarGUIView guiView = new CalendarGUIViewImpl();
       controller = new CalendarControllerGUIImpl(model, guiView);
+      saveOnExit(model, journal, snapshot);
       controller.run();
     }
   }
+
+  private static void serve(String port, String bind, MultipleCalendarModelAllNames model,
+                            JournaledCalendarModel journal, Path snapshot) {
+    InetAddress address;
+    try {
+      address = bind == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bind);
+    } catch (UnknownHostException e) {
+      throw new RuntimeException("Invalid bind address: " + bind);
+    }
+    CalendarServer server;
+    try {
+      server = new CalendarServer(new ServerSocket(Integer.parseInt(port), 50, address), model);
+    } catch (IOException | NumberFormatException e) {
+      throw new RuntimeException("Error listening on port: " + port);
+    }
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      try {
+        server.close();
+        saveModel(model, journal, snapshot);
+      } catch (IOException | RuntimeException e) {
+        System.err.println("Error stopping server: " + e.getMessage());
+      }
+    }));
+    System.out.println("Listening on " + address.getHostAddress() + " port "
+            + server.getPort());
+    server.run();
+  }
+
+  private static MultipleCalendarModelImpl loadModel(Path snapshot) {
+    if (snapshot == null || !Files.exists(snapshot)) {
+      return new MultipleCalendarModelImpl();
+    }
+    try {
+      return CalendarSnapshot.load(snapshot);
+    } catch (IOException e) {
+      throw new RuntimeException("Error loading snapshot: " + snapshot, e);
+    }
+  }
+
+  private static JournaledCalendarModel openJournal(Path snapshot, Path log, String fsync) {
+    WriteAheadLog.SyncPolicy policy = WriteAheadLog.SyncPolicy.ALWAYS;
+    if (fsync != null) {
+      try {
+        policy = WriteAheadLog.SyncPolicy.valueOf(fsync.toUpperCase());
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Invalid fsync policy: " + fsync);
+      }
+    }
+    try {
+      return JournaledCalendarModel.open(snapshot, log, policy, 100);
+    } catch (IOException e) {
+      throw new RuntimeException("Error opening log: " + log, e);
+    }
+  }
+
+  private static void saveModel(MultipleCalendarModelAllNames model,
+                                JournaledCalendarModel journal, Path snapshot) {
+    try {
+      if (journal != null) {
+        if (snapshot != null) {
+          journal.checkpoint();
+        }
+        journal.close();
+      } else if (snapshot != null) {
+        CalendarSnapshot.save((MultipleCalendarModelImpl) model, snapshot);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Error saving calendars", e);
+    }
+  }
+
+  private static void saveOnExit(MultipleCalendarModelAllNames model,
+                                 JournaledCalendarModel journal, Path snapshot) {
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      try {
+        saveModel(model, journal, snapshot);
+      } catch (RuntimeException e) {
+        System.err.println("Error saving calendars: " + e.getMessage());
+      }
+    }));
+  }
+
+  private static String option(List<String> arguments, String flag) {
+    int index = arguments.indexOf(flag);
+    if (index < 0 || index + 1 >= arguments.size()) {
+      return null;
+    }
+    String value = arguments.get(index + 1);
+    arguments.subList(index, index + 2).clear();
+    return value;
+  }
 }
@@ -2,8 +2,6 @@ package controller;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
 
 import model.PropertyType;
 
@@ -12,6 +10,8 @@ import model.PropertyType;
  * and parsing the associated arguments to construct valid command objects.
  */
 public class CalendarCommandParser implements MultipleCommandParser {
+  private static final String[] COMMANDS = {"create calendar", "edit calendar", "copy event",
+    "copy events", "use calendar"};
 
   /**
    * Constructs a command parser.
@@ -23,25 +23,27 @@ public class CalendarCommandParser implements MultipleCommandParser {
 
   @Override
   public MultipleCalendarCommand parse(String input) {
-    MultipleCalendarCommand cmd;
     if (input == null) {
       throw new IllegalArgumentException("Input is null");
     }
+    return parse(CommandTokens.of(input));
+  }
 
-    String[] parts = input.split(" ");
-    String[] commandArgs = Arrays.copyOfRange(parts, 2, parts.length);
-    String command = parts[0].concat(" ").concat(parts[1]);
-    switch (command) {
+  @Override
+  public MultipleCalendarCommand parse(CommandTokens tokens) {
+    MultipleCalendarCommand cmd;
+    CommandTokens commandArgs = tokens.from(2);
+    switch (tokens.command(COMMANDS)) {
       case "create calendar":
-        if (commandArgs.length < 4) {
+        if (commandArgs.length() < 4) {
           throw new IllegalArgumentException("Invalid, please input name or timezone "
                   + "of calendar");
         }
-        cmd = new CreateCalendar(commandArgs[1], commandArgs[3]);
+        cmd = new CreateCalendar(commandArgs.get(1), commandArgs.get(3));
         break;
       case "edit calendar":
-        PropertyType type = PropertyType.valueOf(commandArgs[3]);
-        cmd = new EditCalendar(commandArgs[1], type, commandArgs[4]);
+        PropertyType type = PropertyType.valueOf(commandArgs.get(3));
+        cmd = new EditCalendar(commandArgs.get(1), type, commandArgs.get(4));
         break;
       case "copy event":
         cmd = commandToCopyEvent(commandArgs);
@@ -50,7 +52,7 @@ public class CalendarCommandParser implements MultipleCommandParser {
         cmd = commandToCopyEvents(commandArgs);
         break;
       case "use calendar":
-        cmd = new UseCalendar(commandArgs[1]);
+        cmd = new UseCalendar(commandArgs.get(1));
         break;
       default:
         cmd = null;
@@ -59,34 +61,30 @@ public class CalendarCommandParser implements MultipleCommandParser {
     return cmd;
   }
 
-  private MultipleCalendarCommand commandToCopyEvents(String[] commandArgs) {
-    DateTimeFormatter formatNoTime = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+  private MultipleCalendarCommand commandToCopyEvents(CommandTokens commandArgs) {
     String calName = "";
     LocalDate startDate = null;
     LocalDate endDate = null;
     LocalDate targDate = null;
-    if (commandArgs[0].equals("on")) {
-      calName = commandArgs[3];
-      startDate = LocalDate.parse(commandArgs[1], formatNoTime);
-      endDate = LocalDate.parse(commandArgs[1], formatNoTime);
-      targDate = LocalDate.parse(commandArgs[5], formatNoTime);
-    } else if (commandArgs[0].equals("between")) {
-      calName = commandArgs[5];
-      startDate = LocalDate.parse(commandArgs[1], formatNoTime);
-      endDate = LocalDate.parse(commandArgs[3], formatNoTime);
-      targDate = LocalDate.parse(commandArgs[commandArgs.length - 1], formatNoTime);
+    if (commandArgs.is(0, "on")) {
+      calName = commandArgs.get(3);
+      startDate = commandArgs.date(1);
+      endDate = startDate;
+      targDate = commandArgs.date(5);
+    } else if (commandArgs.is(0, "between")) {
+      calName = commandArgs.get(5);
+      startDate = commandArgs.date(1);
+      endDate = commandArgs.date(3);
+      targDate = commandArgs.date(commandArgs.length() - 1);
     }
     return new CopyEvents(startDate, endDate, calName, targDate);
   }
 
-  private MultipleCalendarCommand commandToCopyEvent(String[] commandArgs) {
-    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
-    String sourceCal = commandArgs[0];
-    String eventTime = commandArgs[2];
-    String targetCal = commandArgs[4];
-    String targetTime = commandArgs[6];
-    LocalDateTime eventT = LocalDateTime.parse(eventTime, formatter);
-    LocalDateTime targetT = LocalDateTime.parse(targetTime, formatter);
+  private MultipleCalendarCommand commandToCopyEvent(CommandTokens commandArgs) {
+    String sourceCal = commandArgs.get(0);
+    String targetCal = commandArgs.get(4);
+    LocalDateTime eventT = commandArgs.dateTime(2);
+    LocalDateTime targetT = commandArgs.dateTime(6);
     return new CopyEvent(sourceCal, eventT, targetCal, targetT);
   }
 }
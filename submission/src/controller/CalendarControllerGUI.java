@@ -64,5 +64,12 @@ public interface CalendarControllerGUI extends CalendarController {
    */
   public List<String> getAllEventNames();
 
+  /**
+   * Retrieves a list of the events whose subject starts with the given text.
+   * @param prefix the text typed so far
+   * @return A list of the matching events.
+   */
+  public List<String> getAllEventNames(String prefix);
+
 
 }
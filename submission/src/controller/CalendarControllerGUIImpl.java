@@ -81,7 +81,7 @@ public class CalendarControllerGUIImpl implements CalendarControllerGUI {
       return;
     }
     try {
-      DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+      DateTimeFormatter formatter = CommandTokens.DATE_TIME_FORMAT;
       Event event;
       CalendarEvent.EventBuilder builder = new CalendarEvent.EventBuilder()
               .setSubject(subject)
@@ -100,10 +100,7 @@ public class CalendarControllerGUIImpl implements CalendarControllerGUI {
       event = builder.build();
       activeCalendarModel.createEvent(event);
       view.showSuccessMessage("Event added successfully!");
-      List<Event> events = activeCalendarModel.eventsToBeShown(
-              LocalDate.of(0, 1, 1));
-      view.updateScheduleView(activeCalendarModel.eventsToBeShown(
-              events.get(0).getStartTime().toLocalDate()));
+      showScheduleFromFirstEvent();
     } catch (Exception e) {
       view.showErrorMessage("Failed to add event: " + e.getMessage());
     }
@@ -129,10 +126,7 @@ public class CalendarControllerGUIImpl implements CalendarControllerGUI {
       activeCalendarModel.editEvent(eventId, changeToMake, false);
 
       view.showSuccessMessage("Event updated successfully!");
-      List<Event> events = activeCalendarModel.eventsToBeShown(
-              LocalDate.of(0, 1, 1));
-      view.updateScheduleView(activeCalendarModel.eventsToBeShown(
-              events.get(0).getStartTime().toLocalDate()));
+      showScheduleFromFirstEvent();
     } catch (Exception e) {
       view.showErrorMessage("Failed to edit event: " + e.getMessage());
     }
@@ -173,6 +167,11 @@ public class CalendarControllerGUIImpl implements CalendarControllerGUI {
     return activeCalendarModel.allEvents();
   }
 
+  @Override
+  public List<String> getAllEventNames(String prefix) {
+    return activeCalendarModel.allEvents(prefix);
+  }
+
 
   private TypingChange changeIfDate(String changeType, String change, Event eventToEdit) {
     if (changeType.equals("START TIME") || changeType.equals("END TIME")) {
@@ -232,6 +231,13 @@ public class CalendarControllerGUIImpl implements CalendarControllerGUI {
   }
 
 
+  private void showScheduleFromFirstEvent() {
+    List<Event> first = activeCalendarModel.getNextEvents(
+            LocalDate.of(0, 1, 1).atStartOfDay(), 1);
+    view.updateScheduleView(activeCalendarModel.eventsToBeShown(
+            first.get(0).getStartTime().toLocalDate()));
+  }
+
   private void createDefaultCalendar() {
     String defaultCalendarName = "Default Calendar";
     String systemTimezone = ZoneId.systemDefault().toString();
@@ -1,8 +1,5 @@
 package controller;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Scanner;
 
 import model.CalendarModelAllHelpers;
@@ -54,15 +51,16 @@ public class CalendarControllerImpl implements CalendarController {
           break;
         }
 
-        MultipleCalendarCommand calCommand = calParser.parse(input);
+        CommandTokens tokens = CommandTokens.of(input);
+        MultipleCalendarCommand calCommand = calParser.parse(tokens);
         if (calCommand instanceof UseCalendar) {
-          currentCal = model.useCalendar(input.split(" ")[3]);
+          currentCal = model.useCalendar(tokens.get(3));
           continue;
         }
         if (calCommand == null) {
           if (currentCal != null) {
-            CalendarCommand command = parser.parse(input);
-            runCommand(command, input);
+            CalendarCommand command = parser.parse(tokens);
+            runCommand(command, input, currentCal);
           } else {
             view.renderMessage("Invalid command: Calendar not in use.");
           }
@@ -87,29 +85,21 @@ public class CalendarControllerImpl implements CalendarController {
     }
   }
 
-  private void runCommand(CalendarCommand command,
-                          String input) {
-    String currentCalName = model.getCurrentCalendarName();
-    CalendarModelAllHelpers currentCal = model.useCalendar(currentCalName);
-    DateTimeFormatter formatTime = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
-    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-
+  private void runCommand(CalendarCommand command, String input,
+                          CalendarModelAllHelpers currentCal) {
     if (command == null) {
       view.renderMessage("Invalid command: " + input);
     } else {
       command.execute(currentCal);
       view.renderMessage("Command executed successfully");
       if (command instanceof GetEventsOnDate) {
-        view.renderEvents(currentCal.getEventsOnDate(
-                LocalDate.parse(input.split(" ")[3], formatter)));
+        view.renderEvents(currentCal.getEventsOnDate(((GetEventsOnDate) command).getDate()));
       } else if (command instanceof GetEventsBetween) {
-        view.renderEvents(currentCal.getEventsBetween(
-                LocalDateTime.parse(input.split(" ")[3], formatTime),
-                LocalDateTime.parse(input.split(" ")[5], formatTime)));
-
+        GetEventsBetween between = (GetEventsBetween) command;
+        view.renderEvents(currentCal.getEventsBetween(between.getDateFrom(),
+                between.getDateTo()));
       } else if (command instanceof ShowStatus) {
-        view.renderMessage(currentCal.getStatusMessage(
-                LocalDateTime.parse(input.split(" ")[3], formatTime)));
+        view.renderMessage(currentCal.getStatusMessage(((ShowStatus) command).getDate()));
       }
     }
   }
@@ -0,0 +1,280 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.CalendarModelAllHelpers;
+import model.CalendarSession;
+import model.Event;
+import model.MultipleCalendarModelAllNames;
+import view.CalendarView;
+import view.CalendarViewImpl;
+
+/**
+ * A controller that serves the command language of interactive mode over TCP. Every client
+ * connection is handled by a task of its own and works through a CalendarSession of its own:
+ * the calendar it chose with use calendar is resolved once and kept for that connection
+ * alone, and copy commands copy from that calendar whatever the other clients have chosen,
+ * so they too need a calendar in use. Each line a client sends is answered with the same
+ * messages interactive mode prints, flushed as soon as the command has run, and exit or quit
+ * closes the connection, as does a line longer than MAX_LINE_LENGTH characters. The calendars
+ * of the model are safe to use from several threads, as those of MultipleCalendarModelImpl
+ * are, so commands from different clients run in parallel without a lock of the server:
+ * queries read the latest version of a calendar, and each change, including a copy into a
+ * calendar, waits only for the other changes to that calendar.
+ */
+public class CalendarServer implements CalendarController, Closeable {
+  /**
+   * The most characters a command line may have before the connection is closed.
+   */
+  public static final int MAX_LINE_LENGTH = 8192;
+  private static final long STACK_SIZE = 256 * 1024;
+
+  private final ServerSocket socket;
+  private final MultipleCalendarModelAllNames model;
+  private final ExecutorService connections;
+  private final Set<Socket> clients;
+  private volatile boolean closed;
+
+  /**
+   * Creates a server that handles every connection on a daemon thread of its own, each with
+   * a small stack so that thousands of clients can be connected at once.
+   *
+   * @param socket the bound socket connections are accepted on
+   * @param model  the model every client works on, with calendars safe to use from several
+   *               threads
+   * @throws IllegalArgumentException if any argument is null
+   */
+  public CalendarServer(ServerSocket socket, MultipleCalendarModelAllNames model) {
+    this(socket, model, Executors.newCachedThreadPool(connectionThreads()));
+  }
+
+  /**
+   * Creates a server that handles connections on the given executor, which is shut down when
+   * the server is closed.
+   *
+   * @param socket      the bound socket connections are accepted on
+   * @param model       the model every client works on, with calendars safe to use from
+   *                    several threads
+   * @param connections the executor each connection runs on as one task
+   * @throws IllegalArgumentException if any argument is null
+   */
+  public CalendarServer(ServerSocket socket, MultipleCalendarModelAllNames model,
+                        ExecutorService connections) {
+    if (socket == null || model == null || connections == null) {
+      throw new IllegalArgumentException("inputs cannot be null");
+    }
+    this.socket = socket;
+    this.model = model;
+    this.connections = connections;
+    this.clients = ConcurrentHashMap.newKeySet();
+  }
+
+  private static ThreadFactory connectionThreads() {
+    AtomicInteger count = new AtomicInteger();
+    return task -> {
+      Thread thread = new Thread(null, task, "calendar-connection-" + count.incrementAndGet(),
+              STACK_SIZE);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * Gets the port the server accepts connections on.
+   *
+   * @return the local port
+   */
+  public int getPort() {
+    return socket.getLocalPort();
+  }
+
+  /**
+   * Accepts connections until the server is closed.
+   */
+  @Override
+  public void run() {
+    while (!closed) {
+      Socket client;
+      try {
+        client = socket.accept();
+      } catch (IOException e) {
+        if (closed) {
+          return;
+        }
+        throw new IllegalStateException("Cannot accept connections: " + e.getMessage());
+      }
+      clients.add(client);
+      try {
+        connections.execute(new Connection(client));
+      } catch (RejectedExecutionException e) {
+        disconnect(client);
+      }
+    }
+  }
+
+  /**
+   * Stops accepting connections and closes every connection that is still open, waiting a
+   * few seconds for the commands they are running to finish.
+   *
+   * @throws IOException if the server socket cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    try {
+      socket.close();
+    } finally {
+      connections.shutdown();
+      for (Socket client : clients) {
+        disconnect(client);
+      }
+      try {
+        connections.awaitTermination(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Reads a line ended by a line feed, without the line feed and a carriage return before it.
+   *
+   * @param in   the characters sent by the client
+   * @param line the buffer the line is read into
+   * @return the line, or null at the end of the stream
+   * @throws IOException if the line is longer than MAX_LINE_LENGTH or cannot be read
+   */
+  private static String readLine(Reader in, StringBuilder line) throws IOException {
+    line.setLength(0);
+    int c;
+    while ((c = in.read()) >= 0 && c != '\n') {
+      if (line.length() == MAX_LINE_LENGTH) {
+        throw new IOException("Line too long");
+      }
+      line.append((char) c);
+    }
+    if (c < 0 && line.length() == 0) {
+      return null;
+    }
+    int end = line.length();
+    if (end > 0 && line.charAt(end - 1) == '\r') {
+      end--;
+    }
+    return line.substring(0, end);
+  }
+
+  private void disconnect(Socket client) {
+    clients.remove(client);
+    try {
+      client.close();
+    } catch (IOException e) {
+      // the connection is gone either way
+    }
+  }
+
+  /**
+   * The connection of one client, with the session that holds the calendar it uses.
+   */
+  private final class Connection implements Runnable {
+    private final Socket client;
+    private final CommandParser parser;
+    private final MultipleCommandParser calParser;
+    private final CalendarSession session;
+
+    private Connection(Socket client) {
+      this.client = client;
+      this.parser = new EventCommandParser();
+      this.calParser = new CalendarCommandParser();
+      this.session = new CalendarSession(model);
+    }
+
+    @Override
+    public void run() {
+      try (BufferedReader in = new BufferedReader(new InputStreamReader(
+              client.getInputStream(), StandardCharsets.UTF_8));
+           Writer out = new BufferedWriter(new OutputStreamWriter(client.getOutputStream(),
+                   StandardCharsets.UTF_8))) {
+        CalendarView view = new CalendarViewImpl(out);
+        StringBuilder buffer = new StringBuilder();
+        String line;
+        while ((line = readLine(in, buffer)) != null) {
+          if (line.equalsIgnoreCase("quit") || line.equalsIgnoreCase("exit")) {
+            break;
+          }
+          try {
+            handle(line, view);
+          } catch (Exception e) {
+            view.renderMessage("Error: " + e.getMessage());
+          }
+          out.flush();
+        }
+      } catch (IOException e) {
+        // the client went away or sent too long a line; its session ends with the connection
+      } finally {
+        disconnect(client);
+      }
+    }
+
+    private void handle(String line, CalendarView view) {
+      CommandTokens tokens = CommandTokens.of(line);
+      MultipleCalendarCommand calCommand = calParser.parse(tokens);
+      CalendarModelAllHelpers calendar = session.getCurrentCalendar();
+      if (calCommand instanceof UseCalendar) {
+        session.useCalendar(((UseCalendar) calCommand).getName());
+        return;
+      }
+      boolean copy = calCommand instanceof CopyEvent || calCommand instanceof CopyEvents;
+      if (calCommand != null && !(copy && calendar == null)) {
+        calCommand.execute(session);
+        view.renderMessage("Command executed successfully");
+        return;
+      }
+      if (calendar == null) {
+        view.renderMessage("Invalid command: Calendar not in use.");
+        return;
+      }
+      CalendarCommand command = parser.parse(tokens);
+      if (command == null) {
+        view.renderMessage("Invalid command: " + line);
+        return;
+      }
+      if (command instanceof GetEventsOnDate) {
+        List<Event> events = calendar.getEventsOnDate(((GetEventsOnDate) command).getDate());
+        view.renderMessage("Command executed successfully");
+        view.renderEvents(events);
+      } else if (command instanceof GetEventsBetween) {
+        GetEventsBetween between = (GetEventsBetween) command;
+        List<Event> events = calendar.getEventsBetween(between.getDateFrom(),
+                between.getDateTo());
+        view.renderMessage("Command executed successfully");
+        view.renderEvents(events);
+      } else if (command instanceof ShowStatus) {
+        String status = calendar.getStatusMessage(((ShowStatus) command).getDate());
+        view.renderMessage("Command executed successfully");
+        view.renderMessage(status);
+      } else {
+        command.execute(calendar);
+        view.renderMessage("Command executed successfully");
+      }
+    }
+  }
+}
@@ -0,0 +1,309 @@
+package controller;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * A command split into the words between its single spaces, the way String.split(" ") splits
+ * it, but without copying anything. The words are kept as offsets into the command and are
+ * only turned into strings when asked for, so a command can be split once and then shared by
+ * every parser and by the controller. Dates and times are read straight from the command
+ * when they have the usual layout, and anything else is handed to the formatters, so a bad
+ * date gives the same error it always did.
+ */
+public final class CommandTokens {
+  /**
+   * The format of a date and time in a command.
+   */
+  public static final DateTimeFormatter DATE_TIME_FORMAT =
+          DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+
+  /**
+   * The format of a date in a command.
+   */
+  public static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+  private final CharSequence source;
+  private final int[] starts;
+  private final int[] ends;
+  private final int offset;
+  private final int count;
+  private final int present;
+
+  private CommandTokens(CharSequence source, int[] starts, int[] ends, int offset, int count,
+                        int present) {
+    this.source = source;
+    this.starts = starts;
+    this.ends = ends;
+    this.offset = offset;
+    this.count = count;
+    this.present = present;
+  }
+
+  /**
+   * Splits a command into its words in a single pass. As with String.split(" "), a word is
+   * empty between two spaces in a row, trailing empty words are dropped and an empty command
+   * is one empty word.
+   *
+   * @param input the command
+   * @return the words of the command
+   * @throws IllegalArgumentException if the input is null
+   */
+  public static CommandTokens of(CharSequence input) {
+    if (input == null) {
+      throw new IllegalArgumentException("Input is null");
+    }
+    int length = input.length();
+    if (length == 0) {
+      return new CommandTokens(input, new int[] {0}, new int[] {0}, 0, 1, 1);
+    }
+    int[] starts = new int[16];
+    int[] ends = new int[16];
+    int count = 0;
+    int kept = 0;
+    int start = 0;
+    for (int i = 0; i <= length; i++) {
+      if (i == length || input.charAt(i) == ' ') {
+        if (count == starts.length) {
+          starts = Arrays.copyOf(starts, count * 2);
+          ends = Arrays.copyOf(ends, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = i;
+        count++;
+        if (i > start) {
+          kept = count;
+        }
+        start = i + 1;
+      }
+    }
+    return new CommandTokens(input, starts, ends, 0, kept, kept);
+  }
+
+  /**
+   * Gets the number of words.
+   *
+   * @return the number of words
+   */
+  public int length() {
+    return count;
+  }
+
+  /**
+   * Gets a word as a string.
+   *
+   * @param i the index of the word
+   * @return the word, or null past the end of a view made by range
+   * @throws ArrayIndexOutOfBoundsException if there is no such word
+   */
+  public String get(int i) {
+    int at = position(i);
+    if (at < 0) {
+      return null;
+    }
+    return source.subSequence(starts[at], ends[at]).toString();
+  }
+
+  /**
+   * Checks whether a word is the given text, without making a string of it.
+   *
+   * @param i    the index of the word
+   * @param text the text to compare with
+   * @return true if the word is the text
+   * @throws ArrayIndexOutOfBoundsException if there is no such word
+   */
+  public boolean is(int i, String text) {
+    int at = position(i);
+    return at >= 0 && matches(starts[at], ends[at], text);
+  }
+
+  /**
+   * Finds which of the given commands the first two words make, compared as the two words
+   * joined by a space.
+   *
+   * @param commands the commands to look for
+   * @return the command the words make, or an empty string if they make none of them
+   * @throws ArrayIndexOutOfBoundsException if there are fewer than two words
+   */
+  public String command(String... commands) {
+    int first = position(0);
+    int second = position(1);
+    int firstLength = ends[first] - starts[first];
+    for (String command : commands) {
+      if (command.length() == firstLength + 1 + ends[second] - starts[second]
+              && command.charAt(firstLength) == ' '
+              && regionMatches(starts[first], command, 0, firstLength)
+              && regionMatches(starts[second], command, firstLength + 1,
+                      command.length() - firstLength - 1)) {
+        return command;
+      }
+    }
+    return "";
+  }
+
+  /**
+   * Gets the words from the given index on, as Arrays.copyOfRange would, without copying.
+   *
+   * @param from the index of the first word
+   * @return the words from that index on
+   * @throws IllegalArgumentException if the index is past the end
+   */
+  public CommandTokens from(int from) {
+    return range(from, count);
+  }
+
+  /**
+   * Gets the words between two indices, as Arrays.copyOfRange would, without copying. Indices
+   * past the end give null words.
+   *
+   * @param from the index of the first word
+   * @param to   the index after the last word
+   * @return the words between the indices
+   * @throws IllegalArgumentException       if from is past to
+   * @throws ArrayIndexOutOfBoundsException if from is past the end
+   */
+  public CommandTokens range(int from, int to) {
+    if (from > to) {
+      throw new IllegalArgumentException(from + " > " + to);
+    }
+    if (from < 0 || from > count) {
+      throw new ArrayIndexOutOfBoundsException("Index " + from + " out of bounds for length "
+              + count);
+    }
+    return new CommandTokens(source, starts, ends, offset + from, to - from,
+            Math.min(to, present) - from);
+  }
+
+  /**
+   * Reads a word laid out as yyyy-MM-dd'T'HH:mm.
+   *
+   * @param i the index of the word
+   * @return the date and time
+   * @throws java.time.format.DateTimeParseException if the word is not a date and time
+   */
+  public LocalDateTime dateTime(int i) {
+    int at = position(i);
+    if (at >= 0 && ends[at] - starts[at] == 16) {
+      int s = starts[at];
+      LocalDate date = readDate(s);
+      if (date != null && source.charAt(s + 10) == 'T' && source.charAt(s + 13) == ':') {
+        int hour = digits(s + 11, 2);
+        int minute = digits(s + 14, 2);
+        if (hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59) {
+          return date.atTime(hour, minute);
+        }
+      }
+    }
+    return LocalDateTime.parse(get(i), DATE_TIME_FORMAT);
+  }
+
+  /**
+   * Reads a word laid out as yyyy-MM-dd and sets it at the start of the given hour. A word
+   * that cannot be read gives the error it would give with the time written after it.
+   *
+   * @param i    the index of the word
+   * @param hour the hour of the day
+   * @return the date at that hour
+   * @throws java.time.format.DateTimeParseException if the word is not a date
+   */
+  public LocalDateTime dateAt(int i, int hour) {
+    int at = position(i);
+    if (at >= 0 && ends[at] - starts[at] == 10) {
+      LocalDate date = readDate(starts[at]);
+      if (date != null) {
+        return date.atTime(hour, 0);
+      }
+    }
+    String time = (hour < 10 ? "T0" : "T") + hour + ":00";
+    return LocalDateTime.parse(get(i).concat(time), DATE_TIME_FORMAT);
+  }
+
+  /**
+   * Reads a word laid out as yyyy-MM-dd.
+   *
+   * @param i the index of the word
+   * @return the date
+   * @throws java.time.format.DateTimeParseException if the word is not a date
+   */
+  public LocalDate date(int i) {
+    int at = position(i);
+    if (at >= 0 && ends[at] - starts[at] == 10) {
+      LocalDate date = readDate(starts[at]);
+      if (date != null) {
+        return date;
+      }
+    }
+    return LocalDate.parse(get(i), DATE_FORMAT);
+  }
+
+  /**
+   * Gets the command the words were split from.
+   *
+   * @return the command
+   */
+  @Override
+  public String toString() {
+    return source.toString();
+  }
+
+  /**
+   * Finds where a word is kept, or -1 for a null word past the end of the command.
+   */
+  private int position(int i) {
+    if (i < 0 || i >= count) {
+      throw new ArrayIndexOutOfBoundsException("Index " + i + " out of bounds for length "
+              + count);
+    }
+    return i < present ? offset + i : -1;
+  }
+
+  private boolean matches(int start, int end, String text) {
+    return end - start == text.length() && regionMatches(start, text, 0, text.length());
+  }
+
+  private boolean regionMatches(int start, String text, int from, int length) {
+    for (int k = 0; k < length; k++) {
+      if (source.charAt(start + k) != text.charAt(from + k)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reads a date from the ten characters at the given place, or gives null when they are not
+   * a plain valid date, leaving the formatter to decide what they are.
+   */
+  private LocalDate readDate(int s) {
+    if (source.charAt(s + 4) != '-' || source.charAt(s + 7) != '-') {
+      return null;
+    }
+    int year = digits(s, 4);
+    int month = digits(s + 5, 2);
+    int day = digits(s + 8, 2);
+    if (year < 1 || month < 1 || month > 12 || day < 1) {
+      return null;
+    }
+    int monthLength = month == 2 ? (Year.isLeap(year) ? 29 : 28)
+            : (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+    if (day > monthLength) {
+      return null;
+    }
+    return LocalDate.of(year, month, day);
+  }
+
+  private int digits(int start, int length) {
+    int value = 0;
+    for (int k = start; k < start + length; k++) {
+      char c = source.charAt(k);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+}
@@ -20,6 +20,15 @@ public class CreateEvent implements CalendarCommand {
     this.event = e;
   }
 
+  /**
+   * Gets the event the command creates.
+   *
+   * @return the event
+   */
+  Event getEvent() {
+    return event;
+  }
+
   /**
    * Executes the command by adding the event to the calendar model.
    *
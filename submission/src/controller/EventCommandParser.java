@@ -2,9 +2,7 @@ package controller;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
-import java.util.Arrays;
 
 import model.CalendarEvent;
 import model.Event;
@@ -21,6 +19,9 @@ import model.TypingChange;
  * Controller.CalendarCommand implementations.
  */
 public class EventCommandParser implements CommandParser {
+  private static final String[] COMMANDS = {"create event", "edit event", "edit events",
+    "edit series", "print events", "show status"};
+
   public EventCommandParser() {
     // no argument constructor
   }
@@ -43,17 +44,27 @@ public class EventCommandParser implements CommandParser {
    * @throws IllegalArgumentException if the command type is unknown or invalid
    */
   public CalendarCommand parse(String input) {
-    CalendarCommand cmd = null;
     if (input == null) {
       throw new IllegalArgumentException("command is null");
     }
-    String[] args = input.split(" ");
-    String command = args[0].concat(" ").concat(args[1]);
-    String[] commandArgs = Arrays.copyOfRange(args, 2, args.length);
-    DateTimeFormatter formatTime = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+    return parse(CommandTokens.of(input));
+  }
+
+  /**
+   * Parses a command that has already been split into words, as parse does for a string.
+   *
+   * @param tokens the words of the command
+   * @return a Controller.CalendarCommand instance corresponding to the parsed command
+   * @throws IllegalArgumentException if the command type is unknown or invalid
+   */
+  @Override
+  public CalendarCommand parse(CommandTokens tokens) {
+    CalendarCommand cmd = null;
+    String command = tokens.command(COMMANDS);
+    CommandTokens commandArgs = tokens.from(2);
     switch (command) {
       case "create event":
-        if (commandArgs.length <= 6) {
+        if (commandArgs.length() <= 6) {
           Event e = commandToEvent(commandArgs);
           cmd = new CreateEvent(e);
         }
@@ -62,9 +73,9 @@ public class EventCommandParser implements CommandParser {
         }
         break;
       case "edit event":
-        Identifier id = commandToEventID(Arrays.copyOfRange(commandArgs, 1, 6));
-        TypingChange change = commandToProperty(commandArgs[0].toUpperCase(),
-            commandArgs[commandArgs.length - 1]);
+        Identifier id = commandToEventID(commandArgs.range(1, 6));
+        TypingChange change = commandToProperty(commandArgs.get(0).toUpperCase(),
+            commandArgs.get(commandArgs.length() - 1));
         cmd = new EditEvent(id, change);
         break;
       case "edit events":
@@ -77,7 +88,7 @@ public class EventCommandParser implements CommandParser {
         cmd = commandToPrint(commandArgs);
         break;
       case "show status":
-        LocalDateTime day = LocalDateTime.parse(commandArgs[1], formatTime);
+        LocalDateTime day = commandArgs.dateTime(1);
         cmd = new ShowStatus(day);
         break;
       default:
@@ -85,26 +96,22 @@ public class EventCommandParser implements CommandParser {
     return cmd;
   }
 
-  private Event commandToEvent(String[] commandArgs) {
-    String startTime;
-    String endTime;
+  private Event commandToEvent(CommandTokens commandArgs) {
+    LocalDateTime start;
+    LocalDateTime end;
     CalendarEvent e;
 
-    if (commandArgs.length == 5) {
-      startTime = commandArgs[2];
-      endTime = commandArgs[4];
+    if (commandArgs.length() == 5) {
+      start = commandArgs.dateTime(2);
+      end = commandArgs.dateTime(4);
     }
     else {
-      startTime = commandArgs[2].concat("T").concat("08:00");
-      endTime = commandArgs[2].concat("T").concat("17:00");
+      start = commandArgs.dateAt(2, 8);
+      end = commandArgs.dateAt(2, 17);
     }
 
-    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
-    LocalDateTime start = LocalDateTime.parse(startTime, formatter);
-    LocalDateTime end = LocalDateTime.parse(endTime, formatter);
-
     e = new CalendarEvent.EventBuilder()
-      .setSubject(commandArgs[0])
+      .setSubject(commandArgs.get(0))
       .setStartTime(start)
       .setEndTime(end)
       .build();
@@ -112,8 +119,8 @@ public class EventCommandParser implements CommandParser {
     return e;
   }
 
-  private Identifier commandToEventID(String[] strings) {
-    Event event = commandToEvent(strings);
+  private Identifier commandToEventID(CommandTokens tokens) {
+    Event event = commandToEvent(tokens);
 
     EventIdentifier eID = new EventIdentifier(event.getSubject(), event.getStartTime(),
         event.getStartTime());
@@ -126,77 +133,69 @@ public class EventCommandParser implements CommandParser {
     return change;
   }
 
-  private CalendarCommand commandToEventSeries(String[] commandArgs) {
+  private CalendarCommand commandToEventSeries(CommandTokens commandArgs) {
     Event startEvent = null;
     String repeatWhen = "";
     int repeatInterval = 0;
-    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    DateTimeFormatter formatWithTime = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
-
-    if (commandArgs.length == 7 || commandArgs.length == 8) {
-      startEvent = commandToEvent(Arrays.copyOfRange(commandArgs, 0,
-        3));
-      if (commandArgs.length == 7) {
-        LocalDate until = LocalDate.parse(commandArgs[commandArgs.length - 1], formatter);
+    int length = commandArgs.length();
+
+    if (length == 7 || length == 8) {
+      startEvent = commandToEvent(commandArgs.range(0, 3));
+      if (length == 7) {
+        LocalDate until = commandArgs.date(length - 1);
         repeatInterval = Math.toIntExact(ChronoUnit.WEEKS.between(
           startEvent.getStartTime().toLocalDate(), until));
       }
       else {
-        repeatInterval = Integer.parseInt(commandArgs[commandArgs.length - 2]);
+        repeatInterval = Integer.parseInt(commandArgs.get(length - 2));
       }
-      repeatWhen = commandArgs[4];
+      repeatWhen = commandArgs.get(4);
     }
 
-    if (commandArgs.length >= 9) {
-      startEvent = commandToEvent(Arrays.copyOfRange(commandArgs, 0, 5));
-      if (commandArgs.length == 11 || commandArgs[commandArgs.length - 2].equals("until")) {
-        LocalDate until = LocalDate.parse(commandArgs[commandArgs.length - 1], formatter);
+    if (length >= 9) {
+      startEvent = commandToEvent(commandArgs.range(0, 5));
+      if (length == 11 || commandArgs.is(length - 2, "until")) {
+        LocalDate until = commandArgs.date(length - 1);
         repeatInterval = Math.toIntExact(ChronoUnit.WEEKS.between(
           startEvent.getStartTime().toLocalDate(), until));
       }
       else {
-        repeatInterval = Integer.parseInt(commandArgs[commandArgs.length - 2]);
+        repeatInterval = Integer.parseInt(commandArgs.get(length - 2));
       }
-      repeatWhen = commandArgs[6];
+      repeatWhen = commandArgs.get(6);
     }
     return new CreateEventSeries(startEvent, repeatWhen, repeatInterval);
   }
 
-  private CalendarCommand commandToEditEvents(String[] commandArgs) {
-    DateTimeFormatter formatTime = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
-    String prop = commandArgs[0].toUpperCase();
-    String subject = commandArgs[1];
-    String startDate = commandArgs[3];
-    LocalDateTime start = LocalDateTime.parse(startDate, formatTime);
-    String val = commandArgs[commandArgs.length - 1];
+  private CalendarCommand commandToEditEvents(CommandTokens commandArgs) {
+    String prop = commandArgs.get(0).toUpperCase();
+    String subject = commandArgs.get(1);
+    LocalDateTime start = commandArgs.dateTime(3);
+    String val = commandArgs.get(commandArgs.length() - 1);
     TypingChange changeMade = commandToProperty(prop, val);
 
     return new EditEvents(start, subject, changeMade);
   }
 
-  private CalendarCommand commandToEditSeries(String[] commandArgs) {
-    String subject = commandArgs[1];
-    DateTimeFormatter formatTime = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
-    LocalDateTime date = LocalDateTime.parse(commandArgs[3], formatTime);
-    TypingChange newChange = commandToProperty(commandArgs[0].toUpperCase(),
-        commandArgs[commandArgs.length - 1]);
+  private CalendarCommand commandToEditSeries(CommandTokens commandArgs) {
+    String subject = commandArgs.get(1);
+    LocalDateTime date = commandArgs.dateTime(3);
+    TypingChange newChange = commandToProperty(commandArgs.get(0).toUpperCase(),
+        commandArgs.get(commandArgs.length() - 1));
     return new EditEventSeries(subject, date, newChange);
   }
 
-  private CalendarCommand commandToPrint(String[] commandArgs) {
-    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    DateTimeFormatter formatTime = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
-    if (commandArgs[0].equals("on")) {
-      LocalDate dateOn = LocalDate.parse(commandArgs[1], formatter);
+  private CalendarCommand commandToPrint(CommandTokens commandArgs) {
+    if (commandArgs.is(0, "on")) {
+      LocalDate dateOn = commandArgs.date(1);
       return new GetEventsOnDate(dateOn);
     }
     else {
-      LocalDateTime dateStart = LocalDateTime.parse(commandArgs[1], formatTime);
-      LocalDateTime dateEnd = LocalDateTime.parse(commandArgs[3], formatTime);
+      LocalDateTime dateStart = commandArgs.dateTime(1);
+      LocalDateTime dateEnd = commandArgs.dateTime(3);
       return new GetEventsBetween(dateStart, dateEnd);
     }
   }
 
 
 }
-
@@ -25,6 +25,24 @@ public class GetEventsBetween implements CalendarCommand {
     this.dateTo = dateTo;
   }
 
+  /**
+   * Gets the start of the range whose events are retrieved.
+   *
+   * @return the start of the range
+   */
+  LocalDateTime getDateFrom() {
+    return dateFrom;
+  }
+
+  /**
+   * Gets the end of the range whose events are retrieved.
+   *
+   * @return the end of the range
+   */
+  LocalDateTime getDateTo() {
+    return dateTo;
+  }
+
   /**
    * Executes the Controller.GetEventsBetween command by querying the calendar model for events.
    */
@@ -21,6 +21,15 @@ public class GetEventsOnDate implements CalendarCommand {
     this.date = localDate;
   }
 
+  /**
+   * Gets the date whose events are retrieved.
+   *
+   * @return the date
+   */
+  LocalDate getDate() {
+    return date;
+  }
+
   /**
    * Executes the Controller.GetEventsOnDate command by querying the calendar model for events.
    *
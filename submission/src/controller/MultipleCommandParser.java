@@ -13,4 +13,16 @@ public interface MultipleCommandParser {
    * @throws IllegalArgumentException if command isn't recognized or if format is invalid
    */
   MultipleCalendarCommand parse(String input);
+
+  /**
+   * Parses a command that has already been split into words, so that the words can be shared
+   * with whatever else reads the command.
+   *
+   * @param tokens the words of the command
+   * @return a Controller.CalendarCommand object that can be executed on the model
+   * @throws IllegalArgumentException if command isn't recognized or if format is invalid
+   */
+  default MultipleCalendarCommand parse(CommandTokens tokens) {
+    return parse(tokens.toString());
+  }
 }
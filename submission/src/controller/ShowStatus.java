@@ -20,6 +20,15 @@ public class ShowStatus implements CalendarCommand {
     this.date = date;
   }
 
+  /**
+   * Gets the time whose status is shown.
+   *
+   * @return the time
+   */
+  LocalDateTime getDate() {
+    return date;
+  }
+
   /**
    * Executes the command to retrieve the status message for a specific date
    * from the given calendar model.
@@ -0,0 +1,354 @@
+package controller;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import model.CalendarModelAllHelpers;
+import model.Event;
+import model.MultipleCalendarModel;
+import view.CalendarView;
+
+/**
+ * A controller for headless mode that runs a script of commands as a pipeline. A background
+ * thread reads the script through a channel, splits it into lines and parses every line into
+ * its command from a single split of its words, handing the parsed commands over in chunks.
+ * The calling thread executes them in order and renders the same messages as
+ * CalendarControllerImpl, except that consecutive event creations are handed to the calendar
+ * as one batch. Output is flushed once the script ends, so the view should write to a
+ * buffered destination. A script that does not end with exit or quit gets an error message,
+ * but unlike the interactive controller the program is not stopped.
+ */
+public class StreamingCalendarController implements CalendarController {
+  private static final int CHUNK = 1024;
+  private static final int BATCH = 4096;
+  private static final List<Step> END = Collections.emptyList();
+
+  private final ReadableByteChannel in;
+  private final CalendarView view;
+  private final MultipleCalendarModel model;
+  private final CommandParser parser;
+  private final MultipleCommandParser calParser;
+
+  /**
+   * Creates a streaming controller.
+   *
+   * @param in    the channel the script is read from
+   * @param view  the view of the calendar
+   * @param model the model of the calendar
+   * @throws IllegalArgumentException if any argument is null
+   */
+  public StreamingCalendarController(ReadableByteChannel in, CalendarView view,
+                                     MultipleCalendarModel model) {
+    if (in == null || model == null || view == null) {
+      throw new IllegalArgumentException("inputs cannot be null");
+    }
+    this.in = in;
+    this.view = view;
+    this.model = model;
+    this.parser = new EventCommandParser();
+    this.calParser = new CalendarCommandParser();
+  }
+
+  /**
+   * A parsed line of the script. The event command is parsed as well whenever the line is
+   * not a calendar command, and any exception is kept to be reported when the line is run.
+   */
+  private static final class Step {
+    private final String line;
+    private boolean exit;
+    private MultipleCalendarCommand calCommand;
+    private RuntimeException calError;
+    private CalendarCommand command;
+    private RuntimeException commandError;
+    private IOException readError;
+
+    private Step(String line) {
+      this.line = line;
+    }
+  }
+
+  @Override
+  public void run() {
+    BlockingQueue<List<Step>> queue = new ArrayBlockingQueue<>(16);
+    Thread parsing = new Thread(() -> parseAll(queue), "command-parser");
+    parsing.setDaemon(true);
+    parsing.start();
+    try {
+      executeAll(queue);
+    } finally {
+      parsing.interrupt();
+      flush();
+    }
+  }
+
+  private void parseAll(BlockingQueue<List<Step>> queue) {
+    try {
+      List<Step> chunk = new ArrayList<>(CHUNK);
+      LineReader reader = new LineReader(in);
+      try {
+        String line;
+        while ((line = reader.next()) != null) {
+          Step step = parse(line);
+          chunk.add(step);
+          if (step.exit) {
+            break;
+          }
+          if (chunk.size() == CHUNK) {
+            queue.put(chunk);
+            chunk = new ArrayList<>(CHUNK);
+          }
+        }
+      } catch (IOException e) {
+        Step failed = new Step(null);
+        failed.readError = e;
+        chunk.add(failed);
+      }
+      if (!chunk.isEmpty()) {
+        queue.put(chunk);
+      }
+      queue.put(END);
+    } catch (InterruptedException e) {
+      // the script was abandoned by the executing thread
+    }
+  }
+
+  private Step parse(String line) {
+    Step step = new Step(line);
+    if (line.equalsIgnoreCase("quit") || line.equalsIgnoreCase("exit")) {
+      step.exit = true;
+      return step;
+    }
+    CommandTokens tokens;
+    try {
+      tokens = CommandTokens.of(line);
+      step.calCommand = calParser.parse(tokens);
+    } catch (RuntimeException e) {
+      step.calError = e;
+      return step;
+    }
+    if (step.calCommand == null) {
+      try {
+        step.command = parser.parse(tokens);
+      } catch (RuntimeException e) {
+        step.commandError = e;
+      }
+    }
+    return step;
+  }
+
+  private void executeAll(BlockingQueue<List<Step>> queue) {
+    CalendarModelAllHelpers currentCal = null;
+    List<Step> creates = new ArrayList<>();
+    boolean exited = false;
+    while (!exited) {
+      List<Step> chunk;
+      try {
+        chunk = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      if (chunk == END) {
+        break;
+      }
+      for (Step step : chunk) {
+        if (step.readError != null || step.exit) {
+          createAll(creates, currentCal);
+          if (step.readError != null) {
+            view.renderMessage("Error: " + step.readError.getMessage());
+          }
+          exited = step.exit;
+          break;
+        }
+        if (currentCal != null && step.calCommand == null && step.calError == null
+                && step.command instanceof CreateEvent) {
+          creates.add(step);
+          if (creates.size() == BATCH) {
+            createAll(creates, currentCal);
+          }
+          continue;
+        }
+        createAll(creates, currentCal);
+        currentCal = execute(step, currentCal);
+      }
+    }
+    createAll(creates, currentCal);
+    if (!exited) {
+      view.renderMessage("Error: Did not exit or quit");
+    }
+  }
+
+  private CalendarModelAllHelpers execute(Step step, CalendarModelAllHelpers currentCal) {
+    try {
+      if (step.calError != null) {
+        throw step.calError;
+      }
+      if (step.calCommand instanceof UseCalendar) {
+        return model.useCalendar(((UseCalendar) step.calCommand).getName());
+      }
+      if (step.calCommand == null) {
+        if (currentCal != null) {
+          if (step.commandError != null) {
+            throw step.commandError;
+          }
+          runCommand(step.command, step.line, currentCal);
+        } else {
+          view.renderMessage("Invalid command: Calendar not in use.");
+        }
+      } else {
+        step.calCommand.execute(model);
+        view.renderMessage("Command executed successfully");
+      }
+    } catch (Exception e) {
+      view.renderMessage("Error: " + e.getMessage());
+    }
+    return currentCal;
+  }
+
+  private void runCommand(CalendarCommand command, String input,
+                          CalendarModelAllHelpers currentCal) {
+    if (command == null) {
+      view.renderMessage("Invalid command: " + input);
+    } else if (command instanceof GetEventsOnDate) {
+      List<Event> events = currentCal.getEventsOnDate(((GetEventsOnDate) command).getDate());
+      view.renderMessage("Command executed successfully");
+      view.renderEvents(events);
+    } else if (command instanceof GetEventsBetween) {
+      GetEventsBetween between = (GetEventsBetween) command;
+      List<Event> events = currentCal.getEventsBetween(between.getDateFrom(),
+              between.getDateTo());
+      view.renderMessage("Command executed successfully");
+      view.renderEvents(events);
+    } else if (command instanceof ShowStatus) {
+      String status = currentCal.getStatusMessage(((ShowStatus) command).getDate());
+      view.renderMessage("Command executed successfully");
+      view.renderMessage(status);
+    } else {
+      command.execute(currentCal);
+      view.renderMessage("Command executed successfully");
+    }
+  }
+
+  /**
+   * Creates the events of consecutive create commands with one call to the current calendar,
+   * rendering the outcome of every command in order.
+   */
+  private void createAll(List<Step> creates, CalendarModelAllHelpers currentCal) {
+    if (creates.isEmpty()) {
+      return;
+    }
+    List<RuntimeException> failures;
+    try {
+      List<Event> events = new ArrayList<>(creates.size());
+      for (Step step : creates) {
+        events.add(((CreateEvent) step.command).getEvent());
+      }
+      failures = currentCal.createEachEvent(events);
+    } catch (RuntimeException e) {
+      failures = Collections.nCopies(creates.size(), e);
+    }
+    for (RuntimeException failure : failures) {
+      if (failure == null) {
+        view.renderMessage("Command executed successfully");
+      } else {
+        view.renderMessage("Error: " + failure.getMessage());
+      }
+    }
+    creates.clear();
+  }
+
+  private void flush() {
+    if (view.getOut() instanceof Flushable) {
+      try {
+        ((Flushable) view.getOut()).flush();
+      } catch (IOException e) {
+        throw new IllegalStateException("Output could not be written", e);
+      }
+    }
+  }
+
+  /**
+   * Splits the bytes of a channel into lines the way Scanner.nextLine does for \n, \r\n and
+   * \r, decoding them as UTF-8 through fixed buffers.
+   */
+  private static final class LineReader {
+    private final ReadableByteChannel channel;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(1 << 16);
+    private final CharBuffer chars = CharBuffer.allocate(1 << 16).flip();
+    private final StringBuilder partial = new StringBuilder();
+    private boolean eof;
+    private boolean afterReturn;
+
+    private LineReader(ReadableByteChannel channel) {
+      this.channel = channel;
+    }
+
+    private String next() throws IOException {
+      while (true) {
+        char[] array = chars.array();
+        int start = chars.position();
+        int limit = chars.limit();
+        if (afterReturn && start < limit) {
+          afterReturn = false;
+          if (array[start] == '\n') {
+            start++;
+          }
+        }
+        for (int i = start; i < limit; i++) {
+          char c = array[i];
+          if (c == '\n' || c == '\r') {
+            String line;
+            if (partial.length() == 0) {
+              line = new String(array, start, i - start);
+            } else {
+              line = partial.append(array, start, i - start).toString();
+              partial.setLength(0);
+            }
+            afterReturn = c == '\r';
+            chars.position(i + 1);
+            return line;
+          }
+        }
+        partial.append(array, start, limit - start);
+        chars.position(limit);
+        if (eof) {
+          if (partial.length() == 0) {
+            return null;
+          }
+          String line = partial.toString();
+          partial.setLength(0);
+          return line;
+        }
+        fill();
+      }
+    }
+
+    private void fill() throws IOException {
+      chars.clear();
+      if (channel.read(bytes) < 0) {
+        eof = true;
+      }
+      bytes.flip();
+      decoder.decode(bytes, chars, eof);
+      if (eof) {
+        decoder.flush(chars);
+      }
+      bytes.compact();
+      chars.flip();
+    }
+  }
+}
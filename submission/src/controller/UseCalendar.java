@@ -13,6 +13,15 @@ public class UseCalendar implements MultipleCalendarCommand {
 
   }
 
+  /**
+   * Gets the name of the calendar to use.
+   *
+   * @return the name of the calendar
+   */
+  String getName() {
+    return name;
+  }
+
   /**
    * Executes a specific action or command on the provided calendar model.
    *
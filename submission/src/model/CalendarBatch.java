@@ -0,0 +1,111 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Changes to the events of a calendar staged to be applied together with applyBatch. A batch
+ * only records the changes, in the order they were staged, and touches no calendar until it
+ * is applied; discarding a batch, or clearing it, leaves the calendar as it was. An edit may
+ * refer to an event created or edited earlier in the same batch.
+ */
+public final class CalendarBatch {
+  private final List<Operation> operations;
+
+  /**
+   * Constructs an empty batch.
+   */
+  public CalendarBatch() {
+    this.operations = new ArrayList<>();
+  }
+
+  /**
+   * Stages the creation of an event, as createEvent would create it.
+   *
+   * @param event the event to create
+   * @return this batch
+   * @throws IllegalArgumentException if the event is null
+   */
+  public CalendarBatch createEvent(Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("Model.CalendarEvent cannot be null");
+    }
+    operations.add(new Operation(event, null, null, false));
+    return this;
+  }
+
+  /**
+   * Stages an edit of an event, as editEvent would make it.
+   *
+   * @param id       the id of the event
+   * @param change   the change to apply
+   * @param isSeries whether a time change keeps the event on its own date
+   * @return this batch
+   * @throws IllegalArgumentException if the id or the change is null
+   */
+  public CalendarBatch editEvent(Identifier id, TypingChange change, boolean isSeries) {
+    if (id == null || change == null) {
+      throw new IllegalArgumentException("ID and Change cannot be null");
+    }
+    operations.add(new Operation(null, id, change, isSeries));
+    return this;
+  }
+
+  /**
+   * Discards every staged change.
+   */
+  public void clear() {
+    operations.clear();
+  }
+
+  /**
+   * Gets the number of staged changes.
+   *
+   * @return the number of changes
+   */
+  public int size() {
+    return operations.size();
+  }
+
+  List<Operation> operations() {
+    return Collections.unmodifiableList(operations);
+  }
+
+  /**
+   * One staged change, either the creation of an event or an edit of one.
+   */
+  static final class Operation {
+    private final Event event;
+    private final Identifier id;
+    private final TypingChange change;
+    private final boolean isSeries;
+
+    private Operation(Event event, Identifier id, TypingChange change, boolean isSeries) {
+      this.event = event;
+      this.id = id;
+      this.change = change;
+      this.isSeries = isSeries;
+    }
+
+    boolean isCreate() {
+      return event != null;
+    }
+
+    Event getEvent() {
+      return event;
+    }
+
+    Identifier getId() {
+      return id;
+    }
+
+    TypingChange getChange() {
+      return change;
+    }
+
+    boolean isSeries() {
+      return isSeries;
+    }
+  }
+}
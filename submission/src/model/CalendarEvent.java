@@ -3,6 +3,7 @@ package model;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Objects;
 
 /**
  * Represents an event with specific details such as subject, timing, location,
@@ -29,6 +30,47 @@ public class CalendarEvent implements Event {
     this.timezone = builder.timezone;
   }
 
+  private CalendarEvent(CalendarEvent other, LocalDateTime startTime, LocalDateTime endTime,
+                        ZoneId timezone) {
+    this.subject = other.subject;
+    this.startTime = startTime;
+    this.endTime = endTime;
+    this.location = other.location;
+    this.seriesId = other.seriesId;
+    this.status = other.status;
+    this.desc = other.desc;
+    this.timezone = timezone;
+  }
+
+  /**
+   * Creates an event from values that are already known to be valid, skipping the parsing
+   * the builder does, for instance when loading a snapshot.
+   *
+   * @param subject  the subject
+   * @param start    the start time
+   * @param end      the end time
+   * @param location the location or null
+   * @param status   the status or null
+   * @param desc     the description
+   * @param seriesId the id of the series or null
+   * @param timezone the timezone of the times
+   * @return the event
+   */
+  static CalendarEvent of(String subject, LocalDateTime start, LocalDateTime end,
+                          EventLocation location, EventStatus status, String desc,
+                          Long seriesId, ZoneId timezone) {
+    EventBuilder builder = new EventBuilder();
+    builder.subject = subject;
+    builder.startTime = start;
+    builder.endTime = end;
+    builder.location = location;
+    builder.status = status;
+    builder.desc = desc;
+    builder.seriesId = seriesId;
+    builder.timezone = timezone;
+    return new CalendarEvent(builder);
+  }
+
   /**
    * A builder class for constructing Model.CalendarEvent objects with configurable properties.
    */
@@ -284,28 +326,32 @@ public class CalendarEvent implements Event {
     LocalDateTime newStart = zonedStart.withZoneSameInstant(newTimezone).toLocalDateTime();
     LocalDateTime newEnd = zonedEnd.withZoneSameInstant(newTimezone).toLocalDateTime();
 
-    return new EventBuilder()
-            .setSubject(subject)
-            .setStartTime(newStart)
-            .setEndTime(newEnd)
-            .setLocation(location != null ? location.toString() : null)
-            .setSeriesId(seriesId)
-            .setStatus(status != null ? status.toString() : null)
-            .setDesc(desc)
-            .setTimezone(newTimezone)
-            .build();
+    return withTimes(newStart, newEnd, newTimezone);
   }
 
 
   /**
-   * Computes the hash code for the Model.CalendarEvent object using its fields.
-   * The hash code is calculated based on the hash codes of the
-   * subject startTime endTime location and adds a constant value.
+   * Creates a copy of this event with different times in the given timezone. The copy is
+   * made without going through the builder, so the times must already be in order.
+   *
+   * @param startTime the start time of the copy
+   * @param endTime   the end time of the copy
+   * @param timezone  the timezone the times are in
+   * @return the copy of this event
+   */
+  CalendarEvent withTimes(LocalDateTime startTime, LocalDateTime endTime, ZoneId timezone) {
+    return new CalendarEvent(this, startTime, endTime, timezone);
+  }
+
+  /**
+   * Computes the hash code for the Model.CalendarEvent object using the subject, start time
+   * and end time that equality is based on. The fields are combined positionally so that
+   * events at different times spread evenly across hashed collections.
    *
    * @return the hash code of this Model.CalendarEvent
    */
   public int hashCode() {
-    return subject.hashCode() + startTime.hashCode() * endTime.hashCode() + 1000;
+    return Objects.hash(subject, startTime, endTime);
   }
 
 }
@@ -2,6 +2,7 @@ package model;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -23,6 +24,51 @@ public interface CalendarModel {
    */
   public void createEvents(List<Event> events);
 
+  /**
+   * Adds each event of a batch as createEvent would, one after another, so every event is
+   * checked against the calendar and the events before it in the batch. Unlike createEvents
+   * the events do not become a series and a rejected event does not stop the others.
+   *
+   * @param events the events to be added
+   * @return for each event, the exception createEvent would have thrown, or null if the
+   *         event was added
+   */
+  public default List<RuntimeException> createEachEvent(List<Event> events) {
+    List<RuntimeException> failures = new ArrayList<>(events.size());
+    for (Event event : events) {
+      try {
+        createEvent(event);
+        failures.add(null);
+      } catch (RuntimeException e) {
+        failures.add(e);
+      }
+    }
+    return failures;
+  }
+
+  /**
+   * Applies the changes staged in a batch. The calendar of the model applies a batch as one
+   * change: every staged change is validated together, against the calendar and against the
+   * rest of the batch, before anything is changed, so either all of them are applied or the
+   * calendar is left as it was. This default applies the changes one after another and stops
+   * at the first that fails, keeping the changes before it.
+   *
+   * @param batch the staged changes
+   * @throws IllegalArgumentException if the batch is null or a change is invalid
+   */
+  public default void applyBatch(CalendarBatch batch) {
+    if (batch == null) {
+      throw new IllegalArgumentException("Batch cannot be null");
+    }
+    for (CalendarBatch.Operation operation : batch.operations()) {
+      if (operation.isCreate()) {
+        createEvent(operation.getEvent());
+      } else {
+        editEvent(operation.getId(), operation.getChange(), operation.isSeries());
+      }
+    }
+  }
+
   /**
    * Edits an event on the calendar.
    *
@@ -59,8 +105,8 @@ public interface CalendarModel {
 
   /**
    * Retrieves all events that occur between the specified start and end dates, inclusive.
-   * The method traverses each date within the range and gathers the events scheduled for those
-   * dates.
+   * Only events that start at or after the start and end at or before the end are included,
+   * each listed once and ordered by start time.
    *
    * @param dateFrom the starting date of the range
    * @param dateTo   the ending date of the range
@@ -1,6 +1,10 @@
 package model;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -17,11 +21,67 @@ public interface CalendarModelGUISupport extends CalendarModelAllHelpers {
   List<Event> eventsToBeShown(LocalDate date);
 
   /**
-   * Gets all event names in the calendar.
+   * Finds the next events in the calendar that start at or after a certain time, in start
+   * time order.
+   * @param from the earliest start time of a returned event
+   * @param count the maximum amount of events to return
+   * @return at most count events starting at or after from
+   */
+  List<Event> getNextEvents(LocalDateTime from, int count);
+
+  /**
+   * Walks the events of the calendar that start at or after a certain time, in start time
+   * order, building each one only when it is reached. The walk is not valid once the
+   * calendar changes.
+   * @param from the earliest start time of a returned event
+   * @return the events starting at or after from
+   */
+  default Iterator<Event> eventsFrom(LocalDateTime from) {
+    return getNextEvents(from, Integer.MAX_VALUE).iterator();
+  }
+
+  /**
+   * Gets the minutes of a UTC day at which the calendar is busy, as one bit per minute packed
+   * into longs, with bit m of the map set when the calendar is busy at minute m of the day.
+   * The maps of calendars in different zones cover the same minutes, so they can be combined
+   * word by word.
+   * @param date the UTC day
+   * @return the map of the day
+   */
+  default long[] getOccupancy(LocalDate date) {
+    long[] bits = new long[Occupancy.WORDS];
+    LocalDateTime from = ZonedDateTime.of(date.atStartOfDay(), ZoneOffset.UTC)
+            .withZoneSameInstant(getTimezone()).toLocalDateTime();
+    LocalDateTime to = ZonedDateTime.of(date.plusDays(1).atStartOfDay(), ZoneOffset.UTC)
+            .withZoneSameInstant(getTimezone()).toLocalDateTime();
+    for (LocalDate day = from.toLocalDate(); !day.isAfter(to.toLocalDate());
+         day = day.plusDays(1)) {
+      for (Event event : getEventsOnDate(day)) {
+        Occupancy.mark(bits, date, toUtc(event.getStartTime()), toUtc(event.getEndTime()));
+      }
+    }
+    return bits;
+  }
+
+  private LocalDateTime toUtc(LocalDateTime time) {
+    return ZonedDateTime.of(time, getTimezone()).withZoneSameInstant(ZoneOffset.UTC)
+            .toLocalDateTime();
+  }
+
+  /**
+   * Gets all event names in the calendar, ordered by subject.
    * @return the names of all the events in the calendar
    */
   List<String> allEvents();
 
+  /**
+   * Gets the names of the events in the calendar whose subject starts with a prefix,
+   * ordered by subject.
+   * @param prefix the text the subject must start with
+   * @return the names of the matching events in the calendar
+   */
+  List<String> allEvents(String prefix);
+
   /**
    * Finds the event in the calendar using its subject.
    * @param eventName the name of the event
@@ -1,29 +1,31 @@
 package model;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
 
 
 /**
  * Implementation of the CalendarModel interface, providing functionality
  * to manage calendar events including adding, editing, and organizing recurring series.
  * The class ensures data integrity by validating event details and preventing duplicates
- * or conflicts.
+ * or conflicts. Events and the indexes used to look them up are kept in an EventStore.
  */
 public class CalendarModelImpl implements CalendarModelGUISupport {
-  private final Map<LocalDate, List<Event>> allEvents;
-  private final Map<Long, List<Event>> recurringSeries;
+  private static final int PARALLEL_COPIES = 1024;
+  private final EventStore store;
   private long seriesId;
-  private final String name;
+  private String name;
   private ZoneId timezone;
 
 
@@ -32,6 +34,24 @@ public class CalendarModelImpl implements CalendarModelGUISupport {
    * Initializes the required data structures for managing calendar events and recurring series.
    */
   public CalendarModelImpl(String name, String timezone) {
+    this(name, timezone, new IntervalTreeEventIndex());
+  }
+
+  /**
+   * Constructs a new instance of CalendarModelImpl that answers range queries using the given
+   * event index. The index must be empty and is owned by the calendar from then on. Events
+   * are indexed in UTC so that changing the timezone of the calendar never touches the index.
+   *
+   * @param name     the name of the calendar
+   * @param timezone the timezone of the calendar
+   * @param index    the index used for range queries
+   * @throws IllegalArgumentException if the name is empty, the timezone is invalid or the index
+   *                                  is null or not empty
+   */
+  public CalendarModelImpl(String name, String timezone, EventIndex index) {
+    if (index == null || index.size() != 0) {
+      throw new IllegalArgumentException("Event index must be empty");
+    }
     if (name == null || name.trim().isEmpty()) {
       throw new IllegalArgumentException("Calendar name cannot be null or empty");
     }
@@ -45,8 +65,7 @@ public class CalendarModelImpl implements CalendarModelGUISupport {
         throw new IllegalArgumentException("Invalid timezone format");
       }
     }
-    this.allEvents = new HashMap<>();
-    this.recurringSeries = new HashMap<>();
+    this.store = new EventStore(index, this.timezone);
     this.seriesId = 1;
   }
 
@@ -61,7 +80,8 @@ public class CalendarModelImpl implements CalendarModelGUISupport {
    * duplicates in the calendar before being added. If either the start time or end time of the
    * event is null then default times are assigned signifying an all day event.
    * The event's subject start time and end time must not conflict with existing events in the
-   * calendar.
+   * calendar. An event with a timezone is converted into the timezone of the calendar, while
+   * the times of an event without one are taken to be in the timezone of the calendar.
    *
    * @param event the event to be added to the calendar.
    * @throws IllegalArgumentException if the event is null or if both start and end times are null
@@ -69,12 +89,43 @@ public class CalendarModelImpl implements CalendarModelGUISupport {
    */
   @Override
   public void createEvent(Event event) {
+    insertEvent(event);
+  }
+
+  /**
+   * Adds the events of a batch with a single bulk update of the store. Every event is
+   * converted and checked first, so the events that are accepted go into the store together.
+   */
+  @Override
+  public List<RuntimeException> createEachEvent(List<Event> events) {
+    List<Event> prepared = new ArrayList<>(events.size());
+    List<RuntimeException> failures = new ArrayList<>(events.size());
+    for (Event event : events) {
+      try {
+        prepared.add(prepareEvent(event));
+        failures.add(null);
+      } catch (RuntimeException e) {
+        prepared.add(null);
+        failures.add(e);
+      }
+    }
+    store.addEach(prepared, failures);
+    return failures;
+  }
+
+  private Event insertEvent(Event event) {
+    Event update = prepareEvent(event);
+    store.add(update);
+    return update;
+  }
+
+  private Event prepareEvent(Event event) {
     if (event == null) {
       throw new IllegalArgumentException("Model.CalendarEvent cannot be null");
     }
 
     Event calendarEvent;
-    if (event instanceof CalendarEvent) {
+    if (event instanceof CalendarEvent && ((CalendarEvent) event).getTimezone() != null) {
       calendarEvent = event.newTimezone(this.timezone);
     } else {
       CalendarEvent.EventBuilder builder = new CalendarEvent.EventBuilder()
@@ -94,61 +145,7 @@ public class CalendarModelImpl implements CalendarModelGUISupport {
       calendarEvent = builder.build();
     }
 
-    Event update = createAllDay(calendarEvent);
-    addEventToMap(update);
-
-  }
-
-  private Event createAllDay(Event calendarEvent) {
-    if (calendarEvent.getEndTime() == null || calendarEvent.getStartTime() == null) {
-      LocalDate date;
-      if (calendarEvent.getStartTime() != null) {
-        date = calendarEvent.getStartTime().toLocalDate();
-      } else if (calendarEvent.getEndTime() != null) {
-        date = calendarEvent.getEndTime().toLocalDate();
-      } else {
-        throw new IllegalArgumentException("Either start time or end time must be non-null");
-      }
-
-      calendarEvent = new CalendarEvent.EventBuilder()
-              .setSubject(calendarEvent.getSubject())
-              .setStartTime(LocalDateTime.of(date, LocalTime.of(8, 0)))
-              .setEndTime(LocalDateTime.of(date, LocalTime.of(17, 0)))
-              .setSeriesId(calendarEvent.getSeriesId())
-              .setTimezone(this.timezone)
-              .build();
-    }
-    return calendarEvent;
-  }
-
-  private void addEventToMap(Event calendarEvent) {
-    LocalDate startDate = calendarEvent.getStartTime().toLocalDate();
-    LocalDate endDate = calendarEvent.getEndTime().toLocalDate();
-
-    LocalDate currentDate = startDate;
-    while (!currentDate.isAfter(endDate)) {
-      List<Event> dateEvents = this.allEvents.get(currentDate);
-      if (dateEvents != null) {
-        for (Event e : dateEvents) {
-          if (e.getSubject().equals(calendarEvent.getSubject())
-                  && e.getStartTime().equals(calendarEvent.getStartTime())
-                  && e.getEndTime().equals(calendarEvent.getEndTime())) {
-            throw new IllegalArgumentException("Event exists already.");
-          }
-        }
-      }
-      currentDate = currentDate.plusDays(1);
-    }
-
-    currentDate = startDate;
-    while (!currentDate.isAfter(endDate)) {
-      if (!this.allEvents.containsKey(currentDate)) {
-        this.allEvents.put(currentDate, new ArrayList<>());
-      }
-      this.allEvents.get(currentDate).add(calendarEvent);
-      currentDate = currentDate.plusDays(1);
-    }
-
+    return EventSupport.allDay(calendarEvent, timezone);
   }
 
 
@@ -162,20 +159,14 @@ public class CalendarModelImpl implements CalendarModelGUISupport {
     if (timezone == null || timezone.trim().isEmpty()) {
       throw new IllegalArgumentException("Timezone cannot be null or empty");
     }
+    ZoneId newTimezone;
     try {
-      ZoneId newTimezone = ZoneId.of(timezone);
-      for (List<Event> events : allEvents.values()) {
-        for (int i = 0; i < events.size(); i++) {
-          Event event = events.get(i);
-          if (event instanceof CalendarEvent) {
-            events.set(i, event.newTimezone(newTimezone));
-          }
-        }
-      }
-      this.timezone = newTimezone;
+      newTimezone = ZoneId.of(timezone);
     } catch (Exception e) {
       throw new IllegalArgumentException("Invalid timezone format");
     }
+    store.setZone(newTimezone);
+    this.timezone = newTimezone;
   }
 
   @Override
@@ -193,7 +184,7 @@ public class CalendarModelImpl implements CalendarModelGUISupport {
     assert firstEvent != null;
     eventsToEdit.add(firstEvent);
     Long seriesId = firstEvent.getSeriesId();
-    List<Event> events = recurringSeries.get(seriesId);
+    Set<Event> events = store.getSeries(seriesId);
 
     for (Event ev : events) {
       if (ev.getStartTime().isAfter(date)) {
@@ -219,67 +210,133 @@ public class CalendarModelImpl implements CalendarModelGUISupport {
     editSeries(seriesId, change);
   }
 
+  /**
+   * Creates a series that repeats the given event on the given days for a number of weeks.
+   * The given event is stored as the first member of the series while the other occurrences
+   * are kept as a recurrence rule and only generated when they are queried.
+   *
+   * @param startEvent     the first event of the series
+   * @param repeatWhen     the days to repeat on, as letters from MTWRFSU
+   * @param repeatInterval the number of weeks to repeat for
+   * @throws IllegalArgumentException if a day is invalid, the event spans multiple days,
+   *                                  an occurrence duplicates an existing event or, in strict
+   *                                  mode, an occurrence overlaps another event
+   */
   @Override
   public void createAllEvents(Event startEvent, String repeatWhen,
                               int repeatInterval) {
-    ArrayList<Event> events = new ArrayList<>();
+    Event first = prepareEvent(EventSupport.seriesMember(startEvent, this.seriesId));
+    int[] offsets = seriesOffsets(first, repeatWhen, repeatInterval);
+    RecurrenceRule rule = seriesRule(first, offsets, repeatInterval, this.seriesId);
+    if (store.isStrict() && !store.getConflicts(seriesOf(first, rule)).isEmpty()) {
+      throw new IllegalArgumentException("Series conflicts with an existing event");
+    }
+
+    long seriesId = this.seriesId++;
+    try {
+      store.add(first);
+    } catch (IllegalArgumentException ex) {
+      throw new IllegalArgumentException("Duplicate exists in series");
+    }
+    try {
+      store.addRule(rule);
+    } catch (IllegalArgumentException ex) {
+      store.remove(first);
+      throw new IllegalArgumentException("Duplicate exists in series");
+    }
+    store.addSeries(seriesId, Collections.singletonList(first));
+  }
+
+  /**
+   * Finds the events that a series created by createAllEvents would overlap, without
+   * creating it. The whole series is checked against the calendar in one batch, each of its
+   * events with one lookup in the range index.
+   *
+   * @param startEvent     the first event of the series
+   * @param repeatWhen     the days to repeat on, as letters from MTWRFSU
+   * @param repeatInterval the number of weeks to repeat for
+   * @return the overlapping events in start order
+   * @throws IllegalArgumentException if a day is invalid or the event spans multiple days
+   */
+  public List<Event> getSeriesConflicts(Event startEvent, String repeatWhen,
+                                        int repeatInterval) {
+    Event first = prepareEvent(EventSupport.seriesMember(startEvent, this.seriesId));
+    int[] offsets = seriesOffsets(first, repeatWhen, repeatInterval);
+    return store.getConflicts(seriesOf(first,
+            seriesRule(first, offsets, repeatInterval, this.seriesId)));
+  }
+
+  private int[] seriesOffsets(Event startEvent, String repeatWhen, int repeatInterval) {
     ArrayList<Character> days = new ArrayList<Character>(
             Arrays.asList('M', 'T', 'W', 'R', 'F', 'S', 'U'));
-    LocalDateTime start = startEvent.getStartTime();
-    LocalDateTime end = startEvent.getEndTime();
-    events.add(startEvent);
-
-    for (int i = 0; i < repeatInterval; i++) {
-      LocalDateTime startOfWeek = start.plusWeeks(i);
-      for (int j = 0; j < repeatWhen.length(); j++) {
-        if (days.contains(repeatWhen.charAt(j))) {
-          int increase = getIncreaseDaysBy(start, String.valueOf(repeatWhen.charAt(j)));
-          LocalDateTime eventStart = startOfWeek.plusDays(increase);
-          LocalDateTime eventEnd = end.plusWeeks(i).plusDays(increase);
-          if (eventStart.isEqual(start)) {
-            continue;
-          }
-          CalendarEvent newEvent = new CalendarEvent.EventBuilder()
-                  .setSubject(startEvent.getSubject())
-                  .setStartTime(eventStart)
-                  .setEndTime(eventEnd)
-                  .build();
-          events.add(newEvent);
-        } else {
-          throw new IllegalArgumentException("Invalid day");
+    int[] offsets = new int[repeatInterval > 0 ? repeatWhen.length() : 0];
+    for (int j = 0; j < offsets.length; j++) {
+      if (!days.contains(repeatWhen.charAt(j))) {
+        throw new IllegalArgumentException("Invalid day");
+      }
+      offsets[j] = EventSupport.daysUntil(startEvent.getStartTime(),
+              String.valueOf(repeatWhen.charAt(j)));
+      for (int k = 0; k < j; k++) {
+        if (offsets[k] == offsets[j]) {
+          throw new IllegalArgumentException("Duplicate exists in series");
         }
       }
     }
-    this.createEvents(events);
+    EventSupport.validateSeries(Arrays.asList(startEvent));
+    return offsets;
+  }
+
+  private RecurrenceRule seriesRule(Event startEvent, int[] offsets, int repeatInterval,
+                                    long seriesId) {
+    Event template = new CalendarEvent.EventBuilder()
+            .setSubject(startEvent.getSubject())
+            .setStartTime(startEvent.getStartTime())
+            .setEndTime(startEvent.getEndTime())
+            .setSeriesId(seriesId)
+            .build();
+    return new RecurrenceRule(template, timezone, offsets, repeatInterval);
+  }
+
+  private List<Event> seriesOf(Event startEvent, RecurrenceRule rule) {
+    List<Event> series = new ArrayList<>();
+    series.add(startEvent);
+    rule.iterator(timezone).forEachRemaining(series::add);
+    return series;
   }
 
 
   /**
    * Adds a list of events to the calendar as a recurring series. Each event must occur
    * on the same day and the start and end times must not span multiple days.
-   * If validation fails for any event in the series no events are added to the calendar.
+   * The whole series is checked and added in one bulk update of the store, so if validation
+   * fails for any event in the series no events are added to the calendar.
    *
    * @param events a list of events to be added as a series to the calendar
-   * @throws IllegalArgumentException if the events list is null empty or if the events do not
-   *                                  meet validation requirements
+   * @throws IllegalArgumentException if the events list is null empty, if the events do not
+   *                                  meet validation requirements, if an event duplicates an
+   *                                  existing event or, in strict mode, if an event overlaps
+   *                                  another event
    */
   @Override
   public void createEvents(List<Event> events) {
-    validateRecurringEventList(events);
+    EventSupport.validateSeries(events);
 
-    LocalDateTime startTime = events.get(0).getStartTime();
     long seriesId = this.seriesId++;
-    ArrayList<Event> addedEvents = new ArrayList<>();
-
+    List<Event> prepared = new ArrayList<>(events.size());
+    for (Event e : events) {
+      prepared.add(prepareEvent(EventSupport.seriesMember(e, seriesId)));
+    }
+    if (store.isStrict() && !store.getConflicts(prepared).isEmpty()) {
+      throw new IllegalArgumentException("Series conflicts with an existing event");
+    }
+    List<Event> members = new ArrayList<>(prepared.size());
+    for (Event e : prepared) {
+      members.add(store.toStored(e));
+    }
     try {
-      for (Event e : events) {
-        CalendarEvent updated = buildRecurringEvent(e, seriesId);
-        safelyAddEvent(updated, addedEvents);
-      }
-      recurringSeries.put(seriesId, addedEvents);
-    } catch (Exception ex) {
-      rollbackAddedEvents(addedEvents);
-      throw ex;
+      store.addAllStored(members);
+    } catch (IllegalArgumentException ex) {
+      throw new IllegalArgumentException("Duplicate exists in series");
     }
   }
 
@@ -302,33 +359,21 @@ public class CalendarModelImpl implements CalendarModelGUISupport {
       throw new IllegalArgumentException("ID and Change cannot be null");
     }
 
-    List<Event> eventsOnDate = getEventsOnDate(id.getStartTime().toLocalDate());
-    for (int i = 0; i < eventsOnDate.size(); i++) {
-      Event e = eventsOnDate.get(i);
-
-      if (e.getStartTime().equals(change.getNewValue())) {
-        throw new IllegalArgumentException("Time already exists");
-      } else if ((e.getSubject().equals(id.getSubject())
-              && e.getStartTime().equals(id.getStartTime()))) {
-        Event updatedEvent = changeEventProperty(e, change, isSeries);
-
-        if (change.getType() == PropertyType.START || change.getType() == PropertyType.END) {
-          allEvents.remove(id.getStartTime().toLocalDate());
-          eventsOnDate.remove(i);
-          id = new EventIdentifier(id.getSubject(), updatedEvent.getStartTime(),
-                  updatedEvent.getEndTime());
-          List<Event> newDate = getEventsOnDate(id.getStartTime().toLocalDate());
-          allEvents.put(id.getStartTime().toLocalDate(), newDate);
-          newDate.add(updatedEvent);
-        } else {
-          eventsOnDate.set(i, updatedEvent);
-          allEvents.replace(id.getStartTime().toLocalDate(), eventsOnDate);
+    if (change.getNewValue() instanceof LocalDateTime) {
+      for (Event e : getEventsOnDate(id.getStartTime().toLocalDate())) {
+        if (e.getStartTime().equals(change.getNewValue())) {
+          throw new IllegalArgumentException("Time already exists");
         }
-        return updatedEvent;
       }
     }
 
-    throw new IllegalArgumentException("Event does not exist");
+    Event original = store.lookup(id);
+    if (original == null) {
+      throw new IllegalArgumentException("Event does not exist");
+    }
+    Event updatedEvent = EventSupport.applyChange(original, change, isSeries);
+    store.replace(original, updatedEvent);
+    return updatedEvent;
   }
 
   /**
@@ -343,16 +388,28 @@ public class CalendarModelImpl implements CalendarModelGUISupport {
       throw new IllegalArgumentException("Series ID cannot be null");
     }
 
-    List<Event> seriesEvents = recurringSeries.get(seriesId);
-    if (seriesEvents == null || seriesEvents.isEmpty()) {
+    RecurrenceRule rule = store.getRule(seriesId);
+    boolean timeChange = change.getType() == PropertyType.START
+            || change.getType() == PropertyType.END;
+    boolean sameZone = rule != null && rule.getZone().getRules().equals(timezone.getRules());
+    if (rule != null && timeChange && !sameZone) {
+      store.expandRule(seriesId);
+      rule = null;
+    }
+    List<Event> originals = new ArrayList<>(store.getStoredSeries(seriesId));
+    if (rule == null && originals.isEmpty()) {
       throw new IllegalArgumentException("No events found for the given series ID");
     }
-
-    for (Event event : seriesEvents) {
-      EventIdentifier id = new EventIdentifier(event.getSubject(),
-              event.getStartTime(), event.getEndTime(), event.getSeriesId());
-      editEvent(id, change, true);
+    if (rule == null) {
+      editAll(originals, change);
+      return;
+    }
+    List<Event> updated = new ArrayList<>(originals.size());
+    for (Event original : originals) {
+      updated.add(EventSupport.applyChange(original, change, true));
     }
+    Event template = EventSupport.applyChange(rule.getTemplate(), change, true);
+    store.replaceSeries(originals, updated, rule.withTemplate(template));
   }
 
   /**
@@ -370,115 +427,97 @@ public class CalendarModelImpl implements CalendarModelGUISupport {
     if (events == null || events.isEmpty()) {
       throw new IllegalArgumentException("Events cannot be empty or have no value");
     }
-
-    Event firstEvent = events.get(0);
-    LocalDate startDate = firstEvent.getStartTime().toLocalDate();
-    Long seriesId = events.get(0).getSeriesId();
-    editEventsHelper(events, change, seriesId, startDate);
-  }
-
-  private void editEventsHelper(List<Event> events, TypingChange change, long seriesId,
-                                LocalDate startDate) {
-    Event firstEvent = events.get(0);
-    Event originalEvent = null;
-    List<Event> eventsOnDate = getEventsOnDate(startDate);
-    for (Event e : eventsOnDate) {
-      if (e.getSubject().equals(firstEvent.getSubject())
-              && e.getStartTime().getHour() == firstEvent.getStartTime().getHour()) {
-        originalEvent = e;
-        break;
-      }
+    if (change == null) {
+      throw new IllegalArgumentException("ID and Change cannot be null");
     }
 
-    if (originalEvent == null) {
-      throw new IllegalArgumentException("Event does not exist");
-    }
-    if (events.size() == 1) {
-      EventIdentifier id = new EventIdentifier(originalEvent.getSubject(),
-              originalEvent.getStartTime(), originalEvent.getEndTime());
-      editEvent(id, change, true);
-    } else {
-      List<Event> updatedEvents = recurringSeries.get(seriesId);
-      for (Event event : events) {
-        EventIdentifier id = new EventIdentifier(event.getSubject(),
-                event.getStartTime(), event.getEndTime());
-        Event updated = editEvent(id, change, true);
-        updatedEvents.remove(event);
-        updatedEvents.add(updated);
+    List<Event> originals = new ArrayList<>(events.size());
+    for (Event event : events) {
+      Event original = store.lookup(new EventIdentifier(event.getSubject(),
+              event.getStartTime(), event.getEndTime()));
+      if (original == null) {
+        throw new IllegalArgumentException("Event does not exist");
       }
+      originals.add(original);
     }
+    editAll(originals, change);
   }
 
-
-  private Event changeEventProperty(Event og, TypingChange change, boolean isSeries) {
-    CalendarEvent.EventBuilder eventBuilder = new CalendarEvent.EventBuilder()
-            .setSubject(og.getSubject())
-            .setStartTime(og.getStartTime())
-            .setEndTime(og.getEndTime())
-            .setDesc(og.getDesc())
-            .setSeriesId(og.getSeriesId());
-
-    if (og.getLocation() != null) {
-      eventBuilder.setLocation(og.getLocation().toString());
-    }
-
-    if (og.getStatus() != null) {
-      eventBuilder.setStatus(og.getStatus().toString());
-    }
-    switch (change.getType()) {
-      case SUBJECT:
-        if (change.getNewValue().toString().isEmpty()) {
-          throw new IllegalArgumentException("Subject can't be empty.");
-        }
-        eventBuilder.setSubject((String) change.getNewValue());
-        break;
-      case START:
-        LocalDateTime newStartTime = changeTime(og, change, isSeries);
-        eventBuilder.setStartTime(newStartTime);
-        break;
-      case END:
-        LocalDateTime endTime = changeTime(og, change, isSeries);
-        eventBuilder.setEndTime(endTime);
-        break;
-      case LOCATION:
-        eventBuilder.setLocation((String) change.getNewValue());
-        break;
-      case STATUS:
-        eventBuilder.setStatus((String) change.getNewValue());
-        break;
-      case DESCRIPTION:
-        eventBuilder.setDesc((String) change.getNewValue());
-        break;
-      default:
-        throw new IllegalArgumentException("Unknown event type");
+  /**
+   * Applies one change to many stored events in a single bulk update. Every updated event
+   * is built and validated before the store is touched, so a failure leaves all of them
+   * unchanged. Time changes keep each event on its own date, as for a series.
+   */
+  private void editAll(List<Event> originals, TypingChange change) {
+    List<Event> updated = new ArrayList<>(originals.size());
+    for (Event original : originals) {
+      updated.add(EventSupport.applyChange(original, change, true));
     }
-
-    return eventBuilder.build();
+    store.replaceAll(originals, updated);
   }
 
-  private LocalDateTime changeTime(Event og, TypingChange change, boolean isSeries) {
-    DateTimeFormatter formatTime = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
-    LocalDateTime newTime = null;
-    if (isSeries) {
-      if (change.getType() == PropertyType.START) {
-        LocalDateTime changeStart = LocalDateTime.parse((String) change.getNewValue(), formatTime);
-        newTime = og.getStartTime().toLocalDate().atTime(changeStart.getHour(),
-                changeStart.getMinute());
-      } else if (change.getType() == PropertyType.END) {
-        LocalDateTime changeEnd = LocalDateTime.parse((String) change.getNewValue(), formatTime);
-        newTime = og.getEndTime().toLocalDate().atTime(changeEnd.getHour(), changeEnd.getMinute());
+  /**
+   * Applies a batch as one change to the store. Every staged event is converted as
+   * createEvent would convert it, and every edit is applied to the latest version of its
+   * event, which may have been created or edited earlier in the batch, before the store is
+   * touched. The store then checks the whole batch together and applies all of it in a
+   * single update of its indexes, or nothing.
+   */
+  @Override
+  public void applyBatch(CalendarBatch batch) {
+    if (batch == null) {
+      throw new IllegalArgumentException("Batch cannot be null");
+    }
+    List<Event> added = new ArrayList<>();
+    List<Event> originals = new ArrayList<>();
+    List<Event> updated = new ArrayList<>();
+    Map<List<Object>, Integer> addedAt = null;
+    Map<List<Object>, Integer> updatedAt = new HashMap<>();
+    for (CalendarBatch.Operation operation : batch.operations()) {
+      if (operation.isCreate()) {
+        Event event = prepareEvent(operation.getEvent());
+        if (addedAt != null) {
+          addedAt.put(batchKey(event.getSubject(), event.getStartTime()), added.size());
+        }
+        added.add(event);
+        continue;
       }
-
-    } else {
-      try {
-        newTime = LocalDateTime.parse((String) change.getNewValue(), formatTime);
-      } catch (Exception e) {
-        throw new IllegalArgumentException("Incorrect date format. Please use yyyy-MM-dd " +
-                "for dates " + "and HH:mm for time");
+      // created events are only looked up by edits, so they are keyed at the first edit
+      if (addedAt == null) {
+        addedAt = new HashMap<>();
+        for (int i = 0; i < added.size(); i++) {
+          addedAt.put(batchKey(added.get(i).getSubject(), added.get(i).getStartTime()), i);
+        }
+      }
+      Identifier id = operation.getId();
+      List<Object> key = batchKey(id.getSubject(), id.getStartTime());
+      List<Event> versions = added;
+      Map<List<Object>, Integer> positions = addedAt;
+      Integer at = addedAt.remove(key);
+      if (at == null) {
+        versions = updated;
+        positions = updatedAt;
+        at = updatedAt.remove(key);
+      }
+      if (at == null) {
+        Event original = store.lookup(id);
+        if (original == null) {
+          throw new IllegalArgumentException("Event does not exist");
+        }
+        at = originals.size();
+        originals.add(original);
+        updated.add(original);
       }
+      Event edited = EventSupport.applyChange(versions.get(at), operation.getChange(),
+              operation.isSeries());
+      versions.set(at, edited);
+      positions.put(batchKey(edited.getSubject(), edited.getStartTime()), at);
     }
+    store.apply(originals, updated, added);
+  }
 
-    return newTime;
+  private static List<Object> batchKey(String subject, LocalDateTime start) {
+    return Arrays.asList(subject, start);
   }
 
 
@@ -495,18 +534,7 @@ public class CalendarModelImpl implements CalendarModelGUISupport {
     if (date == null) {
       throw new IllegalArgumentException("Date cannot be null");
     }
-    ArrayList<Event> allEventsOnThisDate = new ArrayList<>();
-    List<Event> events = this.allEvents.get(date);
-    if (events != null) {
-      for (Event e : events) {
-        LocalDate startDate = e.getStartTime().toLocalDate();
-        LocalDate endDate = e.getEndTime().toLocalDate();
-        if (!(date.isBefore(startDate) || date.isAfter(endDate))) {
-          allEventsOnThisDate.add(e);
-        }
-      }
-    }
-    return allEventsOnThisDate;
+    return store.getEventsOnDate(date);
   }
 
   @Override
@@ -515,19 +543,7 @@ public class CalendarModelImpl implements CalendarModelGUISupport {
       throw new IllegalArgumentException("Date cannot be null");
     }
 
-    ArrayList<Event> allEventsBetween = new ArrayList<>();
-    for (LocalDateTime date = dateFrom; date.isBefore(dateTo.plusDays(1));
-         date = date.plusDays(1)) {
-      List<Event> eventsToAdd = getEventsOnDate(date.toLocalDate());
-
-      for (Event e : eventsToAdd) {
-        if ((e.getStartTime().isEqual(dateFrom) || e.getStartTime().isAfter(dateFrom))
-                && (e.getEndTime().isEqual(dateTo) || e.getEndTime().isBefore(dateTo))) {
-          allEventsBetween.add(e);
-        }
-      }
-    }
-    return allEventsBetween;
+    return store.getEventsWithin(dateFrom, dateTo);
   }
 
 
@@ -537,148 +553,217 @@ public class CalendarModelImpl implements CalendarModelGUISupport {
       throw new IllegalArgumentException("Date cannot be null");
     }
 
-    List<Event> events = this.allEvents.get(date.toLocalDate());
-    if (events != null && !events.isEmpty()) {
-      for (Event event : events) {
-        if (!event.getEndTime().isBefore(date) && !event.getStartTime().isAfter(date)) {
-          return "Busy.";
-        }
-      }
+    if (store.isBusy(date)) {
+      return "Busy.";
     }
     return "Available.";
   }
 
-  private int getIncreaseDaysBy(LocalDateTime startTime, String repeatWhen) {
-    DayOfWeek currentWeekDay = startTime.getDayOfWeek();
-    int number;
-    DayOfWeek newDay = null;
-    ArrayList<Character> days = new ArrayList<Character>(
-            Arrays.asList('M', 'T', 'W', 'R', 'F', 'S', 'U'));
+  /**
+   * Turns the occupancy maps of the calendar on or off. While they are on, the map of each
+   * UTC day is kept once it has been needed and updated as events change, so the status at a
+   * whole minute is a single bit test and getOccupancy returns a copy of the kept map. They
+   * are off by default, since every day asked about keeps a map of about 200 bytes.
+   *
+   * @param enabled whether to keep the maps
+   */
+  public void setOccupancyTracking(boolean enabled) {
+    store.setOccupancyTracking(enabled);
+  }
 
-    if (days.contains(repeatWhen.charAt(0))) {
-      if (repeatWhen.charAt(0) == 'M') {
-        newDay = DayOfWeek.MONDAY;
-      } else if (repeatWhen.charAt(0) == 'T') {
-        newDay = DayOfWeek.TUESDAY;
-      } else if (repeatWhen.charAt(0) == 'W') {
-        newDay = DayOfWeek.WEDNESDAY;
-      } else if (repeatWhen.charAt(0) == 'R') {
-        newDay = DayOfWeek.THURSDAY;
-      } else if (repeatWhen.charAt(0) == 'F') {
-        newDay = DayOfWeek.FRIDAY;
-      } else if (repeatWhen.charAt(0) == 'S') {
-        newDay = DayOfWeek.SATURDAY;
-      } else if (repeatWhen.charAt(0) == 'U') {
-        newDay = DayOfWeek.SUNDAY;
-      }
-    } else {
-      throw new IllegalArgumentException("Not a valid day.");
+  /**
+   * Turns the strict mode of the calendar on or off. In strict mode no change may leave two
+   * events overlapping: creating, copying or editing events that would overlap another event
+   * is refused with an IllegalArgumentException, and a series is checked as a whole before
+   * any of it is added. Events overlap when each starts before the other ends, so events that
+   * only touch do not. Turning the mode on does not check the events already there.
+   *
+   * @param strict whether to refuse overlaps
+   */
+  public void setStrictNoOverlap(boolean strict) {
+    store.setStrict(strict);
+  }
+
+  /**
+   * Finds the events that overlap a range, using the range index of the calendar.
+   *
+   * @param start the start of the range
+   * @param end   the end of the range
+   * @return the overlapping events in start order
+   * @throws IllegalArgumentException if a time is null or the range ends before it starts
+   */
+  public List<Event> getConflicts(LocalDateTime start, LocalDateTime end) {
+    if (start == null || end == null) {
+      throw new IllegalArgumentException("Date cannot be null");
     }
-    assert newDay != null;
-    if (currentWeekDay.equals(newDay)) {
-      number = 0;
-    } else {
-      number = (newDay.getValue() - currentWeekDay.getValue()) % 7;
+    if (end.isBefore(start)) {
+      throw new IllegalArgumentException("End time cannot be before start time");
     }
-    return number;
+    return store.getConflicts(start, end);
+  }
+
+  /**
+   * Finds the events that an event would overlap if it were added, other than the event
+   * itself. The event is converted into the zone of the calendar first, as createEvent does.
+   *
+   * @param event the candidate event
+   * @return the overlapping events in start order
+   * @throws IllegalArgumentException if the event is null
+   */
+  public List<Event> getConflicts(Event event) {
+    return store.getConflicts(Collections.singletonList(prepareEvent(event)));
   }
 
+  @Override
+  public long[] getOccupancy(LocalDate date) {
+    if (date == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    return store.getOccupancy(date);
+  }
+
+
   public String getName() {
     return name;
   }
 
+  /**
+   * Changes the name of the calendar, as it is known by in the model that holds it.
+   *
+   * @param name the new name
+   */
+  void setName(String name) {
+    this.name = name;
+  }
 
-  private void validateRecurringEventList(List<Event> events) {
-    if (events == null || events.isEmpty()) {
-      throw new IllegalArgumentException("Events list cannot be null or empty");
-    }
+  EventStore getStore() {
+    return store;
+  }
 
-    LocalDateTime startTime = events.get(0).getStartTime();
-    for (Event e : events) {
-      if (!e.getStartTime().toLocalDate().equals(e.getEndTime().toLocalDate())) {
-        throw new IllegalArgumentException("Event spans multiple days");
-      } else if (e.getStartTime().getHour() != startTime.getHour() &&
-              e.getStartTime().getMinute() == startTime.getMinute()) {
-        throw new IllegalArgumentException("Start times must all be the same");
-      }
-    }
+  long getNextSeriesId() {
+    return seriesId;
   }
 
-  private CalendarEvent buildRecurringEvent(Event e, long seriesId) {
-    CalendarEvent.EventBuilder builder = new CalendarEvent.EventBuilder()
-            .setSubject(e.getSubject())
-            .setStartTime(e.getStartTime())
-            .setEndTime(e.getEndTime())
-            .setSeriesId(seriesId)
-            .setDesc(e.getDesc());
+  void setNextSeriesId(long seriesId) {
+    this.seriesId = seriesId;
+  }
 
-    if (e.getLocation() != null) {
-      builder.setLocation(e.getLocation().toString());
+  /**
+   * Adds copies of events from another calendar as one change. Each copy keeps the wall
+   * clock times its event has in the zone of this calendar, moved by a number of days, and
+   * the events of one series in the other calendar become a new series here. The copies are
+   * made in parallel on the common fork-join pool when there are many of them, then checked
+   * for duplicates in one pass and added together, so either every copy is added or none is.
+   *
+   * @param events the events to copy, in the zone of their own calendar
+   * @param days   the number of days the copies are moved by
+   * @throws IllegalArgumentException if a series would span multiple days or a copy is a
+   *                                  duplicate
+   */
+  void addCopies(List<Event> events, long days) {
+    Long[] seriesIds = new Long[events.size()];
+    Map<Long, Long> newIds = new HashMap<>();
+    long next = this.seriesId;
+    for (int i = 0; i < seriesIds.length; i++) {
+      Long id = events.get(i).getSeriesId();
+      if (id != null && id != 0) {
+        Long newId = newIds.get(id);
+        if (newId == null) {
+          newId = next++;
+          newIds.put(id, newId);
+        }
+        seriesIds[i] = newId;
+      }
     }
 
-    if (e.getStatus() != null) {
-      builder.setStatus(e.getStatus().toString());
-    }
+    Event[] copies = new Event[seriesIds.length];
+    boolean parallel = copies.length >= PARALLEL_COPIES;
+    fill(copies, parallel, i -> copyOf(events.get(i), days, seriesIds[i]));
 
-    return builder.build();
+    Map<Long, List<Event>> series = new LinkedHashMap<>();
+    for (int i = 0; i < copies.length; i++) {
+      if (seriesIds[i] != null) {
+        series.computeIfAbsent(seriesIds[i], id -> new ArrayList<>()).add(copies[i]);
+      }
+    }
+    for (List<Event> members : series.values()) {
+      EventSupport.validateSeries(members);
+    }
+    fill(copies, parallel, i -> store.toStored(copies[i]));
+    store.addAllStored(Arrays.asList(copies));
+    this.seriesId = next;
   }
 
-  private void safelyAddEvent(CalendarEvent updated, List<Event> addedEvents) {
-    try {
-      this.createEvent(updated);
-      addedEvents.add(updated);
-    } catch (IllegalArgumentException ex) {
-      rollbackAddedEvents(addedEvents);
-      throw new IllegalArgumentException("Duplicate exists in series");
+  private Event copyOf(Event event, long days, Long seriesId) {
+    Event moved = event.newTimezone(timezone);
+    if (moved.getEndTime().isBefore(moved.getStartTime())) {
+      throw new IllegalArgumentException("End time cannot be before start time");
     }
+    return CalendarEvent.of(moved.getSubject(), moved.getStartTime().plusDays(days),
+            moved.getEndTime().plusDays(days), moved.getLocation(), moved.getStatus(),
+            moved.getDesc(), seriesId, timezone);
   }
 
-  private void rollbackAddedEvents(List<Event> addedEvents) {
-    for (Event addedEvent : addedEvents) {
-      List<Event> dateEvents = allEvents.get(addedEvent.getStartTime().toLocalDate());
-      if (dateEvents != null) {
-        dateEvents.remove(addedEvent);
-        if (dateEvents.isEmpty()) {
-          allEvents.remove(addedEvent.getStartTime().toLocalDate());
-        }
-      }
+  private static void fill(Event[] events, boolean parallel, IntFunction<Event> value) {
+    if (parallel) {
+      Arrays.parallelSetAll(events, value);
+    } else {
+      Arrays.setAll(events, value);
     }
   }
 
 
+
   @Override
   public List<Event> eventsToBeShown(LocalDate date) {
-    List<Event> events = getEventsBetween(date.atStartOfDay(),
-            LocalDateTime.of(9999, 12, 31, 0, 0));
+    LocalDateTime from = date.atStartOfDay();
+    List<Event> events = getNextEvents(from, 10);
     if (events.size() >= 10) {
       LocalDateTime endTime = events.get(9).getEndTime();
-      return getEventsBetween(date.atStartOfDay(), endTime);
+      return getEventsBetween(from, endTime);
     } else {
       return events;
     }
   }
 
+  @Override
+  public List<Event> getNextEvents(LocalDateTime from, int count) {
+    if (from == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    if (count < 0) {
+      throw new IllegalArgumentException("Count cannot be negative");
+    }
+    return store.getNextEvents(from, count);
+  }
+
+  @Override
+  public Iterator<Event> eventsFrom(LocalDateTime from) {
+    if (from == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    return store.iteratorFrom(from);
+  }
+
   @Override
   public List<String> allEvents() {
+    return store.labels();
+  }
 
-    ArrayList<String> events = new ArrayList<>();
-    for (List<Event> allEvents : allEvents.values()) {
-      for (Event event : allEvents) {
-        events.add(event.getSubject() + " " + event.getStartTime().toString());
-      }
+  @Override
+  public List<String> allEvents(String prefix) {
+    if (prefix == null) {
+      throw new IllegalArgumentException("Prefix cannot be null");
     }
-    return events;
+    return store.labels(prefix);
   }
 
   @Override
   public Event findEvent(String eventName) {
-    for (List<Event> allEvents : allEvents.values()) {
-      for (Event event : allEvents) {
-        if (event.getSubject().equals(eventName)) {
-          return event;
-        }
-      }
+    Event event = store.findBySubject(eventName);
+    if (event == null) {
+      throw new IllegalArgumentException("Event not found");
     }
-    throw new IllegalArgumentException("Event not found");
+    return event;
   }
 }
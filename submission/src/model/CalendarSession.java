@@ -0,0 +1,116 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * The calendars of a shared model as one user sees them. A session keeps the calendar its
+ * user chose with useCalendar as a reference of its own instead of changing the current
+ * calendar of the shared model, so any number of sessions can work on the same model, each
+ * with a different calendar in use. Commands run against the calendar the session resolved
+ * once, and copies are made from it, without looking it up again; since the reference is
+ * kept, the calendar stays in use when it is renamed. Everything else is passed on to the
+ * shared model.
+ */
+public class CalendarSession implements MultipleCalendarModelAllNames {
+  private final MultipleCalendarModelAllNames model;
+  private CalendarModelGUISupport calendar;
+
+  /**
+   * Constructs a session with no calendar in use.
+   *
+   * @param model the model the session shares with other sessions
+   * @throws IllegalArgumentException if the model is null
+   */
+  public CalendarSession(MultipleCalendarModelAllNames model) {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+    this.model = model;
+  }
+
+  /**
+   * Gets the calendar in use in this session.
+   *
+   * @return the calendar, or null if no calendar is in use yet
+   */
+  public CalendarModelGUISupport getCurrentCalendar() {
+    return calendar;
+  }
+
+  @Override
+  public void createCalendar(String name, String timezone) {
+    model.createCalendar(name, timezone);
+  }
+
+  /**
+   * Makes a calendar the one in use in this session only.
+   *
+   * @param name name of the calendar to use
+   * @return the calendar that is now in use
+   * @throws IllegalArgumentException if calendar with given name doesnt exist
+   */
+  @Override
+  public CalendarModelGUISupport useCalendar(String name) {
+    CalendarModelGUISupport found = model.getCalendar(name);
+    if (found == null) {
+      throw new IllegalArgumentException("Calendar does not exist");
+    }
+    calendar = found;
+    return found;
+  }
+
+  @Override
+  public String getCurrentCalendarName() {
+    return calendar == null ? null : calendar.getName();
+  }
+
+  @Override
+  public ZoneId getCurrentCalendarTimezone() {
+    if (calendar == null) {
+      throw new IllegalStateException("No calendar currently selected");
+    }
+    return calendar.getTimezone();
+  }
+
+  @Override
+  public void editCalendar(String name, PropertyType property, String value) {
+    model.editCalendar(name, property, value);
+  }
+
+  @Override
+  public void copyEvent(String eventName, LocalDateTime eventDateTime,
+                        String targetCalendar, LocalDateTime targetDateTime) {
+    model.copyEvent(calendar, eventName, eventDateTime, targetCalendar, targetDateTime);
+  }
+
+  @Override
+  public void copyEvents(LocalDate startDate, LocalDate endDate,
+                         String targetCalendar, LocalDate targetStartDate) {
+    model.copyEvents(calendar, startDate, endDate, targetCalendar, targetStartDate);
+  }
+
+  @Override
+  public void copyEvent(CalendarModel source, String eventName, LocalDateTime eventDateTime,
+                        String targetCalendar, LocalDateTime targetDateTime) {
+    model.copyEvent(source, eventName, eventDateTime, targetCalendar, targetDateTime);
+  }
+
+  @Override
+  public void copyEvents(CalendarModel source, LocalDate startDate, LocalDate endDate,
+                         String targetCalendar, LocalDate targetStartDate) {
+    model.copyEvents(source, startDate, endDate, targetCalendar, targetStartDate);
+  }
+
+  @Override
+  public List<String> getAllNames() {
+    return model.getAllNames();
+  }
+
+  @Override
+  public CalendarModelGUISupport getCalendar(String name) {
+    return model.getCalendar(name);
+  }
+}
@@ -0,0 +1,346 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Saves and loads every calendar of a MultipleCalendarModelImpl as one binary snapshot, so a
+ * calendar program can be restarted without replaying the commands that built it.
+ * A snapshot starts with a magic number, a format version and the generation of the snapshot,
+ * which ties it to the WriteAheadLog of the mutations made after it, followed by a table
+ * holding every distinct string once, the current calendar and one length-prefixed block per
+ * calendar. Events are written in start order as they are stored, in UTC, and refer to their
+ * subject, description and zone by their index in the string table. Repeating series are
+ * written as their recurrence rules rather than as every occurrence. Snapshots are read
+ * through a memory-mapped buffer and restored straight into the event stores, without the
+ * checks the events already passed when they were first created. Each calendar is written
+ * while no change can be made to it, so it is saved in one consistent state even while
+ * other threads keep using the model.
+ */
+public final class CalendarSnapshot {
+  private static final int MAGIC = 0x43414C53;
+  private static final short VERSION = 2;
+  private static final int MEMBER = 1;
+  private static final int HAS_SERIES = 2;
+  private static final int HAS_NANOS = 4;
+  private static final int HAS_ZONE = 8;
+  private static final int HAS_DESC = 16;
+
+  private CalendarSnapshot() {
+  }
+
+  /**
+   * Writes a snapshot of every calendar of a model. The snapshot is written next to the
+   * file first and then moved over it, so an existing snapshot is never left half written.
+   *
+   * @param model the model to save
+   * @param file  the file to write
+   * @throws IOException if the file cannot be written
+   */
+  public static void save(MultipleCalendarModelImpl model, Path file) throws IOException {
+    save(model, file, 0);
+  }
+
+  /**
+   * Writes a snapshot of every calendar of a model, marked with the given generation.
+   *
+   * @param model      the model to save
+   * @param file       the file to write
+   * @param generation the generation of the snapshot
+   * @throws IOException if the file cannot be written
+   */
+  static void save(MultipleCalendarModelImpl model, Path file, long generation)
+          throws IOException {
+    Map<String, Integer> strings = new HashMap<>();
+    List<String> table = new ArrayList<>();
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    ByteArrayOutputStream block = new ByteArrayOutputStream();
+    DataOutputStream calendars = new DataOutputStream(body);
+    List<String> names = model.getAllNames();
+    for (String name : names) {
+      block.reset();
+      try {
+        model.getCalendar(name).withCalendar(calendar -> {
+          try {
+            writeCalendar(new DataOutputStream(block), name, calendar, strings, table);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      calendars.writeInt(block.size());
+      block.writeTo(calendars);
+    }
+    String current = model.getCurrentCalendarName();
+    int currentId = current == null ? -1 : intern(current, strings, table);
+
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (OutputStream stream = Files.newOutputStream(temp)) {
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      out.writeLong(generation);
+      out.writeInt(table.size());
+      for (String value : table) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+      out.writeInt(currentId);
+      out.writeInt(names.size());
+      body.writeTo(out);
+      out.flush();
+    }
+    try {
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+              StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Reads a snapshot back into a new model.
+   *
+   * @param file the snapshot to read
+   * @return the model holding every calendar of the snapshot
+   * @throws IOException if the file cannot be read or is not a valid snapshot
+   */
+  public static MultipleCalendarModelImpl load(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Snapshot is too large");
+      }
+      ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return read(in);
+    } catch (BufferUnderflowException | IllegalArgumentException
+             | IndexOutOfBoundsException | NegativeArraySizeException | DateTimeException e) {
+      throw new IOException("Snapshot is corrupt", e);
+    }
+  }
+
+  /**
+   * Reads the generation of a snapshot without loading it.
+   *
+   * @param file the snapshot to read
+   * @return the generation of the snapshot, 0 for snapshots written before generations
+   * @throws IOException if the file cannot be read or is not a snapshot
+   */
+  static long generation(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer in = ByteBuffer.allocate(14);
+      while (in.hasRemaining() && channel.read(in) >= 0) {
+        continue;
+      }
+      in.flip();
+      return readHeader(in);
+    } catch (BufferUnderflowException e) {
+      throw new IOException("Snapshot is corrupt", e);
+    }
+  }
+
+  private static long readHeader(ByteBuffer in) throws IOException {
+    if (in.remaining() < 6 || in.getInt() != MAGIC) {
+      throw new IOException("Not a calendar snapshot");
+    }
+    short version = in.getShort();
+    if (version == 1) {
+      return 0;
+    }
+    if (version != VERSION) {
+      throw new IOException("Unsupported snapshot version " + version);
+    }
+    return in.getLong();
+  }
+
+  private static MultipleCalendarModelImpl read(ByteBuffer in) throws IOException {
+    readHeader(in);
+    String[] table = new String[in.getInt()];
+    for (int i = 0; i < table.length; i++) {
+      byte[] bytes = new byte[in.getInt()];
+      in.get(bytes);
+      table[i] = bytes.length == 0 ? "" : new String(bytes, StandardCharsets.UTF_8);
+    }
+    ZoneId[] zones = new ZoneId[table.length];
+    int current = in.getInt();
+    int calendarCount = in.getInt();
+    MultipleCalendarModelImpl model = new MultipleCalendarModelImpl();
+    for (int i = 0; i < calendarCount; i++) {
+      int length = in.getInt();
+      int end = in.position() + length;
+      int key = in.getInt();
+      ConcurrentCalendarModel calendar = readCalendar(in, table, zones);
+      in.position(end);
+      model.restoreCalendar(table[key], calendar, key == current);
+    }
+    return model;
+  }
+
+  private static void writeCalendar(DataOutputStream out, String name,
+                                    CalendarModelImpl calendar, Map<String, Integer> strings,
+                                    List<String> table) throws IOException {
+    EventStore store = calendar.getStore();
+    out.writeInt(intern(name, strings, table));
+    out.writeInt(intern(calendar.getName(), strings, table));
+    out.writeInt(intern(calendar.getTimezone().getId(), strings, table));
+    out.writeLong(calendar.getNextSeriesId());
+    List<Event> events = store.storedEvents();
+    out.writeInt(events.size());
+    for (Event event : events) {
+      writeEvent(out, event, store.isSeriesMember(event), strings, table);
+    }
+    out.writeInt(store.storedRules().size());
+    for (RecurrenceRule rule : store.storedRules()) {
+      writeEvent(out, rule.getTemplate(), false, strings, table);
+      out.writeInt(intern(rule.getZone().getId(), strings, table));
+      int[] offsets = rule.getOffsets();
+      out.writeByte(offsets.length);
+      for (int offset : offsets) {
+        out.writeByte(offset);
+      }
+      out.writeInt(rule.getWeeks());
+      out.writeInt(rule.getExceptions().size());
+      for (int exception : rule.getExceptions()) {
+        out.writeInt(exception);
+      }
+    }
+  }
+
+  private static ConcurrentCalendarModel readCalendar(ByteBuffer in, String[] table,
+                                                      ZoneId[] zones) {
+    String name = table[in.getInt()];
+    String zone = table[in.getInt()];
+    ConcurrentCalendarModel restored = new ConcurrentCalendarModel(name, zone);
+    restored.withCalendar(calendar -> restore(calendar, in, table, zones));
+    return restored;
+  }
+
+  private static void restore(CalendarModelImpl calendar, ByteBuffer in, String[] table,
+                              ZoneId[] zones) {
+    calendar.setNextSeriesId(in.getLong());
+    EventStore store = calendar.getStore();
+    int count = in.getInt();
+    List<Event> events = new ArrayList<>(count);
+    BitSet members = new BitSet(count);
+    for (int i = 0; i < count; i++) {
+      members.set(i, (in.get(in.position()) & MEMBER) != 0);
+      events.add(readEvent(in, table, zones));
+    }
+    store.restoreAll(events, members);
+    int rules = in.getInt();
+    for (int i = 0; i < rules; i++) {
+      Event template = readEvent(in, table, zones);
+      ZoneId ruleZone = zone(in.getInt(), table, zones);
+      int[] offsets = new int[in.get()];
+      for (int j = 0; j < offsets.length; j++) {
+        offsets[j] = in.get();
+      }
+      int weeks = in.getInt();
+      Set<Integer> exceptions = new HashSet<>();
+      int exceptionCount = in.getInt();
+      for (int j = 0; j < exceptionCount; j++) {
+        exceptions.add(in.getInt());
+      }
+      store.restoreRule(RecurrenceRule.restore(template, ruleZone, offsets, weeks, exceptions));
+    }
+  }
+
+  private static void writeEvent(DataOutputStream out, Event event, boolean member,
+                                 Map<String, Integer> strings, List<String> table)
+          throws IOException {
+    LocalDateTime start = event.getStartTime();
+    LocalDateTime end = event.getEndTime();
+    boolean nanos = start.getNano() != 0 || end.getNano() != 0;
+    int flags = (member ? MEMBER : 0)
+            | (event.getSeriesId() != null ? HAS_SERIES : 0)
+            | (nanos ? HAS_NANOS : 0)
+            | (event.getTimezone() != null ? HAS_ZONE : 0)
+            | (event.getDesc() != null ? HAS_DESC : 0);
+    out.writeByte(flags);
+    out.writeInt(intern(event.getSubject(), strings, table));
+    out.writeByte(event.getLocation() == null ? 0 : event.getLocation().ordinal() + 1);
+    out.writeByte(event.getStatus() == null ? 0 : event.getStatus().ordinal() + 1);
+    out.writeLong(start.toEpochSecond(ZoneOffset.UTC));
+    out.writeLong(end.toEpochSecond(ZoneOffset.UTC));
+    if (nanos) {
+      out.writeInt(start.getNano());
+      out.writeInt(end.getNano());
+    }
+    if (event.getSeriesId() != null) {
+      out.writeLong(event.getSeriesId());
+    }
+    if (event.getTimezone() != null) {
+      out.writeInt(intern(event.getTimezone().getId(), strings, table));
+    }
+    if (event.getDesc() != null) {
+      out.writeInt(intern(event.getDesc(), strings, table));
+    }
+  }
+
+  private static Event readEvent(ByteBuffer in, String[] table, ZoneId[] zones) {
+    int flags = in.get();
+    String subject = table[in.getInt()];
+    int location = in.get();
+    int status = in.get();
+    long start = in.getLong();
+    long end = in.getLong();
+    int startNano = 0;
+    int endNano = 0;
+    if ((flags & HAS_NANOS) != 0) {
+      startNano = in.getInt();
+      endNano = in.getInt();
+    }
+    Long seriesId = (flags & HAS_SERIES) != 0 ? in.getLong() : null;
+    ZoneId zone = (flags & HAS_ZONE) != 0 ? zone(in.getInt(), table, zones) : null;
+    String desc = (flags & HAS_DESC) != 0 ? table[in.getInt()] : null;
+    return CalendarEvent.of(subject,
+            LocalDateTime.ofEpochSecond(start, startNano, ZoneOffset.UTC),
+            LocalDateTime.ofEpochSecond(end, endNano, ZoneOffset.UTC),
+            location == 0 ? null : EventLocation.values()[location - 1],
+            status == 0 ? null : EventStatus.values()[status - 1],
+            desc, seriesId, zone);
+  }
+
+  private static ZoneId zone(int id, String[] table, ZoneId[] zones) {
+    if (zones[id] == null) {
+      zones[id] = ZoneId.of(table[id]);
+    }
+    return zones[id];
+  }
+
+  private static int intern(String value, Map<String, Integer> strings, List<String> table) {
+    Integer id = strings.get(value);
+    if (id == null) {
+      id = table.size();
+      strings.put(value, id);
+      table.add(value);
+    }
+    return id;
+  }
+}
@@ -0,0 +1,182 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * An immutable version of a calendar, as published by a ConcurrentCalendarModel after each
+ * change. It answers the same queries as the calendar did when it was published, however the
+ * calendar changes afterwards, so a reader can hold on to it for as long as it likes without
+ * locking anything. Events are kept in a snapshot of a PersistentEventIndex, which shares its
+ * nodes with the versions before and after it, and the queries are answered by the same
+ * EventQueries as the calendar itself.
+ */
+public final class CalendarVersion {
+  private final String name;
+  private final EventQueries queries;
+
+  /**
+   * Constructs a version.
+   *
+   * @param name   the name of the calendar
+   * @param zone   the zone of the calendar
+   * @param events a snapshot of the stored events, in UTC, that nothing changes any more
+   * @param rules  copies of the recurrence rules that nothing changes any more
+   */
+  CalendarVersion(String name, ZoneId zone, EventIndex events, List<RecurrenceRule> rules) {
+    this.name = name;
+    this.queries = new EventQueries(events, new RuleIndex(rules), zone);
+  }
+
+  /**
+   * Gets the name of the calendar.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the timezone of the calendar.
+   *
+   * @return the timezone
+   */
+  public ZoneId getTimezone() {
+    return queries.zone;
+  }
+
+  /**
+   * Gets the events taking place at some point on a date, in start order.
+   *
+   * @param date the date
+   * @return the events on the date
+   * @throws IllegalArgumentException if the date is null
+   */
+  public List<Event> getEventsOnDate(LocalDate date) {
+    if (date == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    return queries.getEventsOnDate(date);
+  }
+
+  /**
+   * Gets the events that start and end within a range, in start order.
+   *
+   * @param dateFrom the start of the range
+   * @param dateTo   the end of the range
+   * @return the events within the range
+   * @throws IllegalArgumentException if either date is null
+   */
+  public List<Event> getEventsBetween(LocalDateTime dateFrom, LocalDateTime dateTo) {
+    if (dateFrom == null || dateTo == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    return queries.getEventsWithin(dateFrom, dateTo);
+  }
+
+  /**
+   * Tells whether an event is taking place at a time.
+   *
+   * @param date the time
+   * @return "Busy." if an event is taking place otherwise "Available."
+   * @throws IllegalArgumentException if the time is null
+   */
+  public String getStatusMessage(LocalDateTime date) {
+    if (date == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    return queries.isBusy(date) ? "Busy." : "Available.";
+  }
+
+  /**
+   * Gets the events to show from a date onwards: the next ten events, together with every
+   * event that lies within the time they cover.
+   *
+   * @param date the first date shown
+   * @return the events to show
+   */
+  public List<Event> eventsToBeShown(LocalDate date) {
+    LocalDateTime from = date.atStartOfDay();
+    List<Event> next = queries.getNextEvents(from, 10);
+    if (next.size() >= 10) {
+      return queries.getEventsWithin(from, next.get(9).getEndTime());
+    }
+    return next;
+  }
+
+  /**
+   * Gets up to the given number of events starting at or after a time, in start order.
+   *
+   * @param from  the earliest start time
+   * @param count the most events returned
+   * @return the events
+   * @throws IllegalArgumentException if the time is null or the count is negative
+   */
+  public List<Event> getNextEvents(LocalDateTime from, int count) {
+    if (from == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    if (count < 0) {
+      throw new IllegalArgumentException("Count cannot be negative");
+    }
+    return queries.getNextEvents(from, count);
+  }
+
+  /**
+   * Walks the events starting at or after a time in start order, building each one only when
+   * it is reached. The iterator stays valid for as long as it is held.
+   *
+   * @param from the earliest start time
+   * @return an iterator over the events
+   * @throws IllegalArgumentException if the time is null
+   */
+  public Iterator<Event> eventsFrom(LocalDateTime from) {
+    if (from == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    return queries.iteratorFrom(from);
+  }
+
+  /**
+   * Gets a label made of the subject and start time of every event, ordered by subject and
+   * then by start time.
+   *
+   * @return the labels
+   */
+  public List<String> allEvents() {
+    return queries.labels();
+  }
+
+  /**
+   * Gets the labels of the events whose subject starts with a prefix.
+   *
+   * @param prefix the prefix
+   * @return the labels
+   * @throws IllegalArgumentException if the prefix is null
+   */
+  public List<String> allEvents(String prefix) {
+    if (prefix == null) {
+      throw new IllegalArgumentException("Prefix cannot be null");
+    }
+    return queries.labels(prefix);
+  }
+
+  /**
+   * Finds the earliest event with a subject.
+   *
+   * @param eventName the subject
+   * @return the earliest event with the subject
+   * @throws IllegalArgumentException if no event has the subject
+   */
+  public Event findEvent(String eventName) {
+    Event event = queries.findBySubject(eventName);
+    if (event == null) {
+      throw new IllegalArgumentException("Event not found");
+    }
+    return event;
+  }
+}
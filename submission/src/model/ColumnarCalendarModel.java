@@ -0,0 +1,409 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+
+/**
+ * A calendar that keeps its events column by column in primitive arrays instead of as one
+ * object per event. Each event takes a fixed number of bytes: its start and end as epoch
+ * seconds, its subject and description as ids into interned string tables, its location and
+ * status as a byte each and its series id as a long. The events handed out are lightweight
+ * views over those columns. It behaves like CalendarModelImpl, except that every occurrence
+ * of a repeating series is stored as an event of its own and times are kept to the second.
+ */
+public class ColumnarCalendarModel implements CalendarModelGUISupport {
+  private final ColumnarEventStore store;
+  private long seriesId;
+  private final String name;
+  private ZoneId timezone;
+
+
+  /**
+   * Constructs a new, empty columnar calendar.
+   *
+   * @param name     the name of the calendar
+   * @param timezone the timezone of the calendar or null or empty for the system timezone
+   * @throws IllegalArgumentException if the name is empty or the timezone is invalid
+   */
+  public ColumnarCalendarModel(String name, String timezone) {
+    if (name == null || name.trim().isEmpty()) {
+      throw new IllegalArgumentException("Calendar name cannot be null or empty");
+    }
+    this.name = name;
+    if (timezone == null || timezone.trim().isEmpty()) {
+      this.timezone = ZoneId.systemDefault();
+    } else {
+      try {
+        this.timezone = ZoneId.of(timezone);
+      } catch (Exception e) {
+        throw new IllegalArgumentException("Invalid timezone format");
+      }
+    }
+    this.store = new ColumnarEventStore();
+    this.seriesId = 1;
+  }
+
+  public ColumnarCalendarModel(String name) {
+    this(name, ZoneId.systemDefault().getId());
+  }
+
+
+  /**
+   * Adds an event to the calendar. An event with a timezone is converted into the timezone of
+   * the calendar, while the times of an event without one are taken to be in the timezone of
+   * the calendar. If either time is missing the event becomes an all day event.
+   *
+   * @param event the event to be added to the calendar.
+   * @throws IllegalArgumentException if the event is null, has neither a start nor an end time
+   *                                  or duplicates an event in the calendar.
+   */
+  @Override
+  public void createEvent(Event event) {
+    insertEvent(event);
+  }
+
+  private int insertEvent(Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("Model.CalendarEvent cannot be null");
+    }
+    Event calendarEvent = event;
+    if (event instanceof CalendarEvent && event.getTimezone() != null) {
+      calendarEvent = event.newTimezone(timezone);
+    }
+    return store.add(EventSupport.allDay(calendarEvent, timezone), timezone);
+  }
+
+  @Override
+  public ZoneId getTimezone() {
+    return timezone;
+  }
+
+  /**
+   * Changes the timezone of the calendar. Events are stored as instants, so nothing has to be
+   * converted: views created afterwards simply show their times in the new zone.
+   *
+   * @param timezone the id of the new timezone
+   * @throws IllegalArgumentException if the timezone is empty or invalid
+   */
+  @Override
+  public void setTimezone(String timezone) {
+    if (timezone == null || timezone.trim().isEmpty()) {
+      throw new IllegalArgumentException("Timezone cannot be null or empty");
+    }
+    try {
+      this.timezone = ZoneId.of(timezone);
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Invalid timezone format");
+    }
+  }
+
+  @Override
+  public void parseEditEvents(LocalDateTime date, String subject, TypingChange change) {
+    int first = store.findStarting(subject, date, timezone);
+    if (first < 0) {
+      throw new IllegalArgumentException("Event does not exist");
+    }
+    Event firstEvent = store.view(first, timezone);
+    List<Event> eventsToEdit = new ArrayList<>();
+    eventsToEdit.add(firstEvent);
+    if (firstEvent.getSeriesId() != null) {
+      for (int row : store.inSeries(firstEvent.getSeriesId())) {
+        Event event = store.view(row, timezone);
+        if (event.getStartTime().isAfter(date)) {
+          eventsToEdit.add(event);
+        }
+      }
+    }
+    editEvents(eventsToEdit, change);
+  }
+
+  @Override
+  public void parseEditEventSeries(String subject, LocalDateTime date, TypingChange change) {
+    int first = store.findStarting(subject, date, timezone);
+    Long seriesId = first < 0 ? 0L : store.view(first, timezone).getSeriesId();
+    editSeries(seriesId, change);
+  }
+
+  /**
+   * Creates a series that repeats the given event on the given days for a number of weeks.
+   * Every occurrence is stored as an event of its own.
+   *
+   * @param startEvent     the first event of the series
+   * @param repeatWhen     the days to repeat on, as letters from MTWRFSU
+   * @param repeatInterval the number of weeks to repeat for
+   * @throws IllegalArgumentException if a day is invalid, the event spans multiple days or
+   *                                  an occurrence duplicates an existing event
+   */
+  @Override
+  public void createAllEvents(Event startEvent, String repeatWhen, int repeatInterval) {
+    List<Character> days = Arrays.asList('M', 'T', 'W', 'R', 'F', 'S', 'U');
+    List<Event> events = new ArrayList<>();
+    events.add(startEvent);
+    LocalDate startDate = startEvent.getStartTime().toLocalDate();
+    LocalTime startTime = startEvent.getStartTime().toLocalTime();
+    LocalTime endTime = startEvent.getEndTime().toLocalTime();
+    for (int i = 0; i < repeatInterval; i++) {
+      for (int j = 0; j < repeatWhen.length(); j++) {
+        if (!days.contains(repeatWhen.charAt(j))) {
+          throw new IllegalArgumentException("Invalid day");
+        }
+        LocalDate date = startDate.plusWeeks(i).plusDays(EventSupport.daysUntil(
+                startEvent.getStartTime(), String.valueOf(repeatWhen.charAt(j))));
+        if (date.equals(startDate)) {
+          continue;
+        }
+        events.add(new CalendarEvent.EventBuilder()
+                .setSubject(startEvent.getSubject())
+                .setStartTime(date.atTime(startTime))
+                .setEndTime(date.atTime(endTime))
+                .build());
+      }
+    }
+    createEvents(events);
+  }
+
+  /**
+   * Adds a list of events to the calendar as a recurring series. Each event must occur
+   * on the same day and the start and end times must not span multiple days.
+   * If any event cannot be added no events are added to the calendar.
+   *
+   * @param events a list of events to be added as a series to the calendar
+   * @throws IllegalArgumentException if the events list is null empty or if the events do not
+   *                                  meet validation requirements
+   */
+  @Override
+  public void createEvents(List<Event> events) {
+    EventSupport.validateSeries(events);
+
+    long seriesId = this.seriesId++;
+    List<Integer> added = new ArrayList<>();
+    try {
+      for (Event e : events) {
+        added.add(insertEvent(EventSupport.seriesMember(e, seriesId)));
+      }
+    } catch (IllegalArgumentException ex) {
+      for (int row : added) {
+        store.remove(row);
+      }
+      store.compact();
+      throw new IllegalArgumentException("Duplicate exists in series");
+    }
+  }
+
+  /**
+   * Edits an existing event in the calendar by updating its properties based on the given change.
+   *
+   * @param id     the id of the event.
+   * @param change the property change to be applied to the event specifying the field to
+   *               change and its new value
+   * @throws IllegalArgumentException if the event identifier or change is null,
+   *                                  the event does not exist,
+   *                                  or the updated event conflicts with another event
+   */
+  @Override
+  public Event editEvent(Identifier id, TypingChange change, boolean isSeries) {
+    if (id == null || change == null) {
+      throw new IllegalArgumentException("ID and Change cannot be null");
+    }
+
+    if (change.getNewValue() instanceof LocalDateTime) {
+      for (Event e : getEventsOnDate(id.getStartTime().toLocalDate())) {
+        if (e.getStartTime().equals(change.getNewValue())) {
+          throw new IllegalArgumentException("Time already exists");
+        }
+      }
+    }
+
+    int row = resolve(id.getSubject(), id.getStartTime(), id.getEndTime());
+    if (row < 0) {
+      throw new IllegalArgumentException("Event does not exist");
+    }
+    Event updatedEvent = EventSupport.applyChange(store.view(row, timezone), change, isSeries);
+    store.replace(new int[]{row}, Arrays.asList(updatedEvent), timezone);
+    store.compact();
+    return updatedEvent;
+  }
+
+  /**
+   * Edits all events in a series by updating their properties based on the provided change.
+   *
+   * @param seriesId the ID of the series to edit
+   * @param change   the change to be applied to all events in the series
+   * @throws IllegalArgumentException if the series ID is null or no events found for the series
+   */
+  @Override
+  public void editSeries(Long seriesId, TypingChange change) {
+    if (seriesId == null) {
+      throw new IllegalArgumentException("Series ID cannot be null");
+    }
+    int[] rows = store.inSeries(seriesId);
+    if (rows.length == 0) {
+      throw new IllegalArgumentException("No events found for the given series ID");
+    }
+    editAll(rows, change);
+  }
+
+  /**
+   * Edits a list of existing events in the calendar by updating their properties
+   * based on the provided values. Either every event is edited or none are.
+   *
+   * @param events a list of events containing the updated details to be applied to
+   *               existing calendar events
+   * @throws IllegalArgumentException if the provided list of events is null empty
+   *                                  or any event does not exist
+   */
+  @Override
+  public void editEvents(List<Event> events, TypingChange change) {
+    if (events == null || events.isEmpty()) {
+      throw new IllegalArgumentException("Events cannot be empty or have no value");
+    }
+    if (change == null) {
+      throw new IllegalArgumentException("ID and Change cannot be null");
+    }
+
+    int[] rows = new int[events.size()];
+    for (int i = 0; i < rows.length; i++) {
+      Event event = events.get(i);
+      rows[i] = resolve(event.getSubject(), event.getStartTime(), event.getEndTime());
+      if (rows[i] < 0) {
+        throw new IllegalArgumentException("Event does not exist");
+      }
+    }
+    editAll(rows, change);
+  }
+
+  /**
+   * Applies one change to many rows in a single bulk update. Time changes keep each event on
+   * its own date, as for a series.
+   */
+  private void editAll(int[] rows, TypingChange change) {
+    List<Event> updated = new ArrayList<>(rows.length);
+    for (int row : rows) {
+      updated.add(EventSupport.applyChange(store.view(row, timezone), change, true));
+    }
+    store.replace(rows, updated, timezone);
+    store.compact();
+  }
+
+  /**
+   * Finds the row of an event by its subject, start and end, falling back to the first event
+   * with the subject and start when the end does not match.
+   */
+  private int resolve(String subject, LocalDateTime start, LocalDateTime end) {
+    if (end != null) {
+      int row = store.find(subject, start, end, timezone);
+      if (row >= 0) {
+        return row;
+      }
+    }
+    return store.findStarting(subject, start, timezone);
+  }
+
+
+  /**
+   * Retrieves a list of events scheduled on the specified date. Events are included
+   * if the specified date falls within their start and end dates.
+   *
+   * @param date the date for which events should be retrieved
+   * @return a list of events on the date or an empty list if no matching events are found
+   * @throws IllegalArgumentException if the provided date is null
+   */
+  @Override
+  public List<Event> getEventsOnDate(LocalDate date) {
+    if (date == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    return store.overlapping(date.atStartOfDay(), date.atTime(LocalTime.MAX), timezone);
+  }
+
+  @Override
+  public List<Event> getEventsBetween(LocalDateTime dateFrom, LocalDateTime dateTo) {
+    if (dateFrom == null || dateTo == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    return store.within(dateFrom, dateTo, timezone);
+  }
+
+
+  @Override
+  public String getStatusMessage(LocalDateTime date) {
+    if (date == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    if (!store.overlapping(date, date, timezone).isEmpty()) {
+      return "Busy.";
+    }
+    return "Available.";
+  }
+
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+
+  @Override
+  public List<Event> eventsToBeShown(LocalDate date) {
+    LocalDateTime from = date.atStartOfDay();
+    List<Event> events = getNextEvents(from, 10);
+    if (events.size() >= 10) {
+      LocalDateTime endTime = events.get(9).getEndTime();
+      return getEventsBetween(from, endTime);
+    } else {
+      return events;
+    }
+  }
+
+  @Override
+  public List<Event> getNextEvents(LocalDateTime from, int count) {
+    if (from == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    if (count < 0) {
+      throw new IllegalArgumentException("Count cannot be negative");
+    }
+    return store.startingFrom(from, count, timezone);
+  }
+
+  @Override
+  public Iterator<Event> eventsFrom(LocalDateTime from) {
+    if (from == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    return store.iteratorFrom(from, timezone);
+  }
+
+  @Override
+  public List<String> allEvents() {
+    return allEvents("");
+  }
+
+  @Override
+  public List<String> allEvents(String prefix) {
+    if (prefix == null) {
+      throw new IllegalArgumentException("Prefix cannot be null");
+    }
+    List<String> labels = new ArrayList<>();
+    for (Event event : store.withSubjectPrefix(prefix, timezone)) {
+      labels.add(event.getSubject() + " " + event.getStartTime().toString());
+    }
+    return labels;
+  }
+
+  @Override
+  public Event findEvent(String eventName) {
+    int row = store.firstWithSubject(eventName);
+    if (row < 0) {
+      throw new IllegalArgumentException("Event not found");
+    }
+    return store.view(row, timezone);
+  }
+}
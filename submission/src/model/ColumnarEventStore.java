@@ -0,0 +1,749 @@
+package model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Stores the events of a calendar column by column in primitive arrays. A row holds the start
+ * and end of an event in epoch seconds, its subject and description as ids into interned
+ * string tables, its location and status as bytes and its series id as a long. Rows are only
+ * ever appended: removing a row marks it as dead and editing an event appends a new row, so
+ * the views handed out for a row keep showing the event as it was when they were created.
+ * Dead rows are dropped by compact, which starts a new set of columns.
+ * Rows are kept in start order through a sorted permutation, with newly appended rows
+ * collected in an unsorted tail that is merged in by the next query. Duplicates are found
+ * through an open addressing table over the (subject, start, end) of the live rows.
+ */
+class ColumnarEventStore {
+  private static final long NO_SERIES = Long.MIN_VALUE;
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final StringTable subjects;
+  private final StringTable descriptions;
+  private Columns columns;
+  private int live;
+  private long maxDuration;
+  private int[] order;
+  private long[] orderStart;
+  private int orderSize;
+  private int[] tail;
+  private int tailSize;
+  private int[] slots;
+  private int usedSlots;
+
+  /**
+   * Constructs an empty store.
+   */
+  ColumnarEventStore() {
+    this.subjects = new StringTable();
+    this.descriptions = new StringTable();
+    this.columns = new Columns(subjects, descriptions, INITIAL_CAPACITY);
+    this.live = 0;
+    this.maxDuration = 0;
+    this.order = new int[INITIAL_CAPACITY];
+    this.orderStart = new long[INITIAL_CAPACITY];
+    this.orderSize = 0;
+    this.tail = new int[INITIAL_CAPACITY];
+    this.tailSize = 0;
+    this.slots = new int[INITIAL_CAPACITY * 2];
+    this.usedSlots = 0;
+  }
+
+  /**
+   * Converts a time in the given zone into epoch seconds. Anything below a second is dropped.
+   *
+   * @param time the time to convert
+   * @param zone the zone of the time
+   * @return the epoch second of the time
+   */
+  static long toEpoch(LocalDateTime time, ZoneId zone) {
+    return time.atZone(zone).toEpochSecond();
+  }
+
+  /**
+   * Converts epoch seconds into a time in the given zone.
+   *
+   * @param epochSecond the epoch second to convert
+   * @param zone        the zone to express the time in
+   * @return the time in the zone
+   */
+  static LocalDateTime toLocal(long epochSecond, ZoneId zone) {
+    return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), zone);
+  }
+
+  /**
+   * Gets the number of live events.
+   *
+   * @return the number of events in the store
+   */
+  int size() {
+    return live;
+  }
+
+  /**
+   * Adds an event after checking that no event with the same subject, start and end exists.
+   *
+   * @param event the event to add, with times in the given zone
+   * @param zone  the zone of the calendar
+   * @return the row of the event
+   * @throws IllegalArgumentException if the event is a duplicate
+   */
+  int add(Event event, ZoneId zone) {
+    long start = toEpoch(event.getStartTime(), zone);
+    long end = toEpoch(event.getEndTime(), zone);
+    int subject = subjects.intern(event.getSubject());
+    if (findRow(subject, start, end) >= 0) {
+      throw new IllegalArgumentException("Event exists already.");
+    }
+    return append(subject, start, end, event);
+  }
+
+  /**
+   * Finds the live row with exactly the given subject, start and end.
+   *
+   * @param subject the subject of the event
+   * @param start   the start time in the given zone
+   * @param end     the end time in the given zone
+   * @param zone    the zone of the calendar
+   * @return the row or -1 if there is no such event
+   */
+  int find(String subject, LocalDateTime start, LocalDateTime end, ZoneId zone) {
+    int id = subjects.idOf(subject);
+    if (id < 0) {
+      return -1;
+    }
+    return findRow(id, toEpoch(start, zone), toEpoch(end, zone));
+  }
+
+  /**
+   * Finds the first live row with the given subject and start, whatever its end.
+   *
+   * @param subject the subject of the event
+   * @param start   the start time in the given zone
+   * @param zone    the zone of the calendar
+   * @return the row or -1 if there is no such event
+   */
+  int findStarting(String subject, LocalDateTime start, ZoneId zone) {
+    int id = subjects.idOf(subject);
+    if (id < 0) {
+      return -1;
+    }
+    mergeTail();
+    long epoch = toEpoch(start, zone);
+    for (int i = lowerBound(epoch); i < orderSize && orderStart[i] == epoch; i++) {
+      int row = order[i];
+      if (!columns.dead.get(row) && columns.subject[row] == id) {
+        return row;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Removes a live row.
+   *
+   * @param row the row to remove
+   */
+  void remove(int row) {
+    if (row < 0 || row >= columns.size || columns.dead.get(row)) {
+      return;
+    }
+    unhash(row);
+    columns.dead.set(row);
+    live--;
+  }
+
+  /**
+   * Replaces many rows at once. Every replacement is validated before anything is changed,
+   * so either all of them are applied or none are.
+   *
+   * @param rows    the live rows to replace
+   * @param updated the events taking their places, with times in the given zone
+   * @param zone    the zone of the calendar
+   * @throws IllegalArgumentException if a row is not live or the updates would create a
+   *                                  duplicate
+   */
+  void replace(int[] rows, List<Event> updated, ZoneId zone) {
+    if (rows.length != updated.size()) {
+      throw new IllegalArgumentException("Every event needs exactly one replacement");
+    }
+    Set<Integer> leaving = new HashSet<>();
+    for (int row : rows) {
+      if (row < 0 || row >= columns.size || columns.dead.get(row) || !leaving.add(row)) {
+        throw new IllegalArgumentException("Event does not exist");
+      }
+    }
+    long[] starts = new long[rows.length];
+    long[] ends = new long[rows.length];
+    int[] ids = new int[rows.length];
+    Set<List<Long>> arriving = new HashSet<>();
+    for (int i = 0; i < rows.length; i++) {
+      Event event = updated.get(i);
+      starts[i] = toEpoch(event.getStartTime(), zone);
+      ends[i] = toEpoch(event.getEndTime(), zone);
+      ids[i] = subjects.intern(event.getSubject());
+      int existing = findRow(ids[i], starts[i], ends[i]);
+      if ((existing >= 0 && !leaving.contains(existing))
+              || !arriving.add(Arrays.asList((long) ids[i], starts[i], ends[i]))) {
+        throw new IllegalArgumentException("Event exists already.");
+      }
+    }
+    for (int row : rows) {
+      remove(row);
+    }
+    for (int i = 0; i < rows.length; i++) {
+      append(ids[i], starts[i], ends[i], updated.get(i));
+    }
+  }
+
+  /**
+   * Gets views of the live events overlapping the given range, inclusive of both ends, in
+   * start order.
+   *
+   * @param from the start of the range
+   * @param to   the end of the range
+   * @param zone the zone of the calendar
+   * @return the events taking place at some point in the range
+   */
+  List<Event> overlapping(LocalDateTime from, LocalDateTime to, ZoneId zone) {
+    mergeTail();
+    long start = toEpoch(from, zone);
+    long end = toEpoch(to, zone);
+    List<Event> events = new ArrayList<>();
+    for (int i = lowerBound(start - maxDuration); i < orderSize && orderStart[i] <= end; i++) {
+      int row = order[i];
+      if (!columns.dead.get(row) && columns.end[row] >= start) {
+        events.add(new EventView(columns, row, zone));
+      }
+    }
+    return events;
+  }
+
+  /**
+   * Gets views of the live events that start at or after the given start and end at or
+   * before the given end, in start order.
+   *
+   * @param from the earliest start of a returned event
+   * @param to   the latest end of a returned event
+   * @param zone the zone of the calendar
+   * @return the events fully contained in the range
+   */
+  List<Event> within(LocalDateTime from, LocalDateTime to, ZoneId zone) {
+    mergeTail();
+    long end = toEpoch(to, zone);
+    List<Event> events = new ArrayList<>();
+    for (int i = lowerBound(toEpoch(from, zone)); i < orderSize && orderStart[i] <= end; i++) {
+      int row = order[i];
+      if (!columns.dead.get(row) && columns.end[row] <= end) {
+        events.add(new EventView(columns, row, zone));
+      }
+    }
+    return events;
+  }
+
+  /**
+   * Gets views of the first live events starting at or after the given time, in start order.
+   *
+   * @param from  the earliest start of a returned event
+   * @param count the maximum number of events
+   * @param zone  the zone of the calendar
+   * @return the next events
+   */
+  List<Event> startingFrom(LocalDateTime from, int count, ZoneId zone) {
+    mergeTail();
+    List<Event> events = new ArrayList<>();
+    for (int i = lowerBound(toEpoch(from, zone)); i < orderSize && events.size() < count; i++) {
+      if (!columns.dead.get(order[i])) {
+        events.add(new EventView(columns, order[i], zone));
+      }
+    }
+    return events;
+  }
+
+  /**
+   * Walks views of the live events starting at or after the given time, in start order,
+   * making each view only when it is reached.
+   *
+   * @param from the earliest start
+   * @param zone the zone of the calendar
+   * @return the events starting at or after from
+   */
+  Iterator<Event> iteratorFrom(LocalDateTime from, ZoneId zone) {
+    mergeTail();
+    int first = lowerBound(toEpoch(from, zone));
+    return new Iterator<Event>() {
+      private int next = skipDead(first);
+
+      @Override
+      public boolean hasNext() {
+        return next < orderSize;
+      }
+
+      @Override
+      public Event next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        Event event = new EventView(columns, order[next], zone);
+        next = skipDead(next + 1);
+        return event;
+      }
+    };
+  }
+
+  private int skipDead(int i) {
+    while (i < orderSize && columns.dead.get(order[i])) {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Gets the live rows of a series.
+   *
+   * @param seriesId the id of the series
+   * @return the rows of the series in the order they were added
+   */
+  int[] inSeries(long seriesId) {
+    int[] rows = new int[0];
+    int count = 0;
+    for (int row = columns.dead.nextClearBit(0); row < columns.size;
+         row = columns.dead.nextClearBit(row + 1)) {
+      if (columns.series[row] == seriesId) {
+        if (count == rows.length) {
+          rows = Arrays.copyOf(rows, Math.max(4, count * 2));
+        }
+        rows[count++] = row;
+      }
+    }
+    return Arrays.copyOf(rows, count);
+  }
+
+  /**
+   * Gets views of the live events whose subject starts with the given prefix, ordered by
+   * subject and then by start.
+   *
+   * @param prefix the prefix of the subjects
+   * @param zone   the zone of the calendar
+   * @return the matching events
+   */
+  List<Event> withSubjectPrefix(String prefix, ZoneId zone) {
+    List<Integer> rows = new ArrayList<>();
+    for (int row = columns.dead.nextClearBit(0); row < columns.size;
+         row = columns.dead.nextClearBit(row + 1)) {
+      if (subjects.get(columns.subject[row]).startsWith(prefix)) {
+        rows.add(row);
+      }
+    }
+    Columns current = columns;
+    rows.sort((a, b) -> {
+      int bySubject = subjects.get(current.subject[a]).compareTo(subjects.get(current.subject[b]));
+      return bySubject != 0 ? bySubject : Long.compare(current.start[a], current.start[b]);
+    });
+    List<Event> events = new ArrayList<>(rows.size());
+    for (int row : rows) {
+      events.add(new EventView(columns, row, zone));
+    }
+    return events;
+  }
+
+  /**
+   * Finds the earliest added live row with the given subject.
+   *
+   * @param subject the subject of the event
+   * @return the row or -1 if there is no such event
+   */
+  int firstWithSubject(String subject) {
+    int id = subjects.idOf(subject);
+    for (int row = columns.dead.nextClearBit(0); id >= 0 && row < columns.size;
+         row = columns.dead.nextClearBit(row + 1)) {
+      if (columns.subject[row] == id) {
+        return row;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Creates a view of a row.
+   *
+   * @param row  the row
+   * @param zone the zone the view shows times in
+   * @return the view of the event in the row
+   */
+  Event view(int row, ZoneId zone) {
+    return new EventView(columns, row, zone);
+  }
+
+  /**
+   * Drops the dead rows once they outnumber the live ones, rewriting the live rows in start
+   * order. Row numbers change, so this must only be called when no rows are held.
+   */
+  void compact() {
+    int dead = columns.size - live;
+    if (dead <= live || columns.size < INITIAL_CAPACITY) {
+      return;
+    }
+    mergeTail();
+    Columns old = columns;
+    int[] oldOrder = order;
+    int oldOrderSize = orderSize;
+    columns = new Columns(subjects, descriptions, Math.max(INITIAL_CAPACITY, live));
+    live = 0;
+    maxDuration = 0;
+    order = new int[columns.start.length];
+    orderStart = new long[columns.start.length];
+    orderSize = 0;
+    slots = new int[Math.max(INITIAL_CAPACITY, Integer.highestOneBit(oldOrderSize) * 4)];
+    usedSlots = 0;
+    for (int i = 0; i < oldOrderSize; i++) {
+      int row = oldOrder[i];
+      if (!old.dead.get(row)) {
+        int copy = copyRow(old, row);
+        pushOrder(copy, columns.start[copy]);
+      }
+    }
+  }
+
+  private int copyRow(Columns from, int row) {
+    int copy = columns.append(from.subject[row], from.start[row], from.end[row],
+            from.desc[row], from.location[row], from.status[row], from.series[row]);
+    live++;
+    maxDuration = Math.max(maxDuration, from.end[row] - from.start[row]);
+    hash(copy);
+    return copy;
+  }
+
+  private int append(int subject, long start, long end, Event event) {
+    int row = columns.append(subject, start, end, descriptions.intern(event.getDesc()),
+            event.getLocation() == null ? 0 : (byte) (event.getLocation().ordinal() + 1),
+            event.getStatus() == null ? 0 : (byte) (event.getStatus().ordinal() + 1),
+            event.getSeriesId() == null ? NO_SERIES : event.getSeriesId());
+    live++;
+    maxDuration = Math.max(maxDuration, end - start);
+    hash(row);
+    if (tailSize == tail.length) {
+      tail = Arrays.copyOf(tail, tailSize * 2);
+    }
+    tail[tailSize++] = row;
+    return row;
+  }
+
+  private void pushOrder(int row, long start) {
+    if (orderSize == order.length) {
+      order = Arrays.copyOf(order, orderSize * 2);
+      orderStart = Arrays.copyOf(orderStart, orderSize * 2);
+    }
+    order[orderSize] = row;
+    orderStart[orderSize] = start;
+    orderSize++;
+  }
+
+  /**
+   * Sorts the rows appended since the last query and merges them into the start order,
+   * dropping dead rows on the way.
+   */
+  private void mergeTail() {
+    if (tailSize == 0) {
+      return;
+    }
+    long[] keys = new long[tailSize];
+    Integer[] sortedTail = new Integer[tailSize];
+    for (int i = 0; i < tailSize; i++) {
+      sortedTail[i] = tail[i];
+    }
+    Arrays.sort(sortedTail, (a, b) -> {
+      int byStart = Long.compare(columns.start[a], columns.start[b]);
+      return byStart != 0 ? byStart : Integer.compare(a, b);
+    });
+    for (int i = 0; i < tailSize; i++) {
+      keys[i] = columns.start[sortedTail[i]];
+    }
+    int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(orderSize + tailSize) * 2);
+    int[] merged = new int[capacity];
+    long[] mergedStart = new long[capacity];
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while (i < orderSize || j < tailSize) {
+      boolean fromOrder = j == tailSize
+              || (i < orderSize && orderStart[i] <= keys[j]);
+      int row = fromOrder ? order[i] : sortedTail[j];
+      long start = fromOrder ? orderStart[i++] : keys[j++];
+      if (!columns.dead.get(row)) {
+        merged[size] = row;
+        mergedStart[size] = start;
+        size++;
+      }
+    }
+    order = merged;
+    orderStart = mergedStart;
+    orderSize = size;
+    tailSize = 0;
+  }
+
+  private int lowerBound(long start) {
+    int low = 0;
+    int high = orderSize;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (orderStart[mid] < start) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private int findRow(int subject, long start, long end) {
+    int mask = slots.length - 1;
+    for (int slot = mix(subject, start, end) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+      int row = slots[slot] - 1;
+      if (row >= 0 && columns.subject[row] == subject && columns.start[row] == start
+              && columns.end[row] == end) {
+        return row;
+      }
+    }
+    return -1;
+  }
+
+  private void hash(int row) {
+    if ((usedSlots + 1) * 2 > slots.length) {
+      rehash();
+    }
+    int mask = slots.length - 1;
+    int slot = mix(columns.subject[row], columns.start[row], columns.end[row]) & mask;
+    while (slots[slot] > 0) {
+      slot = (slot + 1) & mask;
+    }
+    if (slots[slot] == 0) {
+      usedSlots++;
+    }
+    slots[slot] = row + 1;
+  }
+
+  private void unhash(int row) {
+    int mask = slots.length - 1;
+    int slot = mix(columns.subject[row], columns.start[row], columns.end[row]) & mask;
+    while (slots[slot] != 0) {
+      if (slots[slot] == row + 1) {
+        slots[slot] = -1;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private void rehash() {
+    int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, live)) * 4);
+    int[] old = slots;
+    slots = new int[capacity];
+    usedSlots = 0;
+    for (int entry : old) {
+      if (entry > 0) {
+        hash(entry - 1);
+      }
+    }
+  }
+
+  private static int mix(int subject, long start, long end) {
+    long h = subject * 0x9E3779B97F4A7C15L;
+    h = (h ^ start) * 0xC2B2AE3D27D4EB4FL;
+    h = (h ^ end) * 0x165667B19E3779F9L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  /**
+   * Interns strings so that every column holding text only needs an int per row.
+   */
+  static final class StringTable {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    int intern(String value) {
+      Integer id = ids.get(value);
+      if (id == null) {
+        id = values.size();
+        ids.put(value, id);
+        values.add(value);
+      }
+      return id;
+    }
+
+    int idOf(String value) {
+      Integer id = ids.get(value);
+      return id == null ? -1 : id;
+    }
+
+    String get(int id) {
+      return values.get(id);
+    }
+  }
+
+  /**
+   * One generation of columns. Appending may grow the arrays, but a row is never written
+   * again once it has been appended.
+   */
+  static final class Columns {
+    private final StringTable subjects;
+    private final StringTable descriptions;
+    private final BitSet dead;
+    private long[] start;
+    private long[] end;
+    private int[] subject;
+    private int[] desc;
+    private byte[] location;
+    private byte[] status;
+    private long[] series;
+    private int size;
+
+    private Columns(StringTable subjects, StringTable descriptions, int capacity) {
+      this.subjects = subjects;
+      this.descriptions = descriptions;
+      this.dead = new BitSet();
+      this.start = new long[capacity];
+      this.end = new long[capacity];
+      this.subject = new int[capacity];
+      this.desc = new int[capacity];
+      this.location = new byte[capacity];
+      this.status = new byte[capacity];
+      this.series = new long[capacity];
+      this.size = 0;
+    }
+
+    private int append(int subjectId, long startSecond, long endSecond, int descId,
+                       byte locationCode, byte statusCode, long seriesId) {
+      if (size == start.length) {
+        int capacity = size * 2;
+        start = Arrays.copyOf(start, capacity);
+        end = Arrays.copyOf(end, capacity);
+        subject = Arrays.copyOf(subject, capacity);
+        desc = Arrays.copyOf(desc, capacity);
+        location = Arrays.copyOf(location, capacity);
+        status = Arrays.copyOf(status, capacity);
+        series = Arrays.copyOf(series, capacity);
+      }
+      start[size] = startSecond;
+      end[size] = endSecond;
+      subject[size] = subjectId;
+      desc[size] = descId;
+      location[size] = locationCode;
+      status[size] = statusCode;
+      series[size] = seriesId;
+      return size++;
+    }
+  }
+
+  /**
+   * A flyweight view of one row. Views are equal when they show the same subject, start and
+   * end, like calendar events are.
+   */
+  static final class EventView implements Event {
+    private final Columns columns;
+    private final int row;
+    private final ZoneId zone;
+
+    private EventView(Columns columns, int row, ZoneId zone) {
+      this.columns = columns;
+      this.row = row;
+      this.zone = zone;
+    }
+
+    @Override
+    public String getSubject() {
+      return columns.subjects.get(columns.subject[row]);
+    }
+
+    @Override
+    public LocalDateTime getStartTime() {
+      return toLocal(columns.start[row], zone);
+    }
+
+    @Override
+    public LocalDateTime getEndTime() {
+      return toLocal(columns.end[row], zone);
+    }
+
+    @Override
+    public EventLocation getLocation() {
+      int code = columns.location[row];
+      return code == 0 ? null : EventLocation.values()[code - 1];
+    }
+
+    @Override
+    public Long getSeriesId() {
+      long id = columns.series[row];
+      return id == NO_SERIES ? null : id;
+    }
+
+    @Override
+    public EventStatus getStatus() {
+      int code = columns.status[row];
+      return code == 0 ? null : EventStatus.values()[code - 1];
+    }
+
+    @Override
+    public String getDesc() {
+      return columns.descriptions.get(columns.desc[row]);
+    }
+
+    @Override
+    public ZoneId getTimezone() {
+      return zone;
+    }
+
+    @Override
+    public Event newTimezone(ZoneId newTimezone) {
+      if (newTimezone == null) {
+        throw new IllegalArgumentException("New timezone cannot be null");
+      }
+      return new EventView(columns, row, newTimezone).toCalendarEvent();
+    }
+
+    private CalendarEvent toCalendarEvent() {
+      CalendarEvent.EventBuilder builder = new CalendarEvent.EventBuilder()
+              .setSubject(getSubject())
+              .setStartTime(getStartTime())
+              .setEndTime(getEndTime())
+              .setDesc(getDesc())
+              .setSeriesId(getSeriesId())
+              .setTimezone(zone);
+      if (getLocation() != null) {
+        builder.setLocation(getLocation().toString());
+      }
+      if (getStatus() != null) {
+        builder.setStatus(getStatus().toString());
+      }
+      return builder.build();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof EventView)) {
+        return false;
+      }
+      EventView other = (EventView) o;
+      return getSubject().equals(other.getSubject())
+              && columns.start[row] == other.columns.start[other.row]
+              && columns.end[row] == other.columns.end[other.row];
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(getSubject(), columns.start[row], columns.end[row]);
+    }
+  }
+}
@@ -0,0 +1,345 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A calendar that any number of threads can use at once. Its events are kept in a
+ * CalendarModelImpl that only one change at a time may touch, and after each change the
+ * calendar publishes an immutable CalendarVersion of itself. Queries read the latest version
+ * with a single volatile read and never wait for a change, and since a version is only
+ * published once a call has finished, a series created, edited or moved by one call is seen
+ * either entirely before or entirely after the change, never half applied.
+ */
+public class ConcurrentCalendarModel implements CalendarModelGUISupport {
+  private final CalendarModelImpl calendar;
+  private final PersistentEventIndex index;
+  private final Lock writeLock;
+  private Map<RecurrenceRule, RecurrenceRule> ruleCopies;
+  private volatile CalendarVersion version;
+  private volatile boolean tracksOccupancy;
+
+  /**
+   * Constructs an empty calendar.
+   *
+   * @param name     the name of the calendar
+   * @param timezone the timezone of the calendar
+   */
+  public ConcurrentCalendarModel(String name, String timezone) {
+    this.index = new PersistentEventIndex();
+    this.calendar = new CalendarModelImpl(name, timezone, index);
+    this.writeLock = new ReentrantLock();
+    this.ruleCopies = new IdentityHashMap<>();
+    publish();
+  }
+
+  /**
+   * Constructs an empty calendar in the timezone of the system.
+   *
+   * @param name the name of the calendar
+   */
+  public ConcurrentCalendarModel(String name) {
+    this(name, ZoneId.systemDefault().getId());
+  }
+
+  /**
+   * Gets the latest published version of the calendar. It never changes, so it can be held
+   * and queried for as long as needed, for instance to draw a view or write an export that
+   * is consistent from start to end.
+   *
+   * @return the current version
+   */
+  public CalendarVersion snapshot() {
+    return version;
+  }
+
+  /**
+   * Publishes the state the calendar is in after a change. The index is shared with the
+   * calendar and every earlier version; only the rules that gained an exception since the
+   * last version are copied, as rules are the one part of the store changed in place.
+   */
+  private void publish() {
+    Map<RecurrenceRule, RecurrenceRule> copies = new IdentityHashMap<>();
+    List<RecurrenceRule> rules = new ArrayList<>();
+    for (RecurrenceRule rule : calendar.getStore().storedRules()) {
+      RecurrenceRule copy = ruleCopies.get(rule);
+      if (copy == null || copy.size() != rule.size()) {
+        copy = rule.withTemplate(rule.getTemplate());
+      }
+      copies.put(rule, copy);
+      rules.add(copy);
+    }
+    ruleCopies = copies;
+    version = new CalendarVersion(calendar.getName(), calendar.getTimezone(), index.snapshot(),
+            rules);
+  }
+
+  private <T> T write(Supplier<T> change) {
+    writeLock.lock();
+    try {
+      return change.get();
+    } finally {
+      publish();
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Answers a query from the calendar itself rather than from a version, for the queries
+   * that only the calendar can answer. It waits for the change being made, if any.
+   */
+  private <T> T read(Supplier<T> query) {
+    writeLock.lock();
+    try {
+      return query.get();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private void write(Runnable change) {
+    writeLock.lock();
+    try {
+      change.run();
+    } finally {
+      publish();
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void createEvent(Event event) {
+    write(() -> calendar.createEvent(event));
+  }
+
+  @Override
+  public void createEvents(List<Event> events) {
+    write(() -> calendar.createEvents(events));
+  }
+
+  @Override
+  public List<RuntimeException> createEachEvent(List<Event> events) {
+    return write(() -> calendar.createEachEvent(events));
+  }
+
+  @Override
+  public void createAllEvents(Event startEvent, String repeatWhen, int repeatInterval) {
+    write(() -> calendar.createAllEvents(startEvent, repeatWhen, repeatInterval));
+  }
+
+  @Override
+  public Event editEvent(Identifier id, TypingChange change, boolean isSeries) {
+    return write(() -> calendar.editEvent(id, change, isSeries));
+  }
+
+  @Override
+  public void editEvents(List<Event> events, TypingChange change) {
+    write(() -> calendar.editEvents(events, change));
+  }
+
+  @Override
+  public void editSeries(Long seriesId, TypingChange change) {
+    write(() -> calendar.editSeries(seriesId, change));
+  }
+
+  @Override
+  public void applyBatch(CalendarBatch batch) {
+    write(() -> calendar.applyBatch(batch));
+  }
+
+  @Override
+  public void parseEditEvents(LocalDateTime date, String subject, TypingChange change) {
+    write(() -> calendar.parseEditEvents(date, subject, change));
+  }
+
+  @Override
+  public void parseEditEventSeries(String subject, LocalDateTime date, TypingChange change) {
+    write(() -> calendar.parseEditEventSeries(subject, date, change));
+  }
+
+  @Override
+  public void setTimezone(String timezone) {
+    write(() -> calendar.setTimezone(timezone));
+  }
+
+  /**
+   * Turns the occupancy maps of the calendar on or off, as CalendarModelImpl does. The maps
+   * are kept by the calendar behind this one, so while they are on the status at a time is
+   * answered from them under the write lock, as a single bit test, rather than from the
+   * current version.
+   *
+   * @param enabled whether to keep the maps
+   */
+  public void setOccupancyTracking(boolean enabled) {
+    write(() -> {
+      calendar.setOccupancyTracking(enabled);
+      tracksOccupancy = enabled;
+    });
+  }
+
+  /**
+   * Turns the strict mode of the calendar on or off, as CalendarModelImpl does.
+   *
+   * @param strict whether to refuse overlaps
+   */
+  public void setStrictNoOverlap(boolean strict) {
+    write(() -> calendar.setStrictNoOverlap(strict));
+  }
+
+  /**
+   * Finds the events that overlap a range, as CalendarModelImpl does.
+   *
+   * @param start the start of the range
+   * @param end   the end of the range
+   * @return the overlapping events in start order
+   * @throws IllegalArgumentException if a time is null or the range ends before it starts
+   */
+  public List<Event> getConflicts(LocalDateTime start, LocalDateTime end) {
+    return read(() -> calendar.getConflicts(start, end));
+  }
+
+  /**
+   * Finds the events that an event would overlap if it were added, as CalendarModelImpl
+   * does.
+   *
+   * @param event the candidate event
+   * @return the overlapping events in start order
+   * @throws IllegalArgumentException if the event is null
+   */
+  public List<Event> getConflicts(Event event) {
+    return read(() -> calendar.getConflicts(event));
+  }
+
+  /**
+   * Finds the events that a series would overlap if it were created, as CalendarModelImpl
+   * does.
+   *
+   * @param startEvent     the first event of the series
+   * @param repeatWhen     the days to repeat on, as letters from MTWRFSU
+   * @param repeatInterval the number of weeks to repeat for
+   * @return the overlapping events in start order
+   * @throws IllegalArgumentException if a day is invalid or the event spans multiple days
+   */
+  public List<Event> getSeriesConflicts(Event startEvent, String repeatWhen,
+                                        int repeatInterval) {
+    return read(() -> calendar.getSeriesConflicts(startEvent, repeatWhen, repeatInterval));
+  }
+
+  /**
+   * Changes the name of the calendar, as it is known by in the model that holds it.
+   *
+   * @param name the new name
+   */
+  void setName(String name) {
+    write(() -> calendar.setName(name));
+  }
+
+  /**
+   * Adds copies of events from another calendar as one change, as CalendarModelImpl does.
+   *
+   * @param events the events to copy, in the zone of their own calendar
+   * @param days   the number of days the copies are moved by
+   */
+  void addCopies(List<Event> events, long days) {
+    write(() -> calendar.addCopies(events, days));
+  }
+
+  /**
+   * Runs an action on the calendar behind this one while no other change can be made, then
+   * publishes the calendar as the action left it. Snapshots use it to read and restore the
+   * parts of a calendar that are not part of its interface.
+   *
+   * @param action the action
+   */
+  void withCalendar(Consumer<CalendarModelImpl> action) {
+    write(() -> action.accept(calendar));
+  }
+
+  @Override
+  public ZoneId getTimezone() {
+    return version.getTimezone();
+  }
+
+  @Override
+  public String getName() {
+    return version.getName();
+  }
+
+  @Override
+  public List<Event> getEventsOnDate(LocalDate date) {
+    return version.getEventsOnDate(date);
+  }
+
+  @Override
+  public List<Event> getEventsBetween(LocalDateTime dateFrom, LocalDateTime dateTo) {
+    return version.getEventsBetween(dateFrom, dateTo);
+  }
+
+  @Override
+  public String getStatusMessage(LocalDateTime date) {
+    if (tracksOccupancy) {
+      return read(() -> calendar.getStatusMessage(date));
+    }
+    return version.getStatusMessage(date);
+  }
+
+  /**
+   * Gets the occupancy map of a UTC day from the calendar behind this one, which keeps the
+   * map when occupancy tracking is on and otherwise builds it from its range index.
+   *
+   * @param date the UTC day
+   * @return the map of the day
+   * @throws IllegalArgumentException if the date is null
+   */
+  @Override
+  public long[] getOccupancy(LocalDate date) {
+    return read(() -> calendar.getOccupancy(date));
+  }
+
+  @Override
+  public List<Event> eventsToBeShown(LocalDate date) {
+    return version.eventsToBeShown(date);
+  }
+
+  @Override
+  public List<Event> getNextEvents(LocalDateTime from, int count) {
+    return version.getNextEvents(from, count);
+  }
+
+  /**
+   * Gets the events from a time onwards in start order, as they are in the current version.
+   * The iterator stays valid however the calendar changes afterwards.
+   *
+   * @param from the time events are walked from
+   * @return an iterator over the events
+   */
+  @Override
+  public Iterator<Event> eventsFrom(LocalDateTime from) {
+    return version.eventsFrom(from);
+  }
+
+  @Override
+  public List<String> allEvents() {
+    return version.allEvents();
+  }
+
+  @Override
+  public List<String> allEvents(String prefix) {
+    return version.allEvents(prefix);
+  }
+
+  @Override
+  public Event findEvent(String eventName) {
+    return version.findEvent(eventName);
+  }
+}
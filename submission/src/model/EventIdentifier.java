@@ -1,6 +1,7 @@
 package model;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 /**
  * Identifies an event for editing.
@@ -57,7 +58,7 @@ public class EventIdentifier implements Identifier {
 
   @Override
   public int hashCode() {
-    return subject.hashCode() + startTime.hashCode() * endTime.hashCode() + 1000;
+    return Objects.hash(subject, startTime, endTime);
   }
 
   @Override
@@ -0,0 +1,79 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * An index over the events of a single calendar that answers time range queries without
+ * walking the calendar one day at a time. Implementations are kept in sync by the calendar
+ * model whenever an event is added, edited or rolled back.
+ */
+public interface EventIndex {
+
+  /**
+   * Adds an event to the index.
+   *
+   * @param event the event to be indexed
+   * @throws IllegalArgumentException if the event or its start or end time is null
+   */
+  void add(Event event);
+
+  /**
+   * Adds many events to the index. Implementations may build their structure in one pass,
+   * which is fastest when the events come in start order.
+   *
+   * @param events the events to be indexed
+   * @throws IllegalArgumentException if an event or its start or end time is null
+   */
+  default void addAll(List<Event> events) {
+    for (Event event : events) {
+      add(event);
+    }
+  }
+
+  /**
+   * Removes an event from the index.
+   *
+   * @param event the event to be removed
+   * @return true if the event was found and removed otherwise false
+   */
+  boolean remove(Event event);
+
+  /**
+   * Retrieves all events that start at or after the given start and end at or before the
+   * given end, ordered by start time.
+   *
+   * @param from the earliest start time of a returned event
+   * @param to   the latest end time of a returned event
+   * @return the events fully contained in the range
+   */
+  List<Event> getEventsWithin(LocalDateTime from, LocalDateTime to);
+
+  /**
+   * Retrieves all events that overlap the given range, inclusive of both ends, ordered by
+   * start time.
+   *
+   * @param from the start of the range
+   * @param to   the end of the range
+   * @return the events that are taking place at some point in the range
+   */
+  List<Event> getEventsOverlapping(LocalDateTime from, LocalDateTime to);
+
+  /**
+   * Returns a cursor over the indexed events in start time order, beginning with the first
+   * event that starts at or after the given time. The cursor is only valid until the index is
+   * next modified.
+   *
+   * @param start the earliest start time of a returned event
+   * @return an iterator over the events starting at or after the given time
+   */
+  Iterator<Event> iteratorFrom(LocalDateTime start);
+
+  /**
+   * Gets the amount of events in the index.
+   *
+   * @return the number of indexed events
+   */
+  int size();
+}
@@ -0,0 +1,365 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Answers the queries of a calendar from its stored events, its recurrence rules and its
+ * zone. Events are kept in an EventIndex in UTC and rules in a RuleIndex by the time they
+ * span, and both are projected into the zone of the calendar as they are read. A query only
+ * expands the rules active in its range, so rules that ended long before it cost nothing.
+ * EventStore answers its queries through this class, and so does every CalendarVersion over
+ * a snapshot of the index and copies of the rules, so a calendar gives the same answers
+ * whether or not it is read through a version. Every method takes and returns times in the
+ * zone of the calendar.
+ */
+class EventQueries {
+  static final ZoneId STORED_ZONE = ZoneOffset.UTC;
+  final EventIndex index;
+  final RuleIndex rules;
+  ZoneId zone;
+  private volatile NavigableMap<String, List<Event>> storedSubjects;
+  private volatile NavigableMap<String, List<RecurrenceRule>> ruleSubjects;
+
+  /**
+   * Constructs the queries over a calendar.
+   *
+   * @param index the stored events, in UTC
+   * @param rules the recurrence rules
+   * @param zone  the zone of the calendar
+   */
+  EventQueries(EventIndex index, RuleIndex rules, ZoneId zone) {
+    this.index = index;
+    this.rules = rules;
+    this.zone = zone;
+  }
+
+  /**
+   * Gets the events taking place at some point on a date, in start order.
+   *
+   * @param date the date
+   * @return the events on the date
+   */
+  List<Event> getEventsOnDate(LocalDate date) {
+    LocalDateTime from = date.atStartOfDay();
+    LocalDateTime to = date.atTime(LocalTime.MAX);
+    LocalDateTime storedFrom = toStored(from);
+    LocalDateTime storedTo = toStored(to);
+    List<Event> events = new ArrayList<>();
+    for (Event event : index.getEventsOverlapping(storedFrom, storedTo)) {
+      events.add(project(event));
+    }
+    if (rules.isEmpty()) {
+      return events;
+    }
+    for (RecurrenceRule rule : rules.overlapping(storedFrom, storedTo)) {
+      events.addAll(rule.occurrencesOverlapping(from, to, zone));
+    }
+    events.sort(Comparator.comparing(Event::getStartTime));
+    return events;
+  }
+
+  /**
+   * Gets the events that start and end within a range, in start order.
+   *
+   * @param from the start of the range
+   * @param to   the end of the range
+   * @return the events within the range
+   */
+  List<Event> getEventsWithin(LocalDateTime from, LocalDateTime to) {
+    LocalDateTime storedFrom = toStored(from);
+    LocalDateTime storedTo = toStored(to);
+    List<Event> events = new ArrayList<>();
+    for (Event event : index.getEventsWithin(storedFrom, storedTo)) {
+      events.add(project(event));
+    }
+    if (rules.isEmpty()) {
+      return events;
+    }
+    for (RecurrenceRule rule : rules.overlapping(storedFrom, storedTo)) {
+      for (Event event : rule.occurrencesOverlapping(from, to, zone)) {
+        if (!event.getStartTime().isBefore(from) && !event.getEndTime().isAfter(to)) {
+          events.add(event);
+        }
+      }
+    }
+    events.sort(Comparator.comparing(Event::getStartTime));
+    return events;
+  }
+
+  /**
+   * Checks whether an event is taking place at a time, its start and end included.
+   *
+   * @param time the time
+   * @return true if an event is taking place otherwise false
+   */
+  boolean isBusy(LocalDateTime time) {
+    LocalDateTime stored = toStored(time);
+    if (!index.getEventsOverlapping(stored, stored).isEmpty()) {
+      return true;
+    }
+    for (RecurrenceRule rule : rules.overlapping(stored, stored)) {
+      if (!rule.occurrencesOverlapping(time, time, zone).isEmpty()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Walks the events starting at or after a time in start order, building each one only when
+   * it is reached.
+   *
+   * @param from the earliest start time
+   * @return an iterator over the events
+   */
+  Iterator<Event> iteratorFrom(LocalDateTime from) {
+    LocalDateTime storedFrom = toStored(from);
+    Iterator<Event> stored = new ProjectingCursor(index.iteratorFrom(storedFrom));
+    if (rules.isEmpty()) {
+      return stored;
+    }
+    List<Iterator<Event>> cursors = new ArrayList<>();
+    cursors.add(stored);
+    for (RecurrenceRule rule : rules.overlapping(storedFrom, LocalDateTime.MAX)) {
+      cursors.add(rule.iteratorFrom(from, zone));
+    }
+    return new MergingCursor(cursors);
+  }
+
+  /**
+   * Gets up to the given number of events starting at or after a time, in start order.
+   *
+   * @param from  the earliest start time
+   * @param count the most events returned
+   * @return the events
+   */
+  List<Event> getNextEvents(LocalDateTime from, int count) {
+    List<Event> events = new ArrayList<>();
+    Iterator<Event> cursor = iteratorFrom(from);
+    while (events.size() < count && cursor.hasNext()) {
+      events.add(cursor.next());
+    }
+    return events;
+  }
+
+  /**
+   * Finds the earliest event with a subject.
+   *
+   * @param subject the subject
+   * @return the earliest event with the subject, or null if there is none
+   */
+  Event findBySubject(String subject) {
+    if (subject == null) {
+      return null;
+    }
+    Event earliest = null;
+    for (Event event : storedSubjects().getOrDefault(subject, Collections.emptyList())) {
+      if (earliest == null || event.getStartTime().isBefore(earliest.getStartTime())) {
+        earliest = event;
+      }
+    }
+    earliest = earliest == null ? null : project(earliest);
+    for (RecurrenceRule rule : ruleSubjects().getOrDefault(subject, Collections.emptyList())) {
+      Iterator<Event> occurrences = rule.iterator(zone);
+      if (occurrences.hasNext()) {
+        Event first = occurrences.next();
+        if (earliest == null || first.getStartTime().isBefore(earliest.getStartTime())) {
+          earliest = first;
+        }
+      }
+    }
+    return earliest;
+  }
+
+  /**
+   * Gets a label made of the subject and start time of every event, ordered by subject and
+   * then by start time.
+   *
+   * @return the labels
+   */
+  List<String> labels() {
+    return labels(storedSubjects(), ruleSubjects());
+  }
+
+  /**
+   * Gets the labels of the events whose subject starts with a prefix.
+   *
+   * @param prefix the prefix
+   * @return the labels
+   */
+  List<String> labels(String prefix) {
+    String end = prefix + Character.MAX_VALUE;
+    return labels(storedSubjects().subMap(prefix, true, end, true),
+            ruleSubjects().subMap(prefix, true, end, true));
+  }
+
+  /**
+   * Gets the stored events grouped by subject. Unless a subclass keeps the grouping up to
+   * date itself, it is built the first time it is needed and then cached, which is only
+   * right as long as nothing changes.
+   *
+   * @return the stored events by subject
+   */
+  NavigableMap<String, List<Event>> storedSubjects() {
+    NavigableMap<String, List<Event>> grouped = storedSubjects;
+    if (grouped == null) {
+      grouped = new TreeMap<>();
+      Iterator<Event> all = index.iteratorFrom(LocalDateTime.MIN);
+      while (all.hasNext()) {
+        Event event = all.next();
+        grouped.computeIfAbsent(event.getSubject(), s -> new ArrayList<>()).add(event);
+      }
+      storedSubjects = grouped;
+    }
+    return grouped;
+  }
+
+  /**
+   * Gets the recurrence rules grouped by subject, cached as storedSubjects is.
+   *
+   * @return the rules by subject
+   */
+  NavigableMap<String, List<RecurrenceRule>> ruleSubjects() {
+    NavigableMap<String, List<RecurrenceRule>> grouped = ruleSubjects;
+    if (grouped == null) {
+      grouped = new TreeMap<>();
+      for (RecurrenceRule rule : rules.overlapping(LocalDateTime.MIN, LocalDateTime.MAX)) {
+        grouped.computeIfAbsent(rule.getSubject(), s -> new ArrayList<>()).add(rule);
+      }
+      ruleSubjects = grouped;
+    }
+    return grouped;
+  }
+
+  private List<String> labels(Map<String, List<Event>> subjects,
+                              Map<String, List<RecurrenceRule>> ruleSubjects) {
+    Set<String> names = new TreeSet<>(subjects.keySet());
+    names.addAll(ruleSubjects.keySet());
+    List<String> labels = new ArrayList<>();
+    List<Event> sameSubject = new ArrayList<>();
+    for (String name : names) {
+      sameSubject.clear();
+      for (Event event : subjects.getOrDefault(name, Collections.emptyList())) {
+        sameSubject.add(project(event));
+      }
+      for (RecurrenceRule rule : ruleSubjects.getOrDefault(name, Collections.emptyList())) {
+        rule.iterator(zone).forEachRemaining(sameSubject::add);
+      }
+      sameSubject.sort(Comparator.comparing(Event::getStartTime));
+      for (Event event : sameSubject) {
+        labels.add(event.getSubject() + " " + event.getStartTime().toString());
+      }
+    }
+    return labels;
+  }
+
+  /**
+   * Converts a time in the zone of the calendar into UTC. Times at the very ends of the
+   * supported range are only used as open bounds and are left as they are.
+   */
+  LocalDateTime toStored(LocalDateTime time) {
+    if (time.isBefore(LocalDateTime.MIN.plusDays(2))
+            || time.isAfter(LocalDateTime.MAX.minusDays(2))) {
+      return time;
+    }
+    return ZonedDateTime.of(time, zone).withZoneSameInstant(STORED_ZONE).toLocalDateTime();
+  }
+
+  /**
+   * Projects a stored event into the zone of the calendar.
+   *
+   * @param stored the event in UTC
+   * @return the event in the zone of the calendar
+   */
+  Event project(Event stored) {
+    return zone.equals(STORED_ZONE) ? stored : stored.newTimezone(zone);
+  }
+
+  /**
+   * Projects the events of a cursor over stored events into the zone of the calendar.
+   */
+  private class ProjectingCursor implements Iterator<Event> {
+    private final Iterator<Event> stored;
+
+    private ProjectingCursor(Iterator<Event> stored) {
+      this.stored = stored;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return stored.hasNext();
+    }
+
+    @Override
+    public Event next() {
+      return project(stored.next());
+    }
+  }
+
+  /**
+   * Merges several cursors that are each in start order into one cursor in start order.
+   * Events starting at the same time come out in the order of the cursors they came from.
+   */
+  static class MergingCursor implements Iterator<Event> {
+    private final List<Iterator<Event>> cursors;
+    private final PriorityQueue<Head> heads;
+
+    MergingCursor(List<Iterator<Event>> cursors) {
+      this.cursors = cursors;
+      this.heads = new PriorityQueue<>(cursors.size(),
+              Comparator.comparing((Head head) -> head.event.getStartTime())
+                      .thenComparingInt(head -> head.cursor));
+      for (int i = 0; i < cursors.size(); i++) {
+        pull(i);
+      }
+    }
+
+    private void pull(int cursor) {
+      if (cursors.get(cursor).hasNext()) {
+        heads.add(new Head(cursors.get(cursor).next(), cursor));
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !heads.isEmpty();
+    }
+
+    @Override
+    public Event next() {
+      Head head = heads.poll();
+      if (head == null) {
+        throw new NoSuchElementException();
+      }
+      pull(head.cursor);
+      return head.event;
+    }
+
+    private static class Head {
+      private final Event event;
+      private final int cursor;
+
+      private Head(Event event, int cursor) {
+        this.event = event;
+        this.cursor = cursor;
+      }
+    }
+  }
+}
@@ -0,0 +1,937 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Holds the events of a single calendar together with every index used to find them again.
+ * Every stored event is kept once in a range index, and is also indexed by its (subject,
+ * start, end) key, by subject and, when it belongs to one, by its series. Repeating series
+ * are kept as recurrence rules whose occurrences are generated by the queries, which the
+ * store answers as EventQueries. Events are stored and indexed in UTC, independently of the
+ * zone of the calendar, and are projected into that zone when they are read, so changing the
+ * zone touches nothing that is stored. All mutations go through this class so the indexes can
+ * never drift apart.
+ * When occupancy tracking is on, the store also keeps an occupancy map for every UTC day it
+ * was asked about, which answers status queries with a single bit test. In strict mode the
+ * store also refuses any change that would leave two events overlapping.
+ * Every method takes and returns times in the zone of the calendar.
+ */
+class EventStore extends EventQueries {
+  private final Map<Identifier, Event> eventsByKey;
+  private final NavigableMap<String, List<Event>> eventsBySubject;
+  private final Map<Long, Set<Event>> series;
+  private final Map<Long, RecurrenceRule> rulesBySeries;
+  private final NavigableMap<String, List<RecurrenceRule>> rulesBySubject;
+  private final Map<Event, Event> projections;
+  private final NavigableMap<LocalDate, long[]> occupancy;
+  private List<String> eventLabels;
+  private boolean tracksOccupancy;
+  private boolean strict;
+
+  /**
+   * Constructs an empty store that answers range queries with the given index.
+   *
+   * @param index the empty index used for range queries, which will hold events in UTC
+   * @param zone  the zone of the calendar
+   */
+  EventStore(EventIndex index, ZoneId zone) {
+    super(index, new RuleIndex(), zone);
+    this.eventsByKey = new HashMap<>();
+    this.eventsBySubject = new TreeMap<>();
+    this.series = new HashMap<>();
+    this.rulesBySeries = new HashMap<>();
+    this.rulesBySubject = new TreeMap<>();
+    this.projections = new IdentityHashMap<>();
+    this.occupancy = new TreeMap<>();
+    this.eventLabels = null;
+  }
+
+  /**
+   * Changes the zone of the calendar. Nothing stored is converted; only the projections
+   * cached for the previous zone are dropped.
+   *
+   * @param zone the new zone
+   */
+  void setZone(ZoneId zone) {
+    this.zone = zone;
+    this.projections.clear();
+    this.eventLabels = null;
+  }
+
+  /**
+   * Turns the occupancy maps on or off. While they are on, the map of a UTC day is built the
+   * first time it is needed and kept from then on: adding an event sets its bits in the maps
+   * already kept, and removing one drops the maps of its days, since its bits may be shared
+   * with other events, so they are built again when next needed. Changing a recurrence rule
+   * drops every map. While they are off, nothing is kept.
+   *
+   * @param enabled whether to keep the maps
+   */
+  void setOccupancyTracking(boolean enabled) {
+    this.tracksOccupancy = enabled;
+    this.occupancy.clear();
+  }
+
+  /**
+   * Gets the occupancy map of a UTC day.
+   *
+   * @param day the UTC day
+   * @return a copy of the map
+   */
+  long[] getOccupancy(LocalDate day) {
+    return occupancyOf(day).clone();
+  }
+
+  /**
+   * Turns the strict mode on or off. In strict mode every add and replace also checks that
+   * the new events overlap neither each other nor any other event, and refuses the whole
+   * change if they do. Events overlap when each starts before the other ends, so events that
+   * only touch do not. Turning the mode on does not check the events already stored.
+   *
+   * @param strict whether to refuse overlaps
+   */
+  void setStrict(boolean strict) {
+    this.strict = strict;
+  }
+
+  /**
+   * Checks whether the store is in strict mode.
+   *
+   * @return true if overlaps are refused otherwise false
+   */
+  boolean isStrict() {
+    return strict;
+  }
+
+  /**
+   * Finds the events and occurrences that overlap any of the given events, other than the
+   * given events themselves. Each event is looked up in the range index, so finding the k
+   * events overlapping one of them costs O(log n + k), plus one lookup per rule active then.
+   *
+   * @param events the events to check, in the zone of the calendar
+   * @return the overlapping events in start order, each listed once
+   */
+  List<Event> getConflicts(List<Event> events) {
+    List<Event> stored = new ArrayList<>(events.size());
+    Set<Identifier> ignored = new HashSet<>();
+    for (Event event : events) {
+      Event converted = toStored(event);
+      stored.add(converted);
+      ignored.add(keyOf(converted));
+    }
+    Map<Identifier, Event> found = new HashMap<>();
+    for (Event event : stored) {
+      collectConflicts(event.getStartTime(), event.getEndTime(), ignored, null, found);
+    }
+    return inStartOrder(found);
+  }
+
+  /**
+   * Finds the events and occurrences that overlap a range, as getConflicts does for an event.
+   *
+   * @param from the start of the range, in the zone of the calendar
+   * @param to   the end of the range, in the zone of the calendar
+   * @return the overlapping events in start order
+   */
+  List<Event> getConflicts(LocalDateTime from, LocalDateTime to) {
+    Map<Identifier, Event> found = new HashMap<>();
+    collectConflicts(toStored(from), toStored(to), Collections.emptySet(), null, found);
+    return inStartOrder(found);
+  }
+
+  private static List<Event> inStartOrder(Map<Identifier, Event> found) {
+    List<Event> conflicts = new ArrayList<>(found.values());
+    conflicts.sort(Comparator.comparing(Event::getStartTime));
+    return conflicts;
+  }
+
+  /**
+   * Adds an event after checking that no event with the same subject, start and end exists.
+   *
+   * @param event the event to add
+   * @throws IllegalArgumentException if the event is a duplicate or, in strict mode,
+   *                                  overlaps another event
+   */
+  void add(Event event) {
+    Event stored = toStored(event);
+    Identifier key = keyOf(stored);
+    if (eventsByKey.containsKey(key) || ruleWithOccurrence(key, null) != null) {
+      throw new IllegalArgumentException("Event exists already.");
+    }
+    if (strict) {
+      checkFree(Collections.singletonList(stored), Collections.emptySet(), null);
+    }
+    store(stored);
+    indexKeys(stored);
+  }
+
+  /**
+   * Adds a batch of events, checking each one for duplicates as add would, including against
+   * the events added before it in the batch. The accepted events are put into the range
+   * index together, which lets it take them in one pass.
+   *
+   * @param events   the events to add, with null for events that were already rejected
+   * @param failures the outcome of each event, null while it is accepted; each duplicate
+   *                 gets the exception add would have thrown, and so does each event that
+   *                 overlaps another one in strict mode
+   */
+  void addEach(List<Event> events, List<RuntimeException> failures) {
+    List<Event> accepted = new ArrayList<>(events.size());
+    for (int i = 0; i < events.size(); i++) {
+      if (events.get(i) == null) {
+        continue;
+      }
+      Event stored = toStored(events.get(i));
+      Identifier key = keyOf(stored);
+      if (eventsByKey.containsKey(key) || ruleWithOccurrence(key, null) != null) {
+        failures.set(i, new IllegalArgumentException("Event exists already."));
+        continue;
+      }
+      if (strict) {
+        try {
+          checkFree(Collections.singletonList(stored), Collections.emptySet(), null);
+        } catch (IllegalArgumentException e) {
+          failures.set(i, e);
+          continue;
+        }
+        store(stored);
+        indexKeys(stored);
+        continue;
+      }
+      indexKeys(stored);
+      occupy(stored);
+      accepted.add(stored);
+    }
+    index.addAll(accepted);
+  }
+
+  /**
+   * Adds a batch of events whose times are already in UTC as one change. Every event is
+   * checked for duplicates, against the store and against the rest of the batch, before
+   * anything is added, so either the whole batch goes in or nothing does. The accepted
+   * events are then put into the range index in one pass, and those with a series id
+   * become stored members of that series.
+   *
+   * @param stored the events in UTC
+   * @throws IllegalArgumentException if an event is a duplicate or, in strict mode,
+   *                                  overlaps another event
+   */
+  void addAllStored(List<Event> stored) {
+    Set<Identifier> keys = new HashSet<>(stored.size() * 2);
+    for (Event event : stored) {
+      Identifier key = keyOf(event);
+      if (eventsByKey.containsKey(key) || !keys.add(key)
+              || ruleWithOccurrence(key, null) != null) {
+        throw new IllegalArgumentException("Event exists already.");
+      }
+    }
+    if (strict) {
+      checkFree(stored, Collections.emptySet(), null);
+    }
+    for (Event event : stored) {
+      indexKeys(event);
+      occupy(event);
+      if (event.getSeriesId() != null) {
+        series.computeIfAbsent(event.getSeriesId(), id -> new LinkedHashSet<>()).add(event);
+      }
+    }
+    index.addAll(stored);
+  }
+
+  /**
+   * Removes a stored event from every index, including its series.
+   *
+   * @param event the stored event
+   */
+  void remove(Event event) {
+    Event stored = eventsByKey.get(storedKeyOf(event.getSubject(), event.getStartTime(),
+            event.getEndTime()));
+    if (stored == null) {
+      return;
+    }
+    Set<Event> members = seriesContaining(stored);
+    if (members != null) {
+      members.remove(stored);
+    }
+    unstore(stored);
+    unindexKeys(stored);
+  }
+
+  /**
+   * Adds a recurrence rule after checking that none of its occurrences duplicates an event
+   * or an occurrence of another rule, and in strict mode that none of them overlaps another
+   * event.
+   *
+   * @param rule the rule to add
+   * @throws IllegalArgumentException if an occurrence of the rule is a duplicate or, in
+   *                                  strict mode, overlaps another event
+   */
+  void addRule(RecurrenceRule rule) {
+    checkRule(rule, Collections.emptySet(), null);
+    if (strict) {
+      checkFree(occurrencesOf(rule), Collections.emptySet(), null);
+    }
+    register(rule);
+  }
+
+  /**
+   * Removes a whole series, its recurrence rule as well as every stored member.
+   *
+   * @param seriesId the id of the series
+   */
+  void removeSeries(Long seriesId) {
+    RecurrenceRule rule = rulesBySeries.get(seriesId);
+    if (rule != null) {
+      unregister(rule);
+    }
+    Set<Event> members = series.remove(seriesId);
+    if (members != null) {
+      for (Event member : members) {
+        unstore(member);
+        unindexKeys(member);
+      }
+    }
+  }
+
+  /**
+   * Gets the recurrence rule of a series.
+   *
+   * @param seriesId the id of the series
+   * @return the rule or null if the series has none
+   */
+  RecurrenceRule getRule(Long seriesId) {
+    return rulesBySeries.get(seriesId);
+  }
+
+  /**
+   * Gets every stored event in start order, with its times in UTC.
+   *
+   * @return the stored events
+   */
+  List<Event> storedEvents() {
+    List<Event> events = new ArrayList<>(eventsByKey.size());
+    index.iteratorFrom(LocalDateTime.MIN).forEachRemaining(events::add);
+    return events;
+  }
+
+  /**
+   * Checks whether a stored event is recorded as a member of the series its id refers to.
+   *
+   * @param stored the stored event
+   * @return true if the event is a member of its series otherwise false
+   */
+  boolean isSeriesMember(Event stored) {
+    return seriesContaining(stored) != null;
+  }
+
+  /**
+   * Gets every recurrence rule.
+   *
+   * @return a read-only view of the rules
+   */
+  Collection<RecurrenceRule> storedRules() {
+    return Collections.unmodifiableCollection(rulesBySeries.values());
+  }
+
+  /**
+   * Adds events whose times are already in UTC without checking for duplicates, building
+   * the range index in one pass. This is only meant for restoring events that were valid
+   * when they were saved into a store that is still empty.
+   *
+   * @param stored  the events in UTC, preferably in start order
+   * @param members the positions of the events that are members of the series their id
+   *                refers to
+   */
+  void restoreAll(List<Event> stored, BitSet members) {
+    for (int i = 0; i < stored.size(); i++) {
+      Event event = stored.get(i);
+      indexKeys(event);
+      occupy(event);
+      if (members.get(i)) {
+        series.computeIfAbsent(event.getSeriesId(), id -> new LinkedHashSet<>()).add(event);
+      }
+    }
+    index.addAll(stored);
+  }
+
+  /**
+   * Adds a recurrence rule without checking its occurrences for duplicates. This is only
+   * meant for restoring rules that were valid when they were saved.
+   *
+   * @param rule the rule
+   */
+  void restoreRule(RecurrenceRule rule) {
+    register(rule);
+  }
+
+  /**
+   * Replaces the recurrence rule of a series by storing every occurrence it still generates
+   * as an event of the series.
+   *
+   * @param seriesId the id of the series
+   */
+  void expandRule(Long seriesId) {
+    RecurrenceRule rule = rulesBySeries.get(seriesId);
+    if (rule == null) {
+      return;
+    }
+    unregister(rule);
+    Set<Event> members = series.computeIfAbsent(seriesId, id -> new LinkedHashSet<>());
+    Iterator<Event> occurrences = rule.iterator(STORED_ZONE);
+    while (occurrences.hasNext()) {
+      Event event = occurrences.next();
+      store(event);
+      indexKeys(event);
+      members.add(event);
+    }
+  }
+
+  /**
+   * Replaces a stored event or an occurrence with an updated version of it.
+   *
+   * @param original the stored event or occurrence
+   * @param updated  the event taking its place
+   * @throws IllegalArgumentException if the update would create a duplicate
+   */
+  void replace(Event original, Event updated) {
+    replaceAll(Collections.singletonList(original), Collections.singletonList(updated));
+  }
+
+  /**
+   * Replaces many events at once. Every replacement is validated before anything is changed,
+   * so either all of them are applied or none are. Each index is then updated in a single
+   * pass, and events whose times did not change keep their occupancy bits. An
+   * occurrence of a recurrence rule that is replaced becomes an exception to the rule, and
+   * its replacement is stored as an event of the series. Updated events stay in the series
+   * their original belonged to.
+   *
+   * @param originals the stored events or occurrences
+   * @param updated   the events taking their places, in the same order
+   * @throws IllegalArgumentException if an original does not exist or the updates would
+   *                                  create a duplicate
+   */
+  void replaceAll(List<Event> originals, List<Event> updated) {
+    replace(originals, updated, Collections.emptyList(), null, null);
+  }
+
+  /**
+   * Replaces many events and adds new ones as one change, with the same all or nothing
+   * guarantee as replaceAll. The new events are checked against the calendar and against
+   * every other event of the change, and every event that arrives goes into the range
+   * indexes in a single update.
+   *
+   * @param originals the stored events or occurrences
+   * @param updated   the events taking their places, in the same order
+   * @param added     the new events
+   * @throws IllegalArgumentException if an original does not exist or the change would
+   *                                  create a duplicate or, in strict mode, an overlap
+   */
+  void apply(List<Event> originals, List<Event> updated, List<Event> added) {
+    replace(originals, updated, added, null, null);
+  }
+
+  /**
+   * Replaces the recurrence rule of a series and its stored events at once, with the same
+   * all or nothing guarantee as replaceAll.
+   *
+   * @param originals the stored events of the series
+   * @param updated   the events taking their places, in the same order
+   * @param rule      the rule replacing the current rule of the series
+   * @throws IllegalArgumentException if an original is not stored or the updates would
+   *                                  create a duplicate
+   */
+  void replaceSeries(List<Event> originals, List<Event> updated, RecurrenceRule rule) {
+    replace(originals, updated, Collections.emptyList(), rulesBySeries.get(rule.getSeriesId()),
+            rule);
+  }
+
+  private void replace(List<Event> originals, List<Event> updated, List<Event> added,
+                       RecurrenceRule oldRule, RecurrenceRule newRule) {
+    if (originals.size() != updated.size()) {
+      throw new IllegalArgumentException("Every event needs exactly one replacement");
+    }
+    Set<Identifier> leaving = new HashSet<>();
+    List<Event> stored = new ArrayList<>(originals.size());
+    List<RecurrenceRule> owners = new ArrayList<>(originals.size());
+    List<Integer> occurrences = new ArrayList<>(originals.size());
+    for (Event original : originals) {
+      Identifier key = storedKeyOf(original.getSubject(), original.getStartTime(),
+              original.getEndTime());
+      Event event = eventsByKey.get(key);
+      RecurrenceRule owner = null;
+      int occurrence = -1;
+      if (event == null) {
+        owner = ruleWithOccurrence(key, oldRule);
+        if (owner == null) {
+          throw new IllegalArgumentException("Event does not exist");
+        }
+        occurrence = owner.occurrenceAt(key.getStartTime(), key.getEndTime(), STORED_ZONE);
+      }
+      if (!leaving.add(key)) {
+        throw new IllegalArgumentException("Event does not exist");
+      }
+      stored.add(event);
+      owners.add(owner);
+      occurrences.add(occurrence);
+    }
+    List<Event> replacements = new ArrayList<>(updated.size() + added.size());
+    Set<Identifier> arriving = new HashSet<>();
+    List<Event> arrivingEvents = new ArrayList<>(updated);
+    arrivingEvents.addAll(added);
+    for (Event event : arrivingEvents) {
+      Event replacement = toStored(event);
+      Identifier key = keyOf(replacement);
+      boolean taken = !leaving.contains(key)
+              && (eventsByKey.containsKey(key) || ruleWithOccurrence(key, oldRule) != null);
+      if (!arriving.add(key) || taken || (newRule != null && newRule.occurrenceAt(
+              key.getStartTime(), key.getEndTime(), STORED_ZONE) >= 0)) {
+        throw new IllegalArgumentException("Event exists already.");
+      }
+      replacements.add(replacement);
+    }
+    if (newRule != null) {
+      checkRule(newRule, leaving, oldRule);
+    }
+    if (strict) {
+      List<Event> arrivals = new ArrayList<>(replacements);
+      if (newRule != null) {
+        arrivals.addAll(occurrencesOf(newRule));
+      }
+      checkFree(arrivals, leaving, oldRule);
+    }
+
+    List<Set<Event>> memberships = new ArrayList<>(stored.size());
+    for (int i = 0; i < stored.size(); i++) {
+      Event original = stored.get(i);
+      if (owners.get(i) != null) {
+        owners.get(i).exclude(occurrences.get(i));
+        forget(toStored(originals.get(i).getStartTime()),
+                toStored(originals.get(i).getEndTime()));
+        memberships.add(series.computeIfAbsent(owners.get(i).getSeriesId(),
+                id -> new LinkedHashSet<>()));
+        continue;
+      }
+      Set<Event> members = seriesContaining(original);
+      if (members != null) {
+        members.remove(original);
+      }
+      memberships.add(members);
+      if (sameTimes(original, replacements.get(i))) {
+        index.remove(original);
+      } else {
+        unstore(original);
+      }
+      unindexKeys(original);
+    }
+    for (int i = 0; i < replacements.size(); i++) {
+      Event original = i < stored.size() ? stored.get(i) : null;
+      Event replacement = replacements.get(i);
+      if (original == null || !sameTimes(original, replacement)) {
+        occupy(replacement);
+      }
+      indexKeys(replacement);
+      if (i < memberships.size() && memberships.get(i) != null) {
+        memberships.get(i).add(replacement);
+      }
+    }
+    index.addAll(replacements);
+    if (oldRule != null) {
+      unregister(oldRule);
+    }
+    if (newRule != null) {
+      register(newRule);
+    }
+  }
+
+  /**
+   * Finds the event an identifier refers to. Identifiers parsed from commands only know the
+   * start time of the event, so when the full key does not match, the events on the start
+   * date are searched by subject and start time.
+   *
+   * @param id the identifier of the event
+   * @return the stored event or occurrence, or null if there is none
+   */
+  Event lookup(Identifier id) {
+    if (id.getEndTime() != null) {
+      Event event = eventsByKey.get(storedKeyOf(id.getSubject(), id.getStartTime(),
+              id.getEndTime()));
+      if (event != null) {
+        return project(event);
+      }
+    }
+    for (Event e : getEventsOnDate(id.getStartTime().toLocalDate())) {
+      if (e.getSubject().equals(id.getSubject()) && e.getStartTime().equals(id.getStartTime())) {
+        return e;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Records the given stored events as the members of a series.
+   *
+   * @param seriesId the id of the series
+   * @param members  the stored events in the series
+   */
+  void addSeries(long seriesId, Collection<Event> members) {
+    Set<Event> stored = new LinkedHashSet<>();
+    for (Event member : members) {
+      Event event = eventsByKey.get(storedKeyOf(member.getSubject(), member.getStartTime(),
+              member.getEndTime()));
+      if (event != null) {
+        stored.add(event);
+      }
+    }
+    series.put(seriesId, stored);
+  }
+
+  /**
+   * Gets the stored members of a series, leaving out the occurrences of its rule.
+   *
+   * @param seriesId the id of the series
+   * @return the stored members of the series or an empty set if there are none
+   */
+  Set<Event> getStoredSeries(Long seriesId) {
+    Set<Event> members = series.get(seriesId);
+    if (members == null) {
+      return Collections.emptySet();
+    }
+    Set<Event> projected = new LinkedHashSet<>();
+    for (Event member : members) {
+      projected.add(project(member));
+    }
+    return Collections.unmodifiableSet(projected);
+  }
+
+  /**
+   * Gets every member of a series, generating the occurrences of its rule.
+   *
+   * @param seriesId the id of the series
+   * @return the members of the series or an empty set if there are none
+   */
+  Set<Event> getSeries(Long seriesId) {
+    RecurrenceRule rule = rulesBySeries.get(seriesId);
+    if (rule == null) {
+      return getStoredSeries(seriesId);
+    }
+    Set<Event> members = new LinkedHashSet<>(getStoredSeries(seriesId));
+    rule.iterator(zone).forEachRemaining(members::add);
+    return Collections.unmodifiableSet(members);
+  }
+
+  @Override
+  boolean isBusy(LocalDateTime time) {
+    if (tracksOccupancy) {
+      LocalDateTime stored = toStored(time);
+      int minute = Occupancy.minuteOf(stored);
+      if (minute >= 0) {
+        return Occupancy.isSet(occupancyOf(stored.toLocalDate()), minute);
+      }
+    }
+    return super.isBusy(time);
+  }
+
+  /**
+   * Gets the labels of every event, which are cached until an event or rule changes.
+   *
+   * @return the labels
+   */
+  @Override
+  List<String> labels() {
+    if (eventLabels == null) {
+      eventLabels = Collections.unmodifiableList(super.labels());
+    }
+    return eventLabels;
+  }
+
+  @Override
+  NavigableMap<String, List<Event>> storedSubjects() {
+    return eventsBySubject;
+  }
+
+  @Override
+  NavigableMap<String, List<RecurrenceRule>> ruleSubjects() {
+    return rulesBySubject;
+  }
+
+  private void checkRule(RecurrenceRule rule, Set<Identifier> leaving, RecurrenceRule ignored) {
+    for (Event event : eventsBySubject.getOrDefault(rule.getSubject(),
+            Collections.emptyList())) {
+      if (!leaving.contains(keyOf(event))
+              && rule.occurrenceAt(event.getStartTime(), event.getEndTime(), STORED_ZONE) >= 0) {
+        throw new IllegalArgumentException("Event exists already.");
+      }
+    }
+    for (RecurrenceRule other : rulesBySubject.getOrDefault(rule.getSubject(),
+            Collections.emptyList())) {
+      if (other != ignored && rule.sharesOccurrenceWith(other, STORED_ZONE)) {
+        throw new IllegalArgumentException("Event exists already.");
+      }
+    }
+  }
+
+  private RecurrenceRule ruleWithOccurrence(Identifier key, RecurrenceRule ignored) {
+    for (RecurrenceRule rule : rulesBySubject.getOrDefault(key.getSubject(),
+            Collections.emptyList())) {
+      if (rule != ignored
+              && rule.occurrenceAt(key.getStartTime(), key.getEndTime(), STORED_ZONE) >= 0) {
+        return rule;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Checks that events about to be stored overlap neither each other nor anything already
+   * stored, apart from the events that are leaving and the occurrences of a rule that is
+   * being replaced.
+   */
+  private void checkFree(List<Event> arrivals, Set<Identifier> leaving,
+                         RecurrenceRule ignored) {
+    List<Event> sorted = new ArrayList<>(arrivals);
+    sorted.sort(Comparator.comparing(Event::getStartTime));
+    LocalDateTime latestEnd = null;
+    for (Event event : sorted) {
+      if (latestEnd != null && event.getStartTime().isBefore(latestEnd)) {
+        throw new IllegalArgumentException("Event conflicts with another event");
+      }
+      if (latestEnd == null || event.getEndTime().isAfter(latestEnd)) {
+        latestEnd = event.getEndTime();
+      }
+    }
+    Map<Identifier, Event> found = new HashMap<>();
+    for (Event event : arrivals) {
+      collectConflicts(event.getStartTime(), event.getEndTime(), leaving, ignored, found);
+      if (!found.isEmpty()) {
+        throw new IllegalArgumentException("Event conflicts with another event");
+      }
+    }
+  }
+
+  /**
+   * Collects the stored events and rule occurrences overlapping a range in UTC, projected
+   * into the zone of the calendar.
+   */
+  private void collectConflicts(LocalDateTime start, LocalDateTime end,
+                                Set<Identifier> ignoredKeys, RecurrenceRule ignoredRule,
+                                Map<Identifier, Event> found) {
+    for (Event event : index.getEventsOverlapping(start, end)) {
+      Identifier key = keyOf(event);
+      if (conflicts(event, start, end) && !ignoredKeys.contains(key)) {
+        found.putIfAbsent(key, project(event));
+      }
+    }
+    for (RecurrenceRule rule : rules.overlapping(start, end)) {
+      if (rule == ignoredRule) {
+        continue;
+      }
+      for (Event event : rule.occurrencesOverlapping(start, end, STORED_ZONE)) {
+        Identifier key = keyOf(event);
+        if (conflicts(event, start, end) && !ignoredKeys.contains(key)) {
+          found.putIfAbsent(key, zone.equals(STORED_ZONE) ? event : event.newTimezone(zone));
+        }
+      }
+    }
+  }
+
+  private boolean conflicts(Event event, LocalDateTime start, LocalDateTime end) {
+    return event.getStartTime().isBefore(end) && start.isBefore(event.getEndTime());
+  }
+
+  private List<Event> occurrencesOf(RecurrenceRule rule) {
+    List<Event> occurrences = new ArrayList<>();
+    rule.iterator(STORED_ZONE).forEachRemaining(occurrences::add);
+    return occurrences;
+  }
+
+  private long[] occupancyOf(LocalDate day) {
+    long[] bits = occupancy.get(day);
+    if (bits == null) {
+      bits = buildOccupancy(day);
+      if (tracksOccupancy) {
+        occupancy.put(day, bits);
+      }
+    }
+    return bits;
+  }
+
+  /**
+   * Builds the occupancy map of a UTC day from the same events isBusy looks at.
+   */
+  private long[] buildOccupancy(LocalDate day) {
+    long[] bits = new long[Occupancy.WORDS];
+    LocalDateTime from = day.atStartOfDay();
+    LocalDateTime to = day.atTime(LocalTime.MAX);
+    for (Event event : index.getEventsOverlapping(from, to)) {
+      Occupancy.mark(bits, day, event.getStartTime(), event.getEndTime());
+    }
+    for (RecurrenceRule rule : rules.overlapping(from, to)) {
+      for (Event event : rule.occurrencesOverlapping(from, to, STORED_ZONE)) {
+        Occupancy.mark(bits, day, event.getStartTime(), event.getEndTime());
+      }
+    }
+    return bits;
+  }
+
+  private void occupy(Event stored) {
+    if (occupancy.isEmpty()) {
+      return;
+    }
+    for (Map.Entry<LocalDate, long[]> day : occupancy.subMap(
+            stored.getStartTime().toLocalDate(), true,
+            stored.getEndTime().toLocalDate(), true).entrySet()) {
+      Occupancy.mark(day.getValue(), day.getKey(), stored.getStartTime(),
+              stored.getEndTime());
+    }
+  }
+
+  private void forget(LocalDateTime start, LocalDateTime end) {
+    if (!occupancy.isEmpty()) {
+      occupancy.subMap(start.toLocalDate(), true, end.toLocalDate(), true).clear();
+    }
+  }
+
+  private void register(RecurrenceRule rule) {
+    occupancy.clear();
+    rulesBySeries.put(rule.getSeriesId(), rule);
+    rules.add(rule);
+    rulesBySubject.computeIfAbsent(rule.getSubject(), s -> new ArrayList<>()).add(rule);
+    eventLabels = null;
+  }
+
+  private void unregister(RecurrenceRule rule) {
+    occupancy.clear();
+    rulesBySeries.remove(rule.getSeriesId());
+    rules.remove(rule);
+    List<RecurrenceRule> sameSubject = rulesBySubject.get(rule.getSubject());
+    if (sameSubject != null) {
+      sameSubject.remove(rule);
+      if (sameSubject.isEmpty()) {
+        rulesBySubject.remove(rule.getSubject());
+      }
+    }
+    eventLabels = null;
+  }
+
+  private void store(Event event) {
+    index.add(event);
+    occupy(event);
+  }
+
+  private void unstore(Event event) {
+    index.remove(event);
+    forget(event.getStartTime(), event.getEndTime());
+  }
+
+  private void indexKeys(Event event) {
+    eventsByKey.put(keyOf(event), event);
+    eventsBySubject.computeIfAbsent(event.getSubject(), s -> new ArrayList<>()).add(event);
+    eventLabels = null;
+  }
+
+  private void unindexKeys(Event event) {
+    eventsByKey.remove(keyOf(event));
+    projections.remove(event);
+    List<Event> events = eventsBySubject.get(event.getSubject());
+    if (events != null) {
+      removeSameEvent(events, event);
+      if (events.isEmpty()) {
+        eventsBySubject.remove(event.getSubject());
+      }
+    }
+    eventLabels = null;
+  }
+
+  private Set<Event> seriesContaining(Event event) {
+    if (event.getSeriesId() == null) {
+      return null;
+    }
+    Set<Event> members = series.get(event.getSeriesId());
+    if (members == null || !members.contains(event)) {
+      return null;
+    }
+    return members;
+  }
+
+  private void removeSameEvent(List<Event> events, Event event) {
+    for (int i = 0; i < events.size(); i++) {
+      if (events.get(i) == event) {
+        events.remove(i);
+        return;
+      }
+    }
+  }
+
+  private boolean sameTimes(Event original, Event updated) {
+    return original.getStartTime().equals(updated.getStartTime())
+            && original.getEndTime().equals(updated.getEndTime());
+  }
+
+  private Identifier keyOf(Event event) {
+    return new EventIdentifier(event.getSubject(), event.getStartTime(), event.getEndTime());
+  }
+
+  private Identifier storedKeyOf(String subject, LocalDateTime start, LocalDateTime end) {
+    return new EventIdentifier(subject, toStored(start), toStored(end));
+  }
+
+  /**
+   * Converts an event in the zone of the calendar into the form it is stored in. This only
+   * reads the zone, so events can be converted on several threads at once.
+   *
+   * @param event the event, in the zone of the calendar
+   * @return the event in UTC
+   */
+  Event toStored(Event event) {
+    CalendarEvent calendarEvent;
+    if (event instanceof CalendarEvent) {
+      calendarEvent = (CalendarEvent) event;
+    } else {
+      CalendarEvent.EventBuilder builder = new CalendarEvent.EventBuilder()
+              .setSubject(event.getSubject())
+              .setStartTime(event.getStartTime())
+              .setEndTime(event.getEndTime())
+              .setDesc(event.getDesc())
+              .setSeriesId(event.getSeriesId());
+      if (event.getLocation() != null) {
+        builder.setLocation(event.getLocation().toString());
+      }
+      if (event.getStatus() != null) {
+        builder.setStatus(event.getStatus().toString());
+      }
+      calendarEvent = builder.build();
+    }
+    return calendarEvent.withTimes(toStored(event.getStartTime()),
+            toStored(event.getEndTime()), STORED_ZONE);
+  }
+
+  /**
+   * Projects a stored event into the zone of the calendar. Projections are cached until the
+   * zone changes or the event is removed.
+   */
+  @Override
+  Event project(Event stored) {
+    if (zone.equals(STORED_ZONE)) {
+      return stored;
+    }
+    return projections.computeIfAbsent(stored, event -> event.newTimezone(zone));
+  }
+}
@@ -0,0 +1,230 @@
+package model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The rules for building, completing and changing events that every calendar model
+ * implementation shares, whatever way it stores its events.
+ */
+final class EventSupport {
+  private static final DateTimeFormatter DATE_TIME_FORMAT =
+          DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+
+  private EventSupport() {
+  }
+
+  /**
+   * Turns an event missing its start or end time into an all day event, from 8:00 to 17:00 on
+   * the date it does have.
+   *
+   * @param calendarEvent the event to complete
+   * @param timezone      the timezone of the calendar the event is added to
+   * @return the event itself if it has both times otherwise the all day event
+   * @throws IllegalArgumentException if the event has neither a start nor an end time
+   */
+  static Event allDay(Event calendarEvent, ZoneId timezone) {
+    if (calendarEvent.getEndTime() == null || calendarEvent.getStartTime() == null) {
+      LocalDate date;
+      if (calendarEvent.getStartTime() != null) {
+        date = calendarEvent.getStartTime().toLocalDate();
+      } else if (calendarEvent.getEndTime() != null) {
+        date = calendarEvent.getEndTime().toLocalDate();
+      } else {
+        throw new IllegalArgumentException("Either start time or end time must be non-null");
+      }
+
+      calendarEvent = new CalendarEvent.EventBuilder()
+              .setSubject(calendarEvent.getSubject())
+              .setStartTime(LocalDateTime.of(date, LocalTime.of(8, 0)))
+              .setEndTime(LocalDateTime.of(date, LocalTime.of(17, 0)))
+              .setSeriesId(calendarEvent.getSeriesId())
+              .setTimezone(timezone)
+              .build();
+    }
+    return calendarEvent;
+  }
+
+  /**
+   * Builds a copy of an event with one property changed. When the event is edited as part of
+   * a series, a new start or end time only changes the time of day and the event keeps its
+   * date.
+   *
+   * @param og       the event to change
+   * @param change   the property to change and its new value
+   * @param isSeries whether the event is edited together with the rest of its series
+   * @return the changed copy of the event
+   * @throws IllegalArgumentException if the new value is invalid for the property
+   */
+  static Event applyChange(Event og, TypingChange change, boolean isSeries) {
+    CalendarEvent.EventBuilder eventBuilder = new CalendarEvent.EventBuilder()
+            .setSubject(og.getSubject())
+            .setStartTime(og.getStartTime())
+            .setEndTime(og.getEndTime())
+            .setDesc(og.getDesc())
+            .setSeriesId(og.getSeriesId());
+
+    if (og.getLocation() != null) {
+      eventBuilder.setLocation(og.getLocation().toString());
+    }
+
+    if (og.getStatus() != null) {
+      eventBuilder.setStatus(og.getStatus().toString());
+    }
+    switch (change.getType()) {
+      case SUBJECT:
+        if (change.getNewValue().toString().isEmpty()) {
+          throw new IllegalArgumentException("Subject can't be empty.");
+        }
+        eventBuilder.setSubject((String) change.getNewValue());
+        break;
+      case START:
+        LocalDateTime newStartTime = changeTime(og, change, isSeries);
+        eventBuilder.setStartTime(newStartTime);
+        break;
+      case END:
+        LocalDateTime endTime = changeTime(og, change, isSeries);
+        eventBuilder.setEndTime(endTime);
+        break;
+      case LOCATION:
+        eventBuilder.setLocation((String) change.getNewValue());
+        break;
+      case STATUS:
+        eventBuilder.setStatus((String) change.getNewValue());
+        break;
+      case DESCRIPTION:
+        eventBuilder.setDesc((String) change.getNewValue());
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown event type");
+    }
+
+    return eventBuilder.build();
+  }
+
+  private static LocalDateTime changeTime(Event og, TypingChange change, boolean isSeries) {
+    DateTimeFormatter formatTime = DATE_TIME_FORMAT;
+    LocalDateTime newTime = null;
+    if (isSeries) {
+      if (change.getType() == PropertyType.START) {
+        LocalDateTime changeStart = LocalDateTime.parse((String) change.getNewValue(), formatTime);
+        newTime = og.getStartTime().toLocalDate().atTime(changeStart.getHour(),
+                changeStart.getMinute());
+      } else if (change.getType() == PropertyType.END) {
+        LocalDateTime changeEnd = LocalDateTime.parse((String) change.getNewValue(), formatTime);
+        newTime = og.getEndTime().toLocalDate().atTime(changeEnd.getHour(), changeEnd.getMinute());
+      }
+
+    } else {
+      try {
+        newTime = LocalDateTime.parse((String) change.getNewValue(), formatTime);
+      } catch (Exception e) {
+        throw new IllegalArgumentException("Incorrect date format. Please use yyyy-MM-dd " +
+                "for dates " + "and HH:mm for time");
+      }
+    }
+
+    return newTime;
+  }
+
+  /**
+   * Computes how many days after the given start the weekday named by the first letter of
+   * repeatWhen falls within the same week. Weekdays earlier in the week give a negative count.
+   *
+   * @param startTime  the start of the series
+   * @param repeatWhen a string starting with one of the letters MTWRFSU
+   * @return the number of days from the start to the weekday
+   * @throws IllegalArgumentException if the letter is not a valid day
+   */
+  static int daysUntil(LocalDateTime startTime, String repeatWhen) {
+    DayOfWeek currentWeekDay = startTime.getDayOfWeek();
+    int number;
+    DayOfWeek newDay = null;
+    ArrayList<Character> days = new ArrayList<Character>(
+            Arrays.asList('M', 'T', 'W', 'R', 'F', 'S', 'U'));
+
+    if (days.contains(repeatWhen.charAt(0))) {
+      if (repeatWhen.charAt(0) == 'M') {
+        newDay = DayOfWeek.MONDAY;
+      } else if (repeatWhen.charAt(0) == 'T') {
+        newDay = DayOfWeek.TUESDAY;
+      } else if (repeatWhen.charAt(0) == 'W') {
+        newDay = DayOfWeek.WEDNESDAY;
+      } else if (repeatWhen.charAt(0) == 'R') {
+        newDay = DayOfWeek.THURSDAY;
+      } else if (repeatWhen.charAt(0) == 'F') {
+        newDay = DayOfWeek.FRIDAY;
+      } else if (repeatWhen.charAt(0) == 'S') {
+        newDay = DayOfWeek.SATURDAY;
+      } else if (repeatWhen.charAt(0) == 'U') {
+        newDay = DayOfWeek.SUNDAY;
+      }
+    } else {
+      throw new IllegalArgumentException("Not a valid day.");
+    }
+    assert newDay != null;
+    if (currentWeekDay.equals(newDay)) {
+      number = 0;
+    } else {
+      number = (newDay.getValue() - currentWeekDay.getValue()) % 7;
+    }
+    return number;
+  }
+
+  /**
+   * Checks that a list of events can form a series. Every event has to start and end on the
+   * same day.
+   *
+   * @param events the events of the series
+   * @throws IllegalArgumentException if the list is null or empty or an event is invalid
+   */
+  static void validateSeries(List<Event> events) {
+    if (events == null || events.isEmpty()) {
+      throw new IllegalArgumentException("Events list cannot be null or empty");
+    }
+
+    LocalDateTime startTime = events.get(0).getStartTime();
+    for (Event e : events) {
+      if (!e.getStartTime().toLocalDate().equals(e.getEndTime().toLocalDate())) {
+        throw new IllegalArgumentException("Event spans multiple days");
+      } else if (e.getStartTime().getHour() != startTime.getHour() &&
+              e.getStartTime().getMinute() == startTime.getMinute()) {
+        throw new IllegalArgumentException("Start times must all be the same");
+      }
+    }
+  }
+
+  /**
+   * Copies an event into a series. The copy has no timezone, so its times are taken to be
+   * in the timezone of the calendar it is added to.
+   *
+   * @param e        the event to copy
+   * @param seriesId the id of the series
+   * @return the copy belonging to the series
+   */
+  static CalendarEvent seriesMember(Event e, long seriesId) {
+    CalendarEvent.EventBuilder builder = new CalendarEvent.EventBuilder()
+            .setSubject(e.getSubject())
+            .setStartTime(e.getStartTime())
+            .setEndTime(e.getEndTime())
+            .setSeriesId(seriesId)
+            .setDesc(e.getDesc());
+
+    if (e.getLocation() != null) {
+      builder.setLocation(e.getLocation().toString());
+    }
+
+    if (e.getStatus() != null) {
+      builder.setStatus(e.getStatus().toString());
+    }
+
+    return builder.build();
+  }
+}
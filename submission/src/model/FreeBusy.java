@@ -0,0 +1,334 @@
+package model;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Answers free/busy queries over several calendars of a model at once, whatever their zones.
+ * Every calendar is walked in start order with its own cursor, and the cursors are merged
+ * with a heap holding the next event of each calendar, so each event costs O(log k) for k
+ * calendars. Events are only read as the merge reaches them, so looking for the first free
+ * slots stops reading as soon as enough slots are found. Overlapping and touching events are
+ * merged into one busy interval, and every interval is clipped to the queried range.
+ * Availability over a whole day is answered from the occupancy maps of the calendars,
+ * combined word by word.
+ */
+public class FreeBusy {
+  private final MultipleCalendarModelAllNames model;
+
+  /**
+   * Constructs a query over the calendars of a model.
+   *
+   * @param model the model holding the calendars
+   * @throws IllegalArgumentException if the model is null
+   */
+  public FreeBusy(MultipleCalendarModelAllNames model) {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+    this.model = model;
+  }
+
+  /**
+   * Gets the times within a range at which any of the given calendars has an event, as
+   * merged intervals in start order.
+   *
+   * @param calendars the names of the calendars
+   * @param from      the start of the range
+   * @param to        the end of the range
+   * @param zone      the zone the range is given in and the intervals are returned in
+   * @return the busy intervals
+   * @throws IllegalArgumentException if an argument is null, a calendar does not exist or
+   *                                  the range ends before it starts
+   */
+  public List<TimeSlot> getBusy(List<String> calendars, LocalDateTime from, LocalDateTime to,
+                                ZoneId zone) {
+    Merge busy = new Merge(calendars, from, to, zone);
+    List<TimeSlot> slots = new ArrayList<>();
+    while (busy.hasNext()) {
+      slots.add(busy.next());
+    }
+    return slots;
+  }
+
+  /**
+   * Gets the first times within a range at which none of the given calendars has an event
+   * and that last at least a given length. Each free slot runs from the end of one busy
+   * interval, or the start of the range, to the start of the next one, or the end of the
+   * range.
+   *
+   * @param calendars the names of the calendars
+   * @param from      the start of the range
+   * @param to        the end of the range
+   * @param zone      the zone the range is given in and the slots are returned in
+   * @param length    the shortest length of a returned slot
+   * @param count     the most slots returned
+   * @return at most count free slots in start order
+   * @throws IllegalArgumentException if an argument is null, a calendar does not exist, the
+   *                                  range ends before it starts, the length is not positive
+   *                                  or the count is negative
+   */
+  public List<TimeSlot> getFreeSlots(List<String> calendars, LocalDateTime from,
+                                     LocalDateTime to, ZoneId zone, Duration length,
+                                     int count) {
+    if (length == null || length.isNegative() || length.isZero()) {
+      throw new IllegalArgumentException("Length must be positive");
+    }
+    if (count < 0) {
+      throw new IllegalArgumentException("Count cannot be negative");
+    }
+    Merge busy = new Merge(calendars, from, to, zone);
+    List<TimeSlot> slots = new ArrayList<>();
+    ZonedDateTime free = busy.from.atZone(zone);
+    while (slots.size() < count && busy.hasNext()) {
+      TimeSlot next = busy.next();
+      addIfLongEnough(slots, free, next.getStart(), length);
+      free = next.getEnd();
+    }
+    if (slots.size() < count) {
+      addIfLongEnough(slots, free, busy.to.atZone(zone), length);
+    }
+    return slots;
+  }
+
+  /**
+   * Gets the minutes of a UTC day at which every one of the given calendars is busy, as an
+   * occupancy map. A clear bit is a minute at which someone is free.
+   *
+   * @param calendars the names of the calendars
+   * @param date      the UTC day
+   * @return the map of the day
+   * @throws IllegalArgumentException if an argument is null or a calendar does not exist
+   */
+  public long[] getAllBusy(List<String> calendars, LocalDate date) {
+    return Occupancy.and(occupancies(calendars, date));
+  }
+
+  /**
+   * Gets the minutes of a UTC day at which any of the given calendars is busy, as an
+   * occupancy map. A clear bit is a minute at which everyone is free.
+   *
+   * @param calendars the names of the calendars
+   * @param date      the UTC day
+   * @return the map of the day
+   * @throws IllegalArgumentException if an argument is null or a calendar does not exist
+   */
+  public long[] getAnyBusy(List<String> calendars, LocalDate date) {
+    return Occupancy.or(occupancies(calendars, date));
+  }
+
+  /**
+   * Checks whether at least one of the given calendars is available at a moment.
+   *
+   * @param calendars the names of the calendars
+   * @param time      the moment
+   * @return whether a calendar is available
+   * @throws IllegalArgumentException if an argument is null or a calendar does not exist
+   */
+  public boolean isAnyoneFree(List<String> calendars, ZonedDateTime time) {
+    if (time == null) {
+      throw new IllegalArgumentException("Time cannot be null");
+    }
+    for (CalendarModelGUISupport calendar : calendarsNamed(calendars)) {
+      if (isFree(calendar, time)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks whether every one of the given calendars is available at a moment.
+   *
+   * @param calendars the names of the calendars
+   * @param time      the moment
+   * @return whether every calendar is available
+   * @throws IllegalArgumentException if an argument is null or a calendar does not exist
+   */
+  public boolean isEveryoneFree(List<String> calendars, ZonedDateTime time) {
+    if (time == null) {
+      throw new IllegalArgumentException("Time cannot be null");
+    }
+    for (CalendarModelGUISupport calendar : calendarsNamed(calendars)) {
+      if (!isFree(calendar, time)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isFree(CalendarModelGUISupport calendar, ZonedDateTime time) {
+    return "Available.".equals(calendar.getStatusMessage(
+            time.withZoneSameInstant(calendar.getTimezone()).toLocalDateTime()));
+  }
+
+  private List<long[]> occupancies(List<String> calendars, LocalDate date) {
+    if (date == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    List<long[]> maps = new ArrayList<>();
+    for (CalendarModelGUISupport calendar : calendarsNamed(calendars)) {
+      maps.add(calendar.getOccupancy(date));
+    }
+    return maps;
+  }
+
+  private List<CalendarModelGUISupport> calendarsNamed(List<String> names) {
+    if (names == null) {
+      throw new IllegalArgumentException("Calendars cannot be null");
+    }
+    List<CalendarModelGUISupport> calendars = new ArrayList<>(names.size());
+    for (String name : names) {
+      CalendarModelGUISupport calendar = model.getCalendar(name);
+      if (calendar == null) {
+        throw new IllegalArgumentException("Calendar does not exist");
+      }
+      calendars.add(calendar);
+    }
+    return calendars;
+  }
+
+  private static void addIfLongEnough(List<TimeSlot> slots, ZonedDateTime start,
+                                      ZonedDateTime end, Duration length) {
+    if (Duration.between(start, end).compareTo(length) >= 0) {
+      slots.add(new TimeSlot(start, end));
+    }
+  }
+
+  /**
+   * The events of one calendar from the start of the range onwards, as moments.
+   */
+  private static final class Cursor {
+    private final Iterator<Event> events;
+    private final ZoneId zone;
+    private final Instant from;
+    private final Instant to;
+    private Instant start;
+    private Instant end;
+
+    private Cursor(CalendarModelGUISupport calendar, Instant from, Instant to) {
+      this.zone = calendar.getTimezone();
+      this.from = from;
+      this.to = to;
+      LocalDateTime localFrom = LocalDateTime.ofInstant(from, zone);
+      List<Event> started = new ArrayList<>();
+      for (Event event : calendar.getEventsOnDate(localFrom.toLocalDate())) {
+        if (event.getStartTime().isBefore(localFrom)) {
+          started.add(event);
+        }
+      }
+      started.sort(Comparator.comparing(Event::getStartTime));
+      Iterator<Event> earlier = started.iterator();
+      Iterator<Event> later = calendar.eventsFrom(localFrom);
+      this.events = new Iterator<Event>() {
+        @Override
+        public boolean hasNext() {
+          return earlier.hasNext() || later.hasNext();
+        }
+
+        @Override
+        public Event next() {
+          return earlier.hasNext() ? earlier.next() : later.next();
+        }
+      };
+    }
+
+    /**
+     * Moves to the next event that ends after the start of the range, unless the events left
+     * start after its end.
+     *
+     * @return whether there is such an event
+     */
+    private boolean advance() {
+      while (events.hasNext()) {
+        Event event = events.next();
+        Instant eventStart = event.getStartTime().atZone(zone).toInstant();
+        if (!eventStart.isBefore(to)) {
+          return false;
+        }
+        Instant eventEnd = event.getEndTime().atZone(zone).toInstant();
+        if (eventEnd.isAfter(from)) {
+          start = eventStart;
+          end = eventEnd;
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * The busy intervals of a set of calendars, merged from their cursors one at a time.
+   */
+  private final class Merge implements Iterator<TimeSlot> {
+    private final PriorityQueue<Cursor> heads;
+    private final Instant from;
+    private final Instant to;
+    private final ZoneId zone;
+
+    private Merge(List<String> calendars, LocalDateTime from, LocalDateTime to, ZoneId zone) {
+      if (calendars == null || from == null || to == null || zone == null) {
+        throw new IllegalArgumentException("Calendars, range and zone cannot be null");
+      }
+      if (to.isBefore(from)) {
+        throw new IllegalArgumentException("End time cannot be before start time");
+      }
+      this.from = from.atZone(zone).toInstant();
+      this.to = to.atZone(zone).toInstant();
+      this.zone = zone;
+      this.heads = new PriorityQueue<>(Math.max(1, calendars.size()),
+              Comparator.comparing((Cursor cursor) -> cursor.start));
+      for (CalendarModelGUISupport calendar : calendarsNamed(calendars)) {
+        Cursor cursor = new Cursor(calendar, this.from, this.to);
+        if (cursor.advance()) {
+          heads.add(cursor);
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !heads.isEmpty();
+    }
+
+    @Override
+    public TimeSlot next() {
+      Cursor first = heads.poll();
+      Instant start = first.start;
+      Instant end = first.end;
+      if (first.advance()) {
+        heads.add(first);
+      }
+      while (!heads.isEmpty() && !heads.peek().start.isAfter(end)) {
+        Cursor cursor = heads.poll();
+        if (cursor.start.isBefore(start)) {
+          start = cursor.start;
+        }
+        if (cursor.end.isAfter(end)) {
+          end = cursor.end;
+        }
+        if (cursor.advance()) {
+          heads.add(cursor);
+        }
+      }
+      return new TimeSlot(max(start, from).atZone(zone), min(end, to).atZone(zone));
+    }
+
+    private Instant max(Instant a, Instant b) {
+      return a.isAfter(b) ? a : b;
+    }
+
+    private Instant min(Instant a, Instant b) {
+      return a.isBefore(b) ? a : b;
+    }
+  }
+}
@@ -0,0 +1,707 @@
+package model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Imports the events of an iCalendar (.ics) file into a calendar. The file is split into its
+ * VEVENT blocks in one pass and the blocks are parsed in parallel on the common fork-join
+ * pool. Times given in UTC or with a TZID are moved into the zone of the calendar, floating
+ * times are taken to be in it already, and date-only events become all day events from 8:00
+ * to 17:00. A daily or weekly RRULE with a COUNT or an UNTIL becomes a series: a repeating
+ * series as createAllEvents makes when its occurrences fill whole weeks the same way, and a
+ * series of every occurrence as createEvents makes otherwise. Occurrences whose time of day
+ * moves in the zone of the calendar, as a series in another zone does across a daylight
+ * saving change, cannot form a series and are added as events of their own. RRULEs with an
+ * INTERVAL, BYDAY positions or other parts, and VEVENTs with an EXDATE or a RECURRENCE-ID,
+ * are not supported. The events are added as one change: single events go into the store in
+ * one bulk update, and if any event or series is rejected everything the import added is
+ * removed again. A ConcurrentCalendarModel, as the calendars of MultipleCalendarModelImpl
+ * are, is imported into under its write lock and published as one version.
+ */
+public final class ICalendarImporter {
+  private static final int THRESHOLD = 256;
+  private static final String BEGIN = "BEGIN:VEVENT";
+  private static final String END = "END:VEVENT";
+
+  private ICalendarImporter() {
+  }
+
+  /**
+   * Imports every event of an iCalendar file into a calendar.
+   *
+   * @param file     the file to read
+   * @param calendar the calendar to add the events to
+   * @return the number of VEVENTs imported
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if a VEVENT is invalid or not supported, or the
+   *                                  calendar rejects one of its events; nothing is imported
+   */
+  public static int importFile(Path file, CalendarModelImpl calendar) throws IOException {
+    return importText(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), calendar);
+  }
+
+  /**
+   * Imports every event of an iCalendar file into a calendar that threads may share.
+   *
+   * @param file     the file to read
+   * @param calendar the calendar to add the events to
+   * @return the number of VEVENTs imported
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if a VEVENT is invalid or not supported, or the
+   *                                  calendar rejects one of its events; nothing is imported
+   */
+  public static int importFile(Path file, ConcurrentCalendarModel calendar)
+          throws IOException {
+    return importText(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), calendar);
+  }
+
+  /**
+   * Imports every event of iCalendar text into a calendar that threads may share. The
+   * import is made under the write lock of the calendar, so other threads see either none
+   * of it or all of it.
+   *
+   * @param text     the iCalendar text
+   * @param calendar the calendar to add the events to
+   * @return the number of VEVENTs imported
+   * @throws IllegalArgumentException if a VEVENT is invalid or not supported, or the
+   *                                  calendar rejects one of its events; nothing is imported
+   */
+  public static int importText(String text, ConcurrentCalendarModel calendar) {
+    if (text == null || calendar == null) {
+      throw new IllegalArgumentException("Text and calendar cannot be null");
+    }
+    int[] count = new int[1];
+    calendar.withCalendar(target -> count[0] = importText(text, target));
+    return count[0];
+  }
+
+  /**
+   * Imports every event of iCalendar text into a calendar.
+   *
+   * @param text     the iCalendar text
+   * @param calendar the calendar to add the events to
+   * @return the number of VEVENTs imported
+   * @throws IllegalArgumentException if a VEVENT is invalid or not supported, or the
+   *                                  calendar rejects one of its events; nothing is imported
+   */
+  public static int importText(String text, CalendarModelImpl calendar) {
+    if (text == null || calendar == null) {
+      throw new IllegalArgumentException("Text and calendar cannot be null");
+    }
+    int[] bounds = blocks(text);
+    Imported[] imported = new Imported[bounds.length / 2];
+    ForkJoinPool.commonPool().invoke(new ParseTask(text, bounds, imported, 0, imported.length,
+            calendar.getTimezone()));
+    for (int i = 0; i < imported.length; i++) {
+      if (imported[i].error != null) {
+        throw new IllegalArgumentException("VEVENT " + (i + 1) + ": "
+                + imported[i].error.getMessage(), imported[i].error);
+      }
+    }
+    apply(imported, calendar);
+    return imported.length;
+  }
+
+  /**
+   * A parsed VEVENT, which is either events of their own or a series, or the error it gave.
+   */
+  private static final class Imported {
+    private List<Event> events;
+    private Event event;
+    private String repeatWhen;
+    private int weeks;
+    private List<Event> occurrences;
+    private RuntimeException error;
+  }
+
+  /**
+   * Parses the VEVENT blocks of a range, splitting it in half until it is small enough.
+   */
+  private static final class ParseTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final String text;
+    private final int[] bounds;
+    private final Imported[] imported;
+    private final int from;
+    private final int to;
+    private final ZoneId zone;
+
+    private ParseTask(String text, int[] bounds, Imported[] imported, int from, int to,
+                      ZoneId zone) {
+      this.text = text;
+      this.bounds = bounds;
+      this.imported = imported;
+      this.from = from;
+      this.to = to;
+      this.zone = zone;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= THRESHOLD) {
+        for (int i = from; i < to; i++) {
+          imported[i] = parse(text, bounds[2 * i], bounds[2 * i + 1], zone);
+        }
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new ParseTask(text, bounds, imported, from, middle, zone),
+              new ParseTask(text, bounds, imported, middle, to, zone));
+    }
+  }
+
+  /**
+   * Finds the VEVENT blocks, giving the start and end offset of the content of each one.
+   */
+  private static int[] blocks(String text) {
+    int[] bounds = new int[64];
+    int count = 0;
+    int at = text.indexOf(BEGIN);
+    while (at >= 0) {
+      int end = text.indexOf(END, at);
+      if (end < 0) {
+        throw new IllegalArgumentException("VEVENT " + (count / 2 + 1) + ": missing " + END);
+      }
+      if (count == bounds.length) {
+        bounds = Arrays.copyOf(bounds, count * 2);
+      }
+      bounds[count++] = at + BEGIN.length();
+      bounds[count++] = end;
+      at = text.indexOf(BEGIN, end);
+    }
+    return Arrays.copyOf(bounds, count);
+  }
+
+  /**
+   * Adds every imported event and series to the calendar, removing them all again if one of
+   * them is rejected.
+   */
+  private static void apply(Imported[] imported, CalendarModelImpl calendar) {
+    List<Event> singles = new ArrayList<>();
+    List<Integer> positions = new ArrayList<>();
+    for (int i = 0; i < imported.length; i++) {
+      if (imported[i].events != null) {
+        singles.addAll(imported[i].events);
+        positions.addAll(Collections.nCopies(imported[i].events.size(), i));
+      }
+    }
+    EventStore store = calendar.getStore();
+    long firstSeries = calendar.getNextSeriesId();
+    List<RuntimeException> failures = calendar.createEachEvent(singles);
+    RuntimeException failure = null;
+    for (int i = 0; i < failures.size() && failure == null; i++) {
+      if (failures.get(i) != null) {
+        failure = new IllegalArgumentException("VEVENT " + (positions.get(i) + 1) + ": "
+                + failures.get(i).getMessage(), failures.get(i));
+      }
+    }
+    for (int i = 0; i < imported.length && failure == null; i++) {
+      Imported series = imported[i];
+      try {
+        if (series.repeatWhen != null) {
+          calendar.createAllEvents(series.event, series.repeatWhen, series.weeks);
+        } else if (series.occurrences != null) {
+          calendar.createEvents(series.occurrences);
+        }
+      } catch (RuntimeException e) {
+        failure = new IllegalArgumentException("VEVENT " + (i + 1) + ": " + e.getMessage(), e);
+      }
+    }
+    if (failure != null) {
+      for (int i = 0; i < failures.size(); i++) {
+        if (failures.get(i) == null) {
+          store.remove(singles.get(i));
+        }
+      }
+      for (long id = firstSeries; id < calendar.getNextSeriesId(); id++) {
+        store.removeSeries(id);
+      }
+      calendar.setNextSeriesId(firstSeries);
+      throw failure;
+    }
+  }
+
+  private static Imported parse(String text, int from, int to, ZoneId zone) {
+    Imported imported = new Imported();
+    try {
+      parseBlock(text, from, to, zone, imported);
+    } catch (RuntimeException e) {
+      imported.error = e;
+    }
+    return imported;
+  }
+
+  /**
+   * Reads the properties of a VEVENT block, unfolding continued lines, and builds its event
+   * or series.
+   */
+  private static void parseBlock(String text, int from, int to, ZoneId zone,
+                                 Imported imported) {
+    Property start = null;
+    Property end = null;
+    String duration = null;
+    String rule = null;
+    CalendarEvent.EventBuilder builder = new CalendarEvent.EventBuilder();
+    String summary = "";
+    int at = from;
+    while (at < to) {
+      int lineEnd = lineEnd(text, at, to);
+      String line = text.substring(at, lineEnd);
+      at = next(text, lineEnd, to);
+      if (at < to && (text.charAt(at) == ' ' || text.charAt(at) == '\t')) {
+        StringBuilder folded = new StringBuilder(line);
+        while (at < to && (text.charAt(at) == ' ' || text.charAt(at) == '\t')) {
+          lineEnd = lineEnd(text, at, to);
+          folded.append(text, at + 1, lineEnd);
+          at = next(text, lineEnd, to);
+        }
+        line = folded.toString();
+      }
+      if (line.isEmpty()) {
+        continue;
+      }
+      Property property = Property.of(line);
+      switch (property.name) {
+        case "SUMMARY":
+          summary = unescape(property.value);
+          break;
+        case "DESCRIPTION":
+          builder.setDesc(unescape(property.value));
+          break;
+        case "LOCATION":
+          builder.setLocation(location(unescape(property.value)));
+          break;
+        case "CLASS":
+          builder.setStatus(property.value.equalsIgnoreCase("PUBLIC") ? "PUBLIC" : "PRIVATE");
+          break;
+        case "DTSTART":
+          start = property;
+          break;
+        case "DTEND":
+          end = property;
+          break;
+        case "DURATION":
+          duration = property.value;
+          break;
+        case "RRULE":
+          rule = property.value;
+          break;
+        case "EXDATE":
+        case "RDATE":
+        case "RECURRENCE-ID":
+          throw new IllegalArgumentException(property.name + " is not supported");
+        default:
+          break;
+      }
+    }
+    if (start == null) {
+      throw new IllegalArgumentException("missing DTSTART");
+    }
+
+    boolean allDay = start.isDate();
+    ZoneId source = start.zone(zone);
+    LocalDateTime startTime;
+    Duration length;
+    if (allDay) {
+      LocalDate day = start.date();
+      LocalDate lastDay = day;
+      if (end != null) {
+        lastDay = end.date().minusDays(1);
+      } else if (duration != null) {
+        lastDay = day.plus(duration(duration)).minusDays(1);
+      }
+      startTime = day.atTime(8, 0);
+      length = Duration.between(ZonedDateTime.of(startTime, source),
+              ZonedDateTime.of((lastDay.isAfter(day) ? lastDay : day).atTime(17, 0), source));
+    } else {
+      startTime = start.dateTime();
+      if (end != null) {
+        length = Duration.between(ZonedDateTime.of(startTime, source),
+                ZonedDateTime.of(end.dateTime(), end.zone(source)));
+      } else if (duration != null) {
+        length = duration(duration);
+      } else {
+        length = Duration.ZERO;
+      }
+    }
+    builder.setSubject(summary);
+
+    if (rule == null) {
+      imported.events = Collections.singletonList(
+              occurrence(builder, startTime, length, source, zone));
+      return;
+    }
+    toSeries(rule, builder, startTime, length, source, zone, allDay, imported);
+  }
+
+  /**
+   * Turns a daily or weekly RRULE into a series, as a repeating series when the rule covers
+   * whole weeks the way createAllEvents repeats them, or as every occurrence otherwise.
+   */
+  private static void toSeries(String rule, CalendarEvent.EventBuilder builder,
+                               LocalDateTime start, Duration length, ZoneId source, ZoneId zone,
+                               boolean allDay, Imported imported) {
+    String frequency = null;
+    String byDay = null;
+    Integer count = null;
+    LocalDateTime until = null;
+    for (String part : rule.split(";")) {
+      int equals = part.indexOf('=');
+      String name = equals < 0 ? part : part.substring(0, equals).toUpperCase();
+      String value = equals < 0 ? "" : part.substring(equals + 1);
+      switch (name) {
+        case "FREQ":
+          frequency = value.toUpperCase();
+          break;
+        case "BYDAY":
+          byDay = value.toUpperCase();
+          break;
+        case "COUNT":
+          count = Integer.parseInt(value);
+          break;
+        case "UNTIL":
+          until = until(value, source);
+          break;
+        case "INTERVAL":
+          if (!value.equals("1")) {
+            throw new IllegalArgumentException("RRULE INTERVAL is not supported");
+          }
+          break;
+        case "WKST":
+          break;
+        default:
+          throw new IllegalArgumentException("RRULE " + name + " is not supported");
+      }
+    }
+    if (!"WEEKLY".equals(frequency) && !"DAILY".equals(frequency)) {
+      throw new IllegalArgumentException("RRULE FREQ " + frequency + " is not supported");
+    }
+    if ((count == null) == (until == null)) {
+      throw new IllegalArgumentException("RRULE needs either a COUNT or an UNTIL");
+    }
+    if (count != null && count < 1) {
+      throw new IllegalArgumentException("RRULE COUNT must be positive");
+    }
+
+    boolean[] onDay = new boolean[7];
+    if (byDay != null) {
+      for (String day : byDay.split(",")) {
+        onDay[dayOfWeek(day).getValue() - 1] = true;
+      }
+    } else if (frequency.equals("DAILY")) {
+      Arrays.fill(onDay, true);
+    } else {
+      onDay[start.getDayOfWeek().getValue() - 1] = true;
+    }
+    int startDay = start.getDayOfWeek().getValue() - 1;
+    int[] offsets = new int[7];
+    int days = 0;
+    for (int o = 0; o < 7; o++) {
+      if (onDay[(startDay + o) % 7]) {
+        offsets[days++] = o;
+      }
+    }
+    offsets = Arrays.copyOf(offsets, days);
+    boolean onStart = offsets[0] == 0;
+
+    int weeks = -1;
+    if (count != null) {
+      int repeated = onStart ? count : count - 1;
+      if (repeated % days == 0) {
+        weeks = repeated / days;
+      }
+    } else {
+      for (int o : offsets) {
+        LocalDateTime first = start.plusDays(o);
+        int times = first.isAfter(until) ? 0 : (int) ChronoUnit.WEEKS.between(first, until) + 1;
+        weeks = o == offsets[0] || times == weeks ? times : -2;
+        if (weeks == -2) {
+          break;
+        }
+      }
+    }
+
+    LocalDateTime first = move(start, source, zone);
+    int firstDay = first.getDayOfWeek().getValue();
+    boolean sameShape = (source.equals(zone) || allDay)
+            && firstDay + offsets[days - 1] <= 7;
+    if (weeks >= 0 && sameShape) {
+      StringBuilder repeatWhen = new StringBuilder();
+      for (int o : offsets) {
+        repeatWhen.append("MTWRFSU".charAt((firstDay - 1 + o) % 7));
+      }
+      imported.event = builder.setStartTime(first).setEndTime(first.plus(length)).build();
+      imported.repeatWhen = repeatWhen.toString();
+      imported.weeks = weeks;
+      return;
+    }
+
+    List<Event> occurrences = new ArrayList<>();
+    occurrences.add(occurrence(builder, start, length, source, zone));
+    int limit = count == null ? Integer.MAX_VALUE : count;
+    for (int w = 0; occurrences.size() < limit; w++) {
+      boolean past = false;
+      for (int k = 0; k < days && occurrences.size() < limit; k++) {
+        if (w == 0 && offsets[k] == 0) {
+          continue;
+        }
+        LocalDateTime time = start.plusDays(7L * w + offsets[k]);
+        if (until != null && time.isAfter(until)) {
+          past = true;
+          break;
+        }
+        occurrences.add(occurrence(builder, time, length, source, zone));
+      }
+      if (past) {
+        break;
+      }
+    }
+    LocalTime time = occurrences.get(0).getStartTime().toLocalTime();
+    for (Event occurrence : occurrences) {
+      if (!occurrence.getStartTime().toLocalTime().equals(time)) {
+        imported.events = occurrences;
+        return;
+      }
+    }
+    imported.occurrences = occurrences;
+  }
+
+  /**
+   * Builds an event starting at the given time of the source zone and ending the exact length
+   * later, keeping the wall clock length where a daylight saving change would otherwise end it
+   * before it starts.
+   */
+  private static Event occurrence(CalendarEvent.EventBuilder builder, LocalDateTime start,
+                                  Duration length, ZoneId source, ZoneId zone) {
+    LocalDateTime moved = move(start, source, zone);
+    LocalDateTime end = ZonedDateTime.of(start, source).plus(length)
+            .withZoneSameInstant(zone).toLocalDateTime();
+    return builder.setStartTime(moved)
+            .setEndTime(end.isBefore(moved) ? moved.plus(length) : end).build();
+  }
+
+  private static LocalDateTime move(LocalDateTime time, ZoneId from, ZoneId to) {
+    if (from.equals(to)) {
+      return time;
+    }
+    return ZonedDateTime.of(time, from).withZoneSameInstant(to).toLocalDateTime();
+  }
+
+  private static LocalDateTime until(String value, ZoneId source) {
+    if (value.length() == 8) {
+      return date(value).atTime(LocalTime.MAX);
+    }
+    LocalDateTime until = dateTime(value);
+    return value.endsWith("Z") ? move(until, ZoneOffset.UTC, source) : until;
+  }
+
+  private static DayOfWeek dayOfWeek(String day) {
+    switch (day) {
+      case "MO":
+        return DayOfWeek.MONDAY;
+      case "TU":
+        return DayOfWeek.TUESDAY;
+      case "WE":
+        return DayOfWeek.WEDNESDAY;
+      case "TH":
+        return DayOfWeek.THURSDAY;
+      case "FR":
+        return DayOfWeek.FRIDAY;
+      case "SA":
+        return DayOfWeek.SATURDAY;
+      case "SU":
+        return DayOfWeek.SUNDAY;
+      default:
+        throw new IllegalArgumentException("RRULE BYDAY " + day + " is not supported");
+    }
+  }
+
+  /**
+   * Reads a duration such as P1D, PT1H30M or P2W.
+   */
+  private static Duration duration(String value) {
+    if (value.endsWith("W")) {
+      return Duration.ofDays(7L * Integer.parseInt(value.substring(1, value.length() - 1)));
+    }
+    return Duration.parse(value);
+  }
+
+  private static String location(String value) {
+    if (value.isEmpty()) {
+      return null;
+    }
+    if (value.equalsIgnoreCase("ONLINE") || value.equalsIgnoreCase("PHYSICAL")) {
+      return value;
+    }
+    String lower = value.toLowerCase();
+    return lower.startsWith("http://") || lower.startsWith("https://") ? "ONLINE" : "PHYSICAL";
+  }
+
+  private static String unescape(String value) {
+    if (value.indexOf('\\') < 0) {
+      return value;
+    }
+    StringBuilder text = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '\\' && i + 1 < value.length()) {
+        char escaped = value.charAt(++i);
+        text.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+      } else {
+        text.append(c);
+      }
+    }
+    return text.toString();
+  }
+
+  private static int lineEnd(String text, int at, int to) {
+    while (at < to && text.charAt(at) != '\n' && text.charAt(at) != '\r') {
+      at++;
+    }
+    return at;
+  }
+
+  private static int next(String text, int lineEnd, int to) {
+    if (lineEnd < to && text.charAt(lineEnd) == '\r') {
+      lineEnd++;
+    }
+    if (lineEnd < to && text.charAt(lineEnd) == '\n') {
+      lineEnd++;
+    }
+    return lineEnd;
+  }
+
+  private static LocalDate date(String value) {
+    if (value.length() < 8) {
+      throw new IllegalArgumentException("Invalid date " + value);
+    }
+    try {
+      return LocalDate.of(digits(value, 0, 4), digits(value, 4, 6), digits(value, 6, 8));
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException("Invalid date " + value, e);
+    }
+  }
+
+  private static LocalDateTime dateTime(String value) {
+    if (value.length() < 15 || value.charAt(8) != 'T') {
+      throw new IllegalArgumentException("Invalid date-time " + value);
+    }
+    try {
+      return date(value).atTime(digits(value, 9, 11), digits(value, 11, 13),
+              digits(value, 13, 15));
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException("Invalid date-time " + value, e);
+    }
+  }
+
+  private static int digits(String value, int from, int to) {
+    int number = 0;
+    for (int i = from; i < to; i++) {
+      char c = value.charAt(i);
+      if (c < '0' || c > '9') {
+        throw new IllegalArgumentException("Invalid date-time " + value);
+      }
+      number = number * 10 + (c - '0');
+    }
+    return number;
+  }
+
+  /**
+   * A content line split into its name, the parameters it has and its value.
+   */
+  private static final class Property {
+    private final String name;
+    private final String params;
+    private final String value;
+
+    private Property(String name, String params, String value) {
+      this.name = name;
+      this.params = params;
+      this.value = value;
+    }
+
+    private static Property of(String line) {
+      int nameEnd = 0;
+      while (nameEnd < line.length() && line.charAt(nameEnd) != ';'
+              && line.charAt(nameEnd) != ':') {
+        nameEnd++;
+      }
+      int colon = nameEnd;
+      boolean quoted = false;
+      while (colon < line.length() && (quoted || line.charAt(colon) != ':')) {
+        if (line.charAt(colon) == '"') {
+          quoted = !quoted;
+        }
+        colon++;
+      }
+      if (colon == line.length()) {
+        throw new IllegalArgumentException("Invalid line " + line);
+      }
+      return new Property(line.substring(0, nameEnd).toUpperCase(),
+              line.substring(nameEnd, colon), line.substring(colon + 1));
+    }
+
+    private String param(String param) {
+      String key = ";" + param + "=";
+      int at = params.toUpperCase().indexOf(key);
+      if (at < 0) {
+        return null;
+      }
+      int from = at + key.length();
+      int to = params.indexOf(';', from);
+      String value = params.substring(from, to < 0 ? params.length() : to);
+      return value.startsWith("\"") && value.endsWith("\"") && value.length() > 1
+              ? value.substring(1, value.length() - 1) : value;
+    }
+
+    private boolean isDate() {
+      return "DATE".equalsIgnoreCase(param("VALUE")) || value.length() == 8;
+    }
+
+    /**
+     * Gets the zone the value is in: UTC, its TZID, or the given zone for a floating time.
+     */
+    private ZoneId zone(ZoneId floating) {
+      if (value.endsWith("Z")) {
+        return ZoneOffset.UTC;
+      }
+      String tzid = param("TZID");
+      if (tzid == null) {
+        return floating;
+      }
+      try {
+        return ZoneId.of(tzid);
+      } catch (DateTimeException e) {
+        throw new IllegalArgumentException("Unknown TZID " + tzid, e);
+      }
+    }
+
+    private LocalDate date() {
+      return ICalendarImporter.date(value);
+    }
+
+    private LocalDateTime dateTime() {
+      return ICalendarImporter.dateTime(value);
+    }
+  }
+}
@@ -19,8 +19,8 @@ public interface Identifier {
 
   /**
    * Computes the hash code for this Model.Identifier object using its fields.
-   * The hash code is calculated based on the hash codes of the subject
-   * startTime and endTime fields with an additional constant value added.
+   * The hash code is calculated by combining the hash codes of the subject
+   * startTime and endTime fields in order.
    *
    * @return an integer representing the hash code of this Model.EventIdentifier
    */
@@ -0,0 +1,379 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An EventIndex backed by an augmented AVL interval tree. Nodes are ordered by start time,
+ * then end time, then subject, and every node remembers the latest end time found in its
+ * subtree so overlap queries can skip whole subtrees that end too early. Range queries run
+ * in O(log n + k) regardless of how many days the range covers.
+ */
+public class IntervalTreeEventIndex implements EventIndex {
+  private static final Comparator<Event> KEY_ORDER = Comparator
+          .comparing(Event::getStartTime)
+          .thenComparing(Event::getEndTime)
+          .thenComparing(Event::getSubject);
+  private Node root;
+  private int size;
+
+  /**
+   * Constructs an empty interval tree index.
+   */
+  public IntervalTreeEventIndex() {
+    this.root = null;
+    this.size = 0;
+  }
+
+  private static class Node {
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final String subject;
+    private final List<Event> events;
+    private LocalDateTime maxEnd;
+    private int height;
+    private Node left;
+    private Node right;
+
+    private Node(Event event) {
+      this.start = event.getStartTime();
+      this.end = event.getEndTime();
+      this.subject = event.getSubject();
+      this.events = new ArrayList<>();
+      this.events.add(event);
+      this.maxEnd = end;
+      this.height = 1;
+    }
+  }
+
+  @Override
+  public void add(Event event) {
+    if (event == null || event.getStartTime() == null || event.getEndTime() == null) {
+      throw new IllegalArgumentException("Indexed events must have a start and end time");
+    }
+    root = insert(root, event);
+    size++;
+  }
+
+  /**
+   * Adds many events at once. The events are merged in key order with the nodes already in
+   * the tree and the tree is rebuilt bottom up without any rotations, which takes linear time
+   * when the events already come in that order. A batch that is small next to the tree is
+   * inserted one event at a time instead, since that touches fewer nodes.
+   *
+   * @param events the events to be indexed
+   */
+  @Override
+  public void addAll(List<Event> events) {
+    boolean inOrder = true;
+    for (int i = 0; i < events.size(); i++) {
+      Event event = events.get(i);
+      if (event == null || event.getStartTime() == null || event.getEndTime() == null) {
+        throw new IllegalArgumentException("Indexed events must have a start and end time");
+      }
+      inOrder = inOrder && (i == 0 || KEY_ORDER.compare(events.get(i - 1), event) <= 0);
+    }
+    if (root != null && events.size() < size / 4) {
+      EventIndex.super.addAll(events);
+      return;
+    }
+    List<Event> sorted = events;
+    if (!inOrder) {
+      sorted = new ArrayList<>(events);
+      sorted.sort(KEY_ORDER);
+    }
+    List<Node> existing = new ArrayList<>(size);
+    collect(root, existing);
+    List<Node> nodes = new ArrayList<>(existing.size() + sorted.size());
+    int next = 0;
+    for (Event event : sorted) {
+      while (next < existing.size() && compare(existing.get(next), event) >= 0) {
+        nodes.add(existing.get(next++));
+      }
+      Node last = nodes.isEmpty() ? null : nodes.get(nodes.size() - 1);
+      if (last != null && compare(last, event) == 0) {
+        last.events.add(event);
+      } else {
+        nodes.add(new Node(event));
+      }
+    }
+    nodes.addAll(existing.subList(next, existing.size()));
+    root = build(nodes, 0, nodes.size() - 1);
+    size += events.size();
+  }
+
+  @Override
+  public boolean remove(Event event) {
+    if (event == null || event.getStartTime() == null || event.getEndTime() == null) {
+      return false;
+    }
+    int before = size;
+    root = delete(root, event);
+    return size < before;
+  }
+
+  @Override
+  public List<Event> getEventsWithin(LocalDateTime from, LocalDateTime to) {
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    List<Event> result = new ArrayList<>();
+    collectWithin(root, from, to, result);
+    return result;
+  }
+
+  @Override
+  public List<Event> getEventsOverlapping(LocalDateTime from, LocalDateTime to) {
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    List<Event> result = new ArrayList<>();
+    collectOverlapping(root, from, to, result);
+    return result;
+  }
+
+  @Override
+  public Iterator<Event> iteratorFrom(LocalDateTime start) {
+    if (start == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    return new Cursor(start);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Walks the tree in order starting from the first node at or after a start time, keeping
+   * only the path back to the root on a stack so each step costs amortized O(1).
+   */
+  private class Cursor implements Iterator<Event> {
+    private final Deque<Node> path;
+    private Iterator<Event> current;
+
+    private Cursor(LocalDateTime start) {
+      this.path = new ArrayDeque<>();
+      this.current = Collections.emptyIterator();
+      Node node = root;
+      while (node != null) {
+        if (node.start.isBefore(start)) {
+          node = node.right;
+        } else {
+          path.push(node);
+          node = node.left;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!current.hasNext() && !path.isEmpty()) {
+        Node node = path.pop();
+        for (Node child = node.right; child != null; child = child.left) {
+          path.push(child);
+        }
+        current = node.events.iterator();
+      }
+      return current.hasNext();
+    }
+
+    @Override
+    public Event next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException("No more events");
+      }
+      return current.next();
+    }
+  }
+
+  private void collectWithin(Node node, LocalDateTime from, LocalDateTime to,
+                             List<Event> result) {
+    if (node == null) {
+      return;
+    }
+    if (!node.start.isBefore(from)) {
+      collectWithin(node.left, from, to, result);
+    }
+    if (!node.start.isBefore(from) && !node.start.isAfter(to) && !node.end.isAfter(to)) {
+      result.addAll(node.events);
+    }
+    if (!node.start.isAfter(to)) {
+      collectWithin(node.right, from, to, result);
+    }
+  }
+
+  private void collectOverlapping(Node node, LocalDateTime from, LocalDateTime to,
+                                  List<Event> result) {
+    if (node == null || node.maxEnd.isBefore(from)) {
+      return;
+    }
+    collectOverlapping(node.left, from, to, result);
+    if (node.start.isAfter(to)) {
+      return;
+    }
+    if (!node.end.isBefore(from)) {
+      result.addAll(node.events);
+    }
+    collectOverlapping(node.right, from, to, result);
+  }
+
+  private int compare(Node node, Event event) {
+    int cmp = event.getStartTime().compareTo(node.start);
+    if (cmp == 0) {
+      cmp = event.getEndTime().compareTo(node.end);
+    }
+    if (cmp == 0) {
+      cmp = event.getSubject().compareTo(node.subject);
+    }
+    return cmp;
+  }
+
+  private void collect(Node node, List<Node> nodes) {
+    if (node != null) {
+      collect(node.left, nodes);
+      nodes.add(node);
+      collect(node.right, nodes);
+    }
+  }
+
+  private Node build(List<Node> nodes, int low, int high) {
+    if (low > high) {
+      return null;
+    }
+    int mid = (low + high) >>> 1;
+    Node node = nodes.get(mid);
+    node.left = build(nodes, low, mid - 1);
+    node.right = build(nodes, mid + 1, high);
+    update(node);
+    return node;
+  }
+
+  private Node insert(Node node, Event event) {
+    if (node == null) {
+      return new Node(event);
+    }
+    int cmp = compare(node, event);
+    if (cmp < 0) {
+      node.left = insert(node.left, event);
+    } else if (cmp > 0) {
+      node.right = insert(node.right, event);
+    } else {
+      node.events.add(event);
+      return node;
+    }
+    return rebalance(node);
+  }
+
+  private Node delete(Node node, Event event) {
+    if (node == null) {
+      return null;
+    }
+    int cmp = compare(node, event);
+    if (cmp < 0) {
+      node.left = delete(node.left, event);
+    } else if (cmp > 0) {
+      node.right = delete(node.right, event);
+    } else {
+      if (!removeFrom(node.events, event)) {
+        return node;
+      }
+      size--;
+      if (!node.events.isEmpty()) {
+        return node;
+      }
+      if (node.left == null) {
+        return node.right;
+      }
+      if (node.right == null) {
+        return node.left;
+      }
+      Node successor = node.right;
+      while (successor.left != null) {
+        successor = successor.left;
+      }
+      successor.right = detachMin(node.right);
+      successor.left = node.left;
+      return rebalance(successor);
+    }
+    return rebalance(node);
+  }
+
+  private boolean removeFrom(List<Event> events, Event event) {
+    for (int i = 0; i < events.size(); i++) {
+      if (events.get(i) == event) {
+        events.remove(i);
+        return true;
+      }
+    }
+    return events.remove(event);
+  }
+
+  private Node detachMin(Node node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    node.left = detachMin(node.left);
+    return rebalance(node);
+  }
+
+  private int height(Node node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private void update(Node node) {
+    node.height = 1 + Math.max(height(node.left), height(node.right));
+    LocalDateTime max = node.end;
+    if (node.left != null && node.left.maxEnd.isAfter(max)) {
+      max = node.left.maxEnd;
+    }
+    if (node.right != null && node.right.maxEnd.isAfter(max)) {
+      max = node.right.maxEnd;
+    }
+    node.maxEnd = max;
+  }
+
+  private Node rebalance(Node node) {
+    update(node);
+    int balance = height(node.left) - height(node.right);
+    if (balance > 1) {
+      if (height(node.left.left) < height(node.left.right)) {
+        node.left = rotateLeft(node.left);
+      }
+      return rotateRight(node);
+    }
+    if (balance < -1) {
+      if (height(node.right.right) < height(node.right.left)) {
+        node.right = rotateRight(node.right);
+      }
+      return rotateLeft(node);
+    }
+    return node;
+  }
+
+  private Node rotateRight(Node node) {
+    Node pivot = node.left;
+    node.left = pivot.right;
+    pivot.right = node;
+    update(node);
+    update(pivot);
+    return pivot;
+  }
+
+  private Node rotateLeft(Node node) {
+    Node pivot = node.right;
+    node.right = pivot.left;
+    pivot.left = node;
+    update(node);
+    update(pivot);
+    return pivot;
+  }
+}
@@ -0,0 +1,799 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A MultipleCalendarModel that records every mutation in a WriteAheadLog, so the calendars
+ * survive a crash between two snapshots. Each call that changes a calendar is appended to the
+ * log as a compact binary record of its arguments once the wrapped model has carried it out,
+ * and the calendars returned by useCalendar record their own mutations the same way. Calls
+ * that can change some events before they fail, such as copying events or creating a series,
+ * are recorded even when they fail, so that replaying them fails at the same point.
+ * When the model is opened, the records of the log are replayed on top of the latest
+ * snapshot. A checkpoint writes a new snapshot and starts the log over.
+ */
+public class JournaledCalendarModel implements MultipleCalendarModelAllNames, Closeable {
+  private static final byte CREATE_CALENDAR = 1;
+  private static final byte EDIT_CALENDAR = 2;
+  private static final byte USE_CALENDAR = 3;
+  private static final byte COPY_EVENT = 4;
+  private static final byte COPY_EVENTS = 5;
+  private static final byte CREATE_EVENT = 6;
+  private static final byte CREATE_EVENTS = 7;
+  private static final byte CREATE_ALL_EVENTS = 8;
+  private static final byte EDIT_EVENT = 9;
+  private static final byte EDIT_EVENTS = 10;
+  private static final byte EDIT_SERIES = 11;
+  private static final byte EDIT_FOLLOWING = 12;
+  private static final byte EDIT_WHOLE_SERIES = 13;
+  private static final byte SET_TIMEZONE = 14;
+  private static final byte COPY_EVENT_FROM = 15;
+  private static final byte COPY_EVENTS_FROM = 16;
+  private static final byte APPLY_BATCH = 17;
+
+  private final MultipleCalendarModelImpl model;
+  private final WriteAheadLog log;
+  private final Path snapshot;
+  private final Map<String, JournaledCalendar> calendars;
+
+  private JournaledCalendarModel(MultipleCalendarModelImpl model, WriteAheadLog log,
+                                 Path snapshot) {
+    this.model = model;
+    this.log = log;
+    this.snapshot = snapshot;
+    this.calendars = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Opens a journaled model. The calendars are loaded from the snapshot when it exists, and
+   * the mutations recorded in the log since that snapshot are replayed on top of them.
+   *
+   * @param snapshot       the snapshot file, or null to start from no calendars
+   * @param logFile        the log file, created when it does not exist
+   * @param policy         when appended records are forced to the disk
+   * @param intervalMillis the time between two forces of the INTERVAL policy
+   * @return the model
+   * @throws IOException if the snapshot or the log cannot be read, or the log was written
+   *                     after a snapshot other than the given one
+   */
+  public static JournaledCalendarModel open(Path snapshot, Path logFile,
+                                            WriteAheadLog.SyncPolicy policy,
+                                            long intervalMillis) throws IOException {
+    MultipleCalendarModelImpl model = new MultipleCalendarModelImpl();
+    long generation = 0;
+    if (snapshot != null && Files.exists(snapshot)) {
+      generation = CalendarSnapshot.generation(snapshot);
+      model = CalendarSnapshot.load(snapshot);
+    }
+    WriteAheadLog log = WriteAheadLog.open(logFile, policy, intervalMillis);
+    try {
+      if (log.getGeneration() > generation) {
+        throw new IOException("Log was written after a newer snapshot");
+      }
+      if (log.getGeneration() < generation) {
+        log.reset(generation);
+      } else {
+        for (ByteBuffer record : log.recovered()) {
+          replay(model, record.duplicate());
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      log.close();
+      throw e;
+    }
+    return new JournaledCalendarModel(model, log, snapshot);
+  }
+
+  /**
+   * Writes every calendar to the snapshot and starts the log over, so the mutations recorded
+   * so far no longer need to be replayed.
+   *
+   * @throws IOException           if the snapshot or the log cannot be written
+   * @throws IllegalStateException if the model was opened without a snapshot file
+   */
+  public void checkpoint() throws IOException {
+    if (snapshot == null) {
+      throw new IllegalStateException("No snapshot file to write");
+    }
+    long generation = log.getGeneration() + 1;
+    log.sync();
+    CalendarSnapshot.save(model, snapshot, generation);
+    log.reset(generation);
+  }
+
+  /**
+   * Forces the log to the disk and closes it.
+   *
+   * @throws IOException if the log cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    log.close();
+  }
+
+  @Override
+  public void createCalendar(String name, String timezone) {
+    synchronized (this) {
+      model.createCalendar(name, timezone);
+      append(new Record(CREATE_CALENDAR).string(name).string(timezone));
+    }
+  }
+
+  @Override
+  public CalendarModelGUISupport useCalendar(String name) {
+    synchronized (this) {
+      String current = model.getCurrentCalendarName();
+      model.useCalendar(name);
+      if (!name.equals(current)) {
+        append(new Record(USE_CALENDAR).string(name));
+      }
+      return journaled(name);
+    }
+  }
+
+  @Override
+  public CalendarModelGUISupport getCalendar(String name) {
+    JournaledCalendar calendar = name == null ? null : calendars.get(name);
+    if (calendar != null) {
+      return calendar;
+    }
+    synchronized (this) {
+      return model.getCalendar(name) == null ? null : journaled(name);
+    }
+  }
+
+  private JournaledCalendar journaled(String name) {
+    return calendars.computeIfAbsent(name,
+            key -> new JournaledCalendar(this, key, model.getCalendar(key)));
+  }
+
+  /**
+   * Gets the lock the changes of a calendar are recorded under, or the lock of the model
+   * when there is no such calendar.
+   */
+  private Object lockOf(String name) {
+    CalendarModelGUISupport calendar = getCalendar(name);
+    return calendar == null ? this : ((JournaledCalendar) calendar).lock;
+  }
+
+  /**
+   * Copies between two calendars while holding the locks of both, so that no change to
+   * either is recorded between the copy and its record. Copies take the lock of the model
+   * first, which keeps two copies from taking the locks of two calendars in opposite orders.
+   */
+  private void copying(String source, String target, Runnable copy) {
+    synchronized (this) {
+      synchronized (lockOf(source)) {
+        synchronized (lockOf(target)) {
+          copy.run();
+        }
+      }
+    }
+  }
+
+  @Override
+  public String getCurrentCalendarName() {
+    return model.getCurrentCalendarName();
+  }
+
+  @Override
+  public ZoneId getCurrentCalendarTimezone() {
+    return model.getCurrentCalendarTimezone();
+  }
+
+  @Override
+  public void editCalendar(String name, PropertyType property, String value) {
+    synchronized (this) {
+      synchronized (lockOf(name)) {
+        model.editCalendar(name, property, value);
+        append(new Record(EDIT_CALENDAR).string(name).type(property).string(value));
+        if (property == PropertyType.CALENDARNAME) {
+          JournaledCalendar calendar = calendars.remove(name);
+          if (calendar != null) {
+            calendar.name = value;
+            calendars.put(value, calendar);
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public void copyEvent(String eventName, LocalDateTime eventDateTime, String targetCalendar,
+                        LocalDateTime targetDateTime) {
+    copying(model.getCurrentCalendarName(), targetCalendar, () -> {
+      model.copyEvent(eventName, eventDateTime, targetCalendar, targetDateTime);
+      append(new Record(COPY_EVENT).string(eventName).time(eventDateTime)
+              .string(targetCalendar).time(targetDateTime));
+    });
+  }
+
+  @Override
+  public void copyEvents(LocalDate startDate, LocalDate endDate, String targetCalendar,
+                         LocalDate targetStartDate) {
+    Record record = new Record(COPY_EVENTS).date(startDate).date(endDate)
+            .string(targetCalendar).date(targetStartDate);
+    copying(model.getCurrentCalendarName(), targetCalendar, () -> {
+      try {
+        model.copyEvents(startDate, endDate, targetCalendar, targetStartDate);
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        append(record);
+        throw e;
+      }
+      append(record);
+    });
+  }
+
+  @Override
+  public void copyEvent(CalendarModel source, String eventName, LocalDateTime eventDateTime,
+                        String targetCalendar, LocalDateTime targetDateTime) {
+    JournaledCalendar from = owned(source);
+    copying(from.name, targetCalendar, () -> {
+      model.copyEvent(from.calendar, eventName, eventDateTime, targetCalendar,
+              targetDateTime);
+      append(new Record(COPY_EVENT_FROM).string(from.name).string(eventName)
+              .time(eventDateTime).string(targetCalendar).time(targetDateTime));
+    });
+  }
+
+  @Override
+  public void copyEvents(CalendarModel source, LocalDate startDate, LocalDate endDate,
+                         String targetCalendar, LocalDate targetStartDate) {
+    JournaledCalendar from = owned(source);
+    copying(from.name, targetCalendar, () -> {
+      Record record = new Record(COPY_EVENTS_FROM).string(from.name).date(startDate)
+              .date(endDate).string(targetCalendar).date(targetStartDate);
+      try {
+        model.copyEvents(from.calendar, startDate, endDate, targetCalendar, targetStartDate);
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        append(record);
+        throw e;
+      }
+      append(record);
+    });
+  }
+
+  /**
+   * Gets a calendar as one handed out by this model, so that copies from it can be recorded
+   * under its name.
+   */
+  private JournaledCalendar owned(CalendarModel source) {
+    if (source == null) {
+      throw new IllegalStateException("No calendar is currently selected");
+    }
+    if (!(source instanceof JournaledCalendar) || ((JournaledCalendar) source).owner != this) {
+      throw new IllegalArgumentException("Calendar does not belong to this model");
+    }
+    return (JournaledCalendar) source;
+  }
+
+  @Override
+  public List<String> getAllNames() {
+    return model.getAllNames();
+  }
+
+  private void append(Record record) {
+    try {
+      log.append(record.bytes());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write to the log", e);
+    }
+  }
+
+  private static void replay(MultipleCalendarModelImpl model, ByteBuffer in)
+          throws IOException {
+    try {
+      byte type = in.get();
+      if (type >= CREATE_EVENT && type <= SET_TIMEZONE || type == APPLY_BATCH) {
+        replayCalendar(calendarNamed(model, readString(in)), type, in);
+        return;
+      }
+      switch (type) {
+        case CREATE_CALENDAR:
+          model.createCalendar(readString(in), readString(in));
+          break;
+        case EDIT_CALENDAR:
+          model.editCalendar(readString(in), readType(in), readString(in));
+          break;
+        case USE_CALENDAR:
+          model.useCalendar(readString(in));
+          break;
+        case COPY_EVENT:
+          model.copyEvent(readString(in), readTime(in), readString(in), readTime(in));
+          break;
+        case COPY_EVENTS:
+          model.copyEvents(readDate(in), readDate(in), readString(in), readDate(in));
+          break;
+        case COPY_EVENT_FROM:
+          model.copyEvent(calendarNamed(model, readString(in)), readString(in), readTime(in),
+                  readString(in), readTime(in));
+          break;
+        case COPY_EVENTS_FROM:
+          model.copyEvents(calendarNamed(model, readString(in)), readDate(in), readDate(in),
+                  readString(in), readDate(in));
+          break;
+        default:
+          throw new IOException("Log is corrupt");
+      }
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      // the call failed in the same way when it was recorded
+    } catch (BufferUnderflowException | IndexOutOfBoundsException | DateTimeException e) {
+      throw new IOException("Log is corrupt", e);
+    }
+  }
+
+  private static ConcurrentCalendarModel calendarNamed(MultipleCalendarModelImpl model,
+                                                       String name) throws IOException {
+    ConcurrentCalendarModel calendar = model.getCalendar(name);
+    if (calendar == null) {
+      throw new IOException("Log refers to a missing calendar: " + name);
+    }
+    return calendar;
+  }
+
+  private static void replayCalendar(ConcurrentCalendarModel calendar, byte type, ByteBuffer in)
+          throws IOException {
+    switch (type) {
+      case CREATE_EVENT:
+        calendar.createEvent(readEvent(in));
+        break;
+      case CREATE_EVENTS:
+        calendar.createEvents(readEvents(in));
+        break;
+      case CREATE_ALL_EVENTS:
+        calendar.createAllEvents(readEvent(in), readString(in), in.getInt());
+        break;
+      case EDIT_EVENT:
+        calendar.editEvent(readIdentifier(in), readChange(in), in.get() != 0);
+        break;
+      case EDIT_EVENTS:
+        calendar.editEvents(readEvents(in), readChange(in));
+        break;
+      case EDIT_SERIES:
+        calendar.editSeries(in.get() != 0 ? in.getLong() : null, readChange(in));
+        break;
+      case EDIT_FOLLOWING:
+        calendar.parseEditEvents(readTime(in), readString(in), readChange(in));
+        break;
+      case EDIT_WHOLE_SERIES:
+        calendar.parseEditEventSeries(readString(in), readTime(in), readChange(in));
+        break;
+      case SET_TIMEZONE:
+        calendar.setTimezone(readString(in));
+        break;
+      case APPLY_BATCH:
+        calendar.applyBatch(readBatch(in));
+        break;
+      default:
+        throw new IOException("Log is corrupt");
+    }
+  }
+
+  private static String readString(ByteBuffer in) {
+    int length = in.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static LocalDateTime readTime(ByteBuffer in) {
+    if (in.get() == 0) {
+      return null;
+    }
+    long seconds = in.getLong();
+    return LocalDateTime.ofEpochSecond(seconds, in.getInt(), ZoneOffset.UTC);
+  }
+
+  private static LocalDate readDate(ByteBuffer in) {
+    return in.get() == 0 ? null : LocalDate.ofEpochDay(in.getLong());
+  }
+
+  private static PropertyType readType(ByteBuffer in) {
+    int ordinal = in.get();
+    return ordinal == 0 ? null : PropertyType.values()[ordinal - 1];
+  }
+
+  private static TypingChange readChange(ByteBuffer in) {
+    if (in.get() == 0) {
+      return null;
+    }
+    PropertyType type = readType(in);
+    return new PropertyChange(type, readString(in));
+  }
+
+  private static Identifier readIdentifier(ByteBuffer in) {
+    if (in.get() == 0) {
+      return null;
+    }
+    return new EventIdentifier(readString(in), readTime(in), readTime(in));
+  }
+
+  private static Event readEvent(ByteBuffer in) {
+    if (in.get() == 0) {
+      return null;
+    }
+    String subject = readString(in);
+    LocalDateTime start = readTime(in);
+    LocalDateTime end = readTime(in);
+    String desc = readString(in);
+    int location = in.get();
+    int status = in.get();
+    Long seriesId = in.get() != 0 ? in.getLong() : null;
+    String zone = readString(in);
+    return CalendarEvent.of(subject, start, end,
+            location == 0 ? null : EventLocation.values()[location - 1],
+            status == 0 ? null : EventStatus.values()[status - 1],
+            desc, seriesId, zone == null ? null : ZoneId.of(zone));
+  }
+
+  private static CalendarBatch readBatch(ByteBuffer in) {
+    CalendarBatch batch = new CalendarBatch();
+    int size = in.getInt();
+    for (int i = 0; i < size; i++) {
+      if (in.get() != 0) {
+        batch.createEvent(readEvent(in));
+      } else {
+        batch.editEvent(readIdentifier(in), readChange(in), in.get() != 0);
+      }
+    }
+    return batch;
+  }
+
+  private static List<Event> readEvents(ByteBuffer in) {
+    int count = in.getInt();
+    if (count < 0) {
+      return null;
+    }
+    List<Event> events = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      events.add(readEvent(in));
+    }
+    return events;
+  }
+
+  /**
+   * A calendar of a journaled model. Queries go straight to the calendar, mutations are
+   * recorded under the name the calendar currently has in the model. Each mutation is made
+   * and recorded under the lock of the calendar, so the log holds the changes of a calendar
+   * in the order they were made however many threads make them.
+   */
+  private static final class JournaledCalendar implements CalendarModelGUISupport {
+    private final JournaledCalendarModel owner;
+    private final ConcurrentCalendarModel calendar;
+    private final Object lock = new Object();
+    private String name;
+
+    private JournaledCalendar(JournaledCalendarModel owner, String name,
+                              ConcurrentCalendarModel calendar) {
+      this.owner = owner;
+      this.name = name;
+      this.calendar = calendar;
+    }
+
+    private Record record(byte type) {
+      return new Record(type).string(name);
+    }
+
+    @Override
+    public void createEvent(Event event) {
+      synchronized (lock) {
+        calendar.createEvent(event);
+        owner.append(record(CREATE_EVENT).event(event));
+      }
+    }
+
+    @Override
+    public void createEvents(List<Event> events) {
+      synchronized (lock) {
+        Record record = record(CREATE_EVENTS).events(events);
+        try {
+          calendar.createEvents(events);
+        } catch (IllegalArgumentException e) {
+          owner.append(record);
+          throw e;
+        }
+        owner.append(record);
+      }
+    }
+
+    @Override
+    public List<RuntimeException> createEachEvent(List<Event> events) {
+      synchronized (lock) {
+        List<RuntimeException> failures = calendar.createEachEvent(events);
+        for (int i = 0; i < events.size(); i++) {
+          if (failures.get(i) == null) {
+            owner.append(record(CREATE_EVENT).event(events.get(i)));
+          }
+        }
+        return failures;
+      }
+    }
+
+    @Override
+    public void createAllEvents(Event startEvent, String repeatWhen, int repeatInterval) {
+      synchronized (lock) {
+        Record record = record(CREATE_ALL_EVENTS).event(startEvent).string(repeatWhen)
+                .integer(repeatInterval);
+        try {
+          calendar.createAllEvents(startEvent, repeatWhen, repeatInterval);
+        } catch (IllegalArgumentException e) {
+          owner.append(record);
+          throw e;
+        }
+        owner.append(record);
+      }
+    }
+
+    @Override
+    public Event editEvent(Identifier id, TypingChange change, boolean isSeries) {
+      synchronized (lock) {
+        Event edited = calendar.editEvent(id, change, isSeries);
+        owner.append(record(EDIT_EVENT).identifier(id).change(change).flag(isSeries));
+        return edited;
+      }
+    }
+
+    @Override
+    public void editEvents(List<Event> events, TypingChange change) {
+      synchronized (lock) {
+        calendar.editEvents(events, change);
+        owner.append(record(EDIT_EVENTS).events(events).change(change));
+      }
+    }
+
+    @Override
+    public void applyBatch(CalendarBatch batch) {
+      synchronized (lock) {
+        calendar.applyBatch(batch);
+        Record record = record(APPLY_BATCH).integer(batch.size());
+        for (CalendarBatch.Operation operation : batch.operations()) {
+          record.flag(operation.isCreate());
+          if (operation.isCreate()) {
+            record.event(operation.getEvent());
+          } else {
+            record.identifier(operation.getId()).change(operation.getChange())
+                    .flag(operation.isSeries());
+          }
+        }
+        owner.append(record);
+      }
+    }
+
+    @Override
+    public void editSeries(Long seriesId, TypingChange change) {
+      synchronized (lock) {
+        calendar.editSeries(seriesId, change);
+        Record record = record(EDIT_SERIES).flag(seriesId != null);
+        if (seriesId != null) {
+          record.number(seriesId);
+        }
+        owner.append(record.change(change));
+      }
+    }
+
+    @Override
+    public void parseEditEvents(LocalDateTime date, String subject, TypingChange change) {
+      synchronized (lock) {
+        calendar.parseEditEvents(date, subject, change);
+        owner.append(record(EDIT_FOLLOWING).time(date).string(subject).change(change));
+      }
+    }
+
+    @Override
+    public void parseEditEventSeries(String subject, LocalDateTime date, TypingChange change) {
+      synchronized (lock) {
+        calendar.parseEditEventSeries(subject, date, change);
+        owner.append(record(EDIT_WHOLE_SERIES).string(subject).time(date).change(change));
+      }
+    }
+
+    @Override
+    public void setTimezone(String timezone) {
+      synchronized (lock) {
+        calendar.setTimezone(timezone);
+        owner.append(record(SET_TIMEZONE).string(timezone));
+      }
+    }
+
+    @Override
+    public ZoneId getTimezone() {
+      return calendar.getTimezone();
+    }
+
+    @Override
+    public String getName() {
+      return calendar.getName();
+    }
+
+    @Override
+    public List<Event> getEventsOnDate(LocalDate date) {
+      return calendar.getEventsOnDate(date);
+    }
+
+    @Override
+    public List<Event> getEventsBetween(LocalDateTime dateFrom, LocalDateTime dateTo) {
+      return calendar.getEventsBetween(dateFrom, dateTo);
+    }
+
+    @Override
+    public String getStatusMessage(LocalDateTime date) {
+      return calendar.getStatusMessage(date);
+    }
+
+    @Override
+    public long[] getOccupancy(LocalDate date) {
+      return calendar.getOccupancy(date);
+    }
+
+    @Override
+    public List<Event> eventsToBeShown(LocalDate date) {
+      return calendar.eventsToBeShown(date);
+    }
+
+    @Override
+    public List<Event> getNextEvents(LocalDateTime from, int count) {
+      return calendar.getNextEvents(from, count);
+    }
+
+    @Override
+    public Iterator<Event> eventsFrom(LocalDateTime from) {
+      return calendar.eventsFrom(from);
+    }
+
+    @Override
+    public List<String> allEvents() {
+      return calendar.allEvents();
+    }
+
+    @Override
+    public List<String> allEvents(String prefix) {
+      return calendar.allEvents(prefix);
+    }
+
+    @Override
+    public Event findEvent(String eventName) {
+      return calendar.findEvent(eventName);
+    }
+  }
+
+  /**
+   * The bytes of one log record, written in the order the replay reads them back. Values
+   * that may be null are preceded by a marker or, for strings and lists, a length of -1.
+   */
+  private static final class Record {
+    private byte[] bytes = new byte[64];
+    private int size;
+
+    private Record(byte type) {
+      put(type);
+    }
+
+    private byte[] bytes() {
+      return Arrays.copyOf(bytes, size);
+    }
+
+    private void put(int value) {
+      if (size == bytes.length) {
+        bytes = Arrays.copyOf(bytes, size * 2);
+      }
+      bytes[size++] = (byte) value;
+    }
+
+    private Record flag(boolean value) {
+      put(value ? 1 : 0);
+      return this;
+    }
+
+    private Record integer(int value) {
+      for (int shift = 24; shift >= 0; shift -= 8) {
+        put(value >>> shift);
+      }
+      return this;
+    }
+
+    private Record number(long value) {
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        put((int) (value >>> shift));
+      }
+      return this;
+    }
+
+    private Record string(String value) {
+      if (value == null) {
+        return integer(-1);
+      }
+      byte[] utf = value.getBytes(StandardCharsets.UTF_8);
+      integer(utf.length);
+      for (byte b : utf) {
+        put(b);
+      }
+      return this;
+    }
+
+    private Record time(LocalDateTime value) {
+      flag(value != null);
+      if (value != null) {
+        number(value.toEpochSecond(ZoneOffset.UTC)).integer(value.getNano());
+      }
+      return this;
+    }
+
+    private Record date(LocalDate value) {
+      flag(value != null);
+      if (value != null) {
+        number(value.toEpochDay());
+      }
+      return this;
+    }
+
+    private Record type(PropertyType value) {
+      put(value == null ? 0 : value.ordinal() + 1);
+      return this;
+    }
+
+    private Record change(TypingChange change) {
+      flag(change != null);
+      if (change != null) {
+        Object value = change.getNewValue();
+        type(change.getType()).string(value == null ? null : value.toString());
+      }
+      return this;
+    }
+
+    private Record identifier(Identifier id) {
+      flag(id != null);
+      if (id != null) {
+        string(id.getSubject()).time(id.getStartTime()).time(id.getEndTime());
+      }
+      return this;
+    }
+
+    private Record event(Event event) {
+      flag(event != null);
+      if (event != null) {
+        string(event.getSubject()).time(event.getStartTime()).time(event.getEndTime())
+                .string(event.getDesc());
+        put(event.getLocation() == null ? 0 : event.getLocation().ordinal() + 1);
+        put(event.getStatus() == null ? 0 : event.getStatus().ordinal() + 1);
+        flag(event.getSeriesId() != null);
+        if (event.getSeriesId() != null) {
+          number(event.getSeriesId());
+        }
+        string(event.getTimezone() == null ? null : event.getTimezone().getId());
+      }
+      return this;
+    }
+
+    private Record events(List<Event> events) {
+      if (events == null) {
+        return integer(-1);
+      }
+      integer(events.size());
+      for (Event event : events) {
+        event(event);
+      }
+      return this;
+    }
+  }
+}
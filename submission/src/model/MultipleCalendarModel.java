@@ -73,4 +73,34 @@ public interface MultipleCalendarModel {
    */
   public void copyEvents(LocalDate startDate, LocalDate endDate,
                   String targetCalendar, LocalDate targetStartDate);
-}
\ No newline at end of file
+
+  /**
+   * Copies a specific event from a given calendar to another calendar, whichever calendar
+   * is current.
+   *
+   * @param source         the calendar the event is copied from
+   * @param eventName      name of the event to copy
+   * @param eventDateTime  start time of the event to copy
+   * @param targetCalendar name of the target calendar
+   * @param targetDateTime target start time in target calendars timezone
+   * @throws IllegalArgumentException if event calendar not found or operation invalid
+   * @throws IllegalStateException    if the source is null
+   */
+  public void copyEvent(CalendarModel source, String eventName, LocalDateTime eventDateTime,
+                        String targetCalendar, LocalDateTime targetDateTime);
+
+  /**
+   * Copies events between specified dates from a given calendar to another calendar,
+   * whichever calendar is current.
+   *
+   * @param source          the calendar the events are copied from
+   * @param startDate       start of the date range
+   * @param endDate         end of the date range
+   * @param targetCalendar  name of the target calendar
+   * @param targetStartDate target start date in target calendars timezone
+   * @throws IllegalArgumentException if calendars not found or dates invalid
+   * @throws IllegalStateException    if the source is null
+   */
+  public void copyEvents(CalendarModel source, LocalDate startDate, LocalDate endDate,
+                         String targetCalendar, LocalDate targetStartDate);
+}
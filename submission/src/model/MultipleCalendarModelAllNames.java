@@ -13,4 +13,11 @@ public interface MultipleCalendarModelAllNames extends  MultipleCalendarModel {
    * @return a list of all calendar names.
    */
   List<String> getAllNames();
+
+  /**
+   * Gets a calendar by its name without making it the current calendar.
+   * @param name the name of the calendar
+   * @return the calendar, or null if no calendar has the name
+   */
+  CalendarModelGUISupport getCalendar(String name);
 }
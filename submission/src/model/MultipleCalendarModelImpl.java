@@ -4,20 +4,23 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementation of MultipleCalendarModel interface that manages multiple calendars
  * and their events, supporting different timezones and event copying between calendars.
+ * Calendars are kept in a concurrent map, so that sessions working on calendars of their own
+ * can look them up without holding any lock, and each calendar is a ConcurrentCalendarModel,
+ * so sessions can change and query calendars at the same time without a lock of their own.
  */
 public class MultipleCalendarModelImpl implements MultipleCalendarModelAllNames {
-  private final Map<String, CalendarModelImpl> calendars;
-  private String currentCalendarName;
+  private final Map<String, ConcurrentCalendarModel> calendars;
+  private volatile String currentCalendarName;
 
   public MultipleCalendarModelImpl() {
-    this.calendars = new HashMap<>();
+    this.calendars = new ConcurrentHashMap<>();
     this.currentCalendarName = null;
   }
 
@@ -29,24 +32,29 @@ public class MultipleCalendarModelImpl implements MultipleCalendarModelAllNames
     if (calendars.containsKey(name)) {
       throw new IllegalArgumentException("Calendar already exists");
     }
+    ConcurrentCalendarModel calendar;
     try {
       ZoneId.of(timezone);
-      calendars.put(name, new CalendarModelImpl(name, timezone));
-      if (currentCalendarName == null) {
-        currentCalendarName = name;
-      }
+      calendar = new ConcurrentCalendarModel(name, timezone);
     } catch (Exception e) {
       throw new IllegalArgumentException("Invalid timezone format");
     }
+    if (calendars.putIfAbsent(name, calendar) != null) {
+      throw new IllegalArgumentException("Calendar already exists");
+    }
+    if (currentCalendarName == null) {
+      currentCalendarName = name;
+    }
   }
 
   @Override
   public CalendarModelGUISupport useCalendar(String name) {
-    if (!calendars.containsKey(name)) {
+    ConcurrentCalendarModel calendar = name == null ? null : calendars.get(name);
+    if (calendar == null) {
       throw new IllegalArgumentException("Calendar does not exist");
     }
     currentCalendarName = name;
-    return calendars.get(name);
+    return calendar;
   }
 
   @Override
@@ -65,14 +73,14 @@ public class MultipleCalendarModelImpl implements MultipleCalendarModelAllNames
 
   @Override
   public void editCalendar(String name, PropertyType property, String value) {
-    if (!calendars.containsKey(name)) {
+    ConcurrentCalendarModel calendar = getCalendar(name);
+    if (calendar == null) {
       throw new IllegalArgumentException("Calendar does not exist");
     }
     if (value == null || value.trim().isEmpty()) {
       throw new IllegalArgumentException("New value cannot be null or empty");
     }
 
-    CalendarModelImpl calendar = calendars.get(name);
     if (property.equals(PropertyType.TIMEZONE)) {
       try {
         calendar.setTimezone(value);
@@ -80,12 +88,12 @@ public class MultipleCalendarModelImpl implements MultipleCalendarModelAllNames
         throw new IllegalArgumentException("Invalid timezone: " + value);
       }
     } else if (property.equals(PropertyType.CALENDARNAME)) {
-      if (calendars.containsKey(value)) {
+      if (calendars.putIfAbsent(value, calendar) != null) {
         throw new IllegalArgumentException("Calendar already exists");
       }
       calendars.remove(name);
-      calendars.put(value, calendar);
-      if (currentCalendarName.equals(name)) {
+      calendar.setName(value);
+      if (name.equals(currentCalendarName)) {
         currentCalendarName = value;
       }
     } else {
@@ -96,8 +104,15 @@ public class MultipleCalendarModelImpl implements MultipleCalendarModelAllNames
   @Override
   public void copyEvent(String eventName, LocalDateTime eventDateTime,
                         String targetCalendar, LocalDateTime targetDateTime) {
-    CalendarModelGUISupport sourceCalendar = getCurrentCalendar();
-    CalendarModelGUISupport targetCalendarModel = calendars.get(targetCalendar);
+    copyEvent(getCurrentCalendar(), eventName, eventDateTime, targetCalendar, targetDateTime);
+  }
+
+  @Override
+  public void copyEvent(CalendarModel sourceCalendar, String eventName,
+                        LocalDateTime eventDateTime, String targetCalendar,
+                        LocalDateTime targetDateTime) {
+    CalendarModelGUISupport targetCalendarModel = targetCalendar == null ? null
+            : calendars.get(targetCalendar);
     validateCalendars(sourceCalendar, targetCalendarModel, targetCalendar);
 
     Event eventToCopy = findEvent(sourceCalendar, eventName, eventDateTime);
@@ -134,6 +149,12 @@ public class MultipleCalendarModelImpl implements MultipleCalendarModelAllNames
   @Override
   public void copyEvents(LocalDate startDate, LocalDate endDate,
                          String targetCalendar, LocalDate targetStartDate) {
+    copyEvents(getCurrentCalendar(), startDate, endDate, targetCalendar, targetStartDate);
+  }
+
+  @Override
+  public void copyEvents(CalendarModel sourceCalendar, LocalDate startDate, LocalDate endDate,
+                         String targetCalendar, LocalDate targetStartDate) {
     if (startDate == null || endDate == null || targetStartDate == null) {
       throw new IllegalArgumentException("Dates cannot be null");
     }
@@ -141,20 +162,13 @@ public class MultipleCalendarModelImpl implements MultipleCalendarModelAllNames
       throw new IllegalArgumentException("Start date cannot be after end date");
     }
 
-    CalendarModel sourceCalendar = getCurrentCalendar();
-    CalendarModelAllHelpers targetCalendarModel = calendars.get(targetCalendar);
+    ConcurrentCalendarModel targetCalendarModel = getCalendar(targetCalendar);
     validateCalendars(sourceCalendar, targetCalendarModel, targetCalendar);
 
     List<Event> eventsToCopy = sourceCalendar.getEventsBetween(
             startDate.atStartOfDay(), endDate.atTime(23, 59));
     long daysBetween = targetStartDate.toEpochDay() - startDate.toEpochDay();
-
-    Map<Long, List<Event>> seriesGroups = new HashMap<>();
-    List<Event> nonSeriesEvents = new ArrayList<>();
-    separateSeriesAndNonSeries(eventsToCopy, seriesGroups, nonSeriesEvents);
-
-    copySeriesEvents(seriesGroups, daysBetween, targetCalendarModel);
-    copyNonSeriesEvents(nonSeriesEvents, daysBetween, targetCalendarModel);
+    targetCalendarModel.addCopies(eventsToCopy, daysBetween);
   }
 
   private CalendarModelGUISupport getCurrentCalendar() {
@@ -184,70 +198,22 @@ public class MultipleCalendarModelImpl implements MultipleCalendarModelAllNames
     return null;
   }
 
-  private void separateSeriesAndNonSeries(List<Event> eventsToCopy,
-                                          Map<Long, List<Event>> seriesGroups,
-                                          List<Event> nonSeriesEvents) {
-    for (Event event : eventsToCopy) {
-      if (event.getSeriesId() != null && event.getSeriesId() != 0) {
-        seriesGroups.computeIfAbsent(event.getSeriesId(), k -> new ArrayList<>()).add(event);
-      } else {
-        nonSeriesEvents.add(event);
-      }
-    }
-  }
-
-  private void copySeriesEvents(Map<Long, List<Event>> seriesGroups, long daysBetween,
-                                CalendarModelAllHelpers targetCalendarModel) {
-    for (List<Event> seriesEvents : seriesGroups.values()) {
-      List<Event> newSeriesEvents = new ArrayList<>();
-      for (Event event : seriesEvents) {
-        Event convertedEvent = event.newTimezone(targetCalendarModel.getTimezone());
-        LocalDateTime newStartTime = convertedEvent.getStartTime().plusDays(daysBetween);
-        LocalDateTime newEndTime = convertedEvent.getEndTime().plusDays(daysBetween);
-
-        CalendarEvent.EventBuilder builder = new CalendarEvent.EventBuilder()
-                .setSubject(convertedEvent.getSubject())
-                .setStartTime(newStartTime)
-                .setEndTime(newEndTime)
-                .setDesc(convertedEvent.getDesc())
-                .setSeriesId(convertedEvent.getSeriesId())
-                .setTimezone(targetCalendarModel.getTimezone());
-
-        if (convertedEvent.getLocation() != null) {
-          builder.setLocation(convertedEvent.getLocation().toString());
-        }
-        if (convertedEvent.getStatus() != null) {
-          builder.setStatus(convertedEvent.getStatus().toString());
-        }
-
-        newSeriesEvents.add(builder.build());
-      }
-      targetCalendarModel.createEvents(newSeriesEvents);
-    }
+  @Override
+  public ConcurrentCalendarModel getCalendar(String name) {
+    return name == null ? null : calendars.get(name);
   }
 
-  private void copyNonSeriesEvents(List<Event> nonSeriesEvents, long daysBetween,
-                                   CalendarModelAllHelpers targetCalendarModel) {
-    for (Event event : nonSeriesEvents) {
-      Event convertedEvent = event.newTimezone(targetCalendarModel.getTimezone());
-      LocalDateTime newStartTime = convertedEvent.getStartTime().plusDays(daysBetween);
-      LocalDateTime newEndTime = convertedEvent.getEndTime().plusDays(daysBetween);
-
-      CalendarEvent.EventBuilder builder = new CalendarEvent.EventBuilder()
-              .setSubject(convertedEvent.getSubject())
-              .setStartTime(newStartTime)
-              .setEndTime(newEndTime)
-              .setDesc(convertedEvent.getDesc())
-              .setTimezone(targetCalendarModel.getTimezone());
-
-      if (convertedEvent.getLocation() != null) {
-        builder.setLocation(convertedEvent.getLocation().toString());
-      }
-      if (convertedEvent.getStatus() != null) {
-        builder.setStatus(convertedEvent.getStatus().toString());
-      }
-
-      targetCalendarModel.createEvent(builder.build());
+  /**
+   * Adds a calendar that was restored from a snapshot, replacing any calendar with the name.
+   *
+   * @param name     the name the calendar is known by
+   * @param calendar the restored calendar
+   * @param current  whether the calendar becomes the current calendar
+   */
+  void restoreCalendar(String name, ConcurrentCalendarModel calendar, boolean current) {
+    calendars.put(name, calendar);
+    if (current) {
+      currentCalendarName = name;
     }
   }
 
@@ -0,0 +1,131 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Helpers for the occupancy maps of calendars. An occupancy map holds one bit for every
+ * minute of a UTC day, packed into longs, and a bit is set when the calendar is busy at the
+ * start of that minute, in the same sense as getStatusMessage. Since every map covers the
+ * same UTC day whatever the zone of its calendar, the maps of several calendars are combined
+ * word by word.
+ */
+final class Occupancy {
+  static final int MINUTES = 24 * 60;
+  static final int WORDS = (MINUTES + 63) / 64;
+
+  private Occupancy() {
+  }
+
+  /**
+   * Sets the bits of the minutes of a day at which an event is under way, its start and end
+   * included.
+   *
+   * @param bits  the map of the day
+   * @param day   the UTC day
+   * @param start the start of the event in UTC
+   * @param end   the end of the event in UTC
+   */
+  static void mark(long[] bits, LocalDate day, LocalDateTime start, LocalDateTime end) {
+    int first = firstMinuteFrom(day, start);
+    int last = lastMinuteUntil(day, end);
+    if (first > last) {
+      return;
+    }
+    int firstWord = first >>> 6;
+    int lastWord = last >>> 6;
+    long firstMask = -1L << first;
+    long lastMask = -1L >>> (63 - (last & 63));
+    if (firstWord == lastWord) {
+      bits[firstWord] |= firstMask & lastMask;
+      return;
+    }
+    bits[firstWord] |= firstMask;
+    for (int word = firstWord + 1; word < lastWord; word++) {
+      bits[word] = -1L;
+    }
+    bits[lastWord] |= lastMask;
+  }
+
+  /**
+   * Checks the bit of a minute.
+   *
+   * @param bits   the map of a day
+   * @param minute the minute of the day
+   * @return whether the bit is set
+   */
+  static boolean isSet(long[] bits, int minute) {
+    return (bits[minute >>> 6] & (1L << minute)) != 0;
+  }
+
+  /**
+   * Gets the minute of the day a time falls on, if it is a whole minute.
+   *
+   * @param time the time
+   * @return the minute of the day, or -1 if the time is not a whole minute
+   */
+  static int minuteOf(LocalDateTime time) {
+    if (time.getSecond() != 0 || time.getNano() != 0) {
+      return -1;
+    }
+    return time.getHour() * 60 + time.getMinute();
+  }
+
+  /**
+   * Combines maps into one that is set where all of them are set.
+   *
+   * @param maps the maps of the same day
+   * @return the combined map
+   */
+  static long[] and(Iterable<long[]> maps) {
+    long[] all = new long[WORDS];
+    Arrays.fill(all, -1L);
+    for (long[] bits : maps) {
+      for (int word = 0; word < WORDS; word++) {
+        all[word] &= bits[word];
+      }
+    }
+    all[WORDS - 1] &= -1L >>> (WORDS * 64 - MINUTES);
+    return all;
+  }
+
+  /**
+   * Combines maps into one that is set where any of them is set.
+   *
+   * @param maps the maps of the same day
+   * @return the combined map
+   */
+  static long[] or(Iterable<long[]> maps) {
+    long[] any = new long[WORDS];
+    for (long[] bits : maps) {
+      for (int word = 0; word < WORDS; word++) {
+        any[word] |= bits[word];
+      }
+    }
+    return any;
+  }
+
+  private static int firstMinuteFrom(LocalDate day, LocalDateTime time) {
+    int compared = time.toLocalDate().compareTo(day);
+    if (compared < 0) {
+      return 0;
+    }
+    if (compared > 0) {
+      return MINUTES;
+    }
+    int minute = time.getHour() * 60 + time.getMinute();
+    return time.getSecond() != 0 || time.getNano() != 0 ? minute + 1 : minute;
+  }
+
+  private static int lastMinuteUntil(LocalDate day, LocalDateTime time) {
+    int compared = time.toLocalDate().compareTo(day);
+    if (compared < 0) {
+      return -1;
+    }
+    if (compared > 0) {
+      return MINUTES - 1;
+    }
+    return time.getHour() * 60 + time.getMinute();
+  }
+}
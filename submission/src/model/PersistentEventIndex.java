@@ -0,0 +1,392 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An EventIndex backed by a persistent AVL interval tree. Nodes are never changed once they
+ * are built: adding or removing an event copies only the nodes on the path to it and shares
+ * every other node with the tree before the change. A snapshot of the index therefore takes
+ * constant time and stays the same however the index changes afterwards, which lets readers
+ * on other threads keep querying a snapshot without any locking. Nodes are ordered and
+ * augmented as in IntervalTreeEventIndex, so range queries run in O(log n + k).
+ */
+public class PersistentEventIndex implements EventIndex {
+  private static final Comparator<Event> KEY_ORDER = Comparator
+          .comparing(Event::getStartTime)
+          .thenComparing(Event::getEndTime)
+          .thenComparing(Event::getSubject);
+  private Node root;
+  private int size;
+
+  /**
+   * Constructs an empty persistent index.
+   */
+  public PersistentEventIndex() {
+    this(null, 0);
+  }
+
+  private PersistentEventIndex(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  private static final class Node {
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final String subject;
+    private final Event[] events;
+    private final LocalDateTime maxEnd;
+    private final int height;
+    private final Node left;
+    private final Node right;
+
+    private Node(LocalDateTime start, LocalDateTime end, String subject, Event[] events,
+                 Node left, Node right) {
+      this.start = start;
+      this.end = end;
+      this.subject = subject;
+      this.events = events;
+      this.left = left;
+      this.right = right;
+      this.height = 1 + Math.max(height(left), height(right));
+      LocalDateTime max = end;
+      if (left != null && left.maxEnd.isAfter(max)) {
+        max = left.maxEnd;
+      }
+      if (right != null && right.maxEnd.isAfter(max)) {
+        max = right.maxEnd;
+      }
+      this.maxEnd = max;
+    }
+
+    private Node(Event event) {
+      this(event.getStartTime(), event.getEndTime(), event.getSubject(), new Event[] {event},
+              null, null);
+    }
+
+    private Node with(Node left, Node right) {
+      return new Node(start, end, subject, events, left, right);
+    }
+
+    private Node with(Event[] events) {
+      return new Node(start, end, subject, events, left, right);
+    }
+  }
+
+  /**
+   * Gets a copy of the index in its current state. The copy shares every node with this
+   * index and takes constant time; changes to either of them are not seen by the other.
+   *
+   * @return the copy
+   */
+  public PersistentEventIndex snapshot() {
+    return new PersistentEventIndex(root, size);
+  }
+
+  @Override
+  public void add(Event event) {
+    if (event == null || event.getStartTime() == null || event.getEndTime() == null) {
+      throw new IllegalArgumentException("Indexed events must have a start and end time");
+    }
+    root = insert(root, event);
+    size++;
+  }
+
+  /**
+   * Adds many events at once. A batch that is large next to the index is merged in key
+   * order with the events already indexed and the tree is rebuilt bottom up, which takes
+   * linear time; a smaller batch is inserted one event at a time, since that copies fewer
+   * nodes.
+   *
+   * @param events the events to be indexed
+   */
+  @Override
+  public void addAll(List<Event> events) {
+    for (Event event : events) {
+      if (event == null || event.getStartTime() == null || event.getEndTime() == null) {
+        throw new IllegalArgumentException("Indexed events must have a start and end time");
+      }
+    }
+    if (root != null && events.size() < size / 4) {
+      EventIndex.super.addAll(events);
+      return;
+    }
+    List<Event> merged = new ArrayList<>(size + events.size());
+    new Cursor(root, LocalDateTime.MIN).forEachRemaining(merged::add);
+    merged.addAll(events);
+    merged.sort(KEY_ORDER);
+    List<Node> nodes = new ArrayList<>();
+    int from = 0;
+    for (int i = 1; i <= merged.size(); i++) {
+      if (i == merged.size() || KEY_ORDER.compare(merged.get(from), merged.get(i)) != 0) {
+        Event first = merged.get(from);
+        nodes.add(new Node(first.getStartTime(), first.getEndTime(), first.getSubject(),
+                merged.subList(from, i).toArray(new Event[0]), null, null));
+        from = i;
+      }
+    }
+    root = build(nodes, 0, nodes.size() - 1);
+    size += events.size();
+  }
+
+  @Override
+  public boolean remove(Event event) {
+    if (event == null || event.getStartTime() == null || event.getEndTime() == null) {
+      return false;
+    }
+    int before = size;
+    root = delete(root, event);
+    return size < before;
+  }
+
+  @Override
+  public List<Event> getEventsWithin(LocalDateTime from, LocalDateTime to) {
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    List<Event> result = new ArrayList<>();
+    collectWithin(root, from, to, result);
+    return result;
+  }
+
+  @Override
+  public List<Event> getEventsOverlapping(LocalDateTime from, LocalDateTime to) {
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    List<Event> result = new ArrayList<>();
+    collectOverlapping(root, from, to, result);
+    return result;
+  }
+
+  /**
+   * Returns a cursor over the indexed events in start time order. Unlike the cursors of a
+   * mutable index, it walks the tree as it was when the cursor was created and so stays
+   * valid however the index changes.
+   *
+   * @param start the earliest start time of a returned event
+   * @return an iterator over the events starting at or after the given time
+   */
+  @Override
+  public Iterator<Event> iteratorFrom(LocalDateTime start) {
+    if (start == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    return new Cursor(root, start);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Walks a tree in order starting from the first node at or after a start time, keeping
+   * only the path back to the root on a stack so each step costs amortized O(1).
+   */
+  private static final class Cursor implements Iterator<Event> {
+    private final Deque<Node> path;
+    private Event[] current;
+    private int next;
+
+    private Cursor(Node root, LocalDateTime start) {
+      this.path = new ArrayDeque<>();
+      this.current = new Event[0];
+      Node node = root;
+      while (node != null) {
+        if (node.start.isBefore(start)) {
+          node = node.right;
+        } else {
+          path.push(node);
+          node = node.left;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (next == current.length && !path.isEmpty()) {
+        Node node = path.pop();
+        for (Node child = node.right; child != null; child = child.left) {
+          path.push(child);
+        }
+        current = node.events;
+        next = 0;
+      }
+      return next < current.length;
+    }
+
+    @Override
+    public Event next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException("No more events");
+      }
+      return current[next++];
+    }
+  }
+
+  private static void collectWithin(Node node, LocalDateTime from, LocalDateTime to,
+                                    List<Event> result) {
+    if (node == null) {
+      return;
+    }
+    if (!node.start.isBefore(from)) {
+      collectWithin(node.left, from, to, result);
+    }
+    if (!node.start.isBefore(from) && !node.start.isAfter(to) && !node.end.isAfter(to)) {
+      result.addAll(Arrays.asList(node.events));
+    }
+    if (!node.start.isAfter(to)) {
+      collectWithin(node.right, from, to, result);
+    }
+  }
+
+  private static void collectOverlapping(Node node, LocalDateTime from, LocalDateTime to,
+                                         List<Event> result) {
+    if (node == null || node.maxEnd.isBefore(from)) {
+      return;
+    }
+    collectOverlapping(node.left, from, to, result);
+    if (node.start.isAfter(to)) {
+      return;
+    }
+    if (!node.end.isBefore(from)) {
+      result.addAll(Arrays.asList(node.events));
+    }
+    collectOverlapping(node.right, from, to, result);
+  }
+
+  private static int compare(Node node, Event event) {
+    int cmp = event.getStartTime().compareTo(node.start);
+    if (cmp == 0) {
+      cmp = event.getEndTime().compareTo(node.end);
+    }
+    if (cmp == 0) {
+      cmp = event.getSubject().compareTo(node.subject);
+    }
+    return cmp;
+  }
+
+  private static Node build(List<Node> nodes, int low, int high) {
+    if (low > high) {
+      return null;
+    }
+    int mid = (low + high) >>> 1;
+    return nodes.get(mid).with(build(nodes, low, mid - 1), build(nodes, mid + 1, high));
+  }
+
+  private static Node insert(Node node, Event event) {
+    if (node == null) {
+      return new Node(event);
+    }
+    int cmp = compare(node, event);
+    if (cmp < 0) {
+      return balance(node, insert(node.left, event), node.right);
+    }
+    if (cmp > 0) {
+      return balance(node, node.left, insert(node.right, event));
+    }
+    Event[] events = Arrays.copyOf(node.events, node.events.length + 1);
+    events[node.events.length] = event;
+    return node.with(events);
+  }
+
+  private Node delete(Node node, Event event) {
+    if (node == null) {
+      return null;
+    }
+    int cmp = compare(node, event);
+    if (cmp < 0) {
+      Node left = delete(node.left, event);
+      return left == node.left ? node : balance(node, left, node.right);
+    }
+    if (cmp > 0) {
+      Node right = delete(node.right, event);
+      return right == node.right ? node : balance(node, node.left, right);
+    }
+    int at = indexOf(node.events, event);
+    if (at < 0) {
+      return node;
+    }
+    size--;
+    if (node.events.length > 1) {
+      Event[] events = new Event[node.events.length - 1];
+      System.arraycopy(node.events, 0, events, 0, at);
+      System.arraycopy(node.events, at + 1, events, at, events.length - at);
+      return node.with(events);
+    }
+    if (node.left == null) {
+      return node.right;
+    }
+    if (node.right == null) {
+      return node.left;
+    }
+    Node successor = node.right;
+    while (successor.left != null) {
+      successor = successor.left;
+    }
+    return balance(successor, node.left, detachMin(node.right));
+  }
+
+  private static int indexOf(Event[] events, Event event) {
+    for (int i = 0; i < events.length; i++) {
+      if (events[i] == event) {
+        return i;
+      }
+    }
+    for (int i = 0; i < events.length; i++) {
+      if (events[i].equals(event)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static Node detachMin(Node node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    return balance(node, detachMin(node.left), node.right);
+  }
+
+  private static int height(Node node) {
+    return node == null ? 0 : node.height;
+  }
+
+  /**
+   * Builds a copy of a node with new children, rotating it when the children differ in
+   * height by more than one.
+   */
+  private static Node balance(Node node, Node left, Node right) {
+    int balance = height(left) - height(right);
+    if (balance > 1) {
+      if (height(left.left) < height(left.right)) {
+        left = rotateLeft(left, left.left, left.right);
+      }
+      return rotateRight(node, left, right);
+    }
+    if (balance < -1) {
+      if (height(right.right) < height(right.left)) {
+        right = rotateRight(right, right.left, right.right);
+      }
+      return rotateLeft(node, left, right);
+    }
+    return node.with(left, right);
+  }
+
+  private static Node rotateRight(Node node, Node left, Node right) {
+    return left.with(left.left, node.with(left.right, right));
+  }
+
+  private static Node rotateLeft(Node node, Node left, Node right) {
+    return right.with(node.with(left, right.left), right.right);
+  }
+}
@@ -0,0 +1,353 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A weekly recurrence standing in for the generated occurrences of an event series. The rule
+ * keeps the event the series was created from, the day offsets it repeats on and for how many
+ * weeks, plus the occurrences that no longer follow the rule. Occurrences are only built when
+ * a query asks for them, so a rule takes the same space no matter how long the series runs.
+ * Occurrences are numbered in start order, week by week, and are projected from the zone the
+ * rule was written in into the zone of the calendar that asks for them.
+ */
+class RecurrenceRule {
+  private final Event template;
+  private final ZoneId zone;
+  private final int[] offsets;
+  private final int weeks;
+  private final Set<Integer> exceptions;
+
+  /**
+   * Constructs a rule that repeats the template on the given day offsets for a number of weeks.
+   * The occurrence falling on the template itself is skipped, since the template is stored as
+   * an event of its own.
+   *
+   * @param template the event the series is created from, in the zone of the rule
+   * @param zone     the zone the times of the template are in
+   * @param offsets  the distinct day offsets from the template start, all less than a week apart
+   * @param weeks    the number of weeks the rule repeats for
+   */
+  RecurrenceRule(Event template, ZoneId zone, int[] offsets, int weeks) {
+    this(template, zone, sorted(offsets), Math.max(weeks, 0), new HashSet<>());
+    for (int i = 0; i < this.offsets.length && this.weeks > 0; i++) {
+      if (this.offsets[i] == 0) {
+        exceptions.add(i);
+      }
+    }
+  }
+
+  private RecurrenceRule(Event template, ZoneId zone, int[] offsets, int weeks,
+                         Set<Integer> exceptions) {
+    this.template = template;
+    this.zone = zone;
+    this.offsets = offsets;
+    this.weeks = weeks;
+    this.exceptions = exceptions;
+  }
+
+  /**
+   * Recreates a rule from the parts returned by its getters, for instance after loading it
+   * from a snapshot.
+   *
+   * @param template   the event the series is created from, in the zone of the rule
+   * @param zone       the zone the times of the template are in
+   * @param offsets    the sorted day offsets of the rule
+   * @param weeks      the number of weeks the rule repeats for
+   * @param exceptions the numbers of the occurrences the rule no longer generates
+   * @return the rule
+   */
+  static RecurrenceRule restore(Event template, ZoneId zone, int[] offsets, int weeks,
+                                Set<Integer> exceptions) {
+    return new RecurrenceRule(template, zone, sorted(offsets), weeks, new HashSet<>(exceptions));
+  }
+
+  /**
+   * Creates a rule with the same recurrence and exceptions but a different template.
+   *
+   * @param template the new template, in the zone of the rule
+   * @return the new rule
+   */
+  RecurrenceRule withTemplate(Event template) {
+    return new RecurrenceRule(template, zone, offsets, weeks, new HashSet<>(exceptions));
+  }
+
+  Event getTemplate() {
+    return template;
+  }
+
+  ZoneId getZone() {
+    return zone;
+  }
+
+  int[] getOffsets() {
+    return Arrays.copyOf(offsets, offsets.length);
+  }
+
+  int getWeeks() {
+    return weeks;
+  }
+
+  Set<Integer> getExceptions() {
+    return Collections.unmodifiableSet(exceptions);
+  }
+
+  Long getSeriesId() {
+    return template.getSeriesId();
+  }
+
+  String getSubject() {
+    return template.getSubject();
+  }
+
+  /**
+   * Gets the number of occurrences that still follow the rule.
+   *
+   * @return the number of occurrences
+   */
+  int size() {
+    return weeks * offsets.length - exceptions.size();
+  }
+
+  /**
+   * Stops an occurrence from being generated, typically because it was edited on its own.
+   *
+   * @param occurrence the number of the occurrence
+   */
+  void exclude(int occurrence) {
+    exceptions.add(occurrence);
+  }
+
+  /**
+   * Gets an event covering every occurrence the rule was written to generate, from the start
+   * of the first to the end of the last. Occurrences that were excluded are still covered, so
+   * the span stays the same however many occurrences are excluded later.
+   *
+   * @param display the zone of the calendar
+   * @return the span, or null if the rule generates no occurrence
+   */
+  Event span(ZoneId display) {
+    int count = weeks * offsets.length;
+    if (count == 0) {
+      return null;
+    }
+    return new CalendarEvent.EventBuilder()
+            .setSubject(template.getSubject())
+            .setStartTime(project(startOf(0), display))
+            .setEndTime(project(endOf(count - 1), display))
+            .setSeriesId(template.getSeriesId())
+            .build();
+  }
+
+  /**
+   * Finds the occurrence with exactly the given start and end time.
+   *
+   * @param start   the start time in the given zone
+   * @param end     the end time in the given zone
+   * @param display the zone of the calendar
+   * @return the number of the occurrence or -1 if the rule has no such occurrence
+   */
+  int occurrenceAt(LocalDateTime start, LocalDateTime end, ZoneId display) {
+    for (int n = firstCandidate(start, display); n < weeks * offsets.length; n++) {
+      if (exceptions.contains(n)) {
+        continue;
+      }
+      LocalDateTime occurrenceStart = project(startOf(n), display);
+      if (occurrenceStart.isAfter(start)) {
+        break;
+      }
+      if (occurrenceStart.equals(start) && project(endOf(n), display).equals(end)) {
+        return n;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Builds the occurrences overlapping the given range, inclusive of both ends, in start order.
+   *
+   * @param from    the start of the range
+   * @param to      the end of the range
+   * @param display the zone of the calendar
+   * @return the occurrences taking place at some point in the range
+   */
+  List<Event> occurrencesOverlapping(LocalDateTime from, LocalDateTime to, ZoneId display) {
+    List<Event> events = new ArrayList<>();
+    for (int n = firstCandidate(from, display); n < weeks * offsets.length; n++) {
+      if (exceptions.contains(n)) {
+        continue;
+      }
+      Event event = occurrence(n, display);
+      if (event.getStartTime().isAfter(to)) {
+        break;
+      }
+      if (!event.getEndTime().isBefore(from)) {
+        events.add(event);
+      }
+    }
+    return events;
+  }
+
+  /**
+   * Returns a cursor over the occurrences in start order, beginning with the first one that
+   * starts at or after the given time.
+   *
+   * @param from    the earliest start time of a returned occurrence
+   * @param display the zone of the calendar
+   * @return an iterator over the occurrences
+   */
+  Iterator<Event> iteratorFrom(LocalDateTime from, ZoneId display) {
+    return new Cursor(firstCandidate(from, display), from, display);
+  }
+
+  /**
+   * Returns a cursor over every occurrence in start order.
+   *
+   * @param display the zone of the calendar
+   * @return an iterator over the occurrences
+   */
+  Iterator<Event> iterator(ZoneId display) {
+    return new Cursor(0, null, display);
+  }
+
+  /**
+   * Checks whether this rule and another one generate an occurrence with the same start and
+   * end time.
+   *
+   * @param other   the other rule
+   * @param display the zone of the calendar
+   * @return true if the rules share an occurrence otherwise false
+   */
+  boolean sharesOccurrenceWith(RecurrenceRule other, ZoneId display) {
+    if (other.size() < size()) {
+      return other.sharesOccurrenceWith(this, display);
+    }
+    Iterator<Event> cursor = iterator(display);
+    while (cursor.hasNext()) {
+      Event event = cursor.next();
+      if (other.occurrenceAt(event.getStartTime(), event.getEndTime(), display) >= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private Event occurrence(int n, ZoneId display) {
+    CalendarEvent.EventBuilder builder = new CalendarEvent.EventBuilder()
+            .setSubject(template.getSubject())
+            .setStartTime(project(startOf(n), display))
+            .setEndTime(project(endOf(n), display))
+            .setDesc(template.getDesc())
+            .setSeriesId(template.getSeriesId())
+            .setTimezone(display);
+
+    if (template.getLocation() != null) {
+      builder.setLocation(template.getLocation().toString());
+    }
+    if (template.getStatus() != null) {
+      builder.setStatus(template.getStatus().toString());
+    }
+    return builder.build();
+  }
+
+  /**
+   * Finds the number of an occurrence no later than the first one that could end at or after
+   * the given time. Occurrences last less than a day in the zone of the rule and zones are
+   * less than a day apart, so stepping back two days is always enough.
+   */
+  private int firstCandidate(LocalDateTime time, ZoneId display) {
+    if (weeks == 0) {
+      return 0;
+    }
+    LocalDateTime earliest = startOf(0).minusDays(3);
+    LocalDateTime latest = endOf(weeks * offsets.length - 1).plusDays(3);
+    if (time.isBefore(earliest)) {
+      return 0;
+    }
+    if (time.isAfter(latest)) {
+      return weeks * offsets.length;
+    }
+    LocalDateTime raw = ZonedDateTime.of(time, display).withZoneSameInstant(zone)
+            .toLocalDateTime().minusDays(2);
+    long day = ChronoUnit.DAYS.between(template.getStartTime().toLocalDate(), raw.toLocalDate());
+    long week = Math.floorDiv(day - offsets[offsets.length - 1], 7);
+    return (int) Math.max(0, Math.min(week, weeks)) * offsets.length;
+  }
+
+  private LocalDateTime startOf(int n) {
+    return template.getStartTime().plusDays(daysFromTemplate(n));
+  }
+
+  private LocalDateTime endOf(int n) {
+    return template.getEndTime().plusDays(daysFromTemplate(n));
+  }
+
+  private long daysFromTemplate(int n) {
+    return 7L * (n / offsets.length) + offsets[n % offsets.length];
+  }
+
+  private LocalDateTime project(LocalDateTime time, ZoneId display) {
+    return ZonedDateTime.of(time, zone).withZoneSameInstant(display).toLocalDateTime();
+  }
+
+  private static int[] sorted(int[] offsets) {
+    int[] copy = Arrays.copyOf(offsets, offsets.length);
+    Arrays.sort(copy);
+    return copy;
+  }
+
+  /**
+   * Iterates over the occurrences of the rule, building each one as it is reached.
+   */
+  private class Cursor implements Iterator<Event> {
+    private final LocalDateTime from;
+    private final ZoneId display;
+    private int n;
+    private Event next;
+
+    private Cursor(int n, LocalDateTime from, ZoneId display) {
+      this.n = n;
+      this.from = from;
+      this.display = display;
+      advance();
+    }
+
+    private void advance() {
+      next = null;
+      while (next == null && n < weeks * offsets.length) {
+        if (!exceptions.contains(n)) {
+          Event event = occurrence(n, display);
+          if (from == null || !event.getStartTime().isBefore(from)) {
+            next = event;
+          }
+        }
+        n++;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Event next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      Event event = next;
+      advance();
+      return event;
+    }
+  }
+}
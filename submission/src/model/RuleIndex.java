@@ -0,0 +1,114 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexes recurrence rules by the time their occurrences span, so a query only expands the
+ * rules that can have an occurrence in its range instead of every rule of the calendar. The
+ * span of each rule is kept as an event in UTC in an interval tree, which finds the k rules
+ * active in a range in O(log r + k) for r rules. Rules that generate no occurrence at all
+ * are left out, since no query can find anything in them.
+ */
+final class RuleIndex {
+  private final EventIndex spans;
+  private final Map<Event, RecurrenceRule> rulesBySpan;
+  private final Map<RecurrenceRule, Event> spansByRule;
+
+  /**
+   * Constructs an empty index.
+   */
+  RuleIndex() {
+    this(Collections.emptyList());
+  }
+
+  /**
+   * Constructs an index of the given rules, built in one pass.
+   *
+   * @param rules the rules to index
+   */
+  RuleIndex(Collection<RecurrenceRule> rules) {
+    this.spans = new IntervalTreeEventIndex();
+    this.rulesBySpan = new IdentityHashMap<>();
+    this.spansByRule = new IdentityHashMap<>();
+    List<Event> indexed = new ArrayList<>(rules.size());
+    for (RecurrenceRule rule : rules) {
+      Event span = spanOf(rule);
+      if (span != null) {
+        indexed.add(span);
+      }
+    }
+    spans.addAll(indexed);
+  }
+
+  /**
+   * Adds a rule to the index.
+   *
+   * @param rule the rule
+   */
+  void add(RecurrenceRule rule) {
+    Event span = spanOf(rule);
+    if (span != null) {
+      spans.add(span);
+    }
+  }
+
+  /**
+   * Removes a rule from the index.
+   *
+   * @param rule the rule
+   */
+  void remove(RecurrenceRule rule) {
+    Event span = spansByRule.remove(rule);
+    if (span != null) {
+      rulesBySpan.remove(span);
+      spans.remove(span);
+    }
+  }
+
+  /**
+   * Checks whether no rule is indexed.
+   *
+   * @return true if the index is empty otherwise false
+   */
+  boolean isEmpty() {
+    return spansByRule.isEmpty();
+  }
+
+  /**
+   * Gets the rules whose span overlaps a range in UTC, inclusive of both ends, in the order
+   * their spans start. A rule that is returned may still have no occurrence in the range.
+   *
+   * @param from the start of the range, in UTC
+   * @param to   the end of the range, in UTC
+   * @return the rules that may have an occurrence in the range
+   */
+  List<RecurrenceRule> overlapping(LocalDateTime from, LocalDateTime to) {
+    if (spansByRule.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<RecurrenceRule> found = new ArrayList<>();
+    for (Event span : spans.getEventsOverlapping(from, to)) {
+      found.add(rulesBySpan.get(span));
+    }
+    return found;
+  }
+
+  /**
+   * Records the span a rule is indexed with. Excluding an occurrence only narrows what a rule
+   * generates, so the span stays valid for as long as the rule is in the index.
+   */
+  private Event spanOf(RecurrenceRule rule) {
+    Event span = rule.span(EventQueries.STORED_ZONE);
+    if (span != null) {
+      rulesBySpan.put(span, rule);
+      spansByRule.put(rule, span);
+    }
+    return span;
+  }
+}
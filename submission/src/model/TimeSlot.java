@@ -0,0 +1,83 @@
+package model;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * A stretch of time between two moments, such as a busy or a free interval of a set of
+ * calendars. The moments carry their zone, so a slot means the same time to calendars in any
+ * zone.
+ */
+public final class TimeSlot {
+  private final ZonedDateTime start;
+  private final ZonedDateTime end;
+
+  /**
+   * Constructs a slot.
+   *
+   * @param start the moment the slot starts
+   * @param end   the moment the slot ends
+   * @throws IllegalArgumentException if either moment is null or the slot ends before it
+   *                                  starts
+   */
+  public TimeSlot(ZonedDateTime start, ZonedDateTime end) {
+    if (start == null || end == null) {
+      throw new IllegalArgumentException("Start and end cannot be null");
+    }
+    if (end.isBefore(start)) {
+      throw new IllegalArgumentException("End time cannot be before start time");
+    }
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Gets the moment the slot starts.
+   *
+   * @return the start
+   */
+  public ZonedDateTime getStart() {
+    return start;
+  }
+
+  /**
+   * Gets the moment the slot ends.
+   *
+   * @return the end
+   */
+  public ZonedDateTime getEnd() {
+    return end;
+  }
+
+  /**
+   * Gets the time between the start and the end of the slot.
+   *
+   * @return the length
+   */
+  public Duration getLength() {
+    return Duration.between(start, end);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof TimeSlot)) {
+      return false;
+    }
+    TimeSlot other = (TimeSlot) o;
+    return start.equals(other.start) && end.equals(other.end);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(start, end);
+  }
+
+  @Override
+  public String toString() {
+    return start.toLocalDateTime() + " - " + end.toLocalDateTime() + " " + start.getZone();
+  }
+}
@@ -0,0 +1,397 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only log of binary records kept in one file. The file starts with a magic number,
+ * a format version and the generation of the snapshot the log applies to, followed by one
+ * frame per record holding its length, a CRC32C checksum and its bytes. Records are gathered
+ * in memory and written in batches: when several threads wait for their records to become
+ * durable at the same time, one of them writes and forces the whole batch while the others
+ * wait for it, so they share a single fsync. When the log is opened, the records that were
+ * written completely are read back and anything after the last of them, such as a frame torn
+ * by a crash, is cut off.
+ */
+public final class WriteAheadLog implements Closeable {
+
+  /**
+   * When appended records are forced to the disk.
+   */
+  public enum SyncPolicy {
+    /**
+     * Every append waits until its record has been forced to the disk.
+     */
+    ALWAYS,
+    /**
+     * Appends return at once and a background thread forces the log at a fixed interval, so a
+     * crash loses at most the records of the last interval.
+     */
+    INTERVAL,
+    /**
+     * The log is only forced when it is reset or closed, and otherwise left to the operating
+     * system.
+     */
+    NEVER
+  }
+
+  private static final int MAGIC = 0x43414C57;
+  private static final short VERSION = 1;
+  private static final int HEADER = 14;
+  private static final int FRAME = 8;
+  private static final int BATCH_BYTES = 1 << 16;
+
+  private final Object lock = new Object();
+  private final FileChannel channel;
+  private final SyncPolicy policy;
+  private final ScheduledExecutorService flusher;
+  private final List<ByteBuffer> recovered;
+  private ByteBuffer pending;
+  private ByteBuffer spare;
+  private long appended;
+  private long written;
+  private long forced;
+  private boolean writing;
+  private boolean closed;
+  private IOException failure;
+  private long generation;
+
+  private WriteAheadLog(FileChannel channel, SyncPolicy policy, long intervalMillis)
+          throws IOException {
+    this.channel = channel;
+    this.policy = policy;
+    this.pending = ByteBuffer.allocate(BATCH_BYTES);
+    this.spare = ByteBuffer.allocate(BATCH_BYTES);
+    this.recovered = recover();
+    if (policy == SyncPolicy.INTERVAL) {
+      flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "write-ahead-log");
+        thread.setDaemon(true);
+        return thread;
+      });
+      flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis,
+              TimeUnit.MILLISECONDS);
+    } else {
+      flusher = null;
+    }
+  }
+
+  /**
+   * Opens a log, creating it when it does not exist, and reads back the records it holds.
+   *
+   * @param file           the file of the log
+   * @param policy         when appended records are forced to the disk
+   * @param intervalMillis the time between two forces of the INTERVAL policy
+   * @return the open log
+   * @throws IOException              if the file cannot be opened or is not a log
+   * @throws IllegalArgumentException if the policy is null or the interval is not positive
+   *                                  for the INTERVAL policy
+   */
+  public static WriteAheadLog open(Path file, SyncPolicy policy, long intervalMillis)
+          throws IOException {
+    if (policy == null) {
+      throw new IllegalArgumentException("Sync policy cannot be null");
+    }
+    if (policy == SyncPolicy.INTERVAL && intervalMillis <= 0) {
+      throw new IllegalArgumentException("Sync interval must be positive");
+    }
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      return new WriteAheadLog(channel, policy, intervalMillis);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Gets the generation of the snapshot the records of this log apply to.
+   *
+   * @return the generation
+   */
+  public long getGeneration() {
+    synchronized (lock) {
+      return generation;
+    }
+  }
+
+  /**
+   * Gets the records that were in the log when it was opened, in the order they were appended.
+   *
+   * @return the records, each positioned at its first byte
+   */
+  public List<ByteBuffer> recovered() {
+    return recovered;
+  }
+
+  /**
+   * Appends a record. Under the ALWAYS policy the method returns once the record is on the
+   * disk, under the other policies it may still be waiting in memory.
+   *
+   * @param record the bytes of the record
+   * @throws IOException           if the log could not be written, now or in an earlier batch
+   * @throws IllegalStateException if the log is closed
+   */
+  public void append(byte[] record) throws IOException {
+    long sequence;
+    boolean full;
+    synchronized (lock) {
+      check();
+      if (pending.remaining() < FRAME + record.length) {
+        ByteBuffer larger = ByteBuffer.allocate(
+                Math.max(pending.capacity() * 2, pending.position() + FRAME + record.length));
+        pending.flip();
+        larger.put(pending);
+        pending = larger;
+      }
+      CRC32C crc = new CRC32C();
+      crc.update(record);
+      pending.putInt(record.length);
+      pending.putInt((int) crc.getValue());
+      pending.put(record);
+      sequence = ++appended;
+      full = pending.position() >= BATCH_BYTES;
+    }
+    if (policy == SyncPolicy.ALWAYS) {
+      flush(sequence, true);
+    } else if (full) {
+      flush(sequence, false);
+    }
+  }
+
+  /**
+   * Forces every record appended so far to the disk.
+   *
+   * @throws IOException if the log could not be written
+   */
+  public void sync() throws IOException {
+    long sequence;
+    synchronized (lock) {
+      sequence = appended;
+    }
+    flush(sequence, true);
+  }
+
+  /**
+   * Drops every record and starts the log over for a new snapshot. Called once the records
+   * are part of a snapshot of the given generation, so it must not run while other threads
+   * are still appending.
+   *
+   * @param newGeneration the generation of the snapshot the following records apply to
+   * @throws IOException if the log could not be written
+   */
+  public void reset(long newGeneration) throws IOException {
+    sync();
+    synchronized (lock) {
+      awaitWriter();
+      check();
+      writing = true;
+      pending.clear();
+      written = appended;
+      forced = appended;
+    }
+    try {
+      channel.truncate(HEADER);
+      writeHeader(newGeneration);
+      channel.force(true);
+    } catch (IOException e) {
+      fail(e);
+      throw e;
+    }
+    synchronized (lock) {
+      generation = newGeneration;
+      writing = false;
+      lock.notifyAll();
+    }
+  }
+
+  /**
+   * Forces the remaining records to the disk and closes the log.
+   *
+   * @throws IOException if the log could not be written
+   */
+  @Override
+  public void close() throws IOException {
+    boolean failed;
+    synchronized (lock) {
+      if (closed) {
+        return;
+      }
+      failed = failure != null;
+    }
+    if (flusher != null) {
+      flusher.shutdown();
+    }
+    try {
+      if (!failed) {
+        sync();
+      }
+    } finally {
+      synchronized (lock) {
+        closed = true;
+      }
+      channel.close();
+    }
+  }
+
+  /**
+   * Writes the records appended up to a sequence number, forcing them if asked. A thread that
+   * finds another one writing waits for it, since that batch may already hold its records.
+   */
+  private void flush(long sequence, boolean force) throws IOException {
+    ByteBuffer batch;
+    long upTo;
+    synchronized (lock) {
+      while (true) {
+        if (failure != null) {
+          throw failure;
+        }
+        if ((force ? forced : written) >= sequence) {
+          return;
+        }
+        if (!writing) {
+          break;
+        }
+        awaitWriter();
+      }
+      writing = true;
+      batch = pending;
+      pending = spare;
+      spare = null;
+      upTo = appended;
+    }
+    try {
+      batch.flip();
+      while (batch.hasRemaining()) {
+        channel.write(batch);
+      }
+      if (force) {
+        channel.force(false);
+      }
+    } catch (IOException e) {
+      fail(e);
+      throw e;
+    }
+    synchronized (lock) {
+      batch.clear();
+      spare = batch;
+      written = upTo;
+      if (force) {
+        forced = upTo;
+      }
+      writing = false;
+      lock.notifyAll();
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      sync();
+    } catch (IOException | IllegalStateException e) {
+      // kept as the failure of the log and reported by the next append
+    }
+  }
+
+  private void awaitWriter() throws IOException {
+    while (writing) {
+      try {
+        lock.wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for the log");
+      }
+    }
+  }
+
+  private void check() throws IOException {
+    if (closed) {
+      throw new IllegalStateException("Log is closed");
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private void fail(IOException e) {
+    synchronized (lock) {
+      failure = e;
+      writing = false;
+      lock.notifyAll();
+    }
+  }
+
+  /**
+   * Reads the header and every complete record, then cuts the file after the last of them
+   * and leaves the channel positioned there for the next append.
+   */
+  private List<ByteBuffer> recover() throws IOException {
+    long size = channel.size();
+    if (size == 0) {
+      writeHeader(0);
+      channel.force(true);
+      channel.position(HEADER);
+      return Collections.emptyList();
+    }
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("Log is too large");
+    }
+    ByteBuffer in = ByteBuffer.allocate((int) size);
+    while (in.hasRemaining() && channel.read(in, in.position()) >= 0) {
+      continue;
+    }
+    in.flip();
+    if (in.remaining() < HEADER || in.getInt() != MAGIC) {
+      throw new IOException("Not a calendar log");
+    }
+    short version = in.getShort();
+    if (version != VERSION) {
+      throw new IOException("Unsupported log version " + version);
+    }
+    generation = in.getLong();
+    List<ByteBuffer> records = new ArrayList<>();
+    CRC32C crc = new CRC32C();
+    while (in.remaining() >= FRAME) {
+      int length = in.getInt(in.position());
+      int checksum = in.getInt(in.position() + 4);
+      if (length < 0 || length > in.remaining() - FRAME) {
+        break;
+      }
+      ByteBuffer record = in.slice(in.position() + FRAME, length);
+      crc.reset();
+      crc.update(record.duplicate());
+      if ((int) crc.getValue() != checksum) {
+        break;
+      }
+      records.add(record);
+      in.position(in.position() + FRAME + length);
+    }
+    if (in.position() < size) {
+      channel.truncate(in.position());
+      channel.force(true);
+    }
+    channel.position(in.position());
+    return Collections.unmodifiableList(records);
+  }
+
+  private void writeHeader(long newGeneration) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER);
+    header.putInt(MAGIC).putShort(VERSION).putLong(newGeneration).flip();
+    while (header.hasRemaining()) {
+      channel.write(header, header.position());
+    }
+    channel.position(HEADER);
+  }
+}
@@ -0,0 +1,35 @@
+package view;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import model.CalendarModelGUISupport;
+import model.MultipleCalendarModelAllNames;
+
+/**
+ * Writes the events of calendars out in a file format. Exporters walk each calendar in start
+ * time order as it is stored, writing every event as soon as it is reached, so exporting
+ * takes the same memory however many events there are.
+ */
+public interface CalendarExporter {
+
+  /**
+   * Writes the events of a single calendar.
+   *
+   * @param name     the name of the calendar
+   * @param calendar the calendar to export
+   * @param out      where the export is written; it is flushed but not closed
+   * @throws IOException if the export cannot be written
+   */
+  void export(String name, CalendarModelGUISupport calendar, Writer out) throws IOException;
+
+  /**
+   * Writes the events of every calendar of a model, one calendar after another in the order
+   * of their names, without changing the current calendar.
+   *
+   * @param model the model to export
+   * @param out   where the export is written; it is flushed but not closed
+   * @throws IOException if the export cannot be written
+   */
+  void exportAll(MultipleCalendarModelAllNames model, Writer out) throws IOException;
+}
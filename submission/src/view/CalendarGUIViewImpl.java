@@ -3,6 +3,7 @@ package view;
 import controller.CalendarControllerGUI;
 import model.Event;
 
+import javax.swing.DefaultComboBoxModel;
 import javax.swing.JComboBox;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
@@ -16,6 +17,8 @@ import javax.swing.JOptionPane;
 import javax.swing.JSpinner;
 import javax.swing.JFrame;
 import javax.swing.SpinnerDateModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 import java.awt.BorderLayout;
 import java.awt.FlowLayout;
@@ -242,6 +245,11 @@ public class CalendarGUIViewImpl extends JFrame implements CalendarGUIView {
     return descField;
   }
 
+  private void filterEvents(JComboBox<String> events, String prefix) {
+    events.setModel(new DefaultComboBoxModel<>(
+            controller.getAllEventNames(prefix).toArray(new String[0])));
+  }
+
   private void showEditEventDialog() {
     List<String> allEvents = controller.getAllEventNames();
     if (allEvents.isEmpty()) {
@@ -260,6 +268,25 @@ public class CalendarGUIViewImpl extends JFrame implements CalendarGUIView {
       JPanel formPanel = new JPanel(new GridLayout(4, 2));
 
       JTextField changeField = new JTextField(15);
+      JTextField filterField = new JTextField(15);
+      filterField.getDocument().addDocumentListener(new DocumentListener() {
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+          filterEvents(allEventComboBox, filterField.getText());
+        }
+
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+          filterEvents(allEventComboBox, filterField.getText());
+        }
+
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+          filterEvents(allEventComboBox, filterField.getText());
+        }
+      });
+      formPanel.add(new JLabel("Filter events:"));
+      formPanel.add(filterField);
       formPanel.add(new JLabel("Select event:"));
       formPanel.add(allEventComboBox);
       formPanel.add(new JLabel("Change Type:"));
@@ -271,7 +298,7 @@ public class CalendarGUIViewImpl extends JFrame implements CalendarGUIView {
       int result = JOptionPane.showConfirmDialog(this, formPanel,
               "Edit an Event", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
 
-      if (result == JOptionPane.OK_OPTION) {
+      if (result == JOptionPane.OK_OPTION && allEventComboBox.getSelectedItem() != null) {
         try {
           String change = changeField.getText();
 
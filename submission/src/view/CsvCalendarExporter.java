@@ -0,0 +1,109 @@
+package view;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import model.CalendarModelGUISupport;
+import model.Event;
+import model.MultipleCalendarModelAllNames;
+
+/**
+ * Exports calendars as CSV, one row per event under a single header row. Times are written
+ * as ISO-8601 local times in the timezone given on the same row, and fields holding commas,
+ * quotes or line breaks are quoted as RFC 4180 describes. Repeating series are written as
+ * their occurrences, which share the id in the Series column.
+ */
+public class CsvCalendarExporter implements CalendarExporter {
+  private static final String HEADER =
+          "Calendar,Timezone,Subject,Start,End,Location,Status,Description,Series\r\n";
+  private static final int BUFFER = 1 << 16;
+
+  @Override
+  public void export(String name, CalendarModelGUISupport calendar, Writer out)
+          throws IOException {
+    if (name == null || calendar == null || out == null) {
+      throw new IllegalArgumentException("Name, calendar and output cannot be null");
+    }
+    Writer buffered = new BufferedWriter(out, BUFFER);
+    buffered.write(HEADER);
+    writeEvents(name, calendar, buffered);
+    buffered.flush();
+  }
+
+  @Override
+  public void exportAll(MultipleCalendarModelAllNames model, Writer out) throws IOException {
+    if (model == null || out == null) {
+      throw new IllegalArgumentException("Model and output cannot be null");
+    }
+    List<String> names = new ArrayList<>(model.getAllNames());
+    Collections.sort(names);
+    Writer buffered = new BufferedWriter(out, BUFFER);
+    buffered.write(HEADER);
+    for (String name : names) {
+      writeEvents(name, model.getCalendar(name), buffered);
+    }
+    buffered.flush();
+  }
+
+  private void writeEvents(String name, CalendarModelGUISupport calendar, Writer out)
+          throws IOException {
+    String zone = calendar.getTimezone().getId();
+    Iterator<Event> events = calendar.eventsFrom(LocalDateTime.MIN);
+    while (events.hasNext()) {
+      Event event = events.next();
+      field(out, name);
+      out.write(',');
+      field(out, zone);
+      out.write(',');
+      field(out, event.getSubject());
+      out.write(',');
+      out.write(event.getStartTime().toString());
+      out.write(',');
+      out.write(event.getEndTime().toString());
+      out.write(',');
+      if (event.getLocation() != null) {
+        out.write(event.getLocation().toString());
+      }
+      out.write(',');
+      if (event.getStatus() != null) {
+        out.write(event.getStatus().toString());
+      }
+      out.write(',');
+      if (event.getDesc() != null) {
+        field(out, event.getDesc());
+      }
+      out.write(',');
+      if (event.getSeriesId() != null) {
+        out.write(event.getSeriesId().toString());
+      }
+      out.write("\r\n");
+    }
+  }
+
+  private void field(Writer out, String value) throws IOException {
+    boolean quote = false;
+    for (int i = 0; i < value.length() && !quote; i++) {
+      char c = value.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quote) {
+      out.write(value);
+      return;
+    }
+    out.write('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') {
+        out.write('"');
+      }
+      out.write(c);
+    }
+    out.write('"');
+  }
+}
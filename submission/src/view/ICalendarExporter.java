@@ -0,0 +1,150 @@
+package view;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import model.CalendarModelGUISupport;
+import model.Event;
+import model.MultipleCalendarModelAllNames;
+
+/**
+ * Exports calendars as iCalendar (RFC 5545), one VCALENDAR per calendar. Start and end times
+ * carry the timezone of the calendar, the status is written as CLASS and lines longer than
+ * 75 octets are folded. Repeating series are written as their occurrences, each its own
+ * VEVENT, so any reader sees exactly the events the calendar shows.
+ */
+public class ICalendarExporter implements CalendarExporter {
+  private static final DateTimeFormatter FORMAT =
+          DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+  private static final int BUFFER = 1 << 16;
+  private static final int LINE_OCTETS = 75;
+
+  @Override
+  public void export(String name, CalendarModelGUISupport calendar, Writer out)
+          throws IOException {
+    if (name == null || calendar == null || out == null) {
+      throw new IllegalArgumentException("Name, calendar and output cannot be null");
+    }
+    Writer buffered = new BufferedWriter(out, BUFFER);
+    writeCalendar(name, calendar, stamp(), buffered);
+    buffered.flush();
+  }
+
+  @Override
+  public void exportAll(MultipleCalendarModelAllNames model, Writer out) throws IOException {
+    if (model == null || out == null) {
+      throw new IllegalArgumentException("Model and output cannot be null");
+    }
+    List<String> names = new ArrayList<>(model.getAllNames());
+    Collections.sort(names);
+    String stamp = stamp();
+    Writer buffered = new BufferedWriter(out, BUFFER);
+    for (String name : names) {
+      writeCalendar(name, model.getCalendar(name), stamp, buffered);
+    }
+    buffered.flush();
+  }
+
+  private static String stamp() {
+    return LocalDateTime.now(ZoneOffset.UTC).format(FORMAT) + "Z";
+  }
+
+  private void writeCalendar(String name, CalendarModelGUISupport calendar, String stamp,
+                             Writer out) throws IOException {
+    String zone = calendar.getTimezone().getId();
+    String uid = escape(name);
+    out.write("BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:-//Calendar-Model//Calendar//EN\r\n");
+    line(out, "X-WR-CALNAME:" + uid);
+    line(out, "X-WR-TIMEZONE:" + zone);
+    Iterator<Event> events = calendar.eventsFrom(LocalDateTime.MIN);
+    long index = 0;
+    while (events.hasNext()) {
+      Event event = events.next();
+      out.write("BEGIN:VEVENT\r\n");
+      line(out, "UID:" + (index++) + "-" + uid);
+      line(out, "DTSTAMP:" + stamp);
+      line(out, "DTSTART;TZID=" + zone + ":" + event.getStartTime().format(FORMAT));
+      line(out, "DTEND;TZID=" + zone + ":" + event.getEndTime().format(FORMAT));
+      line(out, "SUMMARY:" + escape(event.getSubject()));
+      if (event.getDesc() != null) {
+        line(out, "DESCRIPTION:" + escape(event.getDesc()));
+      }
+      if (event.getLocation() != null) {
+        line(out, "LOCATION:" + event.getLocation());
+      }
+      if (event.getStatus() != null) {
+        line(out, "CLASS:" + event.getStatus());
+      }
+      out.write("END:VEVENT\r\n");
+    }
+    out.write("END:VCALENDAR\r\n");
+  }
+
+  /**
+   * Writes a content line, folding it with a CRLF and a space before any character that
+   * would take it past 75 octets of UTF-8.
+   */
+  private static void line(Writer out, String text) throws IOException {
+    int octets = 0;
+    int at = 0;
+    while (at < text.length()) {
+      int codePoint = text.codePointAt(at);
+      int width = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+      if (octets + width > LINE_OCTETS) {
+        out.write("\r\n ");
+        octets = 1;
+      }
+      out.write(text, at, Character.charCount(codePoint));
+      octets += width;
+      at += Character.charCount(codePoint);
+    }
+    out.write("\r\n");
+  }
+
+  private static String escape(String value) {
+    StringBuilder text = null;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      String replacement;
+      switch (c) {
+        case '\\':
+          replacement = "\\\\";
+          break;
+        case ';':
+          replacement = "\\;";
+          break;
+        case ',':
+          replacement = "\\,";
+          break;
+        case '\n':
+          replacement = "\\n";
+          break;
+        case '\r':
+          replacement = "";
+          break;
+        default:
+          replacement = null;
+          break;
+      }
+      if (replacement != null && text == null) {
+        text = new StringBuilder(value.length() + 8).append(value, 0, i);
+      }
+      if (text != null) {
+        if (replacement != null) {
+          text.append(replacement);
+        } else {
+          text.append(c);
+        }
+      }
+    }
+    return text == null ? value : text.toString();
+  }
+}
@@ -0,0 +1,145 @@
+import model.CalendarEvent;
+import model.CalendarModelImpl;
+import model.ColumnarCalendarModel;
+import model.Event;
+import model.ICalendarImporter;
+import model.MultipleCalendarModelImpl;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import view.CsvCalendarExporter;
+import view.ICalendarExporter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Class for calendar export tests.
+ */
+public class CalendarExporterTest {
+  private CalendarModelImpl cal;
+  private LocalDateTime from;
+  private LocalDateTime to;
+
+  @Before
+  public void setUp() {
+    cal = new CalendarModelImpl("Work", "America/New_York");
+    from = LocalDateTime.of(2025, 1, 1, 0, 0);
+    to = LocalDateTime.of(2026, 1, 1, 0, 0);
+  }
+
+  private List<String> describe(CalendarModelImpl calendar) {
+    List<String> lines = new ArrayList<>();
+    for (Event e : calendar.getEventsBetween(from, to)) {
+      lines.add(e.getSubject() + "|" + e.getStartTime() + "|" + e.getEndTime() + "|"
+              + e.getLocation() + "|" + e.getStatus() + "|" + e.getDesc());
+    }
+    return lines;
+  }
+
+  @Test
+  public void testCsvQuotesFieldsAndKeepsStartOrder() throws IOException {
+    cal.createEvent(new CalendarEvent.EventBuilder()
+            .setSubject("Lunch, with \"Sam\"")
+            .setStartTime(LocalDateTime.of(2025, 6, 3, 12, 0))
+            .setEndTime(LocalDateTime.of(2025, 6, 3, 13, 0))
+            .setLocation("PHYSICAL")
+            .setStatus("PRIVATE")
+            .setDesc("line one\nline two")
+            .build());
+    cal.createEvent(TestEvents.event("Standup", LocalDateTime.of(2025, 6, 2, 9, 0),
+            LocalDateTime.of(2025, 6, 2, 9, 15)));
+
+    StringWriter out = new StringWriter();
+    new CsvCalendarExporter().export("Work", cal, out);
+
+    assertEquals("Calendar,Timezone,Subject,Start,End,Location,Status,Description,Series\r\n"
+            + "Work,America/New_York,Standup,2025-06-02T09:00,2025-06-02T09:15,,,,\r\n"
+            + "Work,America/New_York,\"Lunch, with \"\"Sam\"\"\",2025-06-03T12:00,"
+            + "2025-06-03T13:00,PHYSICAL,PRIVATE,\"line one\nline two\",\r\n", out.toString());
+  }
+
+  @Test
+  public void testCsvWritesSeriesOccurrences() throws IOException {
+    ColumnarCalendarModel columnar = new ColumnarCalendarModel("Work", "America/New_York");
+    columnar.createAllEvents(TestEvents.event("Gym", LocalDateTime.of(2025, 6, 2, 18, 0),
+            LocalDateTime.of(2025, 6, 2, 19, 0)), "MW", 2);
+    cal.createAllEvents(TestEvents.event("Gym", LocalDateTime.of(2025, 6, 2, 18, 0),
+            LocalDateTime.of(2025, 6, 2, 19, 0)), "MW", 2);
+
+    StringWriter fromStore = new StringWriter();
+    new CsvCalendarExporter().export("Work", cal, fromStore);
+    StringWriter fromColumns = new StringWriter();
+    new CsvCalendarExporter().export("Work", columnar, fromColumns);
+
+    String[] rows = fromStore.toString().split("\r\n");
+    assertEquals(1 + cal.getEventsBetween(from, to).size(), rows.length);
+    assertTrue(rows[1].startsWith("Work,America/New_York,Gym,2025-06-02T18:00,"));
+    assertEquals(rows.length, fromColumns.toString().split("\r\n").length);
+  }
+
+  @Test
+  public void testICalendarRoundTripsThroughImporter() throws IOException {
+    StringBuilder subject = new StringBuilder("Planning; budget, review \\ ");
+    for (int i = 0; i < 12; i++) {
+      subject.append("\u00e9 long subject ");
+    }
+    cal.createEvent(new CalendarEvent.EventBuilder()
+            .setSubject(subject.toString().trim())
+            .setStartTime(LocalDateTime.of(2025, 6, 3, 12, 0))
+            .setEndTime(LocalDateTime.of(2025, 6, 3, 13, 30))
+            .setLocation("ONLINE")
+            .setStatus("PUBLIC")
+            .setDesc("agenda\nnotes")
+            .build());
+    cal.createAllEvents(TestEvents.event("Gym", LocalDateTime.of(2025, 6, 2, 18, 0),
+            LocalDateTime.of(2025, 6, 2, 19, 0)), "MW", 3);
+    cal.createEvent(TestEvents.event("Night", LocalDateTime.of(2025, 11, 1, 23, 0),
+            LocalDateTime.of(2025, 11, 2, 2, 0)));
+
+    StringWriter out = new StringWriter();
+    new ICalendarExporter().export("Work", cal, out);
+    String text = out.toString();
+    for (String line : text.split("\r\n")) {
+      assertTrue(line, line.getBytes(java.nio.charset.StandardCharsets.UTF_8).length <= 75);
+    }
+    assertTrue(text.contains("DTSTART;TZID=America/New_York:20250603T120000\r\n"));
+
+    CalendarModelImpl copy = new CalendarModelImpl("Copy", "America/New_York");
+    ICalendarImporter.importText(text, copy);
+
+    assertEquals(describe(cal), describe(copy));
+  }
+
+  @Test
+  public void testExportAllWritesCalendarsByName() throws IOException {
+    MultipleCalendarModelImpl model = new MultipleCalendarModelImpl();
+    model.createCalendar("Work", "America/New_York");
+    model.createCalendar("Home", "Europe/London");
+    model.getCalendar("Work").createEvent(TestEvents.event("Standup",
+            LocalDateTime.of(2025, 6, 2, 9, 0), LocalDateTime.of(2025, 6, 2, 9, 15)));
+    model.getCalendar("Home").createEvent(TestEvents.event("Dinner",
+            LocalDateTime.of(2025, 6, 2, 19, 0), LocalDateTime.of(2025, 6, 2, 20, 0)));
+
+    StringWriter csv = new StringWriter();
+    new CsvCalendarExporter().exportAll(model, csv);
+    StringWriter ics = new StringWriter();
+    new ICalendarExporter().exportAll(model, ics);
+
+    String[] rows = csv.toString().split("\r\n");
+    assertEquals(3, rows.length);
+    assertTrue(rows[1].startsWith("Home,Europe/London,Dinner,"));
+    assertTrue(rows[2].startsWith("Work,America/New_York,Standup,"));
+    String text = ics.toString();
+    assertTrue(text.indexOf("X-WR-CALNAME:Home") < text.indexOf("X-WR-CALNAME:Work"));
+    assertEquals(2, text.split("BEGIN:VCALENDAR").length - 1);
+    assertEquals("Work", model.getCurrentCalendarName());
+  }
+}
@@ -9,11 +9,15 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import model.CalendarBatch;
 import model.CalendarEvent;
 import model.CalendarModel;
 import model.CalendarModelAllHelpers;
+import model.CalendarModelGUISupport;
 import model.CalendarModelImpl;
 import model.Event;
 import model.EventIdentifier;
@@ -25,6 +29,7 @@ import model.PropertyChange;
 import model.PropertyType;
 import model.TypingChange;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -234,6 +239,59 @@ public class CalendarModelImplTest {
     assertEquals(0, events.size());
   }
 
+  @Test
+  public void testLongSeriesOccurrencesAreEditable() {
+    cal.createAllEvents(sampleEvent, "MTWRFSU", 520);
+    LocalDateTime later = sampleStartTime.plusWeeks(470).plusDays(3);
+    assertEquals(7, cal.getEventsBetween(later.minusDays(3), later.plusDays(4)).size());
+    List<Event> events = cal.getEventsOnDate(later.toLocalDate());
+    assertEquals(1, events.size());
+    assertEquals(sampleEvent.getSubject(), events.get(0).getSubject());
+
+    cal.editEvent(new EventIdentifier(sampleEvent.getSubject(), later, later.plusHours(1)),
+            new PropertyChange(PropertyType.DESCRIPTION, "moved room"), false);
+    cal.editSeries(events.get(0).getSeriesId(),
+            new PropertyChange(PropertyType.SUBJECT, "Standup"));
+
+    List<Event> next = ((CalendarModelImpl) cal).getNextEvents(later.minusDays(1), 3);
+    assertEquals(3, next.size());
+    assertEquals(later.minusDays(1), next.get(0).getStartTime());
+    assertEquals("Standup", next.get(1).getSubject());
+    assertEquals("moved room", next.get(1).getDesc());
+    assertEquals("", next.get(2).getDesc());
+    assertEquals("Standup", cal.getEventsOnDate(sampleStartTime.toLocalDate()).get(0)
+            .getSubject());
+    assertTrue(cal.getEventsOnDate(sampleStartTime.toLocalDate().plusWeeks(520)).isEmpty());
+  }
+
+  @Test
+  public void testSeriesOccurrencesCountAsDuplicates() {
+    cal.createAllEvents(sampleEvent, "M", 4);
+    try {
+      cal.createEvent(new CalendarEvent.EventBuilder()
+              .setSubject(sampleEvent.getSubject())
+              .setStartTime(sampleStartTime.plusWeeks(2))
+              .setEndTime(sampleEndTime.plusWeeks(2))
+              .build());
+      fail("An event matching an occurrence should be rejected");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+
+    Event wednesday = new CalendarEvent.EventBuilder()
+            .setSubject(sampleEvent.getSubject())
+            .setStartTime(sampleStartTime.plusWeeks(1).plusDays(2))
+            .setEndTime(sampleEndTime.plusWeeks(1).plusDays(2))
+            .build();
+    try {
+      cal.createAllEvents(wednesday, "MW", 2);
+      fail("A series sharing an occurrence should be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Duplicate exists in series", e.getMessage());
+    }
+    assertTrue(cal.getEventsOnDate(wednesday.getStartTime().toLocalDate()).isEmpty());
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testCreateEventsNull() {
     cal.createEvents(null);
@@ -364,6 +422,59 @@ public class CalendarModelImplTest {
     assertEquals(3, events.size());
   }
 
+  @Test
+  public void testGetNextEventsInStartOrder() {
+    CalendarModelImpl gui = new CalendarModelImpl("GUI");
+    for (int i = 12; i >= 0; i--) {
+      gui.createEvent(new CalendarEvent.EventBuilder()
+              .setSubject("Event " + i)
+              .setStartTime(sampleStartTime.plusDays(i))
+              .setEndTime(sampleEndTime.plusDays(i))
+              .build());
+    }
+
+    List<Event> next = gui.getNextEvents(sampleStartTime.plusDays(3), 4);
+    assertEquals(4, next.size());
+    assertEquals("Event 3", next.get(0).getSubject());
+    assertEquals("Event 6", next.get(3).getSubject());
+    assertEquals(10, gui.eventsToBeShown(sampleStartTime.toLocalDate()).size());
+    assertEquals(3, gui.eventsToBeShown(sampleStartTime.toLocalDate().plusDays(10)).size());
+  }
+
+  @Test
+  public void testFindEventAndNamesBySubject() {
+    CalendarModelImpl gui = new CalendarModelImpl("GUI");
+    gui.createEvent(sampleEvent);
+    gui.createEvent(new CalendarEvent.EventBuilder()
+            .setSubject("Lunch")
+            .setStartTime(sampleStartTime.plusHours(2))
+            .setEndTime(sampleEndTime.plusHours(2))
+            .build());
+    gui.createEvent(new CalendarEvent.EventBuilder()
+            .setSubject("Lecture")
+            .setStartTime(sampleStartTime.plusDays(1))
+            .setEndTime(sampleEndTime.plusDays(1))
+            .build());
+
+    assertEquals(sampleStartTime.plusHours(2), gui.findEvent("Lunch").getStartTime());
+    assertEquals(3, gui.allEvents().size());
+    assertEquals("Lecture " + sampleStartTime.plusDays(1), gui.allEvents().get(0));
+    assertEquals(2, gui.allEvents("L").size());
+    assertEquals(1, gui.allEvents("Lu").size());
+    assertTrue(gui.allEvents("X").isEmpty());
+
+    gui.editEvent(new EventIdentifier("Lunch", sampleStartTime.plusHours(2),
+            sampleEndTime.plusHours(2)), new PropertyChange(PropertyType.SUBJECT, "Brunch"), false);
+    assertEquals("Brunch", gui.findEvent("Brunch").getSubject());
+    assertEquals(1, gui.allEvents("L").size());
+    try {
+      gui.findEvent("Lunch");
+      fail("Renamed event should not be found by its old subject");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event not found", e.getMessage());
+    }
+  }
+
   @Test
   public void testGetStatusMessageBusy() {
     LocalDateTime now = LocalDateTime.now();
@@ -422,6 +533,26 @@ public class CalendarModelImplTest {
     cal.editEvents(new ArrayList<>(), change);
   }
 
+  @Test
+  public void testDuplicateCheckFollowsEdits() {
+    cal.createEvent(sampleEvent);
+    cal.editEvent(new EventIdentifier(sampleEvent.getSubject(), sampleStartTime,
+            sampleEndTime), new PropertyChange(PropertyType.SUBJECT, "Renamed"), false);
+
+    cal.createEvent(sampleEvent);
+    assertEquals(2, cal.getEventsOnDate(sampleStartTime.toLocalDate()).size());
+    try {
+      cal.createEvent(new CalendarEvent.EventBuilder()
+              .setSubject("Renamed")
+              .setStartTime(sampleStartTime)
+              .setEndTime(sampleEndTime)
+              .build());
+      fail("Renamed event should now be a duplicate");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event exists already.", e.getMessage());
+    }
+  }
+
   @Test
   public void testCaseInsensitiveDuplicates() {
     cal.createEvent(sampleEvent);
@@ -895,6 +1026,34 @@ public class CalendarModelImplTest {
     assertEquals(1, fallEvents.size());
   }
 
+  @Test
+  public void testLongSpanningEventStoredOnce() {
+    CalendarEvent conference = new CalendarEvent.EventBuilder()
+            .setSubject("Conference")
+            .setStartTime(sampleStartTime)
+            .setEndTime(sampleStartTime.plusDays(30))
+            .build();
+    cal.createEvent(conference);
+
+    assertEquals(1, cal.getEventsOnDate(sampleStartTime.toLocalDate().plusDays(15)).size());
+    assertEquals("Busy.", cal.getStatusMessage(sampleStartTime.plusDays(15)));
+    assertEquals("Available.", cal.getStatusMessage(sampleStartTime.plusDays(31)));
+    assertEquals(1, cal.getEventsBetween(sampleStartTime, sampleStartTime.plusDays(30)).size());
+    try {
+      cal.createEvent(conference);
+      fail("Duplicate spanning event should be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event exists already.", e.getMessage());
+    }
+
+    cal.editEvent(new EventIdentifier("Conference", sampleStartTime,
+            sampleStartTime.plusDays(30)), new PropertyChange(PropertyType.DESCRIPTION,
+            "Annual"), false);
+    List<Event> events = cal.getEventsOnDate(sampleStartTime.toLocalDate().plusDays(29));
+    assertEquals(1, events.size());
+    assertEquals("Annual", events.get(0).getDesc());
+  }
+
   @Test
   public void testEventSpanningMultipleYears() {
     LocalDateTime startOfYear = LocalDateTime.of(2025,
@@ -1094,6 +1253,29 @@ public class CalendarModelImplTest {
     assertEquals(event.getSubject(), events.get(0).getSubject());
   }
 
+  @Test
+  public void testTimezoneChangeMovesEventsToTheirNewDate() {
+    cal.setTimezone("America/New_York");
+    LocalDateTime start = LocalDateTime.of(2025, 6, 2, 22, 0);
+    cal.createEvent(new CalendarEvent.EventBuilder()
+            .setSubject("Late Call")
+            .setStartTime(start)
+            .setEndTime(start.plusHours(1))
+            .build());
+
+    cal.setTimezone("Europe/London");
+    assertTrue(cal.getEventsOnDate(start.toLocalDate()).isEmpty());
+    List<Event> events = cal.getEventsOnDate(start.toLocalDate().plusDays(1));
+    assertEquals(1, events.size());
+    assertEquals(LocalDateTime.of(2025, 6, 3, 3, 0), events.get(0).getStartTime());
+    assertEquals("Busy.", cal.getStatusMessage(LocalDateTime.of(2025, 6, 3, 3, 30)));
+
+    cal.setTimezone("America/New_York");
+    events = cal.getEventsOnDate(start.toLocalDate());
+    assertEquals(1, events.size());
+    assertEquals(start, events.get(0).getStartTime());
+  }
+
   @Test
   public void testBasicTimezoneConversion() {
     CalendarEvent event = new CalendarEvent.EventBuilder()
@@ -1335,6 +1517,43 @@ public class CalendarModelImplTest {
     assertEquals(seriesId, updatedEvent.getSeriesId());
   }
 
+  @Test
+  public void testEditSeriesIsAllOrNothing() {
+    List<Event> seriesEvents = new ArrayList<>();
+    LocalDateTime baseTime = LocalDateTime.of(2025, 6, 2, 10, 0);
+    Long seriesId = 1L;
+    for (int i = 0; i < 3; i++) {
+      seriesEvents.add(new CalendarEvent.EventBuilder()
+              .setSubject("Standup")
+              .setStartTime(baseTime.plusWeeks(i))
+              .setEndTime(baseTime.plusWeeks(i).plusHours(1))
+              .setSeriesId(seriesId)
+              .build());
+    }
+    cal.createEvents(seriesEvents);
+    cal.createEvent(new CalendarEvent.EventBuilder()
+            .setSubject("Retro")
+            .setStartTime(baseTime.plusWeeks(1))
+            .setEndTime(baseTime.plusWeeks(1).plusHours(1))
+            .build());
+
+    try {
+      cal.editSeries(seriesId, new PropertyChange(PropertyType.SUBJECT, "Retro"));
+      fail("Renaming onto an existing event should be rejected");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+
+    for (int i = 0; i < 3; i++) {
+      List<Event> events = cal.getEventsBetween(baseTime.plusWeeks(i),
+              baseTime.plusWeeks(i).plusHours(1));
+      assertTrue(events.stream().anyMatch(e -> e.getSubject().equals("Standup")));
+    }
+    cal.editSeries(seriesId, new PropertyChange(PropertyType.SUBJECT, "Daily"));
+    assertEquals("Daily", cal.getEventsOnDate(baseTime.plusWeeks(2).toLocalDate())
+            .get(0).getSubject());
+  }
+
   @Test
   public void testCreateCalendarSuccessfully() {
     model.createCalendar(TEST_CALENDAR, TEST_TIMEZONE);
@@ -1790,6 +2009,435 @@ public class CalendarModelImplTest {
     }
   }
 
+  @Test
+  public void testCreateEachEventMatchesCreatingOneByOne() {
+    cal.createEvent(sampleEvent);
+    Event spanning = new CalendarEvent.EventBuilder()
+            .setSubject("Trip")
+            .setStartTime(sampleStartTime)
+            .setEndTime(sampleStartTime.plusDays(2))
+            .build();
+    Event later = new CalendarEvent.EventBuilder()
+            .setSubject("Later")
+            .setStartTime(sampleStartTime.plusHours(3))
+            .setEndTime(sampleEndTime.plusHours(3))
+            .build();
+    List<Event> batch = new ArrayList<>();
+    batch.add(later);
+    batch.add(sampleEvent);
+    batch.add(spanning);
+    batch.add(later);
+    batch.add(null);
+
+    List<RuntimeException> failures = cal.createEachEvent(batch);
+
+    assertEquals(5, failures.size());
+    assertNull(failures.get(0));
+    assertEquals("Event exists already.", failures.get(1).getMessage());
+    assertNull(failures.get(2));
+    assertEquals("Event exists already.", failures.get(3).getMessage());
+    assertEquals("Model.CalendarEvent cannot be null", failures.get(4).getMessage());
+    assertEquals(3, cal.getEventsOnDate(sampleStartTime.toLocalDate()).size());
+    assertEquals(1, cal.getEventsOnDate(sampleStartTime.toLocalDate().plusDays(2)).size());
+    assertEquals(3, cal.getEventsBetween(sampleStartTime, sampleStartTime.plusDays(3)).size());
+  }
+
+  @Test
+  public void testCopyEventsAddsNothingWhenOneCopyIsADuplicate() {
+    model.createCalendar("Source", TEST_TIMEZONE);
+    model.createCalendar("Target", TEST_TIMEZONE);
+    CalendarModelGUISupport source = model.useCalendar("Source");
+    for (int day = 0; day < 5; day++) {
+      source.createEvent(new CalendarEvent.EventBuilder()
+              .setSubject("Day " + day)
+              .setStartTime(sampleStartTime.plusDays(day))
+              .setEndTime(sampleEndTime.plusDays(day))
+              .build());
+    }
+    source.createAllEvents(new CalendarEvent.EventBuilder()
+            .setSubject("Gym")
+            .setStartTime(sampleStartTime.withHour(18))
+            .setEndTime(sampleEndTime.withHour(19))
+            .build(), "MWF", 2);
+    CalendarModelGUISupport target = model.useCalendar("Target");
+    target.createEvent(new CalendarEvent.EventBuilder()
+            .setSubject("Day 3")
+            .setStartTime(sampleStartTime.plusDays(10))
+            .setEndTime(sampleEndTime.plusDays(10))
+            .build());
+    model.useCalendar("Source");
+
+    try {
+      model.copyEvents(sampleStartTime.toLocalDate(), sampleStartTime.toLocalDate().plusDays(6),
+              "Target", sampleStartTime.toLocalDate().plusDays(7));
+      fail("Expected a copy to duplicate an existing event");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event exists already.", e.getMessage());
+    }
+    assertEquals(1, target.getEventsBetween(sampleStartTime.minusYears(1),
+            sampleStartTime.plusYears(1)).size());
+
+    model.copyEvents(sampleStartTime.toLocalDate(), sampleStartTime.toLocalDate().plusDays(6),
+            "Target", sampleStartTime.toLocalDate().plusDays(14));
+    List<Event> copies = target.getEventsBetween(sampleStartTime.plusDays(14),
+            sampleStartTime.plusDays(21));
+    assertEquals(8, copies.size());
+    Long gymSeries = target.findEvent("Gym").getSeriesId();
+    for (Event copy : copies) {
+      assertEquals(copy.getSubject().equals("Gym") ? gymSeries : null, copy.getSeriesId());
+    }
+
+    target.editSeries(gymSeries, new PropertyChange(PropertyType.SUBJECT, "Swim"));
+    assertEquals(3, target.allEvents("Swim").size());
+    assertEquals(6, source.allEvents("Gym").size());
+  }
+
+  @Test
+  public void testCopyEventsOfALargeRangeAcrossZones() {
+    model.createCalendar("Source", "Asia/Tokyo");
+    model.createCalendar("Target", "America/Los_Angeles");
+    CalendarModelGUISupport source = model.useCalendar("Source");
+    LocalDateTime first = LocalDateTime.of(2025, 1, 1, 9, 0);
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 3000; i++) {
+      LocalDateTime start = first.plusDays(i / 10).plusHours(i % 10);
+      events.add(new CalendarEvent.EventBuilder()
+              .setSubject("Event " + i)
+              .setStartTime(start)
+              .setEndTime(start.plusMinutes(45))
+              .setDesc("Copied " + i)
+              .setLocation(i % 2 == 0 ? "ONLINE" : "PHYSICAL")
+              .build());
+    }
+    source.createEachEvent(events);
+
+    model.copyEvents(first.toLocalDate(), first.toLocalDate().plusDays(299), "Target",
+            first.toLocalDate().plusYears(1));
+
+    CalendarModelGUISupport target = model.useCalendar("Target");
+    List<Event> copies = target.getEventsBetween(LocalDateTime.of(2025, 12, 1, 0, 0),
+            LocalDateTime.of(2027, 1, 1, 0, 0));
+    assertEquals(3000, copies.size());
+    for (int i = 0; i < 3000; i += 7) {
+      Event original = events.get(i);
+      LocalDateTime start = original.getStartTime().atZone(ZoneId.of("Asia/Tokyo"))
+              .withZoneSameInstant(ZoneId.of("America/Los_Angeles")).toLocalDateTime()
+              .plusDays(365);
+      Event copy = target.findEvent("Event " + i);
+      assertEquals(start, copy.getStartTime());
+      assertEquals(start.plusMinutes(45), copy.getEndTime());
+      assertEquals(original.getDesc(), copy.getDesc());
+      assertEquals(original.getLocation(), copy.getLocation());
+      assertNull(copy.getSeriesId());
+    }
+  }
+
+  private void assertSameStatus(CalendarModelImpl expected, CalendarModelImpl actual,
+                                LocalDateTime from, LocalDateTime to) {
+    for (LocalDateTime time = from; time.isBefore(to); time = time.plusMinutes(5)) {
+      assertEquals(time.toString(), expected.getStatusMessage(time),
+              actual.getStatusMessage(time));
+      assertEquals(time.toString(), expected.getStatusMessage(time.plusSeconds(30)),
+              actual.getStatusMessage(time.plusSeconds(30)));
+    }
+  }
+
+  @Test
+  public void testOccupancyTrackingAgreesWithScans() {
+    CalendarModelImpl scanned = new CalendarModelImpl("Scanned", TEST_TIMEZONE);
+    CalendarModelImpl tracked = new CalendarModelImpl("Tracked", TEST_TIMEZONE);
+    tracked.setOccupancyTracking(true);
+    LocalDateTime from = LocalDateTime.of(2025, 6, 1, 0, 0);
+    LocalDateTime to = LocalDateTime.of(2025, 6, 8, 0, 0);
+    for (CalendarModelImpl calendar : new CalendarModelImpl[]{scanned, tracked}) {
+      calendar.createEvent(TestEvents.event("Standup", from.plusDays(1).plusHours(9),
+              from.plusDays(1).plusHours(9).plusMinutes(30)));
+      calendar.createEvent(TestEvents.event("Trip", from.plusDays(1).plusHours(20),
+              from.plusDays(3).plusHours(8).plusMinutes(15).plusSeconds(30)));
+      calendar.createAllEvents(TestEvents.event("Gym", from.plusDays(1).plusHours(18),
+              from.plusDays(1).plusHours(19)), "MWF", 2);
+    }
+    assertSameStatus(scanned, tracked, from, to);
+
+    for (CalendarModelImpl calendar : new CalendarModelImpl[]{scanned, tracked}) {
+      calendar.editEvent(new EventIdentifier("Standup", from.plusDays(1).plusHours(9),
+              from.plusDays(1).plusHours(9).plusMinutes(30)),
+              new PropertyChange(PropertyType.START, "2025-06-02T09:20"), false);
+      calendar.editEvent(new EventIdentifier("Gym", from.plusDays(3).plusHours(18),
+              from.plusDays(3).plusHours(19)),
+              new PropertyChange(PropertyType.START, "2025-06-04T18:45"), false);
+      calendar.createEvent(TestEvents.event("Late", from.plusDays(5).plusHours(23),
+              from.plusDays(6).plusHours(1)));
+    }
+    assertSameStatus(scanned, tracked, from, to);
+    assertEquals("Available.", tracked.getStatusMessage(LocalDateTime.of(2025, 6, 4, 18, 20)));
+    assertEquals("Available.", tracked.getStatusMessage(LocalDateTime.of(2025, 6, 2, 9, 10)));
+
+    long[] occupancy = tracked.getOccupancy(LocalDate.of(2025, 6, 2));
+    assertArrayEquals(scanned.getOccupancy(LocalDate.of(2025, 6, 2)), occupancy);
+    occupancy[0] = -1L;
+    assertEquals("Available.", tracked.getStatusMessage(LocalDateTime.of(2025, 6, 1, 20, 0)));
+  }
+
+  @Test
+  public void testConflictsAreFoundByOverlap() {
+    CalendarModelImpl calendar = new CalendarModelImpl("Conflicts", "UTC");
+    LocalDateTime day = LocalDateTime.of(2025, 6, 2, 0, 0);
+    calendar.createEvent(TestEvents.event("Standup", day.plusHours(9), day.plusHours(10)));
+    calendar.createEvent(TestEvents.event("Review", day.plusHours(10), day.plusHours(11)));
+    calendar.createEvent(TestEvents.event("Trip", day.minusDays(2), day.plusHours(8)));
+    calendar.createAllEvents(TestEvents.event("Gym", day.plusHours(18),
+            day.plusHours(19)), "MW", 3);
+
+    assertEquals(2, calendar.getConflicts(day.plusHours(9).plusMinutes(30),
+            day.plusHours(10).plusMinutes(30)).size());
+    assertEquals("Review", calendar.getConflicts(day.plusHours(10), day.plusHours(12))
+            .get(0).getSubject());
+    assertEquals(0, calendar.getConflicts(day.plusHours(8), day.plusHours(9)).size());
+    assertEquals("Trip", calendar.getConflicts(day.minusDays(1), day.minusDays(1)
+            .plusHours(1)).get(0).getSubject());
+
+    Event call = new CalendarEvent.EventBuilder()
+            .setSubject("Call")
+            .setStartTime(LocalDateTime.of(2025, 6, 9, 14, 30))
+            .setEndTime(LocalDateTime.of(2025, 6, 9, 15, 30))
+            .setTimezone(ZoneId.of("America/New_York"))
+            .build();
+    List<Event> conflicts = calendar.getConflicts(call);
+    assertEquals(1, conflicts.size());
+    assertEquals(LocalDateTime.of(2025, 6, 9, 18, 0), conflicts.get(0).getStartTime());
+    assertEquals(Arrays.asList("Standup", "Review"), subjectsOf(calendar.getConflicts(
+            TestEvents.event("Standup", day.plusHours(9), day.plusHours(10).plusMinutes(1)))));
+
+    List<Event> series = calendar.getSeriesConflicts(TestEvents.event("Class", day.plusHours(9)
+            .plusMinutes(45), day.plusHours(18).plusMinutes(30)), "MF", 2);
+    assertEquals(Arrays.asList("Standup", "Review", "Gym", "Gym"),
+            subjectsOf(series));
+  }
+
+  private List<String> subjectsOf(List<Event> events) {
+    List<String> subjects = new ArrayList<>();
+    for (Event event : events) {
+      subjects.add(event.getSubject());
+    }
+    return subjects;
+  }
+
+  @Test
+  public void testStrictModeRefusesOverlaps() {
+    CalendarModelImpl calendar = new CalendarModelImpl("Strict", "UTC");
+    calendar.setStrictNoOverlap(true);
+    LocalDateTime day = LocalDateTime.of(2025, 6, 2, 0, 0);
+    calendar.createEvent(TestEvents.event("Standup", day.plusHours(9), day.plusHours(10)));
+    calendar.createEvent(TestEvents.event("Review", day.plusHours(10), day.plusHours(11)));
+    calendar.createAllEvents(TestEvents.event("Gym", day.plusHours(18),
+            day.plusHours(19)), "MW", 2);
+
+    try {
+      calendar.createEvent(TestEvents.event("Call", day.plusHours(10).plusMinutes(30),
+              day.plusHours(12)));
+      fail("Expected the overlap to be refused");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event conflicts with another event", e.getMessage());
+    }
+    try {
+      calendar.createAllEvents(TestEvents.event("Class", day.plusHours(7),
+              day.plusHours(8)), "MW", 2);
+      calendar.createAllEvents(TestEvents.event("Run", day.plusHours(6), day.plusHours(7)
+              .plusMinutes(30)), "MW", 2);
+      fail("Expected the series to be refused");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Series conflicts with an existing event", e.getMessage());
+    }
+    assertTrue(calendar.allEvents("Run").isEmpty());
+    assertEquals(2, calendar.getEventsOnDate(day.toLocalDate().plusDays(7)).size());
+    try {
+      calendar.createEvents(Arrays.asList(
+              TestEvents.event("Swim", day.plusHours(17), day.plusHours(18)),
+              TestEvents.event("Swim", day.plusDays(2).plusHours(17).plusMinutes(30),
+                      day.plusDays(2).plusHours(18).plusMinutes(30))));
+      fail("Expected the series to be refused");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Series conflicts with an existing event", e.getMessage());
+    }
+    assertTrue(calendar.allEvents("Swim").isEmpty());
+    try {
+      calendar.createEvents(Collections.singletonList(
+              TestEvents.event("Standup", day.plusHours(9), day.plusHours(10))));
+      fail("Expected the duplicate to be refused");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Duplicate exists in series", e.getMessage());
+    }
+
+    try {
+      calendar.editEvent(new EventIdentifier("Review", day.plusHours(10), day.plusHours(11)),
+              new PropertyChange(PropertyType.START, "2025-06-02T09:30"), false);
+      fail("Expected the edit to be refused");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event conflicts with another event", e.getMessage());
+    }
+    assertEquals(day.plusHours(10), calendar.findEvent("Review").getStartTime());
+    calendar.editEvent(new EventIdentifier("Review", day.plusHours(10), day.plusHours(11)),
+            new PropertyChange(PropertyType.LOCATION, "PHYSICAL"), false);
+
+    List<RuntimeException> failures = calendar.createEachEvent(Arrays.asList(
+            TestEvents.event("Lunch", day.plusHours(12), day.plusHours(13)),
+            TestEvents.event("Nap", day.plusHours(12).plusMinutes(30), day.plusHours(14)),
+            TestEvents.event("Tea", day.plusHours(13), day.plusHours(14))));
+    assertNull(failures.get(0));
+    assertEquals("Event conflicts with another event", failures.get(1).getMessage());
+    assertNull(failures.get(2));
+
+    calendar.setStrictNoOverlap(false);
+    calendar.createEvent(TestEvents.event("Call", day.plusHours(10).plusMinutes(30),
+            day.plusHours(12)));
+  }
+
+  @Test
+  public void testStrictModeRefusesOverlappingCopies() {
+    MultipleCalendarModelImpl calendars = new MultipleCalendarModelImpl();
+    calendars.createCalendar("Source", "UTC");
+    calendars.createCalendar("Target", "UTC");
+    calendars.getCalendar("Target").setStrictNoOverlap(true);
+    LocalDateTime day = LocalDateTime.of(2025, 6, 2, 0, 0);
+    calendars.useCalendar("Source").createEvent(TestEvents.event("Standup", day.plusHours(9),
+            day.plusHours(10)));
+    calendars.getCalendar("Source").createEvent(TestEvents.event("Sync",
+            day.plusHours(9).plusMinutes(30), day.plusHours(11)));
+
+    try {
+      calendars.copyEvents(day.toLocalDate(), day.toLocalDate(), "Target",
+              day.toLocalDate());
+      fail("Expected the overlapping copies to be refused");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event conflicts with another event", e.getMessage());
+    }
+    assertEquals(0, calendars.getCalendar("Target").getEventsOnDate(day.toLocalDate())
+            .size());
+  }
+
+  @Test
+  public void testBatchAppliesMixedChangesTogether() {
+    CalendarModelImpl calendar = new CalendarModelImpl("Batch", "UTC");
+    LocalDateTime day = LocalDateTime.of(2025, 6, 2, 0, 0);
+    calendar.createEvent(TestEvents.event("Standup", day.plusHours(9), day.plusHours(10)));
+
+    calendar.applyBatch(new CalendarBatch()
+            .createEvent(TestEvents.event("Review", day.plusHours(11), day.plusHours(12)))
+            .createEvent(TestEvents.event("Offsite", day.plusDays(1).plusHours(18),
+                    day.plusDays(3).plusHours(12)))
+            .editEvent(new EventIdentifier("Review", day.plusHours(11), null),
+                    new PropertyChange(PropertyType.START, "2025-06-02T10:30"), false)
+            .editEvent(new EventIdentifier("Review", day.plusHours(10).plusMinutes(30), null),
+                    new PropertyChange(PropertyType.LOCATION, "PHYSICAL"), false)
+            .editEvent(new EventIdentifier("Standup", day.plusHours(9), day.plusHours(10)),
+                    new PropertyChange(PropertyType.SUBJECT, "Daily"), false)
+            .editEvent(new EventIdentifier("Daily", day.plusHours(9), null),
+                    new PropertyChange(PropertyType.END, "2025-06-02T09:15"), false));
+
+    assertEquals(Arrays.asList("Daily", "Review"),
+            subjectsOf(calendar.getEventsBetween(day, day.plusDays(1))));
+    Event review = calendar.findEvent("Review");
+    assertEquals(day.plusHours(10).plusMinutes(30), review.getStartTime());
+    assertEquals(EventLocation.PHYSICAL, review.getLocation());
+    assertEquals(day.plusHours(9).plusMinutes(15), calendar.findEvent("Daily").getEndTime());
+    assertTrue(calendar.allEvents("Standup").isEmpty());
+    assertEquals("Offsite", calendar.getEventsOnDate(day.toLocalDate().plusDays(2)).get(0)
+            .getSubject());
+  }
+
+  @Test
+  public void testFailedBatchChangesNothing() {
+    CalendarModelImpl calendar = new CalendarModelImpl("Batch", "Europe/London");
+    LocalDateTime day = LocalDateTime.of(2025, 6, 2, 0, 0);
+    calendar.createEvent(TestEvents.event("Standup", day.plusHours(9), day.plusHours(10)));
+    CalendarBatch batch = new CalendarBatch()
+            .createEvent(TestEvents.event("Offsite", day.plusDays(1).plusHours(18),
+                    day.plusDays(3).plusHours(12)))
+            .editEvent(new EventIdentifier("Standup", day.plusHours(9), day.plusHours(10)),
+                    new PropertyChange(PropertyType.START, "2025-06-02T08:00"), false)
+            .createEvent(TestEvents.event("Standup", day.plusHours(8), day.plusHours(10)));
+
+    try {
+      calendar.applyBatch(batch);
+      fail("Expected the duplicate to fail the batch");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event exists already.", e.getMessage());
+    }
+    try {
+      calendar.applyBatch(new CalendarBatch().editEvent(new EventIdentifier("Missing",
+              day, null), new PropertyChange(PropertyType.SUBJECT, "Found"), false));
+      fail("Expected the missing event to fail the batch");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event does not exist", e.getMessage());
+    }
+
+    assertEquals(day.plusHours(9), calendar.findEvent("Standup").getStartTime());
+    assertEquals(1, calendar.getEventsBetween(day.minusDays(1), day.plusDays(5)).size());
+    assertEquals(0, calendar.getEventsOnDate(day.toLocalDate().plusDays(2)).size());
+    assertEquals("Available.", calendar.getStatusMessage(day.plusDays(2)));
+
+    batch.clear();
+    assertEquals(0, batch.size());
+    calendar.applyBatch(batch.createEvent(TestEvents.event("Offsite", day.plusDays(1).plusHours(18),
+            day.plusDays(3).plusHours(12))));
+    assertEquals("Busy.", calendar.getStatusMessage(day.plusDays(2)));
+  }
+
+  @Test
+  public void testFailedSeriesLeavesNoEventsBehind() {
+    CalendarModelImpl calendar = new CalendarModelImpl("Series", "UTC");
+    LocalDateTime day = LocalDateTime.of(2025, 6, 2, 0, 0);
+    calendar.createEvent(TestEvents.event("Gym", day.plusDays(2).plusHours(18),
+            day.plusDays(2).plusHours(19)));
+    try {
+      calendar.createEvents(Arrays.asList(
+              TestEvents.event("Gym", day.plusHours(18), day.plusHours(19)),
+              TestEvents.event("Gym", day.plusDays(1).plusHours(18), day.plusDays(1).plusHours(19)),
+              TestEvents.event("Gym", day.plusDays(2).plusHours(18),
+                      day.plusDays(2).plusHours(19))));
+      fail("Expected the series to clash with the existing event");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Duplicate exists in series", e.getMessage());
+    }
+    assertEquals(1, calendar.allEvents("Gym").size());
+    assertEquals("Available.", calendar.getStatusMessage(day.plusHours(18)));
+  }
+
+  @Test
+  public void testQueriesOnlyFindSeriesActiveThen() {
+    LocalDateTime old = LocalDateTime.of(2020, 1, 6, 9, 0);
+    for (int i = 0; i < 50; i++) {
+      cal.createAllEvents(TestEvents.event("Old" + i, old.plusWeeks(i),
+              old.plusWeeks(i).plusHours(1)), "MW", 2);
+    }
+    LocalDateTime gym = LocalDateTime.of(2025, 6, 2, 18, 0);
+    cal.createAllEvents(TestEvents.event("Gym", gym, gym.plusHours(1)), "MWF", 3);
+
+    List<Event> current = cal.getEventsOnDate(LocalDate.of(2025, 6, 4));
+    assertEquals(1, current.size());
+    assertEquals("Gym", current.get(0).getSubject());
+    List<Event> past = cal.getEventsOnDate(LocalDate.of(2020, 1, 8));
+    assertEquals(1, past.size());
+    assertEquals("Old0", past.get(0).getSubject());
+
+    List<Event> next = ((CalendarModelGUISupport) cal)
+            .getNextEvents(LocalDateTime.of(2025, 1, 1, 0, 0), 5);
+    assertEquals(5, next.size());
+    assertEquals(gym.plusDays(9), next.get(4).getStartTime());
+
+    cal.editSeries(current.get(0).getSeriesId(),
+            new PropertyChange(PropertyType.SUBJECT, "Swim"));
+    assertEquals("Swim", cal.getEventsOnDate(LocalDate.of(2025, 6, 6)).get(0).getSubject());
+    assertEquals("Busy.", cal.getStatusMessage(gym.plusDays(2).plusMinutes(30)));
+
+    cal.editEvent(new EventIdentifier("Old0", old.plusDays(2), old.plusDays(2).plusHours(1),
+            past.get(0).getSeriesId()), new PropertyChange(PropertyType.SUBJECT, "Moved"), false);
+    past = cal.getEventsOnDate(LocalDate.of(2020, 1, 8));
+    assertEquals(1, past.size());
+    assertEquals("Moved", past.get(0).getSubject());
+  }
+
   @Test
   public void testToString() {
     assertEquals("ONLINE", location.toString());
@@ -0,0 +1,217 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import controller.CalendarControllerImpl;
+import controller.CalendarServer;
+import model.MultipleCalendarModelImpl;
+import view.CalendarViewImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Class for network command server tests.
+ */
+public class CalendarServerTest {
+  private MultipleCalendarModelImpl model;
+  private CalendarServer server;
+  private Thread acceptor;
+
+  @Before
+  public void setUp() throws IOException {
+    model = new MultipleCalendarModelImpl();
+    server = new CalendarServer(new ServerSocket(0, 512, InetAddress.getLoopbackAddress()),
+            model);
+    acceptor = new Thread(server::run);
+    acceptor.start();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    server.close();
+    acceptor.join(5000);
+  }
+
+  private Socket connect() throws IOException {
+    return new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+  }
+
+  /**
+   * One open connection, read from with a single reader so that no reply is lost.
+   */
+  private final class Client implements AutoCloseable {
+    private final Socket socket;
+    private final Writer out;
+    private final BufferedReader in;
+
+    private Client() throws IOException {
+      socket = connect();
+      out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+      in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+              StandardCharsets.UTF_8));
+    }
+
+    private String send(String lines, int replies) throws IOException {
+      out.write(lines);
+      out.flush();
+      StringBuilder reply = new StringBuilder();
+      for (int i = 0; i < replies; i++) {
+        reply.append(in.readLine()).append('\n');
+      }
+      return reply.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+      socket.close();
+    }
+  }
+
+  private String runScript(String script) throws IOException {
+    try (Socket socket = connect()) {
+      Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+      out.write(script);
+      out.flush();
+      socket.shutdownOutput();
+      BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+              StandardCharsets.UTF_8));
+      StringBuilder reply = new StringBuilder();
+      String line;
+      while ((line = in.readLine()) != null) {
+        reply.append(line).append('\n');
+      }
+      return reply.toString();
+    }
+  }
+
+  @Test
+  public void testClientGetsTheRepliesOfInteractiveMode() throws IOException {
+    String script = "create event Early from 2025-06-02T09:00 to 2025-06-02T10:00\n"
+            + "create calendar --name Work --timezone America/New_York\n"
+            + "create calendar --name Home --timezone Europe/London\n"
+            + "use calendar --name Nowhere\n"
+            + "use calendar --name Work\n"
+            + "create event Call from 2025-06-02T09:00 to 2025-06-02T10:00\n"
+            + "create event Call from 2025-06-02T09:00 to 2025-06-02T10:00\n"
+            + "create event Gym from 2025-06-02T18:00 to 2025-06-02T19:00 repeats MW for 3 times\n"
+            + "print events on 2025-06-02\n"
+            + "show status on 2025-06-02T09:30\n"
+            + "copy events between 2025-06-01 and 2025-06-05 --target Home to 2025-07-01\n"
+            + "use calendar --name Home\n"
+            + "print events on 2025-07-02\n"
+            + "nonsense here\n"
+            + "exit\n";
+    StringBuilder expected = new StringBuilder();
+    new CalendarControllerImpl(new StringReader(script), new CalendarViewImpl(expected),
+            new MultipleCalendarModelImpl()).run();
+
+    assertEquals(expected.toString(), runScript(script + "print events on 2025-06-02\n"));
+  }
+
+  @Test
+  public void testEachConnectionUsesItsOwnCalendar() throws IOException {
+    try (Client work = new Client(); Client home = new Client()) {
+      assertEquals("Command executed successfully\nCommand executed successfully\n",
+              work.send("create calendar --name Work --timezone UTC\n"
+                      + "create calendar --name Home --timezone UTC\n", 2));
+      work.send("use calendar --name Work\n", 0);
+      assertEquals("Invalid command: Calendar not in use.\n",
+              home.send("copy events on 2025-06-02 --target Work to 2025-06-03\n", 1));
+      home.send("use calendar --name Home\n", 0);
+
+      work.send("create event Call from 2025-06-02T09:00 to 2025-06-02T10:00\n", 1);
+      assertEquals("Command executed successfully\nNo events found.\n",
+              home.send("print events on 2025-06-02\n", 2));
+      assertEquals("Command executed successfully\nCall (09:00 - 10:00)\n",
+              work.send("print events on 2025-06-02\n", 2));
+
+      work.send("copy events on 2025-06-02 --target Home to 2025-06-09\n", 1);
+      assertEquals("Command executed successfully\nCall (09:00 - 10:00)\n",
+              home.send("print events on 2025-06-09\n", 2));
+      assertEquals("Command executed successfully\n",
+              home.send("edit calendar --name Home --property CALENDARNAME House\n", 1));
+      assertEquals("Command executed successfully\nCall (09:00 - 10:00)\n",
+              home.send("print events on 2025-06-09\n", 2));
+      assertEquals("Command executed successfully\nNo events found.\n",
+              work.send("print events on 2025-06-09\n", 2));
+    }
+  }
+
+  @Test
+  public void testServesManyClientsAtOnce() throws Exception {
+    int clients = 200;
+    ExecutorService pool = Executors.newFixedThreadPool(50);
+    List<Future<String>> replies = new ArrayList<>();
+    for (int c = 0; c < clients; c++) {
+      int client = c;
+      Callable<String> session = () -> {
+        StringBuilder script = new StringBuilder("create calendar --name C" + client
+                + " --timezone UTC\nuse calendar --name C" + client + "\n");
+        for (int i = 0; i < 20; i++) {
+          script.append("create event E").append(i).append(" from 2025-06-02T")
+                  .append(String.format("%02d", i)).append(":00 to 2025-06-02T")
+                  .append(String.format("%02d", i)).append(":30\n");
+        }
+        script.append("print events on 2025-06-02\nquit\n");
+        return runScript(script.toString());
+      };
+      replies.add(pool.submit(session));
+    }
+    for (Future<String> reply : replies) {
+      String text = reply.get(60, TimeUnit.SECONDS);
+      assertEquals(22 + 20, text.split("\n").length);
+    }
+    pool.shutdown();
+
+    assertEquals(clients, model.getAllNames().size());
+    for (int c = 0; c < clients; c++) {
+      assertEquals(20, model.getCalendar("C" + c).getEventsOnDate(LocalDate.of(2025, 6, 2))
+              .size());
+    }
+  }
+
+  @Test
+  public void testTooLongLineClosesTheConnection() throws IOException {
+    StringBuilder subject = new StringBuilder();
+    while (subject.length() <= CalendarServer.MAX_LINE_LENGTH) {
+      subject.append("Meeting");
+    }
+    try (Client client = new Client()) {
+      assertEquals("Command executed successfully\n",
+              client.send("create calendar --name Work --timezone UTC\r\n"
+                      + "use calendar --name Work\n", 1));
+      client.socket.setSoTimeout(5000);
+      client.out.write("create event " + subject + " from 2025-06-02T09:00 to "
+              + "2025-06-02T10:00\n");
+      client.out.flush();
+      try {
+        assertNull(client.in.readLine());
+      } catch (SocketException e) {
+        // a reset closes the connection as well
+      }
+    }
+    assertEquals(0, model.getCalendar("Work").getEventsOnDate(LocalDate.of(2025, 6, 2))
+            .size());
+  }
+}
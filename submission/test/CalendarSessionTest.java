@@ -0,0 +1,121 @@
+import model.CalendarModelGUISupport;
+import model.CalendarSession;
+import model.JournaledCalendarModel;
+import model.MultipleCalendarModelImpl;
+import model.PropertyType;
+import model.WriteAheadLog;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Class for calendar session tests.
+ */
+public class CalendarSessionTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private MultipleCalendarModelImpl model;
+  private LocalDateTime base;
+
+  @Before
+  public void setUp() {
+    model = new MultipleCalendarModelImpl();
+    model.createCalendar("Work", "UTC");
+    model.createCalendar("Home", "UTC");
+    base = LocalDateTime.of(2025, 6, 2, 9, 0);
+  }
+
+  @Test
+  public void testSessionsUseCalendarsOfTheirOwn() {
+    CalendarSession first = new CalendarSession(model);
+    CalendarSession second = new CalendarSession(model);
+    assertNull(first.getCurrentCalendar());
+
+    CalendarModelGUISupport work = first.useCalendar("Work");
+    CalendarModelGUISupport home = second.useCalendar("Home");
+    work.createEvent(TestEvents.event("Call", base, base.plusHours(1)));
+    home.createEvent(TestEvents.event("Dinner", base.plusHours(9), base.plusHours(10)));
+
+    assertEquals("Work", model.getCurrentCalendarName());
+    assertEquals("Work", first.getCurrentCalendarName());
+    assertEquals("Home", second.getCurrentCalendarName());
+    assertSame(model.getCalendar("Work"), first.getCurrentCalendar());
+
+    second.copyEvent("Dinner", base.plusHours(9), "Work", base.plusDays(1).plusHours(9));
+    first.copyEvents(base.toLocalDate(), base.toLocalDate(), "Home",
+            LocalDate.of(2025, 6, 9));
+
+    assertEquals(2, work.getEventsBetween(base, base.plusDays(2)).size());
+    assertEquals("Call", home.getEventsOnDate(LocalDate.of(2025, 6, 9)).get(0).getSubject());
+    assertEquals("Work", model.getCurrentCalendarName());
+  }
+
+  @Test
+  public void testRenamedCalendarStaysInUse() {
+    CalendarSession session = new CalendarSession(model);
+    CalendarModelGUISupport home = session.useCalendar("Home");
+
+    new CalendarSession(model).editCalendar("Home", PropertyType.CALENDARNAME, "House");
+    session.copyEvents(base.toLocalDate(), base.toLocalDate(), "Work", base.toLocalDate());
+
+    assertSame(home, session.getCurrentCalendar());
+    assertEquals("House", session.getCurrentCalendarName());
+    assertEquals("House", model.getCalendar("House").getName());
+    try {
+      session.useCalendar("Home");
+      fail("Expected the old name to be gone");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Calendar does not exist", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testCopyWithoutCalendarInUse() {
+    try {
+      new CalendarSession(model).copyEvent("Call", base, "Home", base);
+      fail("Expected no calendar to copy from");
+    } catch (IllegalStateException e) {
+      assertEquals("No calendar is currently selected", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testJournaledCopiesFromSessionAreReplayed() throws IOException {
+    Path snapshot = folder.getRoot().toPath().resolve("calendars.snapshot");
+    Path log = folder.getRoot().toPath().resolve("calendars.log");
+    try (JournaledCalendarModel journal = JournaledCalendarModel.open(snapshot, log,
+            WriteAheadLog.SyncPolicy.ALWAYS, 0)) {
+      journal.createCalendar("Work", "UTC");
+      journal.createCalendar("Home", "UTC");
+      journal.useCalendar("Work");
+      CalendarSession session = new CalendarSession(journal);
+      session.useCalendar("Home").createEvent(TestEvents.event("Dinner", base.plusHours(9),
+              base.plusHours(10)));
+      session.copyEvent("Dinner", base.plusHours(9), "Work", base.plusDays(1).plusHours(9));
+      session.copyEvents(base.toLocalDate(), base.toLocalDate(), "Work",
+              LocalDate.of(2025, 6, 9));
+      assertEquals("Work", journal.getCurrentCalendarName());
+    }
+
+    try (JournaledCalendarModel replayed = JournaledCalendarModel.open(snapshot, log,
+            WriteAheadLog.SyncPolicy.ALWAYS, 0)) {
+      CalendarModelGUISupport work = replayed.getCalendar("Work");
+      assertEquals(1, work.getEventsOnDate(LocalDate.of(2025, 6, 3)).size());
+      assertEquals(1, work.getEventsOnDate(LocalDate.of(2025, 6, 9)).size());
+      assertEquals("Work", replayed.getCurrentCalendarName());
+    }
+  }
+}
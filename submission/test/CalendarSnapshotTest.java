@@ -0,0 +1,151 @@
+import model.CalendarEvent;
+import model.CalendarModelGUISupport;
+import model.CalendarSnapshot;
+import model.Event;
+import model.EventIdentifier;
+import model.MultipleCalendarModelImpl;
+import model.PropertyChange;
+import model.PropertyType;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Class for calendar snapshot tests.
+ */
+public class CalendarSnapshotTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private MultipleCalendarModelImpl model;
+  private LocalDateTime base;
+  private Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    model = new MultipleCalendarModelImpl();
+    base = LocalDateTime.of(2025, 6, 2, 10, 0);
+    file = folder.getRoot().toPath().resolve("calendars.snapshot");
+  }
+
+  private List<String> describe(CalendarModelGUISupport calendar) {
+    List<String> lines = new ArrayList<>();
+    for (Event e : calendar.getEventsBetween(base.minusYears(1), base.plusYears(1))) {
+      lines.add(e.getSubject() + "|" + e.getStartTime() + "|" + e.getEndTime() + "|"
+              + e.getLocation() + "|" + e.getStatus() + "|" + e.getDesc() + "|"
+              + e.getSeriesId());
+    }
+    return lines;
+  }
+
+  @Test
+  public void testRoundTripKeepsEveryCalendar() throws IOException {
+    model.createCalendar("Work", "America/New_York");
+    model.createCalendar("Home", "Europe/London");
+    CalendarModelGUISupport work = model.useCalendar("Work");
+    work.createEvent(new CalendarEvent.EventBuilder()
+            .setSubject("Review")
+            .setStartTime(base)
+            .setEndTime(base.plusHours(1))
+            .setDesc("Quarterly numbers")
+            .setLocation("ONLINE")
+            .setStatus("PUBLIC")
+            .build());
+    work.createEvent(TestEvents.event("Offsite", base.plusDays(3), base.plusDays(5)));
+    work.createAllEvents(TestEvents.event("Standup", base.plusHours(2),
+            base.plusHours(2).plusMinutes(15)),
+            "MWF", 10);
+    work.editEvent(new EventIdentifier("Standup", base.plusDays(2).plusHours(2),
+            base.plusDays(2).plusHours(2).plusMinutes(15)),
+            new PropertyChange(PropertyType.DESCRIPTION, "moved"), false);
+    model.useCalendar("Home").createEvent(TestEvents.event("Dinner", base.plusHours(9),
+            base.plusHours(11)));
+    model.editCalendar("Home", PropertyType.CALENDARNAME, "Family");
+    model.useCalendar("Work");
+
+    CalendarSnapshot.save(model, file);
+    MultipleCalendarModelImpl loaded = CalendarSnapshot.load(file);
+
+    assertEquals("Work", loaded.getCurrentCalendarName());
+    assertEquals(describe(model.useCalendar("Family")), describe(loaded.useCalendar("Family")));
+    assertEquals(describe(model.useCalendar("Work")), describe(loaded.useCalendar("Work")));
+    assertEquals(model.useCalendar("Work").allEvents(), loaded.useCalendar("Work").allEvents());
+  }
+
+  @Test
+  public void testLoadedSeriesCanStillBeEdited() throws IOException {
+    model.createCalendar("Work", "America/New_York");
+    CalendarModelGUISupport work = model.useCalendar("Work");
+    work.createAllEvents(TestEvents.event("Standup", base, base.plusMinutes(15)), "MTWRF", 4);
+    long seriesId = work.findEvent("Standup").getSeriesId();
+
+    CalendarSnapshot.save(model, file);
+    CalendarModelGUISupport loaded = CalendarSnapshot.load(file).useCalendar("Work");
+    loaded.editSeries(seriesId, new PropertyChange(PropertyType.SUBJECT, "Sync"));
+    loaded.createEvents(List.of(TestEvents.event("Retro", base.plusDays(1),
+            base.plusDays(1).plusHours(1))));
+
+    assertEquals(20, loaded.allEvents("Sync").size());
+    assertEquals(0, loaded.allEvents("Standup").size());
+    try {
+      loaded.createEvent(TestEvents.event("Sync", base, base.plusMinutes(15)));
+      fail("Expected the restored series to be checked for duplicates");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event exists already.", e.getMessage());
+    }
+    assertTrue(loaded.findEvent("Retro").getSeriesId() > seriesId);
+  }
+
+  @Test
+  public void testTimezoneChangeSurvivesRoundTrip() throws IOException {
+    model.createCalendar("Work", "America/New_York");
+    model.useCalendar("Work").createEvent(TestEvents.event("Call", base, base.plusHours(1)));
+    model.editCalendar("Work", PropertyType.TIMEZONE, "Asia/Tokyo");
+
+    CalendarSnapshot.save(model, file);
+    CalendarModelGUISupport loaded = CalendarSnapshot.load(file).useCalendar("Work");
+
+    assertEquals("Asia/Tokyo", loaded.getTimezone().getId());
+    assertEquals(base.plusHours(13), loaded.findEvent("Call").getStartTime());
+  }
+
+  @Test
+  public void testRejectsFilesThatAreNotSnapshots() throws IOException {
+    Files.write(file, "create calendar --name Work".getBytes());
+    try {
+      CalendarSnapshot.load(file);
+      fail("Expected the file to be rejected");
+    } catch (IOException e) {
+      assertEquals("Not a calendar snapshot", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testRejectsTruncatedSnapshots() throws IOException {
+    model.createCalendar("Work", "UTC");
+    model.useCalendar("Work").createEvent(TestEvents.event("Call", base, base.plusHours(1)));
+    CalendarSnapshot.save(model, file);
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+    try {
+      CalendarSnapshot.load(file);
+      fail("Expected the truncated file to be rejected");
+    } catch (IOException e) {
+      assertEquals("Snapshot is corrupt", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,225 @@
+import model.CalendarEvent;
+import model.CalendarModelGUISupport;
+import model.CalendarModelImpl;
+import model.ColumnarCalendarModel;
+import model.Event;
+import model.EventIdentifier;
+import model.EventLocation;
+import model.EventStatus;
+import model.PropertyChange;
+import model.PropertyType;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Class for columnar calendar model tests.
+ */
+public class ColumnarCalendarModelTest {
+  private CalendarModelGUISupport cal;
+  private LocalDateTime base;
+
+  @Before
+  public void setUp() {
+    cal = new ColumnarCalendarModel("Columns", "America/New_York");
+    base = LocalDateTime.of(2025, 6, 2, 10, 0);
+  }
+
+  private Set<String> keys(List<Event> events) {
+    Set<String> keys = new TreeSet<>();
+    for (Event e : events) {
+      keys.add(e.getSubject() + "|" + e.getStartTime() + "|" + e.getEndTime() + "|"
+              + e.getLocation() + "|" + e.getStatus() + "|" + e.getDesc());
+    }
+    return keys;
+  }
+
+  @Test
+  public void testViewsExposeEveryColumn() {
+    cal.createEvent(new CalendarEvent.EventBuilder()
+            .setSubject("Lecture")
+            .setStartTime(base)
+            .setEndTime(base.plusHours(1))
+            .setDesc("Room 101")
+            .setLocation("PHYSICAL")
+            .setStatus("PRIVATE")
+            .build());
+
+    Event event = cal.getEventsOnDate(base.toLocalDate()).get(0);
+    assertEquals("Lecture", event.getSubject());
+    assertEquals(base, event.getStartTime());
+    assertEquals(base.plusHours(1), event.getEndTime());
+    assertEquals("Room 101", event.getDesc());
+    assertEquals(EventLocation.PHYSICAL, event.getLocation());
+    assertEquals(EventStatus.PRIVATE, event.getStatus());
+    assertNull(event.getSeriesId());
+    assertEquals(ZoneId.of("America/New_York"), event.getTimezone());
+  }
+
+  @Test
+  public void testDuplicatesAreRejected() {
+    cal.createEvent(TestEvents.event("Meeting", base, base.plusHours(1)));
+    try {
+      cal.createEvent(TestEvents.event("Meeting", base, base.plusHours(1)));
+      fail("Expected duplicate to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event exists already.", e.getMessage());
+    }
+    cal.createEvent(TestEvents.event("Meeting", base, base.plusHours(2)));
+    assertEquals(2, cal.getEventsOnDate(base.toLocalDate()).size());
+  }
+
+  @Test
+  public void testLookupsReportMissingEvents() {
+    cal.createEvent(TestEvents.event("Meeting", base, base.plusHours(1)));
+    try {
+      cal.findEvent("Lunch");
+      fail("Expected a missing event");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event not found", e.getMessage());
+    }
+    try {
+      cal.editEvent(new EventIdentifier("Meeting", base.plusHours(1), base.plusHours(2)),
+              new PropertyChange(PropertyType.SUBJECT, "Lunch"), false);
+      fail("Expected a missing event");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event does not exist", e.getMessage());
+    }
+    try {
+      cal.editSeries(99L, new PropertyChange(PropertyType.SUBJECT, "Lunch"));
+      fail("Expected a missing series");
+    } catch (IllegalArgumentException e) {
+      assertEquals("No events found for the given series ID", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testEditedViewsKeepTheirOldValues() {
+    cal.createEvent(TestEvents.event("Meeting", base, base.plusHours(1)));
+    Event before = cal.findEvent("Meeting");
+
+    cal.editEvent(new EventIdentifier("Meeting", base, base.plusHours(1)),
+            new PropertyChange(PropertyType.SUBJECT, "Standup"), false);
+
+    assertEquals("Meeting", before.getSubject());
+    assertEquals("Standup", cal.findEvent("Standup").getSubject());
+    assertEquals(Arrays.asList("Standup " + base), cal.allEvents());
+  }
+
+  @Test
+  public void testSeriesEditsAreAllOrNothing() {
+    cal.createAllEvents(TestEvents.event("Gym", base, base.plusHours(1)), "MW", 4);
+    Long seriesId = cal.findEvent("Gym").getSeriesId();
+    cal.createEvent(TestEvents.event("Swim", base.plusWeeks(2), base.plusWeeks(2).plusHours(1)));
+
+    try {
+      cal.editSeries(seriesId, new PropertyChange(PropertyType.SUBJECT, "Swim"));
+      fail("Expected the rename to clash with an existing event");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event exists already.", e.getMessage());
+    }
+    assertEquals(8, cal.allEvents("Gym").size());
+
+    cal.editSeries(seriesId, new PropertyChange(PropertyType.SUBJECT, "Lift"));
+    assertEquals(0, cal.allEvents("Gym").size());
+    assertEquals(8, cal.allEvents("Lift").size());
+  }
+
+  @Test
+  public void testTimezoneChangeOnlyChangesTheViews() {
+    cal.createEvent(TestEvents.event("Call", base, base.plusHours(1)));
+    cal.setTimezone("Europe/London");
+
+    assertEquals(0, cal.getEventsBetween(base, base.plusHours(1)).size());
+    Event event = cal.getEventsBetween(base.plusHours(5), base.plusHours(6)).get(0);
+    assertEquals(base.plusHours(5), event.getStartTime());
+    assertEquals("Busy.", cal.getStatusMessage(base.plusHours(5).plusMinutes(30)));
+    assertEquals("Available.", cal.getStatusMessage(base.plusMinutes(30)));
+  }
+
+  @Test
+  public void testManyEditsCompactTheColumns() {
+    for (int i = 0; i < 50; i++) {
+      cal.createEvent(TestEvents.event("Task " + i, base.plusDays(i),
+              base.plusDays(i).plusHours(1)));
+    }
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 50; i++) {
+        Event e = cal.findEvent("Task " + i);
+        cal.editEvent(new EventIdentifier(e.getSubject(), e.getStartTime(), e.getEndTime()),
+                new PropertyChange(PropertyType.DESCRIPTION, "round " + round), false);
+      }
+    }
+    List<Event> next = cal.getNextEvents(base, 100);
+    assertEquals(50, next.size());
+    for (int i = 0; i < 50; i++) {
+      assertEquals("Task " + i, next.get(i).getSubject());
+      assertEquals("round 4", next.get(i).getDesc());
+    }
+  }
+
+  @Test
+  public void testMatchesCalendarModelImplOnRandomWorkload() {
+    CalendarModelGUISupport reference = new CalendarModelImpl("Reference", "America/New_York");
+    Random random = new Random(42);
+    String[] subjects = {"A", "B", "C", "D"};
+    for (int i = 0; i < 400; i++) {
+      String subject = subjects[random.nextInt(subjects.length)];
+      LocalDateTime start = base.plusHours(random.nextInt(24 * 60));
+      LocalDateTime end = start.plusMinutes(30 + random.nextInt(60 * 30));
+      int op = random.nextInt(10);
+      boolean expected = apply(reference, op, subject, start, end);
+      boolean actual = apply(cal, op, subject, start, end);
+      assertEquals("operation " + i, expected, actual);
+    }
+
+    for (int day = 0; day < 62; day++) {
+      LocalDate date = base.toLocalDate().plusDays(day);
+      assertEquals(keys(reference.getEventsOnDate(date)), keys(cal.getEventsOnDate(date)));
+      assertEquals(keys(reference.getEventsBetween(date.atStartOfDay(), date.plusDays(3)
+                      .atStartOfDay())),
+              keys(cal.getEventsBetween(date.atStartOfDay(), date.plusDays(3).atStartOfDay())));
+    }
+    assertEquals(keys(reference.getNextEvents(base, 1000)), keys(cal.getNextEvents(base, 1000)));
+    assertEquals(new TreeSet<>(reference.allEvents()), new TreeSet<>(cal.allEvents()));
+  }
+
+  private boolean apply(CalendarModelGUISupport model, int op, String subject,
+                        LocalDateTime start, LocalDateTime end) {
+    try {
+      if (op < 6) {
+        model.createEvent(TestEvents.event(subject, start, end));
+      } else if (op < 8) {
+        List<Event> events = new ArrayList<>(model.getNextEvents(start.minusDays(2), 50));
+        if (events.isEmpty()) {
+          return false;
+        }
+        events.sort(Comparator.comparing(Event::getStartTime).thenComparing(Event::getSubject)
+                .thenComparing(Event::getEndTime));
+        Event e = events.get(0);
+        model.editEvent(new EventIdentifier(e.getSubject(), e.getStartTime(), e.getEndTime()),
+                new PropertyChange(PropertyType.SUBJECT, subject), false);
+      } else {
+        model.createAllEvents(TestEvents.event(subject, start, start.plusHours(1)), "TR", 2);
+      }
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+}
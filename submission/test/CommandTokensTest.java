@@ -0,0 +1,102 @@
+import controller.CommandTokens;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Class for command tokenizer tests.
+ */
+public class CommandTokensTest {
+
+  private void assertSplitsLikeString(String input) {
+    String[] parts = input.split(" ");
+    CommandTokens tokens = CommandTokens.of(input);
+    assertEquals(parts.length, tokens.length());
+    for (int i = 0; i < parts.length; i++) {
+      assertEquals(parts[i], tokens.get(i));
+      assertTrue(tokens.is(i, parts[i]));
+    }
+  }
+
+  private String errorOf(Runnable parse) {
+    try {
+      parse.run();
+    } catch (RuntimeException e) {
+      return e.getClass().getName() + ": " + e.getMessage();
+    }
+    fail("no error");
+    return null;
+  }
+
+  @Test
+  public void testSplitsLikeStringSplit() {
+    assertSplitsLikeString("create event Meeting from 2025-06-02T09:00 to 2025-06-02T10:00");
+    assertSplitsLikeString("print  events on 2025-06-02");
+    assertSplitsLikeString(" leading space");
+    assertSplitsLikeString("trailing spaces  ");
+    assertSplitsLikeString("   ");
+    assertSplitsLikeString("");
+    assertSplitsLikeString("a b c d e f g h i j k l m n o p q r s t u v w x y z");
+  }
+
+  @Test
+  public void testCommandMatchesFirstTwoWords() {
+    CommandTokens tokens = CommandTokens.of("edit events subject Call from x with y");
+    assertEquals("edit events", tokens.command("edit event", "edit events"));
+    assertEquals("", tokens.command("edit event", "edit series"));
+    assertEquals("Index 1 out of bounds for length 1",
+            errorOf(() -> CommandTokens.of("edit").command("edit event")).split(": ")[1]);
+  }
+
+  @Test
+  public void testRangesBehaveLikeCopyOfRange() {
+    CommandTokens tokens = CommandTokens.of("edit event subject Call from");
+    CommandTokens args = tokens.from(2);
+    assertEquals(3, args.length());
+    assertEquals("Call", args.get(1));
+    CommandTokens padded = args.range(1, 6);
+    assertEquals(5, padded.length());
+    assertEquals("from", padded.get(1));
+    assertNull(padded.get(2));
+    assertFalse(padded.is(4, "from"));
+    assertEquals("java.lang.IllegalArgumentException: 2 > 1",
+            errorOf(() -> CommandTokens.of("x").from(2)));
+  }
+
+  @Test
+  public void testDatesMatchFormatters() {
+    String[] words = {"2025-06-02T09:30", "2024-02-29T23:59", "2025-02-29T10:00",
+      "2025-02-30T10:00", "2025-06-0209:00", "2025-06-07T15:30:00", "2025-06", "2025-13-01T00:00",
+      "2025-06-02T24:00", "0000-01-01T00:00", "+2025-06-02T09:30", "2025-06-02"};
+    for (String word : words) {
+      CommandTokens tokens = CommandTokens.of("at " + word);
+      String expected;
+      try {
+        expected = LocalDateTime.parse(word, CommandTokens.DATE_TIME_FORMAT).toString();
+      } catch (RuntimeException e) {
+        expected = e.getClass().getName() + ": " + e.getMessage();
+      }
+      String actual;
+      try {
+        actual = tokens.dateTime(1).toString();
+      } catch (RuntimeException e) {
+        actual = e.getClass().getName() + ": " + e.getMessage();
+      }
+      assertEquals(expected, actual);
+    }
+    assertEquals(LocalDate.of(2024, 2, 29), CommandTokens.of("2024-02-29").date(0));
+    assertEquals(LocalDate.parse("2025-04-31", CommandTokens.DATE_FORMAT),
+            CommandTokens.of("2025-04-31").date(0));
+    assertEquals(LocalDateTime.of(2025, 6, 2, 8, 0), CommandTokens.of("2025-06-02").dateAt(0, 8));
+    assertEquals("java.time.format.DateTimeParseException: Text '2025-06T17:00' could not be "
+            + "parsed at index 7", errorOf(() -> CommandTokens.of("2025-06").dateAt(0, 17)));
+  }
+}
@@ -0,0 +1,277 @@
+import model.CalendarModelGUISupport;
+import model.CalendarModelImpl;
+import model.CalendarVersion;
+import model.ConcurrentCalendarModel;
+import model.Event;
+import model.EventIdentifier;
+import model.MultipleCalendarModelImpl;
+import model.PropertyChange;
+import model.PropertyType;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Class for stress tests of a calendar used by many threads at once.
+ */
+public class ConcurrentCalendarModelTest {
+  private static final int THREADS = 8;
+
+  private ConcurrentCalendarModel cal;
+  private LocalDateTime start;
+
+  @Before
+  public void setUp() {
+    cal = new ConcurrentCalendarModel("Shared", "America/New_York");
+    start = LocalDateTime.of(2025, 6, 2, 9, 0);
+  }
+
+  private <T> List<T> runAll(List<Callable<T>> tasks) throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+    CountDownLatch ready = new CountDownLatch(tasks.size());
+    List<Future<T>> futures = new ArrayList<>();
+    for (Callable<T> task : tasks) {
+      futures.add(pool.submit(() -> {
+        ready.countDown();
+        ready.await();
+        return task.call();
+      }));
+    }
+    List<T> results = new ArrayList<>();
+    for (Future<T> future : futures) {
+      results.add(future.get(60, TimeUnit.SECONDS));
+    }
+    pool.shutdown();
+    return results;
+  }
+
+  @Test
+  public void testConcurrentCreatesAreAllKept() throws Exception {
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      int thread = t;
+      tasks.add(() -> {
+        for (int i = 0; i < 500; i++) {
+          cal.createEvent(TestEvents.event("T" + thread, start.plusHours(i),
+                  start.plusHours(i).plusMinutes(30)));
+        }
+        return 500;
+      });
+    }
+    runAll(tasks);
+
+    List<Event> events = cal.getEventsBetween(start, start.plusHours(600));
+    assertEquals(THREADS * 500, events.size());
+    for (int i = 1; i < events.size(); i++) {
+      assertTrue(!events.get(i).getStartTime().isBefore(events.get(i - 1).getStartTime()));
+    }
+    assertEquals(THREADS * 500, cal.allEvents().size());
+  }
+
+  @Test
+  public void testDuplicateIsCreatedOnce() throws Exception {
+    AtomicInteger created = new AtomicInteger();
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      tasks.add(() -> {
+        for (int i = 0; i < 200; i++) {
+          try {
+            cal.createEvent(TestEvents.event("Same", start.plusDays(i),
+                    start.plusDays(i).plusMinutes(30)));
+            created.incrementAndGet();
+          } catch (IllegalArgumentException e) {
+            assertEquals("Event exists already.", e.getMessage());
+          }
+        }
+        return 0;
+      });
+    }
+    runAll(tasks);
+
+    assertEquals(200, created.get());
+    assertEquals(200, cal.getEventsBetween(start, start.plusDays(200)).size());
+  }
+
+  @Test
+  public void testReadersNeverSeeHalfAppliedSeries() throws Exception {
+    cal.createAllEvents(TestEvents.event("A", start, start.plusMinutes(30)), "MWF", 20);
+    Long seriesId = cal.getNextEvents(start, 1).get(0).getSeriesId();
+    int size = cal.getEventsBetween(start, start.plusWeeks(21)).size();
+    AtomicBoolean done = new AtomicBoolean();
+
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    tasks.add(() -> {
+      for (int i = 0; i < 300; i++) {
+        cal.editSeries(seriesId,
+                new PropertyChange(PropertyType.SUBJECT, i % 2 == 0 ? "B" : "A"));
+        LocalDateTime time = start.plusDays(200 + i);
+        List<Event> batch = new ArrayList<>();
+        for (int w = 0; w < 3; w++) {
+          batch.add(TestEvents.event("Batch" + i, time.plusWeeks(w),
+                  time.plusWeeks(w).plusMinutes(30)));
+        }
+        cal.createEvents(batch);
+      }
+      done.set(true);
+      return 0;
+    });
+    for (int t = 1; t < THREADS; t++) {
+      tasks.add(() -> {
+        int reads = 0;
+        while (!done.get() || reads == 0) {
+          Set<String> subjects = new HashSet<>();
+          List<Event> events = cal.getEventsBetween(start, start.plusWeeks(21));
+          for (Event e : events) {
+            if (seriesId.equals(e.getSeriesId())) {
+              subjects.add(e.getSubject());
+            }
+          }
+          assertEquals(1, subjects.size());
+          assertEquals(size, cal.getEventsBetween(start, start.plusWeeks(21)).size());
+          List<Event> later = cal.getEventsBetween(start.plusDays(200), start.plusDays(600));
+          assertEquals(0, later.size() % 3);
+          reads++;
+        }
+        return reads;
+      });
+    }
+    List<Integer> reads = runAll(tasks);
+
+    assertTrue(reads.get(1) > 0);
+    assertEquals("A", cal.getEventsOnDate(LocalDate.of(2025, 6, 4)).get(0).getSubject());
+    assertEquals(900, cal.getEventsBetween(start.plusDays(200), start.plusDays(600)).size());
+  }
+
+  @Test
+  public void testHeldVersionDoesNotChange() {
+    cal.createAllEvents(TestEvents.event("Gym", start, start.plusMinutes(30)), "MW", 3);
+    cal.createEvent(TestEvents.event("Lunch", start.plusHours(3),
+            start.plusHours(3).plusMinutes(30)));
+    CalendarVersion version = cal.snapshot();
+    List<Event> before = version.getEventsBetween(start, start.plusWeeks(4));
+    Iterator<Event> cursor = cal.eventsFrom(start);
+    Long seriesId = before.get(0).getSeriesId();
+
+    cal.editSeries(seriesId, new PropertyChange(PropertyType.SUBJECT, "Swim"));
+    cal.editEvent(new EventIdentifier("Lunch", start.plusHours(3), start.plusHours(3)
+            .plusMinutes(30)), new PropertyChange(PropertyType.SUBJECT, "Brunch"), false);
+    cal.createEvent(TestEvents.event("Late", start.plusWeeks(1),
+            start.plusWeeks(1).plusMinutes(30)));
+
+    assertEquals(before, version.getEventsBetween(start, start.plusWeeks(4)));
+    assertEquals("Gym", version.findEvent("Gym").getSubject());
+    assertEquals("Busy.", version.getStatusMessage(start.plusHours(3)));
+    assertEquals(before.size(), version.allEvents().size());
+    List<Event> walked = new ArrayList<>();
+    cursor.forEachRemaining(walked::add);
+    assertEquals(before, walked);
+
+    List<Event> after = cal.getEventsBetween(start, start.plusWeeks(4));
+    assertEquals(before.size() + 1, after.size());
+    assertEquals("Swim", after.get(0).getSubject());
+    assertEquals("Brunch", cal.findEvent("Brunch").getSubject());
+    assertTrue(cal.snapshot() != version);
+  }
+
+  @Test
+  public void testVersionAnswersLikeThePlainCalendar() {
+    CalendarModelImpl plain = new CalendarModelImpl("Plain", "America/New_York");
+    for (CalendarModelGUISupport calendar : Arrays.asList(plain, cal)) {
+      calendar.createEvent(TestEvents.event("Review", start.plusDays(1).plusHours(6),
+              start.plusDays(1).plusHours(7)));
+      calendar.createEvent(TestEvents.event("Review", start.plusHours(4), start.plusHours(5)));
+      calendar.createEvent(TestEvents.event("Trip", start.minusDays(1), start.plusDays(1)));
+      calendar.createAllEvents(TestEvents.event("Gym", start.plusHours(9),
+              start.plusHours(10)), "MTW", 2);
+    }
+    LocalDate day = start.toLocalDate();
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals(plain.getEventsOnDate(day.plusDays(i)),
+              cal.getEventsOnDate(day.plusDays(i)));
+    }
+    assertEquals(start.plusHours(4), plain.findEvent("Review").getStartTime());
+    assertEquals(plain.findEvent("Review").getStartTime(),
+            cal.findEvent("Review").getStartTime());
+    assertEquals(plain.allEvents(), cal.allEvents());
+    assertEquals(plain.getNextEvents(start, 20), cal.getNextEvents(start, 20));
+    assertEquals("Shared", cal.getName());
+  }
+
+  @Test
+  public void testModelCalendarsTakeChangesFromManyThreads() throws Exception {
+    MultipleCalendarModelImpl model = new MultipleCalendarModelImpl();
+    model.createCalendar("Team", "UTC");
+    ConcurrentCalendarModel team = model.getCalendar("Team");
+    CalendarVersion empty = team.snapshot();
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      int thread = t;
+      tasks.add(() -> {
+        for (int i = 0; i < 50; i++) {
+          model.getCalendar("Team").createEvent(TestEvents.event("T" + thread + "-" + i,
+                  start.plusMinutes(i), start.plusMinutes(i + 30)));
+        }
+        return model.getCalendar("Team").getEventsOnDate(start.toLocalDate()).size();
+      });
+    }
+    for (int seen : runAll(tasks)) {
+      assertTrue(seen >= 50);
+    }
+
+    assertEquals(THREADS * 50, team.getEventsOnDate(start.toLocalDate()).size());
+    assertTrue(empty.getEventsOnDate(start.toLocalDate()).isEmpty());
+    model.editCalendar("Team", PropertyType.CALENDARNAME, "Crew");
+    assertEquals("Crew", model.getCalendar("Crew").getName());
+  }
+
+  @Test
+  public void testModelCalendarsFindConflicts() {
+    MultipleCalendarModelImpl model = new MultipleCalendarModelImpl();
+    model.createCalendar("Team", "UTC");
+    ConcurrentCalendarModel team = model.getCalendar("Team");
+    team.createEvent(TestEvents.event("Standup", start, start.plusHours(1)));
+    team.createEvent(TestEvents.event("Review", start.plusHours(1), start.plusHours(2)));
+    team.createAllEvents(TestEvents.event("Gym", start.plusHours(9), start.plusHours(10)),
+            "MW", 2);
+
+    assertEquals(2, team.getConflicts(start.plusMinutes(30), start.plusMinutes(90)).size());
+    List<Event> conflicts = team.getConflicts(TestEvents.event("Call",
+            start.plusDays(2).plusHours(8), start.plusDays(2).plusHours(10)));
+    assertEquals(1, conflicts.size());
+    assertEquals("Gym", conflicts.get(0).getSubject());
+    List<Event> series = team.getSeriesConflicts(TestEvents.event("Class",
+            start.plusMinutes(45), start.plusHours(9).plusMinutes(30)), "MF", 2);
+    assertEquals(4, series.size());
+
+    team.setStrictNoOverlap(true);
+    try {
+      team.createEvent(TestEvents.event("Call", start.plusMinutes(30), start.plusHours(3)));
+      fail("Expected the overlap to be refused");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event conflicts with another event", e.getMessage());
+    }
+    assertEquals(3, team.getEventsOnDate(start.toLocalDate()).size());
+  }
+}
@@ -0,0 +1,193 @@
+import model.CalendarEvent;
+import model.CalendarModelGUISupport;
+import model.CalendarModelImpl;
+import model.ConcurrentCalendarModel;
+import model.FreeBusy;
+import model.MultipleCalendarModelImpl;
+import model.TimeSlot;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Class for free/busy query tests.
+ */
+public class FreeBusyTest {
+  private static final ZoneId UTC = ZoneId.of("UTC");
+
+  private MultipleCalendarModelImpl model;
+  private FreeBusy freeBusy;
+  private LocalDateTime day;
+
+  @Before
+  public void setUp() {
+    model = new MultipleCalendarModelImpl();
+    model.createCalendar("London", "Europe/London");
+    model.createCalendar("NewYork", "America/New_York");
+    freeBusy = new FreeBusy(model);
+    day = LocalDateTime.of(2025, 6, 2, 0, 0);
+  }
+
+  private void add(String calendar, String subject, LocalDateTime start, LocalDateTime end) {
+    model.getCalendar(calendar).createEvent(new CalendarEvent.EventBuilder()
+            .setSubject(subject)
+            .setStartTime(start)
+            .setEndTime(end)
+            .build());
+  }
+
+  private TimeSlot slot(LocalDateTime start, LocalDateTime end) {
+    return new TimeSlot(ZonedDateTime.of(start, UTC), ZonedDateTime.of(end, UTC));
+  }
+
+  @Test
+  public void testBusyMergesCalendarsInDifferentZones() {
+    // 09:00-10:00 London is 08:00-09:00 UTC, 04:30-06:00 New York is 08:30-10:00 UTC.
+    add("London", "Standup", day.plusHours(9), day.plusHours(10));
+    add("NewYork", "Early", day.plusHours(4).plusMinutes(30), day.plusHours(6));
+    add("NewYork", "Lunch", day.plusHours(12), day.plusHours(13));
+    add("London", "Review", day.plusHours(17), day.plusHours(18));
+
+    List<TimeSlot> busy = freeBusy.getBusy(Arrays.asList("London", "NewYork"), day,
+            day.plusDays(1), UTC);
+
+    assertEquals(Arrays.asList(slot(day.plusHours(8), day.plusHours(10)),
+            slot(day.plusHours(16), day.plusHours(17))), busy);
+  }
+
+  @Test
+  public void testBusyIsClippedToTheRange() {
+    add("London", "Night", day.minusHours(3), day.plusHours(2));
+    add("London", "Evening", day.plusHours(22), day.plusHours(26));
+
+    List<TimeSlot> busy = freeBusy.getBusy(Arrays.asList("London"), day, day.plusDays(1),
+            ZoneId.of("Europe/London"));
+
+    ZoneId london = ZoneId.of("Europe/London");
+    assertEquals(Arrays.asList(
+            new TimeSlot(ZonedDateTime.of(day, london), ZonedDateTime.of(day.plusHours(2),
+                    london)),
+            new TimeSlot(ZonedDateTime.of(day.plusHours(22), london),
+                    ZonedDateTime.of(day.plusDays(1), london))), busy);
+  }
+
+  @Test
+  public void testFreeSlotsSkipShortGapsAndStopAtCount() {
+    add("London", "A", day.plusHours(10), day.plusHours(11));
+    add("NewYork", "B", day.plusHours(6).plusMinutes(15), day.plusHours(7));
+    add("London", "Planning", day.plusHours(14), day.plusHours(15));
+    model.getCalendar("London").createAllEvents(new CalendarEvent.EventBuilder()
+            .setSubject("Gym")
+            .setStartTime(day.plusHours(19))
+            .setEndTime(day.plusHours(20))
+            .build(), "MT", 2);
+
+    // Busy in UTC: 09-10, 10:15-11, 13-14, 18-19 on both days.
+    List<String> both = Arrays.asList("London", "NewYork");
+    List<TimeSlot> free = freeBusy.getFreeSlots(both, day.plusHours(8), day.plusDays(1)
+            .plusHours(20), UTC, Duration.ofMinutes(30), 3);
+    assertEquals(Arrays.asList(slot(day.plusHours(8), day.plusHours(9)),
+            slot(day.plusHours(11), day.plusHours(13)),
+            slot(day.plusHours(14), day.plusHours(18))), free);
+
+    List<TimeSlot> longer = freeBusy.getFreeSlots(both, day.plusHours(8), day.plusDays(1)
+            .plusHours(20), UTC, Duration.ofHours(10), 5);
+    assertEquals(Arrays.asList(slot(day.plusHours(19), day.plusDays(1).plusHours(18))),
+            longer);
+  }
+
+  @Test
+  public void testWholeRangeIsFreeWithoutEvents() {
+    assertEquals(Arrays.asList(slot(day, day.plusDays(1))), freeBusy.getFreeSlots(
+            Arrays.asList("London"), day, day.plusDays(1), UTC, Duration.ofHours(1), 1));
+    assertEquals(0, freeBusy.getFreeSlots(Arrays.asList("London"), day, day.plusDays(1),
+            UTC, Duration.ofHours(1), 0).size());
+  }
+
+  private BitSet minutes(int from, int to) {
+    BitSet bits = new BitSet();
+    bits.set(from, to + 1);
+    return bits;
+  }
+
+  @Test
+  public void testOccupancyCombinesCalendarsWordByWord() {
+    // 08:00-09:00 and 08:30-10:00 UTC, with London keeping its maps.
+    model.getCalendar("London").setOccupancyTracking(true);
+    add("London", "Standup", day.plusHours(9), day.plusHours(10));
+    add("NewYork", "Early", day.plusHours(4).plusMinutes(30), day.plusHours(6));
+    List<String> both = Arrays.asList("London", "NewYork");
+
+    assertEquals(minutes(8 * 60 + 30, 9 * 60),
+            BitSet.valueOf(freeBusy.getAllBusy(both, day.toLocalDate())));
+    assertEquals(minutes(8 * 60, 10 * 60),
+            BitSet.valueOf(freeBusy.getAnyBusy(both, day.toLocalDate())));
+    assertEquals(new BitSet(), BitSet.valueOf(freeBusy.getAnyBusy(both,
+            day.toLocalDate().plusDays(1))));
+
+    ZonedDateTime morning = ZonedDateTime.of(day.plusHours(8).plusMinutes(45), UTC);
+    assertFalse(freeBusy.isAnyoneFree(both, morning));
+    assertTrue(freeBusy.isAnyoneFree(both, morning.plusMinutes(30)));
+    assertFalse(freeBusy.isEveryoneFree(both, morning.plusMinutes(30)));
+    assertTrue(freeBusy.isEveryoneFree(both, morning.plusHours(2)));
+  }
+
+  @Test
+  public void testUnknownCalendar() {
+    try {
+      freeBusy.getBusy(Arrays.asList("London", "Paris"), day, day.plusDays(1), UTC);
+      fail("Expected an unknown calendar to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Calendar does not exist", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testTrackedCalendarAnswersFromItsMaps() {
+    CalendarModelImpl scanned = new CalendarModelImpl("Scanned", "Europe/London");
+    ConcurrentCalendarModel tracked = model.getCalendar("London");
+    tracked.setOccupancyTracking(true);
+    for (CalendarModelGUISupport calendar : Arrays.<CalendarModelGUISupport>asList(scanned,
+            tracked)) {
+      calendar.createEvent(TestEvents.event("Standup", day.plusHours(9),
+              day.plusHours(9).plusMinutes(30)));
+      calendar.createEvent(TestEvents.event("Trip", day.minusHours(4),
+              day.plusHours(1).plusMinutes(15).plusSeconds(30)));
+      calendar.createAllEvents(TestEvents.event("Gym", day.plusHours(18),
+              day.plusHours(19)), "MW", 2);
+    }
+    for (LocalDateTime time = day.minusHours(1); time.isBefore(day.plusDays(3));
+         time = time.plusMinutes(15)) {
+      assertEquals(scanned.getStatusMessage(time), tracked.getStatusMessage(time));
+      assertEquals(scanned.getStatusMessage(time.plusSeconds(30)),
+              tracked.getStatusMessage(time.plusSeconds(30)));
+    }
+
+    long[] occupancy = tracked.getOccupancy(day.toLocalDate());
+    assertArrayEquals(scanned.getOccupancy(day.toLocalDate()), occupancy);
+    occupancy[0] = -1L;
+    assertEquals("Available.", tracked.getStatusMessage(day.plusHours(1).plusMinutes(30)));
+    assertArrayEquals(scanned.getOccupancy(day.toLocalDate()),
+            freeBusy.getAnyBusy(Arrays.asList("London"), day.toLocalDate()));
+    try {
+      tracked.getOccupancy(null);
+      fail("Expected the calendar to check the date itself");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Date cannot be null", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,233 @@
+import model.CalendarModelImpl;
+import model.CalendarVersion;
+import model.ConcurrentCalendarModel;
+import model.Event;
+import model.ICalendarImporter;
+import model.MultipleCalendarModelImpl;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Class for iCalendar import tests.
+ */
+public class ICalendarImporterTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private CalendarModelImpl cal;
+  private LocalDateTime from;
+  private LocalDateTime to;
+
+  @Before
+  public void setUp() {
+    cal = new CalendarModelImpl("Work", "America/New_York");
+    from = LocalDateTime.of(2025, 1, 1, 0, 0);
+    to = LocalDateTime.of(2026, 1, 1, 0, 0);
+  }
+
+  private String calendar(String... events) {
+    StringBuilder text = new StringBuilder("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n");
+    for (String event : events) {
+      text.append("BEGIN:VEVENT\r\n").append(event).append("END:VEVENT\r\n");
+    }
+    return text.append("END:VCALENDAR\r\n").toString();
+  }
+
+  private List<String> describe() {
+    List<String> lines = new ArrayList<>();
+    for (Event e : cal.getEventsBetween(from, to)) {
+      lines.add(e.getSubject() + "|" + e.getStartTime() + "|" + e.getEndTime());
+    }
+    return lines;
+  }
+
+  @Test
+  public void testImportsSingleEvents() {
+    String text = calendar(
+            "SUMMARY:Standup\r\nDTSTART;TZID=America/New_York:20250602T090000\r\n"
+                    + "DTEND;TZID=America/New_York:20250602T093000\r\n",
+            "SUMMARY:Review\r\nDTSTART:20250602T170000Z\r\nDURATION:PT1H\r\n"
+                    + "CLASS:PRIVATE\r\nLOCATION:https://meet.example\r\n",
+            "SUMMARY:Off\r\nDTSTART;VALUE=DATE:20250604\r\nDTEND;VALUE=DATE:20250605\r\n",
+            "SUMMARY:Long\r\n  description\r\nDESCRIPTION:one\\, two\\nthree\r\n"
+                    + "DTSTART:20250605T100000\r\nDTEND:20250605T110000\r\n");
+
+    assertEquals(4, ICalendarImporter.importText(text, cal));
+
+    List<Event> second = cal.getEventsOnDate(LocalDateTime.of(2025, 6, 2, 0, 0).toLocalDate());
+    assertEquals(2, second.size());
+    Event review = cal.findEvent("Review");
+    assertEquals(LocalDateTime.of(2025, 6, 2, 13, 0), review.getStartTime());
+    assertEquals(LocalDateTime.of(2025, 6, 2, 14, 0), review.getEndTime());
+    assertEquals("PRIVATE", review.getStatus().toString());
+    assertEquals("ONLINE", review.getLocation().toString());
+    Event off = cal.findEvent("Off");
+    assertEquals(LocalDateTime.of(2025, 6, 4, 8, 0), off.getStartTime());
+    assertEquals(LocalDateTime.of(2025, 6, 4, 17, 0), off.getEndTime());
+    Event folded = cal.findEvent("Long description");
+    assertNotNull(folded);
+    assertEquals("one, two\nthree", folded.getDesc());
+  }
+
+  @Test
+  public void testWholeWeeksBecomeRepeatingSeries() {
+    String text = calendar("SUMMARY:Gym\r\nDTSTART:20250602T180000\r\nDTEND:20250602T190000\r\n"
+            + "RRULE:FREQ=WEEKLY;BYDAY=MO,WE;COUNT=6\r\n");
+
+    ICalendarImporter.importText(text, cal);
+
+    List<Event> events = cal.getEventsBetween(from, to);
+    assertEquals(6, events.size());
+    Set<Long> series = new HashSet<>();
+    for (Event e : events) {
+      series.add(e.getSeriesId());
+      DayOfWeek day = e.getStartTime().getDayOfWeek();
+      assertTrue(day == DayOfWeek.MONDAY || day == DayOfWeek.WEDNESDAY);
+    }
+    assertEquals(1, series.size());
+    assertEquals(LocalDateTime.of(2025, 6, 16, 18, 0), events.get(4).getStartTime());
+    assertEquals(LocalDateTime.of(2025, 6, 18, 18, 0), events.get(5).getStartTime());
+  }
+
+  @Test
+  public void testPartialWeeksMatchTheRule() {
+    String text = calendar(
+            "SUMMARY:Count\r\nDTSTART:20250604T080000\r\nDTEND:20250604T083000\r\n"
+                    + "RRULE:FREQ=WEEKLY;BYDAY=MO,WE;COUNT=4\r\n",
+            "SUMMARY:Until\r\nDTSTART:20250602T120000\r\nDTEND:20250602T130000\r\n"
+                    + "RRULE:FREQ=DAILY;UNTIL=20250610\r\n",
+            "SUMMARY:Utc\r\nDTSTART:20250602T120000Z\r\nDTEND:20250602T130000Z\r\n"
+                    + "RRULE:FREQ=WEEKLY;UNTIL=20251201T000000Z\r\n");
+
+    ICalendarImporter.importText(text, cal);
+
+    List<String> expected = new ArrayList<>();
+    for (LocalDateTime t : new LocalDateTime[] {LocalDateTime.of(2025, 6, 4, 8, 0),
+      LocalDateTime.of(2025, 6, 9, 8, 0), LocalDateTime.of(2025, 6, 11, 8, 0),
+      LocalDateTime.of(2025, 6, 16, 8, 0)}) {
+      expected.add("Count|" + t + "|" + t.plusMinutes(30));
+    }
+    List<String> counted = new ArrayList<>();
+    List<String> daily = new ArrayList<>();
+    List<String> utc = new ArrayList<>();
+    for (String line : describe()) {
+      if (line.startsWith("Count")) {
+        counted.add(line);
+      } else if (line.startsWith("Until")) {
+        daily.add(line);
+      } else {
+        utc.add(line);
+      }
+    }
+    assertEquals(expected, counted);
+    assertEquals(9, daily.size());
+    assertEquals("Until|2025-06-10T12:00|2025-06-10T13:00", daily.get(8));
+    assertEquals(26, utc.size());
+    assertEquals("Utc|2025-06-02T08:00|2025-06-02T09:00", utc.get(0));
+    assertEquals("Utc|2025-11-24T07:00|2025-11-24T08:00", utc.get(25));
+  }
+
+  @Test
+  public void testRejectedImportLeavesCalendarUnchanged() {
+    String valid = "SUMMARY:Kept\r\nDTSTART:20250602T090000\r\nDTEND:20250602T100000\r\n";
+    ICalendarImporter.importText(calendar(valid), cal);
+    List<String> before = describe();
+
+    String text = calendar(
+            "SUMMARY:New\r\nDTSTART:20250603T090000\r\nDTEND:20250603T100000\r\n",
+            "SUMMARY:Series\r\nDTSTART:20250602T120000\r\nDTEND:20250602T130000\r\n"
+                    + "RRULE:FREQ=WEEKLY;COUNT=3\r\n",
+            valid);
+    try {
+      ICalendarImporter.importText(text, cal);
+      fail("duplicate should be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("VEVENT 3: Event exists already.", e.getMessage());
+    }
+    assertEquals(before, describe());
+
+    try {
+      ICalendarImporter.importText(calendar(
+              "SUMMARY:Clash\r\nDTSTART:20250609T120000\r\nDTEND:20250609T130000\r\n",
+              "SUMMARY:Clash\r\nDTSTART:20250602T120000\r\nDTEND:20250602T130000\r\n"
+                      + "RRULE:FREQ=WEEKLY;COUNT=3\r\n"), cal);
+      fail("series duplicating an event should be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("VEVENT 2: Duplicate exists in series", e.getMessage());
+    }
+    assertEquals(before, describe());
+
+    try {
+      ICalendarImporter.importText(calendar("SUMMARY:Bad\r\nDTSTART:20250602T090000\r\n"
+              + "RRULE:FREQ=MONTHLY;COUNT=2\r\n"), cal);
+      fail("monthly rule should be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("VEVENT 1: RRULE FREQ MONTHLY is not supported", e.getMessage());
+    }
+    assertEquals(before, describe());
+  }
+
+  @Test
+  public void testImportsLargeFilesInOrder() throws IOException {
+    StringBuilder text = new StringBuilder("BEGIN:VCALENDAR\n");
+    LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+    for (int i = 0; i < 5000; i++) {
+      LocalDateTime time = start.plusMinutes(90L * i);
+      text.append("BEGIN:VEVENT\nSUMMARY:E").append(i % 7).append("\nDTSTART:")
+              .append(time.toString().replace("-", "").replace(":", "")).append("00\n")
+              .append("DURATION:PT45M\nEND:VEVENT\n");
+    }
+    text.append("END:VCALENDAR\n");
+    Path file = folder.getRoot().toPath().resolve("large.ics");
+    Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+
+    assertEquals(5000, ICalendarImporter.importFile(file, cal));
+
+    List<Event> events = cal.getEventsBetween(from, to);
+    assertEquals(5000, events.size());
+    assertEquals(start.plusMinutes(90L * 4999), events.get(4999).getStartTime());
+  }
+
+  @Test
+  public void testImportsIntoCalendarsOfAModel() {
+    MultipleCalendarModelImpl model = new MultipleCalendarModelImpl();
+    model.createCalendar("Team", "America/New_York");
+    ConcurrentCalendarModel team = model.getCalendar("Team");
+    CalendarVersion before = team.snapshot();
+    String text = calendar(
+            "SUMMARY:Standup\r\nDTSTART;TZID=America/New_York:20250602T090000\r\n"
+                    + "DTEND;TZID=America/New_York:20250602T093000\r\n",
+            "SUMMARY:Gym\r\nDTSTART:20250602T180000\r\nDTEND:20250602T190000\r\n"
+                    + "RRULE:FREQ=WEEKLY;BYDAY=MO,WE;COUNT=4\r\n");
+
+    assertEquals(2, ICalendarImporter.importText(text, team));
+    assertEquals(5, team.getEventsBetween(from, to).size());
+    assertTrue(before.getEventsBetween(from, to).isEmpty());
+    try {
+      ICalendarImporter.importText(calendar("SUMMARY:Bad\r\nDTSTART:20250602T090000\r\n"
+              + "RRULE:FREQ=MONTHLY;COUNT=2\r\n"), team);
+      fail("monthly rule should be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals(5, team.getEventsBetween(from, to).size());
+    }
+  }
+}
@@ -0,0 +1,181 @@
+import model.Event;
+import model.EventIndex;
+import model.IntervalTreeEventIndex;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Class for interval tree event index tests.
+ */
+public class IntervalTreeEventIndexTest {
+  private EventIndex index;
+  private LocalDateTime base;
+
+  @Before
+  public void setUp() {
+    index = new IntervalTreeEventIndex();
+    base = LocalDateTime.of(2025, 6, 2, 10, 0);
+  }
+
+  @Test
+  public void testWithinOnlyReturnsContainedEvents() {
+    Event inside = TestEvents.event("inside", base, base.plusHours(1));
+    Event endsLate = TestEvents.event("late", base.plusHours(2), base.plusDays(3));
+    Event startsEarly = TestEvents.event("early", base.minusDays(1), base.plusHours(1));
+    index.add(endsLate);
+    index.add(inside);
+    index.add(startsEarly);
+
+    List<Event> events = index.getEventsWithin(base, base.plusDays(1));
+    assertEquals(1, events.size());
+    assertEquals("inside", events.get(0).getSubject());
+  }
+
+  @Test
+  public void testOverlappingIncludesSpanningEvents() {
+    Event spanning = TestEvents.event("spanning", base.minusDays(5), base.plusDays(5));
+    Event before = TestEvents.event("before", base.minusDays(3), base.minusDays(2));
+    index.add(spanning);
+    index.add(before);
+
+    List<Event> events = index.getEventsOverlapping(base, base.plusHours(1));
+    assertEquals(1, events.size());
+    assertEquals("spanning", events.get(0).getSubject());
+  }
+
+  @Test
+  public void testResultsAreOrderedByStart() {
+    index.add(TestEvents.event("c", base.plusDays(2), base.plusDays(2).plusHours(1)));
+    index.add(TestEvents.event("a", base, base.plusHours(1)));
+    index.add(TestEvents.event("b", base.plusDays(1), base.plusDays(1).plusHours(1)));
+
+    List<Event> events = index.getEventsWithin(base.minusDays(1), base.plusDays(3));
+    assertEquals("a", events.get(0).getSubject());
+    assertEquals("b", events.get(1).getSubject());
+    assertEquals("c", events.get(2).getSubject());
+  }
+
+  @Test
+  public void testIteratorFromStartsAtFirstLaterEvent() {
+    for (int i = 0; i < 20; i++) {
+      index.add(TestEvents.event("e" + i, base.plusDays(i), base.plusDays(i).plusHours(1)));
+    }
+
+    Iterator<Event> cursor = index.iteratorFrom(base.plusDays(5).minusMinutes(1));
+    for (int i = 5; i < 20; i++) {
+      assertTrue(cursor.hasNext());
+      assertEquals("e" + i, cursor.next().getSubject());
+    }
+    assertFalse(cursor.hasNext());
+    assertFalse(index.iteratorFrom(base.plusDays(30)).hasNext());
+  }
+
+  @Test
+  public void testRemove() {
+    Event e = TestEvents.event("a", base, base.plusHours(1));
+    index.add(e);
+    assertTrue(index.remove(e));
+    assertFalse(index.remove(e));
+    assertEquals(0, index.size());
+    assertTrue(index.getEventsOverlapping(base, base.plusHours(1)).isEmpty());
+  }
+
+  @Test
+  public void testMatchesLinearScanAfterRandomEdits() {
+    Random random = new Random(42);
+    List<Event> expected = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      LocalDateTime start = base.plusMinutes(random.nextInt(60 * 24 * 60));
+      Event e = TestEvents.event("e" + i, start, start.plusMinutes(random.nextInt(60 * 24 * 3)));
+      index.add(e);
+      expected.add(e);
+      if (random.nextInt(4) == 0) {
+        Event removed = expected.remove(random.nextInt(expected.size()));
+        assertTrue(index.remove(removed));
+      }
+    }
+
+    for (int q = 0; q < 100; q++) {
+      LocalDateTime from = base.plusMinutes(random.nextInt(60 * 24 * 60));
+      LocalDateTime to = from.plusMinutes(random.nextInt(60 * 24 * 7));
+      int overlapping = 0;
+      int within = 0;
+      for (Event e : expected) {
+        if (!e.getStartTime().isAfter(to) && !e.getEndTime().isBefore(from)) {
+          overlapping++;
+        }
+        if (!e.getStartTime().isBefore(from) && !e.getEndTime().isAfter(to)) {
+          within++;
+        }
+      }
+      assertEquals(overlapping, index.getEventsOverlapping(from, to).size());
+      assertEquals(within, index.getEventsWithin(from, to).size());
+    }
+    assertEquals(expected.size(), index.size());
+  }
+
+  @Test
+  public void testAddAllMatchesAddingOneByOne() {
+    Random random = new Random(7);
+    List<Event> events = new ArrayList<>();
+    EventIndex oneByOne = new IntervalTreeEventIndex();
+    for (int i = 0; i < 1000; i++) {
+      LocalDateTime start = base.plusMinutes(15 * random.nextInt(2000));
+      Event e = TestEvents.event("e" + random.nextInt(50), start,
+              start.plusMinutes(random.nextInt(3000)));
+      events.add(e);
+      oneByOne.add(e);
+    }
+    index.addAll(events);
+    index.add(TestEvents.event("late", base.plusYears(1), base.plusYears(1).plusHours(1)));
+    oneByOne.add(TestEvents.event("late", base.plusYears(1), base.plusYears(1).plusHours(1)));
+
+    assertEquals(oneByOne.size(), index.size());
+    for (int q = 0; q < 50; q++) {
+      LocalDateTime from = base.plusMinutes(15 * random.nextInt(2000));
+      LocalDateTime to = from.plusMinutes(random.nextInt(60 * 24 * 3));
+      assertEquals(oneByOne.getEventsOverlapping(from, to),
+              index.getEventsOverlapping(from, to));
+      assertEquals(oneByOne.getEventsWithin(from, to), index.getEventsWithin(from, to));
+    }
+    assertTrue(index.remove(events.get(0)));
+    assertEquals(oneByOne.size() - 1, index.size());
+  }
+
+  @Test
+  public void testAddAllMergesIntoTreeThatIsNotEmpty() {
+    Random random = new Random(11);
+    EventIndex oneByOne = new IntervalTreeEventIndex();
+    for (int batch = 0; batch < 4; batch++) {
+      List<Event> events = new ArrayList<>();
+      for (int i = 0; i < 300; i++) {
+        LocalDateTime start = base.plusMinutes(15 * random.nextInt(500));
+        Event e = TestEvents.event("e" + random.nextInt(5), start,
+                start.plusMinutes(15 * random.nextInt(8)));
+        events.add(e);
+        oneByOne.add(e);
+      }
+      index.addAll(events);
+    }
+
+    assertEquals(oneByOne.size(), index.size());
+    for (int q = 0; q < 50; q++) {
+      LocalDateTime from = base.plusMinutes(15 * random.nextInt(500));
+      LocalDateTime to = from.plusMinutes(random.nextInt(60 * 24));
+      assertEquals(oneByOne.getEventsOverlapping(from, to),
+              index.getEventsOverlapping(from, to));
+      assertEquals(oneByOne.getEventsWithin(from, to), index.getEventsWithin(from, to));
+    }
+  }
+}
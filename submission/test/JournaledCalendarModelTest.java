@@ -0,0 +1,199 @@
+import model.CalendarBatch;
+import model.CalendarEvent;
+import model.CalendarModelGUISupport;
+import model.Event;
+import model.EventIdentifier;
+import model.JournaledCalendarModel;
+import model.PropertyChange;
+import model.PropertyType;
+import model.WriteAheadLog;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Class for journaled calendar model tests.
+ */
+public class JournaledCalendarModelTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path snapshot;
+  private Path log;
+  private LocalDateTime base;
+
+  @Before
+  public void setUp() {
+    snapshot = folder.getRoot().toPath().resolve("calendars.snapshot");
+    log = folder.getRoot().toPath().resolve("calendars.log");
+    base = LocalDateTime.of(2025, 6, 2, 10, 0);
+  }
+
+  private JournaledCalendarModel open() throws IOException {
+    return JournaledCalendarModel.open(snapshot, log, WriteAheadLog.SyncPolicy.ALWAYS, 0);
+  }
+
+  private List<String> describe(CalendarModelGUISupport calendar) {
+    List<String> lines = new ArrayList<>();
+    lines.add(calendar.getName() + "|" + calendar.getTimezone());
+    for (Event e : calendar.getEventsBetween(base.minusYears(1), base.plusYears(1))) {
+      lines.add(e.getSubject() + "|" + e.getStartTime() + "|" + e.getEndTime() + "|"
+              + e.getLocation() + "|" + e.getStatus() + "|" + e.getDesc() + "|"
+              + e.getSeriesId());
+    }
+    return lines;
+  }
+
+  private void buildCalendars(JournaledCalendarModel model) {
+    model.createCalendar("Work", "America/New_York");
+    model.createCalendar("Home", "Europe/London");
+    CalendarModelGUISupport work = model.useCalendar("Work");
+    work.createEvent(new CalendarEvent.EventBuilder()
+            .setSubject("Review")
+            .setStartTime(base)
+            .setEndTime(base.plusHours(1))
+            .setDesc("Quarterly numbers")
+            .setLocation("ONLINE")
+            .setStatus("PRIVATE")
+            .build());
+    work.createAllEvents(TestEvents.event("Standup", base.plusHours(2),
+            base.plusHours(2).plusMinutes(15)),
+            "MWF", 3);
+    work.editSeries(work.findEvent("Standup").getSeriesId(),
+            new PropertyChange(PropertyType.SUBJECT, "Sync"));
+    work.editEvent(new EventIdentifier("Review", base, base.plusHours(1)),
+            new PropertyChange(PropertyType.START, "2025-06-02T09:30"), false);
+    model.editCalendar("Work", PropertyType.CALENDARNAME, "Office");
+    work.createEvent(TestEvents.event("Lunch", base.plusDays(1).plusHours(2),
+            base.plusDays(1).plusHours(3)));
+    model.copyEvents(base.toLocalDate(), base.toLocalDate().plusDays(4), "Home",
+            LocalDate.of(2025, 6, 9));
+    model.editCalendar("Home", PropertyType.TIMEZONE, "Asia/Tokyo");
+    model.useCalendar("Home").createEvents(List.of(
+            TestEvents.event("Trip", base.plusDays(20), base.plusDays(20).plusHours(4)),
+            TestEvents.event("Trip", base.plusDays(21), base.plusDays(21).plusHours(4))));
+  }
+
+  @Test
+  public void testReplayRebuildsEveryCalendar() throws IOException {
+    List<String> office;
+    List<String> home;
+    try (JournaledCalendarModel model = open()) {
+      buildCalendars(model);
+      model.useCalendar("Office");
+      office = describe(model.useCalendar("Office"));
+      home = describe(model.useCalendar("Home"));
+    }
+
+    try (JournaledCalendarModel replayed = open()) {
+      assertEquals("Home", replayed.getCurrentCalendarName());
+      assertEquals(office, describe(replayed.useCalendar("Office")));
+      assertEquals(home, describe(replayed.useCalendar("Home")));
+      assertTrue(home.size() > 6);
+    }
+  }
+
+  @Test
+  public void testBatchesAreReplayed() throws IOException {
+    List<String> work;
+    try (JournaledCalendarModel model = open()) {
+      model.createCalendar("Work", "America/New_York");
+      CalendarModelGUISupport calendar = model.useCalendar("Work");
+      calendar.createEvent(TestEvents.event("Review", base, base.plusHours(1)));
+      calendar.applyBatch(new CalendarBatch()
+              .createEvent(TestEvents.event("Offsite", base.plusDays(1), base.plusDays(2)))
+              .editEvent(new EventIdentifier("Review", base, null),
+                      new PropertyChange(PropertyType.DESCRIPTION, "Quarterly"), false)
+              .editEvent(new EventIdentifier("Offsite", base.plusDays(1), null),
+                      new PropertyChange(PropertyType.SUBJECT, "Retreat"), false));
+      try {
+        calendar.applyBatch(new CalendarBatch()
+                .createEvent(TestEvents.event("Lunch", base.plusHours(2), base.plusHours(3)))
+                .createEvent(TestEvents.event("Retreat", base.plusDays(1), base.plusDays(2))));
+        fail("Expected the duplicate to fail the batch");
+      } catch (IllegalArgumentException e) {
+        assertEquals("Event exists already.", e.getMessage());
+      }
+      work = describe(calendar);
+    }
+
+    try (JournaledCalendarModel replayed = open()) {
+      assertEquals(work, describe(replayed.useCalendar("Work")));
+      assertEquals(3, work.size());
+    }
+  }
+
+  @Test
+  public void testFailedSeriesAreReplayedToo() throws IOException {
+    Long seriesId;
+    try (JournaledCalendarModel model = open()) {
+      model.createCalendar("Work", "UTC");
+      CalendarModelGUISupport work = model.useCalendar("Work");
+      work.createEvent(TestEvents.event("Gym", base.plusDays(2), base.plusDays(2).plusHours(1)));
+      try {
+        work.createAllEvents(TestEvents.event("Gym", base, base.plusHours(1)), "MW", 2);
+        fail("Expected the series to clash with an existing event");
+      } catch (IllegalArgumentException e) {
+        assertEquals("Duplicate exists in series", e.getMessage());
+      }
+      work.createAllEvents(TestEvents.event("Swim", base, base.plusHours(1)), "MW", 2);
+      seriesId = work.findEvent("Swim").getSeriesId();
+    }
+
+    try (JournaledCalendarModel replayed = open()) {
+      CalendarModelGUISupport work = replayed.useCalendar("Work");
+      assertEquals(seriesId, work.findEvent("Swim").getSeriesId());
+      assertEquals(4, work.allEvents("Swim").size());
+      assertEquals(1, work.allEvents("Gym").size());
+    }
+  }
+
+  @Test
+  public void testCheckpointIsNotReplayedTwice() throws IOException {
+    try (JournaledCalendarModel model = open()) {
+      model.createCalendar("Work", "UTC");
+      model.useCalendar("Work").createEvent(TestEvents.event("Call", base, base.plusHours(1)));
+      model.checkpoint();
+      model.useCalendar("Work").createEvent(TestEvents.event("Demo", base.plusDays(1),
+              base.plusDays(1).plusHours(1)));
+    }
+
+    try (JournaledCalendarModel replayed = open()) {
+      CalendarModelGUISupport work = replayed.useCalendar("Work");
+      assertEquals(2, work.allEvents().size());
+      replayed.checkpoint();
+    }
+    try (JournaledCalendarModel replayed = open()) {
+      assertEquals(2, replayed.useCalendar("Work").allEvents().size());
+    }
+  }
+
+  @Test
+  public void testRejectsLogOfAnotherSnapshot() throws IOException {
+    try (JournaledCalendarModel model = open()) {
+      model.createCalendar("Work", "UTC");
+      model.checkpoint();
+    }
+    Files.delete(snapshot);
+    try {
+      open();
+      fail("Expected the log to be rejected");
+    } catch (IOException e) {
+      assertEquals("Log was written after a newer snapshot", e.getMessage());
+    }
+  }
+}
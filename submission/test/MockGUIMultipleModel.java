@@ -1,5 +1,6 @@
 
 
+import model.CalendarModel;
 import model.CalendarModelGUISupport;
 import model.MultipleCalendarModelAllNames;
 import model.PropertyType;
@@ -38,6 +39,12 @@ public class MockGUIMultipleModel implements MultipleCalendarModelAllNames {
     return names;
   }
 
+  @Override
+  public CalendarModelGUISupport getCalendar(String name) {
+    log.append("getCalendar called with name: ").append(name).append("\n");
+    return calendars.get(name);
+  }
+
   @Override
   public void createCalendar(String name, String timezone) {
     ZoneId zoneId = ZoneId.of(timezone);
@@ -101,6 +108,20 @@ public class MockGUIMultipleModel implements MultipleCalendarModelAllNames {
 
   }
 
+  @Override
+  public void copyEvent(CalendarModel source, String eventName, LocalDateTime eventDateTime,
+                        String targetCalendar, LocalDateTime targetDateTime) {
+    log.append("copyEvent called with a source calendar\n");
+    copyEvent(eventName, eventDateTime, targetCalendar, targetDateTime);
+  }
+
+  @Override
+  public void copyEvents(CalendarModel source, LocalDate startDate, LocalDate endDate,
+                         String targetCalendar, LocalDate targetStartDate) {
+    log.append("copyEvents called with a source calendar\n");
+    copyEvents(startDate, endDate, targetCalendar, targetStartDate);
+  }
+
   public String getLog() {
     return log.toString();
   }
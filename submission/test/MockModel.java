@@ -143,11 +143,26 @@ class MockModel implements CalendarModelGUISupport {
     return new ArrayList<>(Collections.singletonList(event));
   }
 
+  @Override
+  public List<Event> getNextEvents(LocalDateTime from, int count) {
+    Event event = new CalendarEvent.EventBuilder()
+            .setSubject("Test Event")
+            .setStartTime(LocalDateTime.now())
+            .setEndTime(LocalDateTime.now())
+            .build();
+    return new ArrayList<>(Collections.singletonList(event));
+  }
+
   @Override
   public List<String> allEvents() {
     return List.of();
   }
 
+  @Override
+  public List<String> allEvents(String prefix) {
+    return List.of();
+  }
+
   @Override
   public Event findEvent(String eventName) {
     Event event = new CalendarEvent.EventBuilder()
@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 
+import model.CalendarModel;
 import model.CalendarModelAllHelpers;
 import model.CalendarModelGUISupport;
 import model.MultipleCalendarModel;
@@ -120,5 +121,15 @@ public class MockMultipleModel implements MultipleCalendarModel {
     string.append("copy events called \n");
   }
 
+  @Override
+  public void copyEvent(CalendarModel source, String eventName, LocalDateTime eventDateTime,
+                        String targetCalendar, LocalDateTime targetDateTime) {
+    string.append("copy event from source called \n");
+  }
 
+  @Override
+  public void copyEvents(CalendarModel source, LocalDate startDate, LocalDate endDate,
+                         String targetCalendar, LocalDate targetStartDate) {
+    string.append("copy events from source called \n");
+  }
 }
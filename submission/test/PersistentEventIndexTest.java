@@ -0,0 +1,143 @@
+import model.Event;
+import model.EventIndex;
+import model.IntervalTreeEventIndex;
+import model.PersistentEventIndex;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Class for persistent event index tests.
+ */
+public class PersistentEventIndexTest {
+  private PersistentEventIndex index;
+  private LocalDateTime base;
+
+  @Before
+  public void setUp() {
+    index = new PersistentEventIndex();
+    base = LocalDateTime.of(2025, 6, 2, 10, 0);
+  }
+
+  private List<Event> all(EventIndex events) {
+    List<Event> result = new ArrayList<>();
+    events.iteratorFrom(LocalDateTime.MIN).forEachRemaining(result::add);
+    return result;
+  }
+
+  @Test
+  public void testSnapshotIsNotChangedByLaterEdits() {
+    Event first = TestEvents.event("first", base, base.plusHours(1));
+    Event second = TestEvents.event("second", base.plusDays(1), base.plusDays(1).plusHours(1));
+    index.add(first);
+    index.add(second);
+    PersistentEventIndex snapshot = index.snapshot();
+    Iterator<Event> cursor = index.iteratorFrom(base);
+
+    assertTrue(index.remove(first));
+    index.add(TestEvents.event("third", base.minusDays(1), base.plusDays(3)));
+    index.add(TestEvents.event("second", base.plusDays(1), base.plusDays(1).plusHours(1)));
+
+    assertEquals(2, snapshot.size());
+    assertEquals(List.of(first, second), all(snapshot));
+    assertEquals(1, snapshot.getEventsOverlapping(base, base).size());
+    assertEquals(first, cursor.next());
+    assertEquals(second, cursor.next());
+    assertFalse(cursor.hasNext());
+    assertEquals(3, index.size());
+    assertEquals(3, index.getEventsOverlapping(base.plusDays(1), base.plusDays(1)).size());
+  }
+
+  @Test
+  public void testChangingSnapshotLeavesIndexAlone() {
+    Event kept = TestEvents.event("kept", base, base.plusHours(1));
+    index.add(kept);
+    PersistentEventIndex snapshot = index.snapshot();
+
+    assertTrue(snapshot.remove(kept));
+    snapshot.add(TestEvents.event("other", base, base.plusHours(2)));
+
+    assertEquals(List.of(kept), all(index));
+    assertEquals(1, snapshot.size());
+    assertEquals("other", all(snapshot).get(0).getSubject());
+  }
+
+  @Test
+  public void testMatchesIntervalTreeAfterRandomEdits() {
+    Random random = new Random(42);
+    EventIndex tree = new IntervalTreeEventIndex();
+    List<Event> expected = new ArrayList<>();
+    List<PersistentEventIndex> snapshots = new ArrayList<>();
+    List<List<Event>> contents = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      LocalDateTime start = base.plusMinutes(15 * random.nextInt(4 * 24 * 60));
+      Event e = TestEvents.event("e" + random.nextInt(20), start,
+              start.plusMinutes(15 * random.nextInt(4 * 24 * 3)));
+      index.add(e);
+      tree.add(e);
+      expected.add(e);
+      if (random.nextInt(4) == 0) {
+        Event removed = expected.remove(random.nextInt(expected.size()));
+        assertTrue(index.remove(removed));
+        assertTrue(tree.remove(removed));
+      }
+      if (i % 250 == 0) {
+        snapshots.add(index.snapshot());
+        contents.add(all(tree));
+      }
+    }
+
+    for (int q = 0; q < 100; q++) {
+      LocalDateTime from = base.plusMinutes(random.nextInt(60 * 24 * 60));
+      LocalDateTime to = from.plusMinutes(random.nextInt(60 * 24 * 7));
+      assertEquals(tree.getEventsOverlapping(from, to), index.getEventsOverlapping(from, to));
+      assertEquals(tree.getEventsWithin(from, to), index.getEventsWithin(from, to));
+    }
+    assertEquals(expected.size(), index.size());
+    assertEquals(all(tree), all(index));
+    for (int i = 0; i < snapshots.size(); i++) {
+      assertEquals(contents.get(i), all(snapshots.get(i)));
+    }
+  }
+
+  @Test
+  public void testAddAllMatchesAddingOneByOne() {
+    Random random = new Random(7);
+    EventIndex oneByOne = new IntervalTreeEventIndex();
+    for (int batch = 0; batch < 4; batch++) {
+      List<Event> events = new ArrayList<>();
+      for (int i = 0; i < 300; i++) {
+        LocalDateTime start = base.plusMinutes(15 * random.nextInt(500));
+        Event e = TestEvents.event("e" + random.nextInt(5), start,
+                start.plusMinutes(15 * random.nextInt(8)));
+        events.add(e);
+        oneByOne.add(e);
+      }
+      PersistentEventIndex before = index.snapshot();
+      int size = before.size();
+      index.addAll(events);
+      assertEquals(size, before.size());
+      assertEquals(size, all(before).size());
+    }
+
+    assertEquals(oneByOne.size(), index.size());
+    assertEquals(all(oneByOne), all(index));
+    for (int q = 0; q < 50; q++) {
+      LocalDateTime from = base.plusMinutes(15 * random.nextInt(500));
+      LocalDateTime to = from.plusMinutes(random.nextInt(60 * 24));
+      assertEquals(oneByOne.getEventsOverlapping(from, to),
+              index.getEventsOverlapping(from, to));
+      assertEquals(oneByOne.getEventsWithin(from, to), index.getEventsWithin(from, to));
+    }
+  }
+}
@@ -0,0 +1,94 @@
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import controller.CalendarControllerImpl;
+import controller.StreamingCalendarController;
+import model.MultipleCalendarModelImpl;
+import view.CalendarViewImpl;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Class for streaming headless controller tests.
+ */
+public class StreamingCalendarControllerTest {
+
+  private ReadableByteChannel channel(String script) {
+    return Channels.newChannel(new ByteArrayInputStream(
+            script.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private String runStreaming(String script) {
+    StringBuilder out = new StringBuilder();
+    new StreamingCalendarController(channel(script), new CalendarViewImpl(out),
+            new MultipleCalendarModelImpl()).run();
+    return out.toString();
+  }
+
+  private String runScanning(String script) {
+    StringBuilder out = new StringBuilder();
+    new CalendarControllerImpl(new java.io.StringReader(script), new CalendarViewImpl(out),
+            new MultipleCalendarModelImpl()).run();
+    return out.toString();
+  }
+
+  @Test
+  public void testMatchesLineByLineController() {
+    String script = "create event Early from 2025-06-02T09:00 to 2025-06-02T10:00\n"
+            + "create calendar --name Work --timezone America/New_York\n"
+            + "create calendar --name Home --timezone Europe/London\n"
+            + "use calendar --name Nowhere\n"
+            + "use calendar --name Work\n"
+            + "create event Call from 2025-06-02T09:00 to 2025-06-02T10:00\n"
+            + "create event Call from 2025-06-02T09:00 to 2025-06-02T10:00\n"
+            + "create event Lunch on 2025-06-03\n"
+            + "create event Broken from 2025-06-0209:00 to 2025-06-02T10:00\n"
+            + "create event Gym from 2025-06-02T18:00 to 2025-06-02T19:00 repeats MW for 3 times\n"
+            + "create event Gym from 2025-06-04T18:00 to 2025-06-04T19:00\n"
+            + "print events on 2025-06-02\n"
+            + "print events from 2025-06-01T00:00 to 2025-06-10T00:00\n"
+            + "show status on 2025-06-02T09:30\n"
+            + "edit event subject Call from 2025-06-02T09:00 to 2025-06-02T10:00 with Sync\n"
+            + "copy events between 2025-06-01 and 2025-06-05 --target Home to 2025-07-01\n"
+            + "use calendar --name Home\n"
+            + "print events on 2025-07-02\n"
+            + "nonsense here\n"
+            + "x\n"
+            + "exit\n"
+            + "create event Ignored from 2025-06-02T09:00 to 2025-06-02T10:00\n";
+
+    assertEquals(runScanning(script), runStreaming(script));
+    assertEquals(runScanning(script), runStreaming(script.replace("\n", "\r\n")));
+  }
+
+  @Test
+  public void testLongScriptsAreBatchedInOrder() {
+    StringBuilder script = new StringBuilder("create calendar --name Work --timezone UTC\n"
+            + "use calendar --name Work\n");
+    Random random = new Random(3);
+    LocalDateTime base = LocalDateTime.of(2025, 1, 6, 8, 0);
+    for (int i = 0; i < 5000; i++) {
+      LocalDateTime start = base.plusMinutes(30L * random.nextInt(2000));
+      script.append("create event E").append(random.nextInt(3)).append(" from ")
+              .append(start).append(" to ").append(start.plusMinutes(30)).append('\n');
+      if (i % 700 == 0) {
+        script.append("print events on ").append(start.toLocalDate()).append('\n');
+      }
+    }
+    script.append("quit");
+
+    assertEquals(runScanning(script.toString()), runStreaming(script.toString()));
+  }
+
+  @Test
+  public void testReportsMissingExit() {
+    String output = runStreaming("create calendar --name Work --timezone UTC");
+    assertEquals("Command executed successfully\nError: Did not exit or quit\n", output);
+  }
+}
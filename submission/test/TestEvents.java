@@ -0,0 +1,28 @@
+import java.time.LocalDateTime;
+
+import model.CalendarEvent;
+import model.Event;
+
+/**
+ * Builds the plain events the tests create, with only a subject and times.
+ */
+final class TestEvents {
+  private TestEvents() {
+  }
+
+  /**
+   * Builds an event with only a subject, a start and an end.
+   *
+   * @param subject the subject of the event
+   * @param start   the start of the event
+   * @param end     the end of the event
+   * @return the event
+   */
+  static Event event(String subject, LocalDateTime start, LocalDateTime end) {
+    return new CalendarEvent.EventBuilder()
+            .setSubject(subject)
+            .setStartTime(start)
+            .setEndTime(end)
+            .build();
+  }
+}
@@ -0,0 +1,147 @@
+import model.WriteAheadLog;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Class for write-ahead log tests.
+ */
+public class WriteAheadLogTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path file;
+
+  @Before
+  public void setUp() {
+    file = folder.getRoot().toPath().resolve("calendars.log");
+  }
+
+  private List<String> read(WriteAheadLog log) {
+    List<String> records = new ArrayList<>();
+    for (ByteBuffer record : log.recovered()) {
+      byte[] bytes = new byte[record.remaining()];
+      record.duplicate().get(bytes);
+      records.add(new String(bytes, StandardCharsets.UTF_8));
+    }
+    return records;
+  }
+
+  private void append(WriteAheadLog log, String... records) throws IOException {
+    for (String record : records) {
+      log.append(record.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  public void testRecordsAreReadBackInOrder() throws IOException {
+    for (WriteAheadLog.SyncPolicy policy : WriteAheadLog.SyncPolicy.values()) {
+      Files.deleteIfExists(file);
+      try (WriteAheadLog log = WriteAheadLog.open(file, policy, 10)) {
+        append(log, "first", "", "third");
+      }
+      try (WriteAheadLog log = WriteAheadLog.open(file, policy, 10)) {
+        assertEquals(policy.toString(), Arrays.asList("first", "", "third"), read(log));
+      }
+    }
+  }
+
+  @Test
+  public void testTornRecordIsCutOff() throws IOException {
+    try (WriteAheadLog log = WriteAheadLog.open(file, WriteAheadLog.SyncPolicy.ALWAYS, 0)) {
+      append(log, "create", "edit", "copy");
+    }
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 2));
+
+    try (WriteAheadLog log = WriteAheadLog.open(file, WriteAheadLog.SyncPolicy.ALWAYS, 0)) {
+      assertEquals(Arrays.asList("create", "edit"), read(log));
+      append(log, "rename");
+    }
+    try (WriteAheadLog log = WriteAheadLog.open(file, WriteAheadLog.SyncPolicy.ALWAYS, 0)) {
+      assertEquals(Arrays.asList("create", "edit", "rename"), read(log));
+    }
+  }
+
+  @Test
+  public void testConcurrentAppendsAreAllKept() throws Exception {
+    int threads = 8;
+    int perThread = 200;
+    try (WriteAheadLog log = WriteAheadLog.open(file, WriteAheadLog.SyncPolicy.ALWAYS, 0)) {
+      List<Thread> writers = new ArrayList<>();
+      List<Throwable> errors = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        String prefix = "w" + t + ":";
+        Thread writer = new Thread(() -> {
+          try {
+            for (int i = 0; i < perThread; i++) {
+              append(log, prefix + i);
+            }
+          } catch (IOException e) {
+            synchronized (errors) {
+              errors.add(e);
+            }
+          }
+        });
+        writers.add(writer);
+        writer.start();
+      }
+      for (Thread writer : writers) {
+        writer.join();
+      }
+      assertEquals(new ArrayList<Throwable>(), errors);
+    }
+
+    try (WriteAheadLog log = WriteAheadLog.open(file, WriteAheadLog.SyncPolicy.ALWAYS, 0)) {
+      List<String> records = read(log);
+      assertEquals(threads * perThread, records.size());
+      Map<String, Integer> next = new HashMap<>();
+      for (String record : records) {
+        String[] parts = record.split(":");
+        int expected = next.getOrDefault(parts[0], 0);
+        assertEquals(record, expected, Integer.parseInt(parts[1]));
+        next.put(parts[0], expected + 1);
+      }
+    }
+  }
+
+  @Test
+  public void testResetDropsRecordsAndKeepsGeneration() throws IOException {
+    try (WriteAheadLog log = WriteAheadLog.open(file, WriteAheadLog.SyncPolicy.NEVER, 0)) {
+      append(log, "before");
+      log.reset(3);
+      append(log, "after");
+    }
+    try (WriteAheadLog log = WriteAheadLog.open(file, WriteAheadLog.SyncPolicy.NEVER, 0)) {
+      assertEquals(3, log.getGeneration());
+      assertEquals(Arrays.asList("after"), read(log));
+    }
+  }
+
+  @Test
+  public void testRejectsFilesThatAreNotLogs() throws IOException {
+    Files.write(file, "create calendar --name Work --timezone UTC".getBytes());
+    try {
+      WriteAheadLog.open(file, WriteAheadLog.SyncPolicy.ALWAYS, 0);
+      fail("Expected the file to be rejected");
+    } catch (IOException e) {
+      assertEquals("Not a calendar log", e.getMessage());
+    }
+  }
+}